@@ -34,7 +34,7 @@ public class ActivitiesController {
      */
     @GetMapping
     public List<Activity> getAllActivities() {
-        return activityService.getActivityFromJson();
+        return activityService.getAllActivities();
     }
 
     /**
@@ -78,4 +78,20 @@ public class ActivitiesController {
     public void deleteActivity(@PathVariable int id) {
         activityService.deleteActivity(id);
     }
+
+    /**
+     * Recarrega as atividades a partir do arquivo JSON.
+     */
+    @PostMapping("/reload")
+    public void reloadActivities() {
+        activityService.reload();
+    }
+
+    /**
+     * Exporta as atividades para JSON, independentemente do formato de gravação configurado.
+     */
+    @PostMapping("/export")
+    public void exportActivities() {
+        activityService.exportToJson();
+    }
 }
@@ -1,7 +1,9 @@
 package com.example.HavenBook.controllers;
 
 import com.example.HavenBook.domain.Author;
+import com.example.HavenBook.domain.FuzzyMatch;
 import com.example.HavenBook.services.AuthorService;
+import com.example.HavenBook.services.FuzzySearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,15 +18,18 @@ import java.util.List;
 public class AuthorController {
 
     private final AuthorService authorService;
+    private final FuzzySearchService fuzzySearchService;
 
     /**
-     * Construtor para inicializar o controlador com o serviço de autores.
+     * Construtor para inicializar o controlador com os serviços de autores e de busca aproximada.
      *
-     * @param authorService O serviço de autores a ser usado pelo controlador.
+     * @param authorService      O serviço de autores a ser usado pelo controlador.
+     * @param fuzzySearchService O serviço de busca tolerante a erros de digitação.
      */
     @Autowired
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, FuzzySearchService fuzzySearchService) {
         this.authorService = authorService;
+        this.fuzzySearchService = fuzzySearchService;
     }
 
     /**
@@ -34,7 +39,23 @@ public class AuthorController {
      */
     @GetMapping
     public List<Author> getAllAuthors() {
-        return authorService.getAuthorsFromJson();
+        return authorService.getAllAuthors();
+    }
+
+    /**
+     * Busca os autores pelo nome, tolerando erros de digitação.
+     *
+     * @param q           O nome digitado.
+     * @param maxDistance A distância de edição máxima, até 2 (padrão 2).
+     * @param limit       O número máximo de autores retornados (padrão 10).
+     * @return Os autores encontrados, pela distância e, na mesma distância, do mais para o menos vendido.
+     */
+    @GetMapping("/fuzzy")
+    public List<FuzzyMatch<Author>> findSimilarAuthors(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "2") int maxDistance,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        RequestParams.requireNonNegative("limit", limit);
+        return fuzzySearchService.findAuthors(q, maxDistance, limit);
     }
 
     /**
@@ -78,4 +99,12 @@ public class AuthorController {
     public void deleteAuthor(@PathVariable int id) {
         authorService.deleteAuthor(id);
     }
+
+    /**
+     * Recarrega os autores a partir do arquivo JSON.
+     */
+    @PostMapping("/reload")
+    public void reloadAuthors() {
+        authorService.reload();
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.HavenBook.controllers;
+
+import com.example.HavenBook.domain.Suggestion;
+import com.example.HavenBook.services.AutocompleteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador para o autocompletar da busca.
+ * Esta classe fornece um endpoint que sugere títulos, autores e gêneros a cada tecla digitada.
+ */
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompleteController {
+
+    private final AutocompleteService autocompleteService;
+
+    /**
+     * Construtor para inicializar o controlador com o serviço de autocompletar.
+     *
+     * @param autocompleteService O serviço de autocompletar a ser usado pelo controlador.
+     */
+    @Autowired
+    public AutocompleteController(AutocompleteService autocompleteService) {
+        this.autocompleteService = autocompleteService;
+    }
+
+    /**
+     * Obtém as sugestões mais vendidas com uma palavra iniciada pelo prefixo, sem diferenciar acentos nem
+     * maiúsculas.
+     *
+     * @param prefix O prefixo digitado.
+     * @param type   O tipo das sugestões: {@code title}, {@code author} ou {@code genre} (opcional; sem tipo,
+     *               sugere todos).
+     * @param limit  O número máximo de sugestões (padrão 10).
+     * @return As sugestões, das mais para as menos vendidas.
+     */
+    @GetMapping
+    public List<Suggestion> complete(@RequestParam String prefix,
+                                     @RequestParam(required = false) String type,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        RequestParams.requireNonNegative("limit", limit);
+        return autocompleteService.complete(prefix, type == null ? null : Suggestion.Type.fromParameter(type), limit);
+    }
+}
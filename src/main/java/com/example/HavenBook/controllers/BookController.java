@@ -1,7 +1,11 @@
 package com.example.HavenBook.controllers;
 
 import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.BookQuery;
+import com.example.HavenBook.domain.FuzzyMatch;
+import com.example.HavenBook.domain.GenreFacet;
 import com.example.HavenBook.services.BookService;
+import com.example.HavenBook.services.FuzzySearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,25 +20,77 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final FuzzySearchService fuzzySearchService;
 
     /**
-     * Construtor para inicializar o controlador com o serviço de livros.
+     * Construtor para inicializar o controlador com os serviços de livros e de busca aproximada.
      *
-     * @param bookService O serviço de livros a ser usado pelo controlador.
+     * @param bookService        O serviço de livros a ser usado pelo controlador.
+     * @param fuzzySearchService O serviço de busca tolerante a erros de digitação.
      */
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, FuzzySearchService fuzzySearchService) {
         this.bookService = bookService;
+        this.fuzzySearchService = fuzzySearchService;
     }
 
     /**
-     * Obtém todos os livros.
+     * Obtém os livros do catálogo, filtrados pelos critérios informados. Sem critérios, retorna todos os livros;
+     * com critérios, a consulta é respondida pelos índices secundários e pelo índice de gêneros do
+     * {@link BookService}.
+     * <p>
+     * Critérios aceitos, todos opcionais: {@code author} e {@code genre}, comparados exatamente; {@code minValue},
+     * {@code maxValue}, {@code minPages} e {@code maxPages}, inclusive; {@code publishedFrom} e
+     * {@code publishedTo}, no formato {@code yyyy-MM-dd}, inclusive; {@code genres}, gêneros exigidos;
+     * {@code anyGenres}, gêneros dos quais ao menos um é exigido; e {@code excludedGenres}, gêneros excluídos.
      *
+     * @param query Os critérios da consulta.
      * @return Uma lista de livros.
      */
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.getBooksFromJson();
+    public List<Book> getAllBooks(BookQuery query) {
+        return bookService.findBooks(query.toFilter());
+    }
+
+    /**
+     * Conta os livros de cada gênero entre os que atendem aos critérios informados, com os mesmos critérios de
+     * {@link #getAllBooks(BookQuery)}.
+     *
+     * @param query Os critérios da consulta.
+     * @return As contagens dos gêneros com ao menos um livro, da maior para a menor.
+     */
+    @GetMapping("/facets")
+    public List<GenreFacet> getGenreFacets(BookQuery query) {
+        return bookService.getGenreFacets(query.toFilter());
+    }
+
+    /**
+     * Busca os livros pelo título e pela descrição, sem diferenciar acentos nem maiúsculas.
+     *
+     * @param q     Os termos da busca.
+     * @param limit O número máximo de livros retornados (padrão 20).
+     * @return Os livros encontrados, do mais para o menos relevante.
+     */
+    @GetMapping("/search")
+    public List<Book> searchBooks(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        RequestParams.requireNonNegative("limit", limit);
+        return bookService.searchBooks(q, limit);
+    }
+
+    /**
+     * Busca os livros pelo título, tolerando erros de digitação, como "Dom Casmuro".
+     *
+     * @param q           O título digitado.
+     * @param maxDistance A distância de edição máxima, até 2 (padrão 2).
+     * @param limit       O número máximo de livros retornados (padrão 10).
+     * @return Os livros encontrados, pela distância e, na mesma distância, do mais para o menos vendido.
+     */
+    @GetMapping("/fuzzy")
+    public List<FuzzyMatch<Book>> findSimilarBooks(@RequestParam String q,
+                                                   @RequestParam(defaultValue = "2") int maxDistance,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        RequestParams.requireNonNegative("limit", limit);
+        return fuzzySearchService.findBooks(q, maxDistance, limit);
     }
 
     /**
@@ -78,4 +134,20 @@ public class BookController {
     public void deleteBook(@PathVariable int id) {
         bookService.deleteBook(id);
     }
+
+    /**
+     * Recarrega os livros a partir do arquivo JSON.
+     */
+    @PostMapping("/reload")
+    public void reloadBooks() {
+        bookService.reload();
+    }
+
+    /**
+     * Exporta os livros para JSON, independentemente do formato de gravação configurado.
+     */
+    @PostMapping("/export")
+    public void exportBooks() {
+        bookService.exportToJson();
+    }
 }
@@ -34,7 +34,7 @@ public class GenreController {
      */
     @GetMapping
     public List<Genre> getAllGenres() {
-        return genreService.getGenresFromJson();
+        return genreService.getAllGenres();
     }
 
     /**
@@ -78,4 +78,12 @@ public class GenreController {
     public void deleteGenre(@PathVariable int id) {
         genreService.deleteGenre(id);
     }
+
+    /**
+     * Recarrega os gêneros a partir do arquivo JSON.
+     */
+    @PostMapping("/reload")
+    public void reloadGenres() {
+        genreService.reload();
+    }
 }
@@ -0,0 +1,64 @@
+package com.example.HavenBook.controllers;
+
+import com.example.HavenBook.domain.LogStatus;
+import com.example.HavenBook.domain.PersistenceStatus;
+import com.example.HavenBook.persistence.AtomicFileWriter;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.services.LogSnapshotter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador para a persistência em arquivos.
+ * Esta classe fornece um endpoint para acompanhar as gravações e ajustar o equilíbrio entre vazão e durabilidade.
+ */
+@RestController
+@RequestMapping("/api/persistence")
+public class PersistenceController {
+
+    private final PersistenceScheduler persistenceScheduler;
+    private final AtomicFileWriter fileWriter;
+    private final LogSnapshotter logSnapshotter;
+
+    /**
+     * Construtor para inicializar o controlador com os componentes de persistência.
+     *
+     * @param persistenceScheduler O agendador de gravações, que informa o modo de durabilidade.
+     * @param fileWriter           O gravador de arquivos, que informa a política de sincronização e as métricas.
+     * @param logSnapshotter       O gravador de snapshots, que informa o estado dos logs de alterações.
+     */
+    @Autowired
+    public PersistenceController(PersistenceScheduler persistenceScheduler, AtomicFileWriter fileWriter,
+                                 LogSnapshotter logSnapshotter) {
+        this.persistenceScheduler = persistenceScheduler;
+        this.fileWriter = fileWriter;
+        this.logSnapshotter = logSnapshotter;
+    }
+
+    /**
+     * Obtém o modo de durabilidade, a política de sincronização e a duração e o tamanho das gravações de cada
+     * arquivo desde o início da aplicação.
+     *
+     * @return O estado da persistência.
+     */
+    @GetMapping
+    public PersistenceStatus getStatus() {
+        return new PersistenceStatus(persistenceScheduler.getMode().name(), fileWriter.getPolicy().name(),
+                fileWriter.getIntervalMs(), fileWriter.getTotals(), fileWriter.getMetrics());
+    }
+
+    /**
+     * Obtém o estado dos logs de alterações: a data e a duração do último snapshot, o número de registros e o
+     * tamanho de cada log e o tempo estimado para lê-lo na inicialização.
+     *
+     * @return A lista com o estado de cada log.
+     */
+    @GetMapping("/logs")
+    public List<LogStatus> getLogStatuses() {
+        return logSnapshotter.getStatuses();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.HavenBook.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Validação dos parâmetros de paginação recebidos pelos controladores, para que valores inválidos sejam
+ * respondidos com o status 400 em vez de chegarem aos serviços.
+ */
+final class RequestParams {
+
+    private RequestParams() {
+    }
+
+    /**
+     * Verifica se o parâmetro, quando informado, não é negativo.
+     *
+     * @param name  O nome do parâmetro.
+     * @param value O valor do parâmetro, ou {@code null} se não foi informado.
+     * @throws ResponseStatusException Com o status 400, se o valor for negativo.
+     */
+    static void requireNonNegative(String name, Integer value) {
+        if (value != null && value < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "O parâmetro " + name + " não pode ser negativo: " + value);
+        }
+    }
+}
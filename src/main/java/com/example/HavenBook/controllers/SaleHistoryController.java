@@ -1,11 +1,17 @@
 package com.example.HavenBook.controllers;
 
 import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SalePartitionInfo;
+import com.example.HavenBook.exceptions.InvalidDateException;
+import com.example.HavenBook.persistence.LoadProgress;
 import com.example.HavenBook.services.SaleHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para gerenciar históricos de vendas.
@@ -15,6 +21,8 @@ import java.util.List;
 @RequestMapping("/api/salehistory")
 public class SaleHistoryController {
 
+    private static final String EXPAND_BOOKS = "books";
+
     private final SaleHistoryService saleHistoryService;
 
     /**
@@ -30,32 +38,48 @@ public class SaleHistoryController {
     /**
      * Obtém todos os históricos de vendas.
      *
+     * @param expand Use {@code books} para incluir os livros completos de cada venda (opcional).
      * @return Uma lista de históricos de vendas.
      */
     @GetMapping
-    public List<SaleHistory> getAllSaleHistories() {
-        return saleHistoryService.getSaleHistoriesFromJson();
+    public List<SaleHistory> getAllSaleHistories(@RequestParam(required = false) String expand) {
+        List<SaleHistory> saleHistories = saleHistoryService.getAllSaleHistories();
+        if (!EXPAND_BOOKS.equals(expand)) {
+            return saleHistories;
+        }
+        return saleHistories.stream().map(saleHistoryService::expandBooks).collect(Collectors.toList());
     }
 
     /**
      * Obtém um histórico de vendas pelo ID.
      *
-     * @param id O ID do histórico de vendas a ser recuperado.
+     * @param id     O ID do histórico de vendas a ser recuperado.
+     * @param expand Use {@code books} para incluir os livros completos da venda (opcional).
      * @return O histórico de vendas correspondente ao ID fornecido.
      */
     @GetMapping("/{id}")
-    public SaleHistory getSaleHistoryById(@PathVariable int id) {
-        return saleHistoryService.getSaleHistoryById(id);
+    public SaleHistory getSaleHistoryById(@PathVariable int id, @RequestParam(required = false) String expand) {
+        SaleHistory saleHistory = saleHistoryService.getSaleHistoryById(id);
+        if (saleHistory == null || !EXPAND_BOOKS.equals(expand)) {
+            return saleHistory;
+        }
+        return saleHistoryService.expandBooks(saleHistory);
     }
 
     /**
      * Adiciona um novo histórico de vendas.
      *
      * @param newSaleHistory O histórico de vendas a ser adicionado.
+     * @throws ResponseStatusException Com o status 400, se a data for inválida ou se algum item tiver quantidade
+     *                                 inválida ou não tiver preço.
      */
     @PostMapping
     public void addSaleHistory(@RequestBody SaleHistory newSaleHistory) {
-        saleHistoryService.addSaleHistory(newSaleHistory);
+        try {
+            saleHistoryService.addSaleHistory(newSaleHistory);
+        } catch (IllegalArgumentException | InvalidDateException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     /**
@@ -63,10 +87,16 @@ public class SaleHistoryController {
      *
      * @param id               O ID do histórico de vendas a ser atualizado.
      * @param updatedSaleHistory O histórico de vendas com as novas informações.
+     * @throws ResponseStatusException Com o status 400, se a data for inválida ou se algum item tiver quantidade
+     *                                 inválida ou não tiver preço.
      */
     @PutMapping("/{id}")
     public void updateSaleHistory(@PathVariable int id, @RequestBody SaleHistory updatedSaleHistory) {
-        saleHistoryService.updateSaleHistory(id, updatedSaleHistory);
+        try {
+            saleHistoryService.updateSaleHistory(id, updatedSaleHistory);
+        } catch (IllegalArgumentException | InvalidDateException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     /**
@@ -78,4 +108,40 @@ public class SaleHistoryController {
     public void deleteSaleHistory(@PathVariable int id) {
         saleHistoryService.deleteSaleHistory(id);
     }
+
+    /**
+     * Recarrega os registros de histórico de vendas a partir do arquivo JSON.
+     */
+    @PostMapping("/reload")
+    public void reloadSaleHistories() {
+        saleHistoryService.reload();
+    }
+
+    /**
+     * Exporta os registros de histórico de vendas para JSON, independentemente do formato de gravação configurado.
+     */
+    @PostMapping("/export")
+    public void exportSaleHistories() {
+        saleHistoryService.exportToJson();
+    }
+
+    /**
+     * Obtém o manifesto das partições mensais do histórico de vendas, com os totais de cada mês.
+     *
+     * @return A lista de partições, em ordem de mês.
+     */
+    @GetMapping("/partitions")
+    public List<SalePartitionInfo> getPartitions() {
+        return saleHistoryService.getPartitions();
+    }
+
+    /**
+     * Obtém o progresso da leitura mais recente do arquivo JSON, para acompanhar uma recarga em andamento.
+     *
+     * @return O progresso da leitura.
+     */
+    @GetMapping("/load-progress")
+    public LoadProgress getLoadProgress() {
+        return saleHistoryService.getLoadProgress();
+    }
 }
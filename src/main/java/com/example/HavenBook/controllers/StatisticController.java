@@ -2,6 +2,8 @@ package com.example.HavenBook.controllers;
 
 import com.example.HavenBook.domain.AuthorSales;
 import com.example.HavenBook.domain.BestSellingBook;
+import com.example.HavenBook.domain.GenreSales;
+import com.example.HavenBook.domain.StatisticsSummary;
 import com.example.HavenBook.services.StatisticService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,6 +16,7 @@ import java.util.List;
 /**
  * Controlador para estatísticas.
  * Esta classe fornece endpoints para obter diversas estatísticas relacionadas às vendas e aos livros.
+ * Limites e deslocamentos negativos são rejeitados com o status 400.
  */
 @RestController
 @RequestMapping("/api/statistics")
@@ -32,13 +35,29 @@ public class StatisticController {
     }
 
     /**
-     * Obtém as estatísticas de vendas por autor.
+     * Obtém as estatísticas de vendas por autor, do autor com mais vendas para o com menos vendas.
      *
+     * @param limit  O número máximo de autores retornados (opcional; sem limite, retorna todos).
+     * @param offset O número de autores a serem ignorados no início da lista.
      * @return Uma lista de estatísticas de vendas por autor.
      */
     @GetMapping("/author-sales")
-    public List<AuthorSales> getAuthorSalesStatistics() {
-        return statisticService.getAuthorSalesStatistics();
+    public List<AuthorSales> getAuthorSalesStatistics(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        RequestParams.requireNonNegative("limit", limit);
+        RequestParams.requireNonNegative("offset", offset);
+        return statisticService.getAuthorSalesStatistics(offset, limit);
+    }
+
+    /**
+     * Obtém as estatísticas de vendas por gênero, do gênero com mais exemplares vendidos para o com menos.
+     *
+     * @return Uma lista de estatísticas de vendas por gênero.
+     */
+    @GetMapping("/genre-sales")
+    public List<GenreSales> getGenreSalesStatistics() {
+        return statisticService.getGenreSalesStatistics();
     }
 
     /**
@@ -64,11 +83,17 @@ public class StatisticController {
     /**
      * Obtém os livros mais vendidos.
      *
+     * @param limit  O número máximo de livros retornados (opcional; sem limite, retorna todos).
+     * @param offset O número de livros a serem ignorados no início da lista.
      * @return Uma lista de livros mais vendidos.
      */
     @GetMapping("/best-selling-books")
-    public List<BestSellingBook> getBestSellingBooks() {
-        return statisticService.getBestSellingBooks();
+    public List<BestSellingBook> getBestSellingBooks(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        RequestParams.requireNonNegative("limit", limit);
+        RequestParams.requireNonNegative("offset", offset);
+        return statisticService.getBestSellingBooks(offset, limit);
     }
 
     /**
@@ -86,13 +111,33 @@ public class StatisticController {
      *
      * @param startDate A data de início do intervalo.
      * @param endDate   A data de fim do intervalo.
+     * @param limit     O número máximo de autores retornados (opcional; sem limite, retorna todos).
+     * @param offset    O número de autores a serem ignorados no início da lista.
      * @return Uma lista de estatísticas de vendas por autor dentro do intervalo fornecido.
      */
     @GetMapping("/author-sales-by-date")
     public List<AuthorSales> getAuthorSalesStatisticsByDate(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        RequestParams.requireNonNegative("limit", limit);
+        RequestParams.requireNonNegative("offset", offset);
+        return statisticService.getAuthorSalesStatistics(startDate, endDate, offset, limit);
+    }
+
+    /**
+     * Obtém as estatísticas de vendas por gênero em um intervalo de datas.
+     *
+     * @param startDate A data de início do intervalo.
+     * @param endDate   A data de fim do intervalo.
+     * @return Uma lista de estatísticas de vendas por gênero dentro do intervalo fornecido.
+     */
+    @GetMapping("/genre-sales-by-date")
+    public List<GenreSales> getGenreSalesStatisticsByDate(
             @RequestParam String startDate,
             @RequestParam String endDate) {
-        return statisticService.getAuthorSalesStatistics(startDate, endDate);
+        return statisticService.getGenreSalesStatistics(startDate, endDate);
     }
 
     /**
@@ -128,13 +173,19 @@ public class StatisticController {
      *
      * @param startDate A data de início do intervalo.
      * @param endDate   A data de fim do intervalo.
+     * @param limit     O número máximo de livros retornados (opcional; sem limite, retorna todos).
+     * @param offset    O número de livros a serem ignorados no início da lista.
      * @return Uma lista de livros mais vendidos dentro do intervalo fornecido.
      */
     @GetMapping("/best-selling-books-by-date")
     public List<BestSellingBook> getBestSellingBooksByDate(
             @RequestParam String startDate,
-            @RequestParam String endDate) {
-        return statisticService.getBestSellingBooks(startDate, endDate);
+            @RequestParam String endDate,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        RequestParams.requireNonNegative("limit", limit);
+        RequestParams.requireNonNegative("offset", offset);
+        return statisticService.getBestSellingBooks(startDate, endDate, offset, limit);
     }
 
     /**
@@ -150,4 +201,19 @@ public class StatisticController {
             @RequestParam String endDate) {
         return statisticService.getNeverSoldBookCount(startDate, endDate);
     }
+
+    /**
+     * Obtém o resumo das estatísticas exibidas no painel, calculado em uma única passagem sobre o histórico.
+     * As datas são opcionais; quando informadas, restringem o resumo ao intervalo.
+     *
+     * @param startDate A data de início do intervalo (opcional).
+     * @param endDate   A data de fim do intervalo (opcional).
+     * @return O resumo das estatísticas, com o tempo gasto no cálculo.
+     */
+    @GetMapping("/summary")
+    public StatisticsSummary getSummary(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        return statisticService.getSummary(startDate, endDate);
+    }
 }
@@ -34,7 +34,7 @@ public class UserController {
      */
     @GetMapping
     public List<User> getAllUsers() {
-        return userService.getUsersFromJson();
+        return userService.getAllUsers();
     }
 
     /**
@@ -78,4 +78,20 @@ public class UserController {
     public void deleteUser(@PathVariable int id) {
         userService.deleteUser(id);
     }
+
+    /**
+     * Recarrega os usuários a partir do arquivo JSON.
+     */
+    @PostMapping("/reload")
+    public void reloadUsers() {
+        userService.reload();
+    }
+
+    /**
+     * Exporta os usuários para JSON, independentemente do formato de gravação configurado.
+     */
+    @PostMapping("/export")
+    public void exportUsers() {
+        userService.exportToJson();
+    }
 }
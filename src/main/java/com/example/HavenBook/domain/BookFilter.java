@@ -0,0 +1,78 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Representa os critérios de uma consulta ao catálogo de livros: autor, gêneros e intervalos de valor, de número
+ * de páginas e de data de publicação. Critérios nulos ou vazios não restringem a consulta, e os limites dos
+ * intervalos são incluídos.
+ * <p>
+ * Os livros devem ter o gênero {@code genre} e todos os {@code genres}, ao menos um dos {@code anyGenres} e
+ * nenhum dos {@code excludedGenres}.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFilter {
+    private String author;
+    private String genre;
+    private Double minValue;
+    private Double maxValue;
+    private Integer minPages;
+    private Integer maxPages;
+    private Date publishedFrom;
+    private Date publishedTo;
+    private List<String> genres;
+    private List<String> anyGenres;
+    private List<String> excludedGenres;
+
+    /**
+     * Verifica se nenhum critério foi informado.
+     *
+     * @return {@code true} se a consulta retorna todo o catálogo.
+     */
+    public boolean isEmpty() {
+        return !hasAttributeCriteria() && !hasGenreCriteria();
+    }
+
+    /**
+     * Verifica se algum critério de autor, valor, número de páginas ou data de publicação foi informado.
+     *
+     * @return {@code true} se a consulta é restrita por algum desses critérios.
+     */
+    public boolean hasAttributeCriteria() {
+        return author != null || minValue != null || maxValue != null || minPages != null || maxPages != null
+                || publishedFrom != null || publishedTo != null;
+    }
+
+    /**
+     * Verifica se algum critério de gênero foi informado.
+     *
+     * @return {@code true} se a consulta é restrita pelos gêneros.
+     */
+    public boolean hasGenreCriteria() {
+        return genre != null || !isNullOrEmpty(genres) || !isNullOrEmpty(anyGenres) || !isNullOrEmpty(excludedGenres);
+    }
+
+    /**
+     * Cria uma cópia do filtro sem o critério de autor, para consultar os demais critérios quando o autor é
+     * respondido por outro índice.
+     *
+     * @return A cópia do filtro.
+     */
+    public BookFilter withoutAuthor() {
+        return new BookFilter(null, genre, minValue, maxValue, minPages, maxPages, publishedFrom, publishedTo, genres,
+                anyGenres, excludedGenres);
+    }
+
+    private static boolean isNullOrEmpty(List<String> values) {
+        return values == null || values.isEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.HavenBook.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Representa os parâmetros de uma consulta ao catálogo recebidos pela API, com as datas de publicação no formato
+ * {@code yyyy-MM-dd} e as listas de gêneros separadas por vírgulas ou com o parâmetro repetido.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+public class BookQuery {
+    private String author;
+    private String genre;
+    private Double minValue;
+    private Double maxValue;
+    private Integer minPages;
+    private Integer maxPages;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedTo;
+    private List<String> genres;
+    private List<String> anyGenres;
+    private List<String> excludedGenres;
+
+    /**
+     * Converte os parâmetros nos critérios da consulta. As datas de publicação abrangem os dias inteiros em UTC,
+     * o fuso usado pelo Jackson nas datas de publicação.
+     *
+     * @return Os critérios da consulta.
+     */
+    public BookFilter toFilter() {
+        return new BookFilter(author, genre, minValue, maxValue, minPages, maxPages,
+                publishedFrom == null ? null : startOfDay(publishedFrom),
+                publishedTo == null ? null : new Date(startOfDay(publishedTo.plusDays(1)).getTime() - 1),
+                genres, anyGenres, excludedGenres);
+    }
+
+    private static Date startOfDay(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
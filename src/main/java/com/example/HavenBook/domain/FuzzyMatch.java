@@ -0,0 +1,22 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Representa um resultado da busca aproximada, com o item encontrado, a distância de edição entre a consulta e o
+ * item e o número de exemplares vendidos, usado para desempatar os resultados de mesma distância.
+ *
+ * @param <T> O tipo do item encontrado.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FuzzyMatch<T> {
+    private T item;
+    private int distance;
+    private long sales;
+}
@@ -0,0 +1,18 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Representa a contagem de uma faceta de gênero: o número de livros do gênero entre os resultados de uma consulta.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenreFacet {
+    private String genre;
+    private int count;
+}
@@ -0,0 +1,18 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Representa as estatísticas de vendas de um gênero: o número de exemplares vendidos dos livros do gênero.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenreSales {
+    private String genre;
+    private long quantity;
+}
@@ -0,0 +1,25 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Representa o estado do log de alterações de um serviço, com o número de registros e o tamanho do log, o tempo
+ * estimado para lê-lo na inicialização e a data, a duração e o número dos snapshots que o incorporaram.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogStatus {
+    private String name;
+    private String logFile;
+    private long logEntries;
+    private long logBytes;
+    private double estimatedReplayMs;
+    private String lastSnapshotTime;
+    private double lastSnapshotDurationMs;
+    private long snapshotCount;
+}
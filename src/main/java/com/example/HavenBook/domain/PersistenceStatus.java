@@ -0,0 +1,25 @@
+package com.example.HavenBook.domain;
+
+import com.example.HavenBook.persistence.WriteMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Representa o estado da persistência em arquivos, com o modo de durabilidade, a política de sincronização com o
+ * disco e as métricas das gravações, somadas e por arquivo.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersistenceStatus {
+    private String durabilityMode;
+    private String fsyncPolicy;
+    private long fsyncIntervalMs;
+    private WriteMetrics totals;
+    private List<WriteMetrics> files;
+}
@@ -1,16 +1,21 @@
 package com.example.HavenBook.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * Representa o histórico de vendas, contendo uma lista de livros vendidos, a data da venda e o valor total.
+ * Representa o histórico de vendas, contendo os itens vendidos, a data da venda e o valor total.
+ * <p>
+ * Cada item referencia o livro pelo ID. A lista de livros completos só é preenchida quando a venda é expandida
+ * para a API, ou quando é recebida no formato antigo, que o serviço converte em itens; ela não é gravada quando
+ * está vazia.
  */
 @Setter
 @Getter
@@ -19,6 +24,8 @@ public class SaleHistory {
     private int id;
     private String saleDate;
     private double totalValue;
+    private List<SaleLine> lines = new ArrayList<>();
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
     private List<Book> books = new ArrayList<>();
 
     /**
@@ -33,20 +40,74 @@ public class SaleHistory {
     }
 
     /**
-     * Adiciona um livro ao histórico de vendas.
+     * Adiciona um exemplar de um livro ao histórico de vendas, pelo ID e pelo valor atual do livro.
      *
      * @param book Livro a ser adicionado.
      */
     public void addBook(Book book) {
-        books.add(book);
+        addBook(book.getId(), book.getValue());
     }
 
     /**
-     * Remove um livro do histórico de vendas.
+     * Adiciona um exemplar de um livro ao histórico de vendas, pelo ID e pelo preço unitário fornecidos. O exemplar
+     * é somado ao item do mesmo livro com o mesmo preço, se houver.
+     *
+     * @param bookId    O ID do livro.
+     * @param unitPrice O preço unitário do exemplar.
+     */
+    public void addBook(int bookId, double unitPrice) {
+        addBook(bookId, unitPrice, null, null);
+    }
+
+    /**
+     * Adiciona um exemplar de um livro ao histórico de vendas, pelo ID, pelo preço unitário e pelo título e autor
+     * guardados no item, usados pelos livros fora do catálogo. O exemplar é somado ao item do mesmo livro com o
+     * mesmo preço, título e autor, se houver.
+     *
+     * @param bookId    O ID do livro, ou {@link SaleLine#UNKNOWN_BOOK_ID} para um livro fora do catálogo.
+     * @param unitPrice O preço unitário do exemplar.
+     * @param title     O título do livro fora do catálogo, ou {@code null} para um livro do catálogo.
+     * @param author    O autor do livro fora do catálogo, ou {@code null} para um livro do catálogo.
+     */
+    public void addBook(int bookId, double unitPrice, String title, String author) {
+        for (SaleLine line : lines) {
+            if (line.getBookId() == bookId && Objects.equals(line.getUnitPrice(), unitPrice)
+                    && Objects.equals(line.getTitle(), title) && Objects.equals(line.getAuthor(), author)) {
+                line.setQuantity(line.getQuantity() + 1);
+                return;
+            }
+        }
+        lines.add(new SaleLine(bookId, unitPrice, 1, title, author));
+    }
+
+    /**
+     * Remove um exemplar de um livro do histórico de vendas.
      *
      * @param book Livro a ser removido.
      */
     public void removeBook(Book book) {
-        books.remove(book);
+        for (SaleLine line : lines) {
+            if (line.getBookId() == book.getId()) {
+                line.setQuantity(line.getQuantity() - 1);
+                if (line.getQuantity() <= 0) {
+                    lines.remove(line);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Obtém o número de exemplares vendidos, somando as quantidades dos itens.
+     *
+     * @return O número de exemplares vendidos.
+     */
+    @JsonIgnore
+    public int getBookCount() {
+        int count = 0;
+        for (SaleLine line : lines) {
+            count += line.getQuantity();
+        }
+        return count;
     }
 }
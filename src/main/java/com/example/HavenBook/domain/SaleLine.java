@@ -0,0 +1,48 @@
+package com.example.HavenBook.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Representa um item de uma venda, com a referência ao livro vendido, o preço unitário no momento da venda e a
+ * quantidade de exemplares. O preço é {@code null} quando não foi informado, e então o serviço o preenche com o
+ * valor atual do livro no catálogo; um preço zero, de um exemplar gratuito, é mantido.
+ * <p>
+ * Itens cujo livro não foi encontrado no catálogo, como os de vendas no formato antigo com livros fora dele,
+ * referenciam o ID {@link #UNKNOWN_BOOK_ID} e guardam o título e o autor do livro original, para que continuem
+ * entrando nas estatísticas por título e por autor. Os itens de livros do catálogo não guardam título nem autor,
+ * que são sempre obtidos do catálogo.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleLine {
+
+    /**
+     * ID dos itens cujo livro não foi encontrado no catálogo. Nenhum livro do catálogo tem esse ID.
+     */
+    public static final int UNKNOWN_BOOK_ID = 0;
+
+    private int bookId;
+    private Double unitPrice;
+    private int quantity = 1;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String title;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String author;
+
+    /**
+     * Construtor para um item de um livro do catálogo.
+     *
+     * @param bookId    O ID do livro.
+     * @param unitPrice O preço unitário, ou {@code null} para usar o valor atual do livro no catálogo.
+     * @param quantity  A quantidade de exemplares.
+     */
+    public SaleLine(int bookId, Double unitPrice, int quantity) {
+        this(bookId, unitPrice, quantity, null, null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Representa uma entrada do manifesto das partições do histórico de vendas, com o mês da partição, o número de
+ * vendas, as datas da primeira e da última venda e os totais de receita e de livros vendidos no mês.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalePartitionInfo {
+    private String partition;
+    private int saleCount;
+    private String minDate;
+    private String maxDate;
+    private double totalRevenue;
+    private long bookCount;
+}
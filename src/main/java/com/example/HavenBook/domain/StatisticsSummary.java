@@ -0,0 +1,27 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Representa o resumo das estatísticas de vendas usado pelo painel, com as vendas por autor, a receita total,
+ * o número de livros vendidos, os livros mais vendidos, o número de livros nunca vendidos e o tempo de cálculo.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticsSummary {
+    private String startDate;
+    private String endDate;
+    private List<AuthorSales> authorSales;
+    private double totalRevenue;
+    private long totalBookCount;
+    private List<BestSellingBook> bestSellingBooks;
+    private long neverSoldBookCount;
+    private double computationTimeMs;
+}
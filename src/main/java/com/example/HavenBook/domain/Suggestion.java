@@ -0,0 +1,40 @@
+package com.example.HavenBook.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Locale;
+
+/**
+ * Representa uma sugestão de autocompletar, com o texto sugerido, o tipo e o número de livros vendidos usado para
+ * ordenar as sugestões.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+    private String text;
+    private Type type;
+    private long sales;
+
+    /**
+     * Os tipos de texto sugeridos.
+     */
+    public enum Type {
+        TITLE, AUTHOR, GENRE;
+
+        /**
+         * Converte o valor de um parâmetro, como {@code author}, no tipo correspondente.
+         *
+         * @param value O valor do parâmetro.
+         * @return O tipo correspondente.
+         * @throws IllegalArgumentException Se o valor não corresponder a nenhum tipo.
+         */
+        public static Type fromParameter(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+}
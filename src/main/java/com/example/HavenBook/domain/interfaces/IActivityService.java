@@ -7,7 +7,7 @@ import java.util.List;
 /**
  * Interface para o serviço de atividades.
  */
-public interface IActivityService {
+public interface IActivityService extends IReloadable, ILogSnapshottable {
     /**
      * Obtém a lista de atividades a partir do arquivo JSON.
      *
@@ -15,6 +15,18 @@ public interface IActivityService {
      */
     List<Activity> getActivityFromJson();
 
+    /**
+     * Obtém a lista de atividades mantida em memória, sem reler o arquivo JSON.
+     *
+     * @return Lista imutável de {@code Activity}.
+     */
+    List<Activity> getAllActivities();
+
+    /**
+     * Recarrega as atividades a partir do arquivo JSON.
+     */
+    void reload();
+
     /**
      * Obtém uma atividade pelo seu ID.
      *
@@ -7,7 +7,7 @@ import java.util.List;
 /**
  * Interface para o serviço de autores.
  */
-public interface IAuthorService {
+public interface IAuthorService extends IReloadable {
     /**
      * Obtém a lista de autores a partir do arquivo JSON.
      *
@@ -15,6 +15,18 @@ public interface IAuthorService {
      */
     List<Author> getAuthorsFromJson();
 
+    /**
+     * Obtém a lista de autores mantida em memória, sem reler o arquivo JSON.
+     *
+     * @return Lista imutável de {@code Author}.
+     */
+    List<Author> getAllAuthors();
+
+    /**
+     * Recarrega os autores a partir do arquivo JSON.
+     */
+    void reload();
+
     /**
      * Obtém um autor pelo seu ID.
      *
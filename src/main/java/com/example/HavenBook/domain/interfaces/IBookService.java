@@ -7,7 +7,7 @@ import java.util.List;
 /**
  * Interface para o serviço de livros.
  */
-public interface IBookService {
+public interface IBookService extends IReloadable {
     /**
      * Obtém a lista de livros a partir do arquivo JSON.
      *
@@ -15,6 +15,18 @@ public interface IBookService {
      */
     List<Book> getBooksFromJson();
 
+    /**
+     * Obtém a lista de livros mantida em memória, sem reler o arquivo JSON.
+     *
+     * @return Lista imutável de {@code Book}.
+     */
+    List<Book> getAllBooks();
+
+    /**
+     * Recarrega os livros a partir do arquivo JSON.
+     */
+    void reload();
+
     /**
      * Obtém um livro pelo seu ID.
      *
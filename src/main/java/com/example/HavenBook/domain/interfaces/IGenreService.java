@@ -7,7 +7,7 @@ import java.util.List;
 /**
  * Interface para o serviço de gêneros.
  */
-public interface IGenreService {
+public interface IGenreService extends IReloadable {
     /**
      * Obtém a lista de gêneros a partir do arquivo JSON.
      *
@@ -15,6 +15,18 @@ public interface IGenreService {
      */
     List<Genre> getGenresFromJson();
 
+    /**
+     * Obtém a lista de gêneros mantida em memória, sem reler o arquivo JSON.
+     *
+     * @return Lista imutável de {@code Genre}.
+     */
+    List<Genre> getAllGenres();
+
+    /**
+     * Recarrega os gêneros a partir do arquivo JSON.
+     */
+    void reload();
+
     /**
      * Obtém um gênero pelo seu ID.
      *
@@ -0,0 +1,24 @@
+package com.example.HavenBook.domain.interfaces;
+
+import com.example.HavenBook.domain.LogStatus;
+
+/**
+ * Interface para os serviços que registram as alterações em um log e o incorporam periodicamente a um snapshot.
+ */
+public interface ILogSnapshottable {
+
+    /**
+     * Grava um snapshot do estado atual em memória e descarta do log os registros que ele incorpora. O estado é
+     * copiado com o bloqueio do serviço, mas a gravação ocorre fora dele, sem bloquear as alterações.
+     *
+     * @return {@code true} se um snapshot foi gravado.
+     */
+    boolean snapshotLog();
+
+    /**
+     * Obtém o estado do log de alterações.
+     *
+     * @return O estado do log, ou {@code null} se o mecanismo de armazenamento configurado não usa log.
+     */
+    LogStatus getLogStatus();
+}
@@ -0,0 +1,14 @@
+package com.example.HavenBook.domain.interfaces;
+
+/**
+ * Interface para os serviços que recarregam os dados quando os arquivos são alterados fora da aplicação.
+ */
+public interface IReloadable {
+
+    /**
+     * Recarrega os dados apenas se os arquivos foram alterados desde a última carga ou gravação.
+     *
+     * @return {@code true} se os dados foram recarregados.
+     */
+    boolean reloadIfChanged();
+}
@@ -7,15 +7,20 @@ import java.util.List;
 /**
  * Interface para o serviço de histórico de vendas.
  */
-public interface ISaleHistoryService {
+public interface ISaleHistoryService extends IReloadable, ILogSnapshottable {
 
     /**
-     * Obtém a lista de todos os históricos de vendas.
+     * Obtém a lista de todos os históricos de vendas mantida em memória, sem reler o arquivo JSON.
      *
-     * @return Lista de {@code SaleHistory}.
+     * @return Lista imutável de {@code SaleHistory}.
      */
     List<SaleHistory> getAllSaleHistories();
 
+    /**
+     * Recarrega os históricos de vendas a partir do arquivo JSON.
+     */
+    void reload();
+
     /**
      * Obtém um histórico de venda pelo seu ID.
      *
@@ -7,7 +7,7 @@ import java.util.List;
 /**
  * Interface para o serviço de usuários.
  */
-public interface IUserService {
+public interface IUserService extends IReloadable {
     /**
      * Obtém a lista de usuários a partir do arquivo JSON.
      *
@@ -15,6 +15,18 @@ public interface IUserService {
      */
     List<User> getUsersFromJson();
 
+    /**
+     * Obtém a lista de usuários mantida em memória, sem reler o arquivo JSON.
+     *
+     * @return Lista imutável de {@code User}.
+     */
+    List<User> getAllUsers();
+
+    /**
+     * Recarrega os usuários a partir do arquivo JSON.
+     */
+    void reload();
+
     /**
      * Obtém um usuário pelo seu ID.
      *
@@ -0,0 +1,225 @@
+package com.example.HavenBook.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Árvore BK para busca aproximada de textos, que encontra os textos a uma distância de edição (Levenshtein)
+ * limitada da consulta sem calcular a distância para todos os textos indexados.
+ * <p>
+ * Cada nó guarda um termo e os IDs dos documentos que o contêm, e os filhos de um nó ficam indexados pela sua
+ * distância ao termo do nó. Pela desigualdade triangular, uma busca com distância máxima {@code k} a partir de um
+ * nó a distância {@code d} da consulta só precisa visitar os filhos com distância entre {@code d - k} e
+ * {@code d + k}. Os termos de um documento são o seu texto completo e cada uma das suas palavras com ao menos
+ * {@value #MIN_WORD_LENGTH} letras, normalizados pelo {@link TextAnalyzer}, de modo que "Alquimsta" encontre
+ * "O Alquimista". Um termo cujos documentos foram todos removidos permanece na árvore, sem IDs, e é reaproveitado
+ * se voltar a ser incluído.
+ */
+public class BkTree {
+
+    /**
+     * Tamanho mínimo das palavras indexadas isoladamente; palavras mais curtas estariam a uma ou duas edições de
+     * quase todas as outras.
+     */
+    public static final int MIN_WORD_LENGTH = 4;
+
+    private Node root;
+    private int termCount;
+
+    /**
+     * Resultado de uma busca: o ID do documento e a menor distância entre a consulta e os termos do documento.
+     */
+    public static final class Hit {
+
+        private final int id;
+        private final int distance;
+
+        private Hit(int id, int distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+
+        /**
+         * Obtém o ID do documento.
+         *
+         * @return O ID do documento.
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Obtém a distância de edição entre a consulta e o termo mais próximo do documento.
+         *
+         * @return A distância de edição.
+         */
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private static final class Node {
+
+        private final String term;
+        private final Set<Integer> ids = new HashSet<>();
+        private Map<Integer, Node> children;
+
+        private Node(String term) {
+            this.term = term;
+        }
+    }
+
+    /**
+     * Inclui um documento na árvore.
+     *
+     * @param id   O ID do documento.
+     * @param text O texto do documento.
+     */
+    public void add(int id, String text) {
+        for (String term : terms(text)) {
+            find(term, true).ids.add(id);
+        }
+    }
+
+    /**
+     * Remove um documento da árvore.
+     *
+     * @param id   O ID do documento.
+     * @param text O texto com que o documento foi incluído.
+     */
+    public void remove(int id, String text) {
+        for (String term : terms(text)) {
+            Node node = find(term, false);
+            if (node != null) {
+                node.ids.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Busca os documentos com algum termo a até {@code maxDistance} edições da consulta.
+     *
+     * @param query       A consulta.
+     * @param maxDistance A distância de edição máxima.
+     * @return Os documentos encontrados, da menor para a maior distância e, nos empates, em ordem de ID.
+     */
+    public List<Hit> search(String query, int maxDistance) {
+        String normalized = String.join(" ", TextAnalyzer.words(query));
+        Map<Integer, Integer> distances = new HashMap<>();
+        if (root == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(normalized, node.term);
+            if (distance <= maxDistance) {
+                node.ids.forEach(id -> distances.merge(id, distance, Math::min));
+            }
+            if (node.children != null) {
+                for (int edge = Math.max(1, distance - maxDistance); edge <= distance + maxDistance; edge++) {
+                    Node child = node.children.get(edge);
+                    if (child != null) {
+                        pending.push(child);
+                    }
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(distances.size());
+        distances.forEach((id, distance) -> hits.add(new Hit(id, distance)));
+        hits.sort(Comparator.comparingInt(Hit::getDistance).thenComparingInt(Hit::getId));
+        return hits;
+    }
+
+    /**
+     * Obtém o número de termos distintos na árvore, incluindo os que não têm mais documentos.
+     *
+     * @return O número de termos.
+     */
+    public int termCount() {
+        return termCount;
+    }
+
+    /**
+     * Calcula a distância de Levenshtein entre dois textos: o número mínimo de inserções, remoções e
+     * substituições de caracteres que transforma um no outro.
+     *
+     * @param a O primeiro texto.
+     * @param b O segundo texto.
+     * @return A distância de edição.
+     */
+    public static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char charA = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (charA == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private Node find(String term, boolean create) {
+        if (root == null) {
+            if (!create) {
+                return null;
+            }
+            root = new Node(term);
+            termCount++;
+            return root;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term);
+            if (distance == 0) {
+                return node;
+            }
+            Node child = node.children == null ? null : node.children.get(distance);
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                child = new Node(term);
+                node.children.put(distance, child);
+                termCount++;
+                return child;
+            }
+            node = child;
+        }
+    }
+
+    private static Set<String> terms(String text) {
+        List<String> words = TextAnalyzer.words(text);
+        Set<String> terms = new LinkedHashSet<>();
+        if (!words.isEmpty()) {
+            terms.add(String.join(" ", words));
+        }
+        for (String word : words) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,546 @@
+package com.example.HavenBook.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto de inteiros não negativos compactado, no formato do Roaring Bitmap. Os valores são divididos em blocos
+ * de 65.536 pelos 16 bits mais altos, e cada bloco guarda os 16 bits mais baixos em um vetor ordenado, enquanto
+ * tem até {@value #ARRAY_LIMIT} valores, ou em um mapa de bits de 8 KB, quando é mais denso. Um conjunto esparso
+ * ocupa cerca de 2 bytes por valor, e um denso, 1 bit por valor possível.
+ * <p>
+ * A interseção, a união e a diferença são calculadas bloco a bloco, sem percorrer os blocos ausentes de um dos
+ * lados; entre dois mapas de bits, palavra a palavra. {@link #andCardinality(CompressedBitmap)} conta a interseção
+ * sem criá-la, como nas contagens por faceta.
+ */
+public class CompressedBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private int[] keys;
+    private Container[] containers;
+    private int size;
+
+    /**
+     * Construtor para um conjunto vazio.
+     */
+    public CompressedBitmap() {
+        this(4);
+    }
+
+    private CompressedBitmap(int capacity) {
+        keys = new int[Math.max(1, capacity)];
+        containers = new Container[Math.max(1, capacity)];
+    }
+
+    /**
+     * Cria um conjunto com os valores fornecidos.
+     *
+     * @param values Os valores, não negativos.
+     * @return O conjunto.
+     */
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Inclui um valor no conjunto.
+     *
+     * @param value O valor, não negativo.
+     * @throws IllegalArgumentException Se o valor for negativo.
+     */
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("O valor não pode ser negativo: " + value);
+        }
+        int index = indexOf(value >>> 16);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, value >>> 16, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    /**
+     * Remove um valor do conjunto.
+     *
+     * @param value O valor.
+     */
+    public void remove(int value) {
+        int index = value < 0 ? -1 : indexOf(value >>> 16);
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    /**
+     * Verifica se o valor pertence ao conjunto.
+     *
+     * @param value O valor.
+     * @return {@code true} se o valor pertencer ao conjunto.
+     */
+    public boolean contains(int value) {
+        int index = value < 0 ? -1 : indexOf(value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Obtém o número de valores do conjunto.
+     *
+     * @return O número de valores.
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Verifica se o conjunto está vazio.
+     *
+     * @return {@code true} se o conjunto não tiver valores.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calcula a interseção com outro conjunto.
+     *
+     * @param other O outro conjunto.
+     * @return Um novo conjunto com os valores presentes nos dois conjuntos.
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.min(size, other.size));
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calcula a união com outro conjunto.
+     *
+     * @param other O outro conjunto.
+     * @return Um novo conjunto com os valores presentes em algum dos conjuntos.
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calcula a diferença em relação a outro conjunto.
+     *
+     * @param other O outro conjunto.
+     * @return Um novo conjunto com os valores deste conjunto ausentes do outro.
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(size);
+        for (int i = 0, j = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.append(keys[i], andNot(containers[i], other.containers[j]));
+            } else {
+                result.append(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Conta os valores presentes nos dois conjuntos, sem criar a interseção.
+     *
+     * @param other O outro conjunto.
+     * @return O número de valores da interseção.
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int cardinality = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += andCardinality(containers[i], other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Executa a ação para cada valor do conjunto, em ordem crescente.
+     *
+     * @param action A ação.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Obtém os valores do conjunto.
+     *
+     * @return Os valores, em ordem crescente.
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] position = {0};
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, int key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void append(int key, Container container) {
+        if (container.cardinality() > 0) {
+            insert(size, key, container);
+        }
+    }
+
+    private static Container and(Container a, Container b) {
+        if (a instanceof ArrayContainer || b instanceof ArrayContainer) {
+            ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+            Container other = array == a ? b : a;
+            return array.filter(other, true);
+        }
+        long[] words = ((BitmapContainer) a).words.clone();
+        long[] otherWords = ((BitmapContainer) b).words;
+        for (int i = 0; i < WORDS; i++) {
+            words[i] &= otherWords[i];
+        }
+        return fromWords(words);
+    }
+
+    private static Container or(Container a, Container b) {
+        if (a instanceof ArrayContainer first && b instanceof ArrayContainer second
+                && first.cardinality + second.cardinality <= ARRAY_LIMIT) {
+            return first.merge(second);
+        }
+        long[] words = a.toWords();
+        if (b instanceof BitmapContainer bitmap) {
+            for (int i = 0; i < WORDS; i++) {
+                words[i] |= bitmap.words[i];
+            }
+        } else {
+            b.forEach(0, value -> words[value >>> 6] |= 1L << value);
+        }
+        return fromWords(words);
+    }
+
+    private static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayContainer array) {
+            return array.filter(b, false);
+        }
+        long[] words = ((BitmapContainer) a).words.clone();
+        if (b instanceof BitmapContainer bitmap) {
+            for (int i = 0; i < WORDS; i++) {
+                words[i] &= ~bitmap.words[i];
+            }
+        } else {
+            b.forEach(0, value -> words[value >>> 6] &= ~(1L << value));
+        }
+        return fromWords(words);
+    }
+
+    private static int andCardinality(Container a, Container b) {
+        if (a instanceof ArrayContainer || b instanceof ArrayContainer) {
+            ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+            Container other = array == a ? b : a;
+            int count = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (other.contains(array.values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        long[] words = ((BitmapContainer) a).words;
+        long[] otherWords = ((BitmapContainer) b).words;
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) {
+            count += Long.bitCount(words[i] & otherWords[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Cria o bloco mais compacto para o mapa de bits fornecido.
+     */
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality > ARRAY_LIMIT) {
+            return new BitmapContainer(words, cardinality);
+        }
+        ArrayContainer array = new ArrayContainer(cardinality);
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                array.values[array.cardinality++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Bloco de até 65.536 valores, identificados pelos seus 16 bits mais baixos.
+     */
+    private abstract static class Container {
+
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract int cardinality();
+
+        abstract void forEach(int base, IntConsumer action);
+
+        abstract long[] toWords();
+
+        abstract Container copy();
+    }
+
+    /**
+     * Bloco esparso, com os valores em um vetor ordenado.
+     */
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(4);
+        }
+
+        ArrayContainer(int capacity) {
+            values = new char[Math.max(1, capacity)];
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return new BitmapContainer(toWords(), cardinality).add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer(cardinality);
+            System.arraycopy(values, 0, copy.values, 0, cardinality);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        /**
+         * Mantém os valores presentes, ou ausentes, no outro bloco.
+         */
+        ArrayContainer filter(Container other, boolean present) {
+            ArrayContainer result = new ArrayContainer(cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == present) {
+                    result.values[result.cardinality++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Intercala os valores de dois vetores ordenados, sem repetições.
+         */
+        ArrayContainer merge(ArrayContainer other) {
+            ArrayContainer result = new ArrayContainer(cardinality + other.cardinality);
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                char next;
+                if (j >= other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                    next = values[i++];
+                } else if (i >= cardinality || values[i] > other.values[j]) {
+                    next = other.values[j++];
+                } else {
+                    next = values[i++];
+                    j++;
+                }
+                result.values[result.cardinality++] = next;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Bloco denso, com um bit para cada um dos 65.536 valores possíveis.
+     */
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            if (!contains(value)) {
+                words[value >>> 6] |= 1L << value;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            if (contains(value)) {
+                words[value >>> 6] &= ~(1L << value);
+                cardinality--;
+                if (cardinality <= ARRAY_LIMIT) {
+                    return fromWords(words);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | (i * 64 + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.HavenBook.index;
+
+/**
+ * Árvore de Fenwick (árvore indexada binária) sobre dias, que acumula uma receita e uma quantidade por dia.
+ * Atualizações e somas em um intervalo de dias são feitas em tempo O(log d), onde d é o número de dias cobertos,
+ * independentemente de quantos lançamentos existam em cada dia.
+ * <p>
+ * O intervalo de dias coberto cresce automaticamente quando um lançamento fora dele é registrado; nesse caso a
+ * árvore é reconstruída em tempo linear a partir dos totais diários.
+ */
+public class DayFenwickTree {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int baseDay;
+    private int capacity;
+    private double[] dayRevenue = new double[0];
+    private long[] dayCount = new long[0];
+    private double[] revenueTree = new double[1];
+    private long[] countTree = new long[1];
+
+    /**
+     * Registra uma receita e uma quantidade em um dia. Valores negativos desfazem um registro anterior.
+     *
+     * @param day     O dia, em número de dias desde a época.
+     * @param revenue A receita a ser somada.
+     * @param count   A quantidade a ser somada.
+     */
+    public void add(int day, double revenue, long count) {
+        ensureCovers(day);
+        int index = day - baseDay;
+        dayRevenue[index] += revenue;
+        dayCount[index] += count;
+        for (int node = index + 1; node <= capacity; node += node & -node) {
+            revenueTree[node] += revenue;
+            countTree[node] += count;
+        }
+    }
+
+    /**
+     * Soma as receitas registradas entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo.
+     * @param toDay   O último dia do intervalo.
+     * @return A receita acumulada no intervalo.
+     */
+    public double sumRevenue(int fromDay, int toDay) {
+        int from = Math.max(fromDay - baseDay, 0);
+        int to = Math.min(toDay - baseDay + 1, capacity);
+        if (from >= to) {
+            return 0;
+        }
+        return prefixRevenue(to) - prefixRevenue(from);
+    }
+
+    /**
+     * Soma as quantidades registradas entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo.
+     * @param toDay   O último dia do intervalo.
+     * @return A quantidade acumulada no intervalo.
+     */
+    public long sumCount(int fromDay, int toDay) {
+        int from = Math.max(fromDay - baseDay, 0);
+        int to = Math.min(toDay - baseDay + 1, capacity);
+        if (from >= to) {
+            return 0;
+        }
+        return prefixCount(to) - prefixCount(from);
+    }
+
+    /**
+     * Remove todos os registros.
+     */
+    public void clear() {
+        baseDay = 0;
+        capacity = 0;
+        dayRevenue = new double[0];
+        dayCount = new long[0];
+        revenueTree = new double[1];
+        countTree = new long[1];
+    }
+
+    private double prefixRevenue(int length) {
+        double sum = 0;
+        for (int node = length; node > 0; node -= node & -node) {
+            sum += revenueTree[node];
+        }
+        return sum;
+    }
+
+    private long prefixCount(int length) {
+        long sum = 0;
+        for (int node = length; node > 0; node -= node & -node) {
+            sum += countTree[node];
+        }
+        return sum;
+    }
+
+    /**
+     * Amplia o intervalo coberto para incluir o dia fornecido, ao menos dobrando a capacidade para que o
+     * custo das reconstruções seja amortizado.
+     *
+     * @param day O dia que deve ser coberto.
+     */
+    private void ensureCovers(int day) {
+        if (capacity > 0 && day >= baseDay && day < baseDay + capacity) {
+            return;
+        }
+        int newBase;
+        int newCapacity;
+        if (capacity == 0) {
+            newBase = day - INITIAL_CAPACITY / 2;
+            newCapacity = INITIAL_CAPACITY;
+        } else {
+            int start = Math.min(baseDay, day);
+            int end = Math.max(baseDay + capacity, day + 1);
+            newCapacity = Math.max(capacity * 2, end - start);
+            newBase = day < baseDay ? end - newCapacity : start;
+        }
+        rebuild(newBase, newCapacity);
+    }
+
+    private void rebuild(int newBase, int newCapacity) {
+        double[] newDayRevenue = new double[newCapacity];
+        long[] newDayCount = new long[newCapacity];
+        int offset = baseDay - newBase;
+        for (int i = 0; i < capacity; i++) {
+            newDayRevenue[i + offset] = dayRevenue[i];
+            newDayCount[i + offset] = dayCount[i];
+        }
+        double[] newRevenueTree = new double[newCapacity + 1];
+        long[] newCountTree = new long[newCapacity + 1];
+        for (int node = 1; node <= newCapacity; node++) {
+            newRevenueTree[node] += newDayRevenue[node - 1];
+            newCountTree[node] += newDayCount[node - 1];
+            int parent = node + (node & -node);
+            if (parent <= newCapacity) {
+                newRevenueTree[parent] += newRevenueTree[node];
+                newCountTree[parent] += newCountTree[node];
+            }
+        }
+        baseDay = newBase;
+        capacity = newCapacity;
+        dayRevenue = newDayRevenue;
+        dayCount = newDayCount;
+        revenueTree = newRevenueTree;
+        countTree = newCountTree;
+    }
+}
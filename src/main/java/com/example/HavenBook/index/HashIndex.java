@@ -0,0 +1,63 @@
+package com.example.HavenBook.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice secundário por igualdade, que associa cada valor de um atributo aos IDs das entidades com esse valor.
+ * A consulta de um valor custa O(1), independentemente do número de entidades.
+ *
+ * @param <K> O tipo do valor indexado.
+ */
+public class HashIndex<K> {
+
+    private final Map<K, Set<Integer>> entries = new HashMap<>();
+
+    /**
+     * Associa o ID de uma entidade a um valor. Valores nulos não são indexados.
+     *
+     * @param key O valor do atributo.
+     * @param id  O ID da entidade.
+     */
+    public void add(K key, int id) {
+        if (key != null) {
+            entries.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Remove a associação entre o ID de uma entidade e um valor.
+     *
+     * @param key O valor do atributo.
+     * @param id  O ID da entidade.
+     */
+    public void remove(K key, int id) {
+        Set<Integer> ids = key == null ? null : entries.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Obtém os IDs das entidades com o valor fornecido.
+     *
+     * @param key O valor do atributo.
+     * @return O conjunto imutável de IDs, vazio se nenhuma entidade tiver o valor.
+     */
+    public Set<Integer> get(K key) {
+        Set<Integer> ids = entries.get(key);
+        return ids == null ? Set.of() : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Obtém o número de valores distintos indexados.
+     *
+     * @return O número de valores.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.HavenBook.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Tabela de entidades indexada pelo ID, que mantém a ordem de inserção. As consultas, substituições e remoções
+ * por ID são feitas em tempo constante por meio de um {@link IntIntHashMap} que associa cada ID à posição da
+ * entidade. Remoções deixam uma posição vazia, que é descartada quando as posições vazias superam as ocupadas.
+ * <p>
+ * Uma tabela criada por {@link #lazy(int[], IntFunction, ToIntFunction)} guarda apenas os IDs das entidades e as
+ * converte, a partir de um snapshot, na primeira vez em que cada uma é acessada.
+ *
+ * @param <T> O tipo da entidade armazenada.
+ */
+public class IdTable<T> implements RecordTable<T> {
+
+    private static final int MIN_COMPACTION_SIZE = 32;
+
+    private final ToIntFunction<T> idOf;
+    private final IntIntHashMap positions;
+    private IntFunction<T> decoder;
+    private Object[] entries;
+    private int length;
+    private int size;
+
+    /**
+     * Construtor para uma tabela vazia.
+     *
+     * @param idOf A função que obtém o ID de uma entidade.
+     */
+    public IdTable(ToIntFunction<T> idOf) {
+        this(idOf, 16);
+    }
+
+    /**
+     * Construtor para uma tabela vazia com capacidade inicial para o número de entidades informado.
+     *
+     * @param idOf         A função que obtém o ID de uma entidade.
+     * @param expectedSize O número de entidades esperado.
+     */
+    public IdTable(ToIntFunction<T> idOf, int expectedSize) {
+        this.idOf = idOf;
+        this.positions = new IntIntHashMap(expectedSize);
+        this.entries = new Object[Math.max(16, expectedSize)];
+    }
+
+    /**
+     * Cria uma tabela a partir de uma lista de entidades carregada de um arquivo. Entidades sem ID válido
+     * ou com ID repetido recebem um novo ID, maior que todos os IDs existentes.
+     *
+     * @param items O conteúdo carregado.
+     * @param idOf  A função que obtém o ID de uma entidade.
+     * @param setId A função que define o ID de uma entidade.
+     * @param <T>   O tipo da entidade.
+     * @return A tabela com as entidades na ordem da lista.
+     */
+    public static <T> IdTable<T> load(List<T> items, ToIntFunction<T> idOf, ObjIntConsumer<T> setId) {
+        IdTable<T> table = new IdTable<>(idOf, items.size());
+        int nextId = items.stream().mapToInt(idOf).max().orElse(0) + 1;
+        for (T item : items) {
+            if (idOf.applyAsInt(item) <= 0 || table.contains(idOf.applyAsInt(item))) {
+                setId.accept(item, nextId++);
+            }
+            table.put(item);
+        }
+        return table;
+    }
+
+    /**
+     * Cria uma tabela cujas entidades são convertidas sob demanda. Os IDs devem ser válidos e sem repetições,
+     * como os de um snapshot gravado a partir de outra tabela.
+     *
+     * @param ids     Os IDs das entidades, na ordem do snapshot.
+     * @param decoder A função que converte a entidade da posição fornecida do snapshot.
+     * @param idOf    A função que obtém o ID de uma entidade.
+     * @param <T>     O tipo da entidade.
+     * @return A tabela com as entidades ainda não convertidas.
+     */
+    public static <T> IdTable<T> lazy(int[] ids, IntFunction<T> decoder, ToIntFunction<T> idOf) {
+        IdTable<T> table = new IdTable<>(idOf, ids.length);
+        table.decoder = decoder;
+        for (int record = 0; record < ids.length; record++) {
+            table.entries[record] = new Encoded(ids[record], record);
+            table.positions.put(ids[record], record);
+        }
+        table.length = ids.length;
+        table.size = ids.length;
+        return table;
+    }
+
+    /**
+     * Cria um carregador que monta a tabela a partir de entidades entregues uma a uma, como na leitura de um
+     * arquivo em fluxo, sem exigir a lista completa em memória.
+     *
+     * @param idOf  A função que obtém o ID de uma entidade.
+     * @param setId A função que define o ID de uma entidade.
+     * @param <T>   O tipo da entidade.
+     * @return O carregador.
+     */
+    public static <T> Loader<T> loader(ToIntFunction<T> idOf, ObjIntConsumer<T> setId) {
+        return new Loader<>(idOf, setId);
+    }
+
+    /**
+     * Obtém a entidade com o ID fornecido.
+     *
+     * @param id O ID da entidade.
+     * @return A entidade ou {@code null} se não for encontrada.
+     */
+    @Override
+    public T get(int id) {
+        int position = positions.get(id, -1);
+        return position < 0 ? null : entryAt(position);
+    }
+
+    /**
+     * Verifica se existe uma entidade com o ID fornecido.
+     *
+     * @param id O ID da entidade.
+     * @return {@code true} se a entidade existir.
+     */
+    @Override
+    public boolean contains(int id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * Insere a entidade no final da tabela ou, se o ID já existir, substitui a entidade mantendo a sua posição.
+     *
+     * @param item A entidade.
+     * @return A entidade substituída ou {@code null} se o ID ainda não existia.
+     */
+    @Override
+    public T put(T item) {
+        int id = idOf.applyAsInt(item);
+        int position = positions.get(id, -1);
+        if (position >= 0) {
+            T previous = entryAt(position);
+            entries[position] = item;
+            return previous;
+        }
+        if (length == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length << 1);
+        }
+        entries[length] = item;
+        positions.put(id, length);
+        length++;
+        size++;
+        return null;
+    }
+
+    /**
+     * Remove a entidade com o ID fornecido.
+     *
+     * @param id O ID da entidade.
+     * @return A entidade removida ou {@code null} se não for encontrada.
+     */
+    @Override
+    public T remove(int id) {
+        int position = positions.get(id, -1);
+        if (position < 0) {
+            return null;
+        }
+        T removed = entryAt(position);
+        entries[position] = null;
+        positions.remove(id);
+        size--;
+        if (length - size > MIN_COMPACTION_SIZE && length - size > size) {
+            compact();
+        }
+        return removed;
+    }
+
+    /**
+     * Obtém o número de entidades na tabela.
+     *
+     * @return O número de entidades.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Obtém o maior ID presente na tabela.
+     *
+     * @return O maior ID ou {@code 0} se a tabela estiver vazia.
+     */
+    @Override
+    public int maxId() {
+        int max = 0;
+        for (int i = 0; i < length; i++) {
+            if (entries[i] != null) {
+                max = Math.max(max, idAt(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Percorre as entidades na ordem de inserção.
+     *
+     * @param action A ação executada para cada entidade.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (int i = 0; i < length; i++) {
+            if (entries[i] != null) {
+                action.accept(entryAt(i));
+            }
+        }
+    }
+
+    /**
+     * Cria uma lista imutável com as entidades na ordem de inserção.
+     *
+     * @return A lista de entidades.
+     */
+    @Override
+    public List<T> toList() {
+        Object[] copy = new Object[size];
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            if (entries[i] != null) {
+                copy[index++] = entryAt(i);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) Arrays.asList(copy);
+        return Collections.unmodifiableList(list);
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < length; i++) {
+            if (entries[i] != null) {
+                entries[target] = entries[i];
+                positions.put(idAt(target), target);
+                target++;
+            }
+        }
+        Arrays.fill(entries, target, length, null);
+        length = target;
+    }
+
+    private T entryAt(int position) {
+        Object entry = entries[position];
+        if (entry instanceof Encoded encoded) {
+            T item = decoder.apply(encoded.record);
+            entries[position] = item;
+            return item;
+        }
+        return cast(entry);
+    }
+
+    private int idAt(int position) {
+        Object entry = entries[position];
+        return entry instanceof Encoded encoded ? encoded.id : idOf.applyAsInt(cast(entry));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object entry) {
+        return (T) entry;
+    }
+
+    /**
+     * Entidade ainda não convertida de uma tabela criada por {@link #lazy(int[], IntFunction, ToIntFunction)}.
+     */
+    private static final class Encoded {
+
+        private final int id;
+        private final int record;
+
+        private Encoded(int id, int record) {
+            this.id = id;
+            this.record = record;
+        }
+    }
+
+    /**
+     * Carregador incremental de uma {@link IdTable}. Como o maior ID só é conhecido ao final da carga, entidades
+     * sem ID válido ou com ID repetido ficam pendentes e recebem um novo ID, maior que todos os IDs existentes,
+     * em {@link #finish()}, sendo inseridas após as demais.
+     *
+     * @param <T> O tipo da entidade.
+     */
+    public static final class Loader<T> {
+
+        private final IdTable<T> table;
+        private final ToIntFunction<T> idOf;
+        private final ObjIntConsumer<T> setId;
+        private final List<T> pending = new ArrayList<>();
+        private int maxId;
+
+        private Loader(ToIntFunction<T> idOf, ObjIntConsumer<T> setId) {
+            this.table = new IdTable<>(idOf);
+            this.idOf = idOf;
+            this.setId = setId;
+        }
+
+        /**
+         * Inclui uma entidade lida do arquivo.
+         *
+         * @param item A entidade.
+         */
+        public void add(T item) {
+            int id = idOf.applyAsInt(item);
+            if (id <= 0 || table.contains(id)) {
+                pending.add(item);
+                return;
+            }
+            table.put(item);
+            maxId = Math.max(maxId, id);
+        }
+
+        /**
+         * Conclui a carga, atribuindo novos IDs às entidades pendentes.
+         *
+         * @return A tabela carregada.
+         */
+        public IdTable<T> finish() {
+            int nextId = maxId + 1;
+            for (T item : pending) {
+                setId.accept(item, nextId++);
+                table.put(item);
+            }
+            pending.clear();
+            return table;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.HavenBook.index;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de chaves {@code int} para valores {@code int} com endereçamento aberto e sondagem linear.
+ * Não utiliza objetos para as chaves nem para os valores, evitando o custo de boxing de um
+ * {@code HashMap<Integer, Integer>}.
+ */
+public class IntIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    /**
+     * Construtor para um mapa vazio.
+     */
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Construtor para um mapa vazio com capacidade inicial para o número de elementos informado.
+     *
+     * @param expectedSize O número de elementos esperado.
+     */
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Obtém o valor associado à chave.
+     *
+     * @param key          A chave.
+     * @param defaultValue O valor retornado se a chave não estiver presente.
+     * @return O valor associado à chave ou {@code defaultValue}.
+     */
+    public int get(int key, int defaultValue) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Verifica se a chave está presente no mapa.
+     *
+     * @param key A chave.
+     * @return {@code true} se a chave estiver presente.
+     */
+    public boolean containsKey(int key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Associa o valor à chave, substituindo o valor anterior, se existir.
+     *
+     * @param key   A chave.
+     * @param value O valor.
+     */
+    public void put(int key, int value) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Remove a chave do mapa. As entradas seguintes da mesma sequência de sondagem são deslocadas para trás,
+     * de modo que o mapa não acumula marcadores de remoção.
+     *
+     * @param key A chave.
+     * @return {@code true} se a chave estava presente.
+     */
+    public boolean remove(int key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Executa a ação para cada entrada do mapa, em ordem indefinida. O mapa não deve ser alterado durante a
+     * iteração.
+     *
+     * @param action A ação que recebe a chave e o valor.
+     */
+    public void forEach(EntryConsumer action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Remove todas as entradas do mapa.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Obtém o número de entradas do mapa.
+     *
+     * @return O número de entradas.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ação executada para cada entrada do mapa, sem boxing da chave e do valor.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Processa uma entrada.
+         *
+         * @param key   A chave.
+         * @param value O valor.
+         */
+        void accept(int key, int value);
+    }
+
+    private void shiftBack(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int ideal = hash(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+        return Math.max(16, capacity);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
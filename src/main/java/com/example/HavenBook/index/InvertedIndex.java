@@ -0,0 +1,145 @@
+package com.example.HavenBook.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido para busca textual, que associa cada termo aos documentos em que aparece e à sua frequência
+ * em cada um. Os textos são separados em termos pelo {@link TextAnalyzer}, sem acentos e em minúsculas.
+ * <p>
+ * Os resultados são ordenados pelo BM25: cada termo da consulta contribui com o seu peso inverso à frequência nos
+ * documentos, saturado pela frequência no documento e normalizado pelo tamanho do documento em relação à média.
+ * Uma consulta percorre apenas as listas dos seus termos, e não todos os documentos, e seleciona os melhores com
+ * o {@link TopK}.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, IntIntHashMap> postings = new HashMap<>();
+    private final IntIntHashMap lengths = new IntIntHashMap();
+    private long totalLength;
+
+    /**
+     * Resultado de uma busca: o ID do documento e a sua pontuação.
+     */
+    public static final class Hit {
+
+        private final int id;
+        private final double score;
+
+        private Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        /**
+         * Obtém o ID do documento.
+         *
+         * @return O ID do documento.
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Obtém a pontuação BM25 do documento para a consulta.
+         *
+         * @return A pontuação.
+         */
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Inclui um documento no índice. Um documento já incluído deve ser removido antes, com o texto que tinha.
+     *
+     * @param id   O ID do documento.
+     * @param text O texto do documento.
+     */
+    public void add(int id, String text) {
+        List<String> terms = TextAnalyzer.tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new IntIntHashMap()).put(id, frequency));
+        lengths.put(id, terms.size());
+        totalLength += terms.size();
+    }
+
+    /**
+     * Remove um documento do índice.
+     *
+     * @param id   O ID do documento.
+     * @param text O texto com que o documento foi incluído.
+     */
+    public void remove(int id, String text) {
+        int length = lengths.get(id, -1);
+        if (length < 0) {
+            return;
+        }
+        for (String term : new LinkedHashSet<>(TextAnalyzer.tokenize(text))) {
+            IntIntHashMap documents = postings.get(term);
+            if (documents != null && documents.remove(id) && documents.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        lengths.remove(id);
+        totalLength -= length;
+    }
+
+    /**
+     * Busca os documentos que contêm algum termo da consulta.
+     *
+     * @param query A consulta.
+     * @param limit O número máximo de resultados.
+     * @return Os resultados, da maior para a menor pontuação e, nos empates, em ordem de ID.
+     */
+    public List<Hit> search(String query, int limit) {
+        int documentCount = lengths.size();
+        if (documentCount == 0) {
+            return List.of();
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : new LinkedHashSet<>(TextAnalyzer.tokenize(query))) {
+            IntIntHashMap documents = postings.get(term);
+            if (documents == null) {
+                continue;
+            }
+            int frequency = documents.size();
+            double idf = Math.log(1 + (documentCount - frequency + 0.5) / (frequency + 0.5));
+            documents.forEach((id, termFrequency) -> {
+                double norm = K1 * (1 - B + B * lengths.get(id, 0) / averageLength);
+                scores.merge(id, idf * termFrequency * (K1 + 1) / (termFrequency + norm), Double::sum);
+            });
+        }
+        List<Hit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> hits.add(new Hit(id, score)));
+        return TopK.select(hits, Comparator.comparingDouble(Hit::getScore).reversed().thenComparingInt(Hit::getId),
+                0, limit);
+    }
+
+    /**
+     * Obtém o número de documentos indexados.
+     *
+     * @return O número de documentos.
+     */
+    public int size() {
+        return lengths.size();
+    }
+
+    /**
+     * Obtém o número de termos distintos indexados.
+     *
+     * @return O número de termos.
+     */
+    public int termCount() {
+        return postings.size();
+    }
+}
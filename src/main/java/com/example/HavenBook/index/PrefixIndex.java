@@ -0,0 +1,224 @@
+package com.example.HavenBook.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Índice imutável para autocompletar, que encontra as entradas com uma palavra iniciada pelo prefixo e retorna
+ * as de maior peso. Os textos são normalizados pelo {@link TextAnalyzer}, sem acentos e em minúsculas, e cada
+ * entrada é indexada a partir do início de cada uma das suas palavras, exceto as muito frequentes, de modo que
+ * "casm" encontre "Dom Casmurro".
+ * <p>
+ * As chaves ficam em vetores ordenados, guardadas como a posição em que começam no texto da entrada, sem copiar
+ * os textos, e as chaves com o prefixo formam um intervalo contíguo encontrado por busca binária. Uma árvore de
+ * segmentos guarda a chave de maior peso de cada trecho do vetor, e as melhores entradas do intervalo são obtidas
+ * dividindo-o sucessivamente em torno da melhor chave de cada parte. O custo de uma consulta é
+ * O((log n + N) log n) para N resultados, independentemente do número de entradas com o prefixo.
+ */
+public class PrefixIndex {
+
+    private final String[] texts;
+    private final long[] weights;
+    private final int[] keyEntries;
+    private final int[] keyOffsets;
+    private final int[] tree;
+    private final int leaves;
+
+    private PrefixIndex(List<String> texts, List<Long> weights, List<int[]> keys) {
+        this.texts = texts.toArray(new String[0]);
+        this.weights = weights.stream().mapToLong(Long::longValue).toArray();
+        int[][] sorted = keys.toArray(new int[0][]);
+        Arrays.sort(sorted, (a, b) -> compareKeys(this.texts[a[0]], a[1], this.texts[b[0]], b[1]));
+        this.keyEntries = new int[sorted.length];
+        this.keyOffsets = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keyEntries[i] = sorted[i][0];
+            keyOffsets[i] = sorted[i][1];
+        }
+        int size = 1;
+        while (size < sorted.length) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.tree = new int[2 * size];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < sorted.length; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Construtor de um {@link PrefixIndex}.
+     */
+    public static class Builder {
+
+        private final List<String> texts = new ArrayList<>();
+        private final List<Long> weights = new ArrayList<>();
+        private final List<int[]> keys = new ArrayList<>();
+
+        /**
+         * Inclui uma entrada no índice.
+         *
+         * @param text   O texto da entrada.
+         * @param weight O peso da entrada; as entradas de maior peso são retornadas primeiro.
+         * @return O número da entrada, atribuído em sequência a partir de zero.
+         */
+        public int add(String text, long weight) {
+            int entry = texts.size();
+            List<String> words = TextAnalyzer.words(text);
+            String normalized = String.join(" ", words);
+            texts.add(normalized);
+            weights.add(weight);
+            int offset = 0;
+            for (int i = 0; i < words.size(); i++) {
+                if (i == 0 || !TextAnalyzer.isStopword(words.get(i))) {
+                    keys.add(new int[]{entry, offset});
+                }
+                offset += words.get(i).length() + 1;
+            }
+            return entry;
+        }
+
+        /**
+         * Cria o índice com as entradas incluídas.
+         *
+         * @return O índice.
+         */
+        public PrefixIndex build() {
+            return new PrefixIndex(texts, weights, keys);
+        }
+    }
+
+    /**
+     * Obtém as entradas de maior peso com uma palavra iniciada pelo prefixo, sem diferenciar acentos nem
+     * maiúsculas.
+     *
+     * @param prefix O prefixo.
+     * @param limit  O número máximo de entradas retornadas.
+     * @return Os números das entradas, sem repetições, do maior para o menor peso e, nos empates, em ordem
+     * alfabética da palavra encontrada.
+     */
+    public List<Integer> complete(String prefix, int limit) {
+        String normalized = String.join(" ", TextAnalyzer.words(prefix));
+        if (normalized.isEmpty() && !prefix.isBlank()) {
+            return List.of();
+        }
+        int from = lowerBound(normalized);
+        int to = upperBound(normalized, from);
+        List<Integer> entries = new ArrayList<>();
+        if (from >= to || limit <= 0) {
+            return entries;
+        }
+        BitSet seen = new BitSet(texts.length);
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> better(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[]{from, to, best(from, to)});
+        while (!ranges.isEmpty() && entries.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[2];
+            int entry = keyEntries[key];
+            if (!seen.get(entry)) {
+                seen.set(entry);
+                entries.add(entry);
+            }
+            if (range[0] < key) {
+                ranges.add(new int[]{range[0], key, best(range[0], key)});
+            }
+            if (key + 1 < range[1]) {
+                ranges.add(new int[]{key + 1, range[1], best(key + 1, range[1])});
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Obtém o número de entradas do índice.
+     *
+     * @return O número de entradas.
+     */
+    public int size() {
+        return texts.length;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keyEntries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKeys(texts[keyEntries[middle]], keyOffsets[middle], prefix, 0) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = keyEntries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (texts[keyEntries[middle]].startsWith(prefix, keyOffsets[middle])) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Obtém a chave de maior peso entre as posições fornecidas, pela árvore de segmentos.
+     *
+     * @param from A primeira posição, inclusive.
+     * @param to   A última posição, exclusive.
+     * @return A posição da melhor chave.
+     */
+    private int best(int from, int to) {
+        int result = -1;
+        for (int low = from + leaves, high = to + leaves; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                result = better(result, tree[low++]);
+            }
+            if ((high & 1) == 1) {
+                result = better(result, tree[--high]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Escolhe a melhor de duas chaves: a de maior peso ou, nos empates, a que vem primeiro no vetor ordenado.
+     */
+    private int better(int a, int b) {
+        if (a < 0 || b < 0) {
+            return a < 0 ? b : a;
+        }
+        long weightA = weights[keyEntries[a]];
+        long weightB = weights[keyEntries[b]];
+        if (weightA != weightB) {
+            return weightA > weightB ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private static int compareKeys(String a, int offsetA, String b, int offsetB) {
+        int lengthA = a.length() - offsetA;
+        int lengthB = b.length() - offsetB;
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            char charA = a.charAt(offsetA + i);
+            char charB = b.charAt(offsetB + i);
+            if (charA != charB) {
+                return charA - charB;
+            }
+        }
+        return lengthA - lengthB;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.HavenBook.index;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tabela de entidades indexada pelo ID, usada pelos serviços para guardar as entidades carregadas, seja em
+ * memória, como a {@link IdTable}, seja em disco.
+ *
+ * @param <T> O tipo da entidade armazenada.
+ */
+public interface RecordTable<T> {
+
+    /**
+     * Obtém a entidade com o ID fornecido.
+     *
+     * @param id O ID da entidade.
+     * @return A entidade ou {@code null} se não for encontrada.
+     */
+    T get(int id);
+
+    /**
+     * Verifica se existe uma entidade com o ID fornecido.
+     *
+     * @param id O ID da entidade.
+     * @return {@code true} se a entidade existir.
+     */
+    boolean contains(int id);
+
+    /**
+     * Insere a entidade ou, se o ID já existir, substitui a entidade.
+     *
+     * @param item A entidade.
+     * @return A entidade substituída ou {@code null} se o ID ainda não existia.
+     */
+    T put(T item);
+
+    /**
+     * Remove a entidade com o ID fornecido.
+     *
+     * @param id O ID da entidade.
+     * @return A entidade removida ou {@code null} se não for encontrada.
+     */
+    T remove(int id);
+
+    /**
+     * Obtém o número de entidades na tabela.
+     *
+     * @return O número de entidades.
+     */
+    int size();
+
+    /**
+     * Obtém o maior ID presente na tabela.
+     *
+     * @return O maior ID ou {@code 0} se a tabela estiver vazia.
+     */
+    int maxId();
+
+    /**
+     * Percorre as entidades da tabela.
+     *
+     * @param action A ação executada para cada entidade.
+     */
+    void forEach(Consumer<? super T> action);
+
+    /**
+     * Cria uma lista imutável com as entidades da tabela.
+     *
+     * @return A lista de entidades.
+     */
+    List<T> toList();
+}
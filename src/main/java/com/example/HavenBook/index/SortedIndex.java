@@ -0,0 +1,69 @@
+package com.example.HavenBook.index;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Índice secundário ordenado, que associa cada valor de um atributo aos IDs das entidades com esse valor e
+ * responde a consultas por intervalo. O custo de uma consulta é O(log n) para localizar o intervalo mais o número
+ * de entidades encontradas.
+ *
+ * @param <K> O tipo do valor indexado.
+ */
+public class SortedIndex<K extends Comparable<? super K>> {
+
+    private final NavigableMap<K, Set<Integer>> entries = new TreeMap<>();
+
+    /**
+     * Associa o ID de uma entidade a um valor. Valores nulos não são indexados.
+     *
+     * @param key O valor do atributo.
+     * @param id  O ID da entidade.
+     */
+    public void add(K key, int id) {
+        if (key != null) {
+            entries.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Remove a associação entre o ID de uma entidade e um valor.
+     *
+     * @param key O valor do atributo.
+     * @param id  O ID da entidade.
+     */
+    public void remove(K key, int id) {
+        Set<Integer> ids = key == null ? null : entries.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Obtém os IDs das entidades cujo valor está no intervalo fornecido, incluindo os limites.
+     *
+     * @param from O limite inferior, ou {@code null} para não limitar.
+     * @param to   O limite superior, ou {@code null} para não limitar.
+     * @return O conjunto de IDs, vazio se o limite inferior for maior que o superior.
+     */
+    public Set<Integer> range(K from, K to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            return Set.of();
+        }
+        NavigableMap<K, Set<Integer>> range = entries;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Map.Entry<K, Set<Integer>> entry : range.entrySet()) {
+            ids.addAll(entry.getValue());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.HavenBook.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dicionário que codifica cada texto distinto em um código {@code int} sequencial, a partir de zero. Permite
+ * armazenar colunas de texto repetitivo, como títulos e autores, em vetores de inteiros. O valor {@code null}
+ * também recebe um código.
+ */
+public class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Obtém o código do texto, atribuindo um novo código se o texto ainda não estiver no dicionário.
+     *
+     * @param value O texto.
+     * @return O código do texto.
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Obtém o texto correspondente ao código.
+     *
+     * @param code O código.
+     * @return O texto correspondente.
+     * @throws IndexOutOfBoundsException Se o código não tiver sido atribuído.
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Obtém o número de textos distintos no dicionário, que é também o próximo código a ser atribuído.
+     *
+     * @return O número de textos distintos.
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Remove todos os textos do dicionário.
+     */
+    public void clear() {
+        codes.clear();
+        values.clear();
+    }
+}
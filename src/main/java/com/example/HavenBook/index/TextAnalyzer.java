@@ -0,0 +1,82 @@
+package com.example.HavenBook.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de textos em português para as buscas: remove os acentos e converte para minúsculas, de modo que
+ * "Memórias", "memorias" e "MEMÓRIAS" sejam equivalentes, e separa o texto em termos nas sequências de letras e
+ * dígitos.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Palavras muito frequentes em português, que não distinguem os documentos e ocupariam as maiores listas do
+     * índice.
+     */
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos", "em", "na", "no", "nas", "nos", "um", "uma",
+            "uns", "umas", "por", "para", "com", "que", "se", "ao", "aos", "ou");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Remove os acentos e converte o texto para minúsculas.
+     *
+     * @param text O texto.
+     * @return O texto normalizado, ou uma string vazia se o texto for {@code null}.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Separa o texto normalizado em palavras, mantendo as palavras muito frequentes.
+     *
+     * @param text O texto.
+     * @return As palavras, na ordem do texto.
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(fold(text))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Verifica se a palavra normalizada é uma das palavras muito frequentes, descartadas pela busca.
+     *
+     * @param word A palavra, sem acentos e em minúsculas.
+     * @return {@code true} se a palavra for descartada pela busca.
+     */
+    public static boolean isStopword(String word) {
+        return STOPWORDS.contains(word);
+    }
+
+    /**
+     * Separa o texto normalizado em termos, descartando as palavras muito frequentes.
+     *
+     * @param text O texto.
+     * @return Os termos, na ordem do texto e com repetições.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = words(text);
+        terms.removeIf(STOPWORDS::contains);
+        return terms;
+    }
+}
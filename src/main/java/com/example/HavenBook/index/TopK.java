@@ -0,0 +1,59 @@
+package com.example.HavenBook.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Seleção dos K melhores elementos de uma coleção com um heap limitado, sem ordenar a coleção inteira.
+ * O custo é O(n log K) em tempo e O(K) em memória, onde K é a soma do deslocamento e do limite.
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Seleciona uma página dos melhores elementos segundo a ordem fornecida.
+     *
+     * @param items  Os elementos candidatos.
+     * @param order  A ordem dos elementos, do melhor para o pior.
+     * @param offset O número de melhores elementos a serem ignorados.
+     * @param limit  O número máximo de elementos retornados.
+     * @param <T>    O tipo dos elementos.
+     * @return Os elementos da página, do melhor para o pior.
+     * @throws IllegalArgumentException Se o deslocamento ou o limite forem negativos.
+     */
+    public static <T> List<T> select(Iterable<T> items, Comparator<? super T> order, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("O deslocamento e o limite não podem ser negativos.");
+        }
+        long bound = (long) offset + limit;
+        if (limit == 0 || bound > Integer.MAX_VALUE - 1) {
+            return limit == 0 ? List.of() : sortAll(items, order, offset);
+        }
+        int capacity = (int) bound;
+        Comparator<? super T> worstFirst = Collections.reverseOrder(order);
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(capacity, 1024), worstFirst);
+        for (T item : items) {
+            if (heap.size() < capacity) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> best = new ArrayList<>(heap);
+        best.sort(order);
+        return offset >= best.size() ? List.of() : best.subList(offset, best.size());
+    }
+
+    private static <T> List<T> sortAll(Iterable<T> items, Comparator<? super T> order, int offset) {
+        List<T> all = new ArrayList<>();
+        items.forEach(all::add);
+        all.sort(order);
+        return offset >= all.size() ? List.of() : all.subList(offset, all.size());
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.LogStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Log de alterações somente de acréscimo (write-ahead log). Cada operação é gravada como uma linha JSON
+ * independente no final do arquivo, de modo que o custo de escrita por operação não depende do tamanho
+ * total dos dados já armazenados. A gravação em disco é forçada separadamente por {@link #sync()}, o que
+ * permite confirmar várias operações com uma única sincronização, conforme a {@link FsyncPolicy} do
+ * {@link AtomicFileWriter}.
+ *
+ * @param <T> O tipo da entidade registrada no log.
+ */
+public class AppendOnlyLog<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(AppendOnlyLog.class.getName());
+    private static final byte NEW_LINE = '\n';
+    private static final int REPLAY_SAMPLE_BYTES = 256 * 1024;
+
+    private final Path path;
+    private final Class<T> type;
+    private final AtomicFileWriter writer;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private FileChannel channel;
+    private long entryCount;
+    private long unsyncedBytes;
+    private Instant lastSnapshotTime;
+    private long lastSnapshotNanos;
+    private long snapshotCount;
+
+    /**
+     * Construtor para o log de alterações.
+     *
+     * @param path   O caminho do arquivo de log.
+     * @param type   A classe da entidade registrada no log.
+     * @param writer O gravador que aplica a política de sincronização e registra as métricas das sincronizações.
+     */
+    public AppendOnlyLog(Path path, Class<T> type, AtomicFileWriter writer) {
+        this.path = path;
+        this.type = type;
+        this.writer = writer;
+    }
+
+    /**
+     * Lê todos os registros do log na ordem em que foram gravados. Apenas um fragmento sem o fim de linha no final
+     * do arquivo, resultante de uma falha durante a escrita de um registro que ainda não havia sido confirmado, é
+     * descartado, com o arquivo truncado no último registro completo. Uma linha completa inválida é ignorada e
+     * registrada no log da aplicação, mas permanece no arquivo, assim como os registros gravados depois dela.
+     *
+     * @return A lista de registros do log.
+     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo de log.
+     */
+    public synchronized List<LogEntry<T>> replay() {
+        List<LogEntry<T>> entries = new ArrayList<>();
+        try {
+            FileChannel current = openChannel();
+            byte[] content = Files.readAllBytes(path);
+            int lineStart = 0;
+            long lineCount = 0;
+            for (int i = 0; i < content.length; i++) {
+                if (content[i] != NEW_LINE) {
+                    continue;
+                }
+                lineCount++;
+                LogEntry<T> entry = parseEntry(content, lineStart, i - lineStart);
+                if (entry != null) {
+                    entries.add(entry);
+                } else {
+                    LOGGER.log(Level.SEVERE, "Ignorando o registro inválido na linha {0} do log {1}",
+                            new Object[]{lineCount, path});
+                }
+                lineStart = i + 1;
+            }
+            if (lineStart < content.length) {
+                LOGGER.log(Level.WARNING, "Descartando registro incompleto no final do log {0}", path);
+                current.truncate(lineStart);
+            }
+            current.position(lineStart);
+            entryCount = lineCount;
+            return entries;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo de log", e);
+            throw new RuntimeException("Erro ao ler o arquivo de log", e);
+        }
+    }
+
+    /**
+     * Acrescenta um registro ao final do log. O registro só é considerado durável após a próxima chamada a
+     * {@link #sync()}.
+     *
+     * @param operation A operação realizada.
+     * @param id        O ID da entidade afetada.
+     * @param value     O valor da entidade após a operação, ou {@code null} para exclusões.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo de log.
+     */
+    public synchronized void append(LogEntry.Operation operation, int id, T value) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            mapper.writeValue(buffer, new LogEntry<>(operation, id, value));
+            buffer.write(NEW_LINE);
+            FileChannel current = openChannel();
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                current.write(bytes);
+            }
+            entryCount++;
+            unsyncedBytes += buffer.size();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao gravar o arquivo de log", e);
+            throw new RuntimeException("Erro ao gravar o arquivo de log", e);
+        }
+    }
+
+    /**
+     * Força a gravação em disco dos registros acrescentados desde a última sincronização, se a política de
+     * sincronização exigir.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao sincronizar o arquivo de log.
+     */
+    public synchronized void sync() {
+        if (unsyncedBytes == 0) {
+            return;
+        }
+        try {
+            writer.sync(path, openChannel(), unsyncedBytes);
+            unsyncedBytes = 0;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao sincronizar o arquivo de log", e);
+            throw new RuntimeException("Erro ao sincronizar o arquivo de log", e);
+        }
+    }
+
+    /**
+     * Descarta todos os registros do log. Deve ser chamado somente depois que o estado completo tiver sido
+     * gravado em um snapshot.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao truncar o arquivo de log.
+     */
+    public synchronized void truncate() {
+        try {
+            FileChannel current = openChannel();
+            current.truncate(0);
+            current.position(0);
+            current.force(true);
+            entryCount = 0;
+            unsyncedBytes = 0;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao truncar o arquivo de log", e);
+            throw new RuntimeException("Erro ao truncar o arquivo de log", e);
+        }
+    }
+
+    /**
+     * Descarta os registros gravados antes da posição fornecida, mantendo os acrescentados depois dela. Deve ser
+     * chamado somente depois que o estado até a posição tiver sido gravado em um snapshot. Os registros mantidos
+     * são copiados para um novo arquivo, que substitui o log de forma atômica.
+     *
+     * @param position A posição obtida por {@link #getLength()} no momento do snapshot.
+     * @throws RuntimeException Se ocorrer um erro ao regravar o arquivo de log.
+     */
+    public synchronized void truncateBefore(long position) {
+        if (position <= 0) {
+            return;
+        }
+        try {
+            FileChannel current = openChannel();
+            long length = current.size();
+            if (position >= length) {
+                truncate();
+                return;
+            }
+            ByteBuffer tail = ByteBuffer.allocate(Math.toIntExact(length - position));
+            readFully(current, tail, position);
+            byte[] kept = tail.array();
+            writer.write(path, out -> out.write(kept));
+            close();
+            long keptEntries = 0;
+            for (byte b : kept) {
+                if (b == NEW_LINE) {
+                    keptEntries++;
+                }
+            }
+            entryCount = keptEntries;
+            unsyncedBytes = 0;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao truncar o arquivo de log", e);
+            throw new RuntimeException("Erro ao truncar o arquivo de log", e);
+        }
+    }
+
+    /**
+     * Obtém o tamanho atual do log, que marca a posição até onde um snapshot tirado neste momento incorpora os
+     * registros.
+     *
+     * @return O tamanho do log, em bytes.
+     * @throws RuntimeException Se ocorrer um erro ao abrir o arquivo de log.
+     */
+    public synchronized long getLength() {
+        try {
+            return openChannel().size();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao abrir o arquivo de log", e);
+            throw new RuntimeException("Erro ao abrir o arquivo de log", e);
+        }
+    }
+
+    /**
+     * Estima o tempo de leitura do log na inicialização, medindo a conversão de uma amostra dos primeiros
+     * registros e extrapolando para o tamanho do arquivo.
+     *
+     * @return O tempo estimado, em milissegundos.
+     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo de log.
+     */
+    public synchronized double estimateReplayMs() {
+        if (entryCount == 0) {
+            return 0;
+        }
+        try {
+            FileChannel current = openChannel();
+            long length = current.size();
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(length, REPLAY_SAMPLE_BYTES));
+            long start = System.nanoTime();
+            readFully(current, sample, 0);
+            byte[] content = sample.array();
+            int lineStart = 0;
+            for (int i = 0; i < content.length; i++) {
+                if (content[i] == NEW_LINE) {
+                    parseEntry(content, lineStart, i - lineStart);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart == 0) {
+                return 0;
+            }
+            double nanosPerByte = (double) (System.nanoTime() - start) / lineStart;
+            return nanosPerByte * length / 1_000_000.0;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo de log", e);
+            throw new RuntimeException("Erro ao ler o arquivo de log", e);
+        }
+    }
+
+    /**
+     * Registra a conclusão de um snapshot que incorporou os registros do log, para o estado do log.
+     *
+     * @param durationNanos A duração do snapshot, em nanossegundos.
+     */
+    public synchronized void recordSnapshot(long durationNanos) {
+        lastSnapshotTime = Instant.now();
+        lastSnapshotNanos = durationNanos;
+        snapshotCount++;
+    }
+
+    /**
+     * Obtém o estado do log: o número de registros, o tamanho, o tempo estimado de leitura e o último snapshot.
+     *
+     * @param name O nome do log, como o da entidade registrada.
+     * @return O estado do log.
+     */
+    public synchronized LogStatus getStatus(String name) {
+        return new LogStatus(name, path.toString(), entryCount, getLength(), estimateReplayMs(),
+                lastSnapshotTime == null ? null : lastSnapshotTime.toString(), lastSnapshotNanos / 1_000_000.0,
+                snapshotCount);
+    }
+
+    /**
+     * Obtém o caminho do arquivo de log.
+     *
+     * @return O caminho do arquivo.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Obtém o número de registros atualmente no log.
+     *
+     * @return O número de registros no log.
+     */
+    public synchronized long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Fecha o arquivo de log.
+     */
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Erro ao fechar o arquivo de log", e);
+        }
+        channel = null;
+    }
+
+    /**
+     * Abre o arquivo de log, criando-o se necessário, e posiciona a escrita no final do arquivo.
+     *
+     * @return O canal do arquivo de log.
+     * @throws IOException Se ocorrer um erro ao abrir o arquivo.
+     */
+    private FileChannel openChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    /**
+     * Lê o arquivo a partir da posição fornecida até encher o buffer ou chegar ao final do arquivo, sem mudar a
+     * posição de escrita do canal.
+     *
+     * @param channel  O canal do arquivo de log.
+     * @param buffer   O buffer de destino.
+     * @param position A posição inicial da leitura.
+     * @throws IOException Se ocorrer um erro ao ler o arquivo.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Converte uma linha do log em um registro.
+     *
+     * @param content O conteúdo do arquivo de log.
+     * @param offset  A posição inicial da linha.
+     * @param length  O tamanho da linha.
+     * @return O registro correspondente à linha, ou {@code null} se a linha for inválida.
+     */
+    private LogEntry<T> parseEntry(byte[] content, int offset, int length) {
+        try {
+            JsonNode node = mapper.readTree(content, offset, length);
+            LogEntry.Operation operation = LogEntry.Operation.valueOf(node.get("operation").asText());
+            JsonNode value = node.get("value");
+            T entity = value == null || value.isNull() ? null : mapper.treeToValue(value, type);
+            return new LogEntry<>(operation, node.get("id").asInt(), entity);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Registro inválido no log " + path, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.HavenBook.persistence;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Grava arquivos de forma atômica e aplica a {@link FsyncPolicy} configurada, compartilhado por todos os
+ * armazenamentos que gravam arquivos.
+ * <p>
+ * O conteúdo é gravado em um arquivo temporário no mesmo diretório, que então substitui o arquivo anterior por
+ * uma renomeação atômica. Uma queda durante a gravação deixa o arquivo anterior intacto, e os leitores nunca
+ * veem um arquivo pela metade. A política é lida de {@code persistence.fsync.policy}: com {@code always}, o
+ * arquivo temporário e o diretório são forçados em disco a cada gravação; com {@code interval}, os arquivos
+ * gravados são forçados a cada {@code persistence.fsync.interval-ms} milissegundos, em segundo plano; com
+ * {@code never}, a escrita em disco fica a cargo do sistema operacional.
+ * <p>
+ * A duração e o número de bytes de cada gravação são registrados por arquivo em {@link WriteMetrics}, para
+ * comparar o custo das políticas sob a carga de escrita da aplicação.
+ */
+@Component
+public class AtomicFileWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(AtomicFileWriter.class.getName());
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final FsyncPolicy policy;
+    private final long intervalMs;
+    private final ScheduledExecutorService executor;
+    private final Map<String, WriteMetrics> metrics = new TreeMap<>();
+    private final Set<Path> pendingFiles = new LinkedHashSet<>();
+
+    /**
+     * Conteúdo gravado por {@link #write(Path, Content)}.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Escreve o conteúdo do arquivo. O fluxo pode ser fechado pela ação, sem efeito sobre a gravação.
+         *
+         * @param out O fluxo do arquivo temporário.
+         * @throws IOException Se ocorrer um erro ao escrever.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Construtor para o gravador de arquivos.
+     *
+     * @param policy     A política de sincronização ({@code always}, {@code interval} ou {@code never}).
+     * @param intervalMs O intervalo, em milissegundos, entre as sincronizações da política {@code interval}.
+     */
+    public AtomicFileWriter(@Value("${persistence.fsync.policy:always}") String policy,
+                            @Value("${persistence.fsync.interval-ms:1000}") long intervalMs) {
+        this.policy = FsyncPolicy.fromProperty(policy);
+        this.intervalMs = intervalMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "persistence-fsync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (this.policy == FsyncPolicy.INTERVAL && intervalMs > 0) {
+            executor.scheduleWithFixedDelay(this::syncPending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Substitui o conteúdo de um arquivo de forma atômica.
+     *
+     * @param file    O arquivo.
+     * @param content A ação que escreve o novo conteúdo.
+     * @throws IOException Se ocorrer um erro ao gravar o arquivo; o arquivo anterior permanece inalterado.
+     */
+    public void write(Path file, Content content) throws IOException {
+        long start = System.nanoTime();
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        long bytes;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CountingOutputStream out = new CountingOutputStream(Channels.newOutputStream(channel));
+            content.writeTo(out);
+            out.flush();
+            bytes = out.count;
+            if (policy == FsyncPolicy.ALWAYS) {
+                channel.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (policy == FsyncPolicy.ALWAYS) {
+            forceDirectory(file.getParent());
+        }
+        afterWrite(file, bytes, start);
+    }
+
+    /**
+     * Aplica a política de sincronização a um arquivo gravado por acréscimo, como um log de alterações, depois
+     * que os bytes acrescentados já foram escritos no canal.
+     *
+     * @param file    O arquivo.
+     * @param channel O canal aberto do arquivo.
+     * @param bytes   O número de bytes acrescentados desde a sincronização anterior.
+     * @throws IOException Se ocorrer um erro ao sincronizar o arquivo.
+     */
+    public void sync(Path file, FileChannel channel, long bytes) throws IOException {
+        long start = System.nanoTime();
+        if (policy == FsyncPolicy.ALWAYS) {
+            channel.force(false);
+        }
+        afterWrite(file, bytes, start);
+    }
+
+    /**
+     * Força em disco um arquivo já gravado e o seu diretório, independentemente da política configurada. É usado
+     * antes de descartar dados que só deixam de ser necessários quando o arquivo é durável, como os registros de um
+     * log incorporados a um snapshot. Um arquivo inexistente tem apenas o diretório forçado, o que torna a sua
+     * remoção durável.
+     *
+     * @param file O arquivo.
+     * @throws IOException Se ocorrer um erro ao sincronizar o arquivo.
+     */
+    public void force(Path file) throws IOException {
+        if (Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+            metricsOf(file).recordFsync();
+        }
+        forceDirectory(file.getParent());
+    }
+
+    /**
+     * Força em disco os arquivos gravados desde a última sincronização da política {@link FsyncPolicy#INTERVAL}.
+     * Um arquivo que falhar é mantido para a próxima sincronização.
+     *
+     * @return O número de arquivos sincronizados.
+     */
+    public int syncPending() {
+        List<Path> files;
+        synchronized (pendingFiles) {
+            files = new ArrayList<>(pendingFiles);
+            pendingFiles.clear();
+        }
+        int synced = 0;
+        for (Path file : files) {
+            try {
+                if (Files.exists(file)) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                        channel.force(true);
+                    }
+                    forceDirectory(file.getParent());
+                    metricsOf(file).recordFsync();
+                    synced++;
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Erro ao sincronizar o arquivo " + file, e);
+                synchronized (pendingFiles) {
+                    pendingFiles.add(file);
+                }
+            }
+        }
+        return synced;
+    }
+
+    /**
+     * Obtém a política de sincronização configurada.
+     *
+     * @return A política de sincronização.
+     */
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Obtém o intervalo entre as sincronizações da política {@link FsyncPolicy#INTERVAL}.
+     *
+     * @return O intervalo, em milissegundos.
+     */
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    /**
+     * Obtém uma cópia das métricas de cada arquivo gravado, em ordem de caminho.
+     *
+     * @return A lista de métricas.
+     */
+    public List<WriteMetrics> getMetrics() {
+        synchronized (metrics) {
+            return metrics.values().stream().map(WriteMetrics::copy).toList();
+        }
+    }
+
+    /**
+     * Obtém as métricas somadas de todos os arquivos gravados.
+     *
+     * @return As métricas agregadas.
+     */
+    public WriteMetrics getTotals() {
+        WriteMetrics totals = new WriteMetrics("total");
+        getMetrics().forEach(totals::add);
+        return totals;
+    }
+
+    /**
+     * Sincroniza os arquivos pendentes e encerra as sincronizações periódicas ao finalizar a aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        syncPending();
+    }
+
+    private void afterWrite(Path file, long bytes, long start) {
+        if (policy == FsyncPolicy.INTERVAL) {
+            synchronized (pendingFiles) {
+                pendingFiles.add(file);
+            }
+        }
+        metricsOf(file).record(bytes, System.nanoTime() - start, policy == FsyncPolicy.ALWAYS);
+    }
+
+    private WriteMetrics metricsOf(Path file) {
+        String key = file.toAbsolutePath().toString();
+        synchronized (metrics) {
+            return metrics.computeIfAbsent(key, WriteMetrics::new);
+        }
+    }
+
+    /**
+     * Força em disco a entrada do diretório, para que a renomeação sobreviva a uma queda do sistema. Nos sistemas
+     * que não permitem abrir diretórios, como o Windows, a renomeação já é durável e a falha é ignorada.
+     *
+     * @param directory O diretório.
+     */
+    static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Diretório não sincronizado: " + directory, e);
+        }
+    }
+
+    /**
+     * Fluxo que conta os bytes escritos e não fecha o canal do arquivo temporário, que é forçado em disco antes de
+     * ser fechado.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(new BufferedOutputStream(out, 64 * 1024));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.HavenBook.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Snapshot binário de uma lista de entidades, mapeado em memória com {@link FileChannel#map}.
+ * <p>
+ * O arquivo começa com um cabeçalho (identificador do formato, versão e número de registros), seguido da tabela
+ * de posições, com o ID e a posição de cada registro, e dos registros, cada um precedido do seu tamanho em bytes
+ * e codificado por um {@link RecordCodec}. A abertura lê apenas o cabeçalho e a tabela; cada registro é
+ * convertido em entidade somente quando é acessado.
+ * <p>
+ * O arquivo é sempre gravado em um arquivo temporário que substitui o anterior, nunca alterado no lugar, de modo
+ * que um snapshot aberto continua válido enquanto as suas entidades ainda não foram lidas.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class BinarySnapshot<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(BinarySnapshot.class.getName());
+    private static final int MAGIC = 0x48424B53;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int INDEX_ENTRY_BYTES = 12;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final RecordCodec<T> codec;
+    private final int[] ids;
+    private final long[] offsets;
+
+    private BinarySnapshot(Path file, ByteBuffer buffer, RecordCodec<T> codec, int[] ids, long[] offsets) {
+        this.file = file;
+        this.buffer = buffer;
+        this.codec = codec;
+        this.ids = ids;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Grava as entidades em um snapshot binário, substituindo o arquivo existente de forma atômica.
+     *
+     * @param writer O gravador que substitui o arquivo e aplica a política de sincronização.
+     * @param file   O arquivo do snapshot.
+     * @param items  As entidades, na ordem em que serão lidas.
+     * @param idOf   A função que obtém o ID de uma entidade.
+     * @param codec  O codificador dos registros.
+     * @param <T>    O tipo da entidade.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo.
+     */
+    public static <T> void write(AtomicFileWriter writer, Path file, Collection<T> items, ToIntFunction<T> idOf,
+                                 RecordCodec<T> codec) {
+        int count = items.size();
+        int[] ids = new int[count];
+        long[] offsets = new long[count];
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        long recordsStart = HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES;
+        try {
+            DataOutputStream recordsOut = new DataOutputStream(records);
+            int index = 0;
+            for (T item : items) {
+                record.reset();
+                codec.encode(item, new DataOutputStream(record));
+                ids[index] = idOf.applyAsInt(item);
+                offsets[index] = recordsStart + records.size();
+                recordsOut.writeInt(record.size());
+                record.writeTo(recordsOut);
+                index++;
+            }
+
+            writer.write(file, stream -> {
+                DataOutputStream out = new DataOutputStream(stream);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(ids[i]);
+                    out.writeLong(offsets[i]);
+                }
+                records.writeTo(out);
+                out.flush();
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao salvar o snapshot binário", e);
+            throw new RuntimeException("Erro ao salvar o snapshot binário", e);
+        }
+    }
+
+    /**
+     * Mapeia o arquivo em memória e lê o cabeçalho e a tabela de posições, sem converter nenhum registro.
+     *
+     * @param file  O arquivo do snapshot.
+     * @param codec O codificador dos registros.
+     * @param <T>   O tipo da entidade.
+     * @return O snapshot aberto.
+     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo ou se ele não for um snapshot válido.
+     */
+    public static <T> BinarySnapshot<T> open(Path file, RecordCodec<T> codec) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("O arquivo " + file + " não é um snapshot binário");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Versão não suportada do snapshot binário " + file + ": " + buffer.getInt(4));
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES > buffer.limit()) {
+                throw new IOException("Tabela de posições inválida no snapshot binário " + file);
+            }
+            int[] ids = new int[count];
+            long[] offsets = new long[count];
+            int position = HEADER_BYTES;
+            for (int i = 0; i < count; i++) {
+                ids[i] = buffer.getInt(position);
+                offsets[i] = buffer.getLong(position + 4);
+                position += INDEX_ENTRY_BYTES;
+            }
+            return new BinarySnapshot<>(file, buffer, codec, ids, offsets);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao ler o snapshot binário", e);
+            throw new RuntimeException("Erro ao ler o snapshot binário", e);
+        }
+    }
+
+    /**
+     * Obtém o número de registros do snapshot.
+     *
+     * @return O número de registros.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Obtém o ID da entidade de um registro, lido da tabela de posições.
+     *
+     * @param record O índice do registro.
+     * @return O ID da entidade.
+     */
+    public int idAt(int record) {
+        return ids[record];
+    }
+
+    /**
+     * Converte um registro em entidade.
+     *
+     * @param record O índice do registro.
+     * @return A entidade.
+     * @throws RuntimeException Se o registro estiver corrompido.
+     */
+    public T decode(int record) {
+        try {
+            int offset = Math.toIntExact(offsets[record]);
+            int length = buffer.getInt(offset);
+            return codec.decode(buffer.slice(offset + 4, length));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao ler o snapshot binário", e);
+            throw new RuntimeException("Erro ao ler o registro " + record + " do snapshot binário " + file, e);
+        }
+    }
+
+    /**
+     * Converte todos os registros, na ordem do arquivo, atualizando o progresso da leitura.
+     *
+     * @param consumer A ação executada para cada entidade.
+     * @param progress O progresso da leitura.
+     * @return O número de entidades lidas.
+     */
+    public long read(Consumer<? super T> consumer, LoadProgress progress) {
+        progress.start(file.getFileName().toString(), buffer.limit());
+        try {
+            for (int record = 0; record < ids.length; record++) {
+                consumer.accept(decode(record));
+                progress.update(record + 1 < ids.length ? offsets[record + 1] : buffer.limit(), record + 1);
+            }
+            return ids.length;
+        } finally {
+            progress.finish();
+        }
+    }
+}
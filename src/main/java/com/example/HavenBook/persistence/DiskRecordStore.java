@@ -0,0 +1,454 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.index.RecordTable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Armazenamento de entidades em disco com acesso aleatório pelo ID, para catálogos que não cabem inteiros em
+ * memória.
+ * <p>
+ * O arquivo de dados recebe os registros, codificados por um {@link RecordCodec}, sempre ao final. O arquivo de
+ * índice tem uma posição de tamanho fixo por ID, com a posição e o tamanho do registro no arquivo de dados, e é
+ * mantido também em memória, com 12 bytes por ID. Apenas as entidades mais acessadas ficam em memória, em um
+ * cache LRU de tamanho limitado; uma entidade fora do cache é obtida com uma única leitura posicionada no arquivo
+ * de dados. Registros substituídos ou removidos ficam no arquivo de dados até que ocupem mais da metade dele,
+ * quando o arquivo é regravado apenas com os registros atuais.
+ * <p>
+ * A compactação grava os novos arquivos de dados e de índice em arquivos temporários e cria um arquivo de marca
+ * antes de substituir os atuais. A marca confirma o par: na abertura, se ela existir, as substituições que não
+ * chegaram a ser feitas são concluídas; se não existir, os temporários de uma compactação interrompida são
+ * descartados. Assim, o índice nunca é lido com as posições de outro arquivo de dados.
+ * <p>
+ * As gravações não são sincronizadas com o disco individualmente; {@link #sync()} é chamado pelo serviço quando
+ * o lote de alterações é confirmado.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class DiskRecordStore<T> implements RecordTable<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(DiskRecordStore.class.getName());
+    private static final int SLOT_BYTES = 12;
+    private static final long MIN_COMPACTION_BYTES = 1L << 20;
+
+    private final Path dataPath;
+    private final Path indexPath;
+    private final Path tempDataPath;
+    private final Path tempIndexPath;
+    private final Path compactionMarkPath;
+    private final RecordCodec<T> codec;
+    private final ToIntFunction<T> idOf;
+    private final Map<Integer, T> cache;
+
+    private FileChannel data;
+    private FileChannel index;
+    private long[] offsets = new long[0];
+    private int[] lengths = new int[0];
+    private int size;
+    private long liveBytes;
+    private long appendPosition;
+
+    /**
+     * Construtor para o armazenamento, que abre ou cria os arquivos e lê o índice.
+     *
+     * @param dataPath  O caminho do arquivo de dados.
+     * @param indexPath O caminho do arquivo de índice.
+     * @param codec     O codificador dos registros.
+     * @param idOf      A função que obtém o ID de uma entidade.
+     * @param cacheSize O número máximo de entidades mantidas em memória.
+     * @throws RuntimeException Se ocorrer um erro ao abrir os arquivos.
+     */
+    public DiskRecordStore(Path dataPath, Path indexPath, RecordCodec<T> codec, ToIntFunction<T> idOf, int cacheSize) {
+        this.dataPath = dataPath;
+        this.indexPath = indexPath;
+        this.tempDataPath = dataPath.resolveSibling(dataPath.getFileName() + ".tmp");
+        this.tempIndexPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        this.compactionMarkPath = indexPath.resolveSibling(indexPath.getFileName() + ".compact");
+        this.codec = codec;
+        this.idOf = idOf;
+        int capacity = Math.max(1, cacheSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                return size() > capacity;
+            }
+        };
+        reload();
+    }
+
+    /**
+     * Fecha os arquivos, se estiverem abertos, conclui ou descarta uma compactação interrompida e reabre os
+     * arquivos, relendo o índice e esvaziando o cache.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao ler os arquivos ou ao concluir a compactação.
+     */
+    public synchronized void reload() {
+        try {
+            close();
+            finishCompaction();
+            data = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int slots = (int) (index.size() / SLOT_BYTES);
+            ByteBuffer buffer = ByteBuffer.allocate(slots * SLOT_BYTES);
+            readFully(index, buffer, 0);
+            buffer.flip();
+            offsets = new long[slots];
+            lengths = new int[slots];
+            size = 0;
+            liveBytes = 0;
+            for (int id = 0; id < slots; id++) {
+                offsets[id] = buffer.getLong();
+                lengths[id] = buffer.getInt();
+                if (lengths[id] > 0) {
+                    size++;
+                    liveBytes += lengths[id];
+                }
+            }
+            appendPosition = data.size();
+            cache.clear();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao abrir o armazenamento em disco", e);
+            throw new RuntimeException("Erro ao abrir o armazenamento em disco", e);
+        }
+    }
+
+    /**
+     * Obtém a data da última alteração do índice.
+     *
+     * @return A data da última alteração, em microssegundos desde a época.
+     */
+    public long lastModified() {
+        return SnapshotStore.lastModified(indexPath);
+    }
+
+    @Override
+    public synchronized T get(int id) {
+        T cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        T item = read(id);
+        if (item != null) {
+            cache.put(id, item);
+        }
+        return item;
+    }
+
+    @Override
+    public synchronized boolean contains(int id) {
+        return id > 0 && id < lengths.length && lengths[id] > 0;
+    }
+
+    @Override
+    public synchronized T put(T item) {
+        int id = idOf.applyAsInt(item);
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID inválido: " + id);
+        }
+        T previous = get(id);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            codec.encode(item, new DataOutputStream(bytes));
+            ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+            long offset = appendPosition;
+            writeFully(data, record, offset);
+            appendPosition += bytes.size();
+            ensureSlot(id);
+            if (lengths[id] > 0) {
+                liveBytes -= lengths[id];
+            } else {
+                size++;
+            }
+            writeSlot(id, offset, bytes.size());
+            liveBytes += bytes.size();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao gravar no armazenamento em disco", e);
+            throw new RuntimeException("Erro ao gravar no armazenamento em disco", e);
+        }
+        cache.put(id, item);
+        compactIfNeeded();
+        return previous;
+    }
+
+    @Override
+    public synchronized T remove(int id) {
+        if (!contains(id)) {
+            return null;
+        }
+        T removed = get(id);
+        try {
+            liveBytes -= lengths[id];
+            size--;
+            writeSlot(id, 0, 0);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao gravar no armazenamento em disco", e);
+            throw new RuntimeException("Erro ao gravar no armazenamento em disco", e);
+        }
+        cache.remove(id);
+        compactIfNeeded();
+        return removed;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized int maxId() {
+        for (int id = lengths.length - 1; id > 0; id--) {
+            if (lengths[id] > 0) {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Percorre as entidades em ordem de ID, lendo do disco as que não estão no cache, sem incluí-las no cache.
+     *
+     * @param action A ação executada para cada entidade.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (int id : ids()) {
+            T item = peek(id);
+            if (item != null) {
+                action.accept(item);
+            }
+        }
+    }
+
+    /**
+     * Cria uma lista imutável com as entidades em ordem de ID. A lista guarda apenas os IDs e lê cada entidade
+     * quando ela é acessada, sem incluí-la no cache.
+     *
+     * @return A lista de entidades.
+     */
+    @Override
+    public List<T> toList() {
+        int[] ids = ids();
+        return Collections.unmodifiableList(new AbstractList<>() {
+            @Override
+            public T get(int position) {
+                return peek(ids[position]);
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        });
+    }
+
+    /**
+     * Remove todas as entidades, esvaziando os dois arquivos.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao gravar os arquivos.
+     */
+    public synchronized void clear() {
+        try {
+            data.truncate(0);
+            index.truncate(0);
+            offsets = new long[0];
+            lengths = new int[0];
+            size = 0;
+            liveBytes = 0;
+            appendPosition = 0;
+            cache.clear();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao gravar no armazenamento em disco", e);
+            throw new RuntimeException("Erro ao gravar no armazenamento em disco", e);
+        }
+    }
+
+    /**
+     * Sincroniza os arquivos de dados e de índice com o disco.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao sincronizar os arquivos.
+     */
+    public synchronized void sync() {
+        try {
+            data.force(false);
+            index.force(false);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao sincronizar o armazenamento em disco", e);
+            throw new RuntimeException("Erro ao sincronizar o armazenamento em disco", e);
+        }
+    }
+
+    /**
+     * Fecha os arquivos.
+     */
+    public synchronized void close() {
+        try {
+            if (data != null) {
+                data.close();
+            }
+            if (index != null) {
+                index.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Erro ao fechar o armazenamento em disco", e);
+        }
+    }
+
+    private synchronized int[] ids() {
+        int[] ids = new int[size];
+        int position = 0;
+        for (int id = 1; id < lengths.length; id++) {
+            if (lengths[id] > 0) {
+                ids[position++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private synchronized T peek(int id) {
+        T cached = cache.get(id);
+        return cached != null ? cached : read(id);
+    }
+
+    private T read(int id) {
+        if (!contains(id)) {
+            return null;
+        }
+        try {
+            ByteBuffer record = ByteBuffer.allocate(lengths[id]);
+            readFully(data, record, offsets[id]);
+            record.flip();
+            return codec.decode(record);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao ler o armazenamento em disco", e);
+            throw new RuntimeException("Erro ao ler o armazenamento em disco", e);
+        }
+    }
+
+    private void ensureSlot(int id) {
+        if (id < lengths.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, lengths.length * 2);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    private void writeSlot(int id, long offset, int length) throws IOException {
+        offsets[id] = offset;
+        lengths[id] = length;
+        ByteBuffer slot = ByteBuffer.allocate(SLOT_BYTES).putLong(offset).putInt(length);
+        slot.flip();
+        writeFully(index, slot, (long) id * SLOT_BYTES);
+    }
+
+    /**
+     * Regrava o arquivo de dados apenas com os registros atuais quando os registros substituídos ou removidos
+     * passam a ocupar mais da metade dele, e regrava o índice com as novas posições.
+     * <p>
+     * Os novos arquivos são gravados como temporários e forçados em disco, junto com o diretório, e só então a
+     * marca de compactação é criada; a substituição dos arquivos atuais é feita por {@link #reload()}. Uma falha
+     * antes da marca descarta os temporários e mantém os arquivos atuais; uma falha depois dela é propagada, sem
+     * continuar com um par de arquivos misturado, e a substituição é concluída na próxima abertura.
+     *
+     * @throws RuntimeException Se a compactação confirmada pela marca não puder ser concluída.
+     */
+    private void compactIfNeeded() {
+        long garbage = appendPosition - liveBytes;
+        if (garbage < MIN_COMPACTION_BYTES || garbage <= liveBytes) {
+            return;
+        }
+        try {
+            try (FileChannel newData = FileChannel.open(tempDataPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 FileChannel newIndex = FileChannel.open(tempIndexPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long position = 0;
+                ByteBuffer slots = ByteBuffer.allocate(lengths.length * SLOT_BYTES);
+                for (int id = 0; id < lengths.length; id++) {
+                    long offset = 0;
+                    if (lengths[id] > 0) {
+                        ByteBuffer record = ByteBuffer.allocate(lengths[id]);
+                        readFully(data, record, offsets[id]);
+                        record.flip();
+                        offset = position;
+                        writeFully(newData, record, position);
+                        position += lengths[id];
+                    }
+                    slots.putLong(offset).putInt(lengths[id]);
+                }
+                slots.flip();
+                writeFully(newIndex, slots, 0);
+                newData.force(false);
+                newIndex.force(false);
+            }
+            AtomicFileWriter.forceDirectory(indexPath.toAbsolutePath().getParent());
+            Files.createFile(compactionMarkPath);
+            AtomicFileWriter.forceDirectory(indexPath.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao compactar o armazenamento em disco", e);
+            try {
+                Files.deleteIfExists(compactionMarkPath);
+                Files.deleteIfExists(tempDataPath);
+                Files.deleteIfExists(tempIndexPath);
+            } catch (IOException cleanup) {
+                LOGGER.log(Level.WARNING, "Erro ao remover os arquivos temporários da compactação", cleanup);
+            }
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * Conclui a compactação confirmada pela marca, substituindo os arquivos de dados e de índice pelos temporários
+     * que ainda não foram movidos e removendo a marca, ou descarta os temporários de uma compactação que não chegou
+     * a ser confirmada.
+     *
+     * @throws IOException Se ocorrer um erro ao substituir ou remover os arquivos.
+     */
+    private void finishCompaction() throws IOException {
+        if (!Files.exists(compactionMarkPath)) {
+            Files.deleteIfExists(tempDataPath);
+            Files.deleteIfExists(tempIndexPath);
+            return;
+        }
+        if (Files.exists(tempDataPath)) {
+            Files.move(tempDataPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (Files.exists(tempIndexPath)) {
+            Files.move(tempIndexPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        AtomicFileWriter.forceDirectory(indexPath.toAbsolutePath().getParent());
+        Files.delete(compactionMarkPath);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Fim inesperado do arquivo");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.index.RecordTable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Repositório do mecanismo {@link StorageEngine#DISK}: as entidades ficam em um {@link DiskRecordStore} ao lado do
+ * snapshot, com apenas as mais acessadas em memória. O snapshot é importado no primeiro uso, quando o arquivo de
+ * índice ainda não existe, e depois apenas quando for mais recente que o armazenamento em disco; um armazenamento
+ * vazio, como após a exclusão de todas as entidades, não é reimportado. O snapshot só é gravado por
+ * {@link #exportJson(List)}.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class DiskRepository<T> implements EntityRepository<T> {
+
+    private final SnapshotStore<T> snapshotStore;
+    private final DiskRecordStore<T> store;
+    private final ToIntFunction<T> idOf;
+    private final String key;
+    private boolean importPending;
+
+    /**
+     * Construtor para o repositório, que abre ou cria os arquivos de dados e de índice.
+     *
+     * @param snapshotStore O snapshot de onde as entidades são importadas.
+     * @param basePath      O caminho dos arquivos, sem a extensão; os arquivos usam as extensões {@code .dat} e
+     *                      {@code .idx}.
+     * @param codec         O codificador dos registros.
+     * @param idOf          A função que obtém o ID de uma entidade.
+     * @param cacheSize     O número máximo de entidades mantidas em memória.
+     */
+    public DiskRepository(SnapshotStore<T> snapshotStore, String basePath, RecordCodec<T> codec, ToIntFunction<T> idOf,
+                          int cacheSize) {
+        this.snapshotStore = snapshotStore;
+        Path indexPath = Path.of(basePath + ".idx");
+        this.importPending = !Files.exists(indexPath);
+        this.store = new DiskRecordStore<>(Path.of(basePath + ".dat"), indexPath, codec, idOf, cacheSize);
+        this.idOf = idOf;
+        this.key = basePath + ".idx";
+    }
+
+    @Override
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public synchronized RecordTable<T> load(ObjIntConsumer<T> setId) {
+        FileSignature signature = snapshotStore.signature();
+        store.reload();
+        if (importPending || snapshotStore.lastModified() > store.lastModified()) {
+            importSnapshot(setId);
+            importPending = false;
+        }
+        snapshotStore.markSeen(signature);
+        return store;
+    }
+
+    @Override
+    public boolean hasChanged() {
+        return snapshotStore.hasChanged();
+    }
+
+    /**
+     * Substitui o conteúdo do armazenamento em disco pelas entidades do snapshot, lidas uma a uma.
+     *
+     * @param setId A função que define o ID de uma entidade sem ID válido ou com ID repetido.
+     */
+    private void importSnapshot(ObjIntConsumer<T> setId) {
+        store.clear();
+        List<T> pending = new ArrayList<>();
+        snapshotStore.readEach(item -> {
+            int id = idOf.applyAsInt(item);
+            if (id <= 0 || store.contains(id)) {
+                pending.add(item);
+            } else {
+                store.put(item);
+            }
+        });
+        int nextId = store.maxId() + 1;
+        for (T item : pending) {
+            setId.accept(item, nextId++);
+            store.put(item);
+        }
+        store.sync();
+    }
+
+    @Override
+    public List<T> readAll() {
+        return new ArrayList<>(store.toList());
+    }
+
+    @Override
+    public void flush(Supplier<List<T>> contents) {
+        store.sync();
+    }
+
+    @Override
+    public void exportJson(List<T> items) {
+        snapshotStore.exportJson(items);
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
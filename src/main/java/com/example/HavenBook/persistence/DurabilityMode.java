@@ -0,0 +1,35 @@
+package com.example.HavenBook.persistence;
+
+import java.util.Locale;
+
+/**
+ * Modos de durabilidade suportados pelo {@link PersistenceScheduler}.
+ */
+public enum DurabilityMode {
+
+    /**
+     * Cada operação é gravada em disco imediatamente, antes de ser confirmada ao chamador.
+     */
+    SYNC,
+
+    /**
+     * As operações são agrupadas em lotes e gravadas juntas; o chamador é confirmado quando o seu lote é gravado.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * As operações são agrupadas em lotes e gravadas em segundo plano; o chamador é confirmado imediatamente.
+     */
+    ASYNC;
+
+    /**
+     * Converte o valor de uma propriedade de configuração, como {@code group-commit}, no modo correspondente.
+     *
+     * @param value O valor da propriedade.
+     * @return O modo de durabilidade correspondente.
+     * @throws IllegalArgumentException Se o valor não corresponder a nenhum modo.
+     */
+    public static DurabilityMode fromProperty(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.Activity;
+import com.example.HavenBook.domain.Author;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.Genre;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import com.example.HavenBook.domain.User;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.HavenBook.persistence.RecordCodec.readDate;
+import static com.example.HavenBook.persistence.RecordCodec.readString;
+import static com.example.HavenBook.persistence.RecordCodec.readStrings;
+import static com.example.HavenBook.persistence.RecordCodec.writeDate;
+import static com.example.HavenBook.persistence.RecordCodec.writeString;
+import static com.example.HavenBook.persistence.RecordCodec.writeStrings;
+
+/**
+ * Codificadores dos registros binários das entidades, usados nos snapshots binários e nos mecanismos de
+ * armazenamento em disco e SQL. Os campos são gravados na ordem em que são declarados nas entidades; as vendas
+ * são gravadas apenas com os itens, sem os livros completos.
+ */
+public final class EntityCodecs {
+
+    /**
+     * Codificador dos livros.
+     */
+    public static final RecordCodec<Book> BOOK = new RecordCodec<>() {
+        @Override
+        public void encode(Book book, DataOutput out) throws IOException {
+            out.writeInt(book.getId());
+            writeString(out, book.getTitle());
+            writeString(out, book.getAuthor());
+            writeDate(out, book.getPublicationDate());
+            writeString(out, book.getDescription());
+            writeStrings(out, book.getGenres());
+            out.writeInt(book.getNumberOfPages());
+            out.writeDouble(book.getValue());
+        }
+
+        @Override
+        public Book decode(ByteBuffer in) {
+            Book book = new Book();
+            book.setId(in.getInt());
+            book.setTitle(readString(in));
+            book.setAuthor(readString(in));
+            book.setPublicationDate(readDate(in));
+            book.setDescription(readString(in));
+            book.setGenres(readStrings(in));
+            book.setNumberOfPages(in.getInt());
+            book.setValue(in.getDouble());
+            return book;
+        }
+    };
+
+    /**
+     * Codificador dos usuários.
+     */
+    public static final RecordCodec<User> USER = new RecordCodec<>() {
+        @Override
+        public void encode(User user, DataOutput out) throws IOException {
+            out.writeInt(user.getId());
+            writeString(out, user.getName());
+            writeString(out, user.getUsername());
+            writeString(out, user.getPassword());
+            writeString(out, user.getDepartment());
+            out.writeInt(user.getStatus());
+        }
+
+        @Override
+        public User decode(ByteBuffer in) {
+            User user = new User();
+            user.setId(in.getInt());
+            user.setName(readString(in));
+            user.setUsername(readString(in));
+            user.setPassword(readString(in));
+            user.setDepartment(readString(in));
+            user.setStatus(in.getInt());
+            return user;
+        }
+    };
+
+    /**
+     * Codificador das atividades.
+     */
+    public static final RecordCodec<Activity> ACTIVITY = new RecordCodec<>() {
+        @Override
+        public void encode(Activity activity, DataOutput out) throws IOException {
+            out.writeInt(activity.getId());
+            writeString(out, activity.getDescription());
+            out.writeInt(activity.getResponsableId());
+            writeDate(out, activity.getFinalDate());
+        }
+
+        @Override
+        public Activity decode(ByteBuffer in) {
+            Activity activity = new Activity();
+            activity.setId(in.getInt());
+            activity.setDescription(readString(in));
+            activity.setResponsableId(in.getInt());
+            activity.setFinalDate(readDate(in));
+            return activity;
+        }
+    };
+
+    /**
+     * Codificador dos autores.
+     */
+    public static final RecordCodec<Author> AUTHOR = new RecordCodec<>() {
+        @Override
+        public void encode(Author author, DataOutput out) throws IOException {
+            out.writeInt(author.getId());
+            writeString(out, author.getName());
+        }
+
+        @Override
+        public Author decode(ByteBuffer in) {
+            Author author = new Author();
+            author.setId(in.getInt());
+            author.setName(readString(in));
+            return author;
+        }
+    };
+
+    /**
+     * Codificador dos gêneros.
+     */
+    public static final RecordCodec<Genre> GENRE = new RecordCodec<>() {
+        @Override
+        public void encode(Genre genre, DataOutput out) throws IOException {
+            out.writeInt(genre.getId());
+            writeString(out, genre.getName());
+        }
+
+        @Override
+        public Genre decode(ByteBuffer in) {
+            Genre genre = new Genre();
+            genre.setId(in.getInt());
+            genre.setName(readString(in));
+            return genre;
+        }
+    };
+
+    /**
+     * Codificador das vendas. O título e o autor dos itens fora do catálogo são gravados depois dos itens, somente
+     * quando algum item os tiver, para que os registros gravados antes deles continuem legíveis.
+     */
+    public static final RecordCodec<SaleHistory> SALE_HISTORY = new RecordCodec<>() {
+        @Override
+        public void encode(SaleHistory saleHistory, DataOutput out) throws IOException {
+            out.writeInt(saleHistory.getId());
+            writeString(out, saleHistory.getSaleDate());
+            out.writeDouble(saleHistory.getTotalValue());
+            List<SaleLine> lines = saleHistory.getLines() == null ? List.of() : saleHistory.getLines();
+            out.writeInt(lines.size());
+            for (SaleLine line : lines) {
+                out.writeInt(line.getBookId());
+                out.writeDouble(line.getUnitPrice());
+                out.writeInt(line.getQuantity());
+            }
+            if (lines.stream().anyMatch(line -> line.getTitle() != null || line.getAuthor() != null)) {
+                for (SaleLine line : lines) {
+                    writeString(out, line.getTitle());
+                    writeString(out, line.getAuthor());
+                }
+            }
+        }
+
+        @Override
+        public SaleHistory decode(ByteBuffer in) {
+            SaleHistory saleHistory = new SaleHistory();
+            saleHistory.setId(in.getInt());
+            saleHistory.setSaleDate(readString(in));
+            saleHistory.setTotalValue(in.getDouble());
+            int count = in.getInt();
+            List<SaleLine> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                lines.add(new SaleLine(in.getInt(), in.getDouble(), in.getInt()));
+            }
+            if (in.hasRemaining()) {
+                for (SaleLine line : lines) {
+                    line.setTitle(readString(in));
+                    line.setAuthor(readString(in));
+                }
+            }
+            saleHistory.setLines(lines);
+            return saleHistory;
+        }
+    };
+
+    private EntityCodecs() {
+    }
+}
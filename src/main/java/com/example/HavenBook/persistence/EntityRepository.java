@@ -0,0 +1,98 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.LogStatus;
+import com.example.HavenBook.index.RecordTable;
+
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Repositório de uma entidade em um {@link StorageEngine}. Os serviços consultam e alteram as entidades pela
+ * {@link RecordTable} obtida em {@link #load(ObjIntConsumer)}, indexada pelo ID, e chamam {@link #flush(Supplier)}
+ * a cada lote de alterações agendado pelo {@link PersistenceScheduler}.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public interface EntityRepository<T> {
+
+    /**
+     * Obtém a chave que identifica o armazenamento, usada para agrupar as gravações no {@link PersistenceScheduler}.
+     *
+     * @return A chave do armazenamento.
+     */
+    String getKey();
+
+    /**
+     * Carrega as entidades armazenadas, descartando o estado anterior. Entidades importadas do snapshot sem ID
+     * válido ou com ID repetido recebem um novo ID, maior que todos os IDs existentes.
+     *
+     * @param setId A função que define o ID de uma entidade.
+     * @return A tabela de entidades, que passa a receber as alterações do serviço.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
+     */
+    RecordTable<T> load(ObjIntConsumer<T> setId);
+
+    /**
+     * Verifica se o snapshot foi alterado fora da aplicação desde a última carga ou gravação, caso em que
+     * {@link #load(ObjIntConsumer)} deve ser chamado novamente para obter as entidades alteradas.
+     *
+     * @return {@code true} se o snapshot foi alterado.
+     */
+    boolean hasChanged();
+
+    /**
+     * Lê as entidades do armazenamento, sem alterar os seus IDs.
+     *
+     * @return A lista de entidades armazenadas.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
+     */
+    List<T> readAll();
+
+    /**
+     * Torna duráveis as alterações feitas na tabela desde a última chamada.
+     *
+     * @param contents O conteúdo atual da tabela, obtido apenas pelos mecanismos que gravam tudo a cada lote.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o armazenamento.
+     */
+    void flush(Supplier<List<T>> contents);
+
+    /**
+     * Grava as entidades no arquivo JSON do snapshot, independentemente do mecanismo de armazenamento.
+     *
+     * @param items As entidades.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo.
+     */
+    void exportJson(List<T> items);
+
+    /**
+     * Grava um snapshot das entidades e descarta do log de alterações os registros que ele incorpora, nos
+     * mecanismos que registram as alterações em log. O conteúdo é obtido com o bloqueio fornecido, para que
+     * corresponda exatamente à posição do log, e gravado fora dele.
+     *
+     * @param lock     O objeto cujo bloqueio protege as alterações da tabela, normalmente o serviço.
+     * @param contents O conteúdo atual da tabela.
+     * @return {@code true} se um snapshot foi gravado; {@code false} se o log estava vazio ou se o mecanismo não
+     *         usa log.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o snapshot.
+     */
+    default boolean snapshot(Object lock, Supplier<List<T>> contents) {
+        return false;
+    }
+
+    /**
+     * Obtém o estado do log de alterações, nos mecanismos que registram as alterações em log.
+     *
+     * @param name O nome da entidade.
+     * @return O estado do log, ou {@code null} se o mecanismo não usa log.
+     */
+    default LogStatus getLogStatus(String name) {
+        return null;
+    }
+
+    /**
+     * Libera os recursos do armazenamento, como arquivos e conexões abertos.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.index.RecordTable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Estado em memória de uma entidade guardada em um {@link EntityRepository}: a {@link RecordTable} carregada, o
+ * próximo ID e a cópia imutável da lista, recriada apenas na primeira leitura após uma alteração. Concentra a
+ * carga, a recarga quando o snapshot é alterado fora da aplicação e a aplicação das alterações com a gravação
+ * agendada pelo {@link PersistenceScheduler}, comuns aos serviços das entidades.
+ * <p>
+ * O estado é protegido pelo bloqueio do objeto fornecido, normalmente o serviço, que o usa também nos seus
+ * métodos {@code synchronized}; a tabela e o próximo ID só devem ser usados com esse bloqueio.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class EntityStore<T> {
+
+    private final Object lock;
+    private final EntityRepository<T> repository;
+    private final PersistenceScheduler persistenceScheduler;
+    private final ObjIntConsumer<T> setId;
+    private final Runnable onLoad;
+
+    private RecordTable<T> table;
+    private int nextId;
+    private volatile List<T> snapshot;
+
+    /**
+     * Construtor para o estado de uma entidade. As entidades são carregadas por {@link #load()}.
+     *
+     * @param lock                 O objeto cujo bloqueio protege o estado, normalmente o serviço.
+     * @param repository           O repositório da entidade.
+     * @param persistenceScheduler O agendador que agrupa as gravações.
+     * @param setId                A função que define o ID de uma entidade.
+     * @param onLoad               A ação executada com o bloqueio após cada carga, para descartar o estado
+     *                             derivado das entidades mantido pelo serviço.
+     */
+    public EntityStore(Object lock, EntityRepository<T> repository, PersistenceScheduler persistenceScheduler,
+                       ObjIntConsumer<T> setId, Runnable onLoad) {
+        this.lock = lock;
+        this.repository = repository;
+        this.persistenceScheduler = persistenceScheduler;
+        this.setId = setId;
+        this.onLoad = onLoad;
+    }
+
+    /**
+     * Construtor para o estado de uma entidade sem estado derivado no serviço.
+     *
+     * @param lock                 O objeto cujo bloqueio protege o estado, normalmente o serviço.
+     * @param repository           O repositório da entidade.
+     * @param persistenceScheduler O agendador que agrupa as gravações.
+     * @param setId                A função que define o ID de uma entidade.
+     */
+    public EntityStore(Object lock, EntityRepository<T> repository, PersistenceScheduler persistenceScheduler,
+                       ObjIntConsumer<T> setId) {
+        this(lock, repository, persistenceScheduler, setId, () -> {
+        });
+    }
+
+    /**
+     * Carrega as entidades do repositório, descartando o estado anterior, e define o próximo ID disponível.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
+     */
+    public void load() {
+        synchronized (lock) {
+            table = repository.load(setId);
+            snapshot = null;
+            nextId = table.maxId() + 1;
+            onLoad.run();
+        }
+    }
+
+    /**
+     * Recarrega as entidades apenas se o snapshot foi alterado fora da aplicação desde a última carga ou gravação.
+     * A tabela carregada substitui a anterior de uma só vez.
+     *
+     * @return {@code true} se as entidades foram recarregadas.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
+     */
+    public boolean reloadIfChanged() {
+        synchronized (lock) {
+            if (!repository.hasChanged()) {
+                return false;
+            }
+            load();
+            return true;
+        }
+    }
+
+    /**
+     * Obtém a tabela das entidades carregadas. Deve ser usada com o bloqueio do estado.
+     *
+     * @return A tabela das entidades.
+     */
+    public RecordTable<T> table() {
+        return table;
+    }
+
+    /**
+     * Reserva o próximo ID disponível. Deve ser chamado com o bloqueio do estado, normalmente dentro de
+     * {@link #applyChange(BooleanSupplier)}, depois de validada a entidade.
+     *
+     * @return O ID reservado.
+     */
+    public int nextId() {
+        return nextId++;
+    }
+
+    /**
+     * Obtém todas as entidades a partir da cópia imutável mantida em memória, sem reler o armazenamento. A cópia
+     * é recriada apenas na primeira leitura após uma alteração.
+     *
+     * @return Uma lista imutável com todas as entidades.
+     */
+    public List<T> getAll() {
+        List<T> current = snapshot;
+        if (current == null) {
+            synchronized (lock) {
+                current = snapshot;
+                if (current == null) {
+                    current = table.toList();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Aplica uma alteração na tabela e agenda a gravação do lote pelo {@link PersistenceScheduler}. A espera pela
+     * gravação ocorre fora do bloqueio, para que alterações concorrentes possam ser agrupadas no mesmo lote.
+     *
+     * @param change A alteração a ser aplicada; retorna {@code true} se a tabela foi modificada.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o armazenamento.
+     */
+    public void applyChange(BooleanSupplier change) {
+        CompletableFuture<Void> ticket = null;
+        synchronized (lock) {
+            if (change.getAsBoolean()) {
+                snapshot = null;
+                ticket = persistenceScheduler.submit(repository.getKey(), () -> repository.flush(this::getAll));
+            }
+        }
+        if (ticket != null) {
+            persistenceScheduler.awaitDurability(ticket);
+        }
+    }
+
+    /**
+     * Grava um snapshot das entidades e descarta do log os registros que ele incorpora, nos mecanismos que
+     * registram as alterações em log. A lista é copiada com o bloqueio do estado, e a gravação ocorre fora dele.
+     *
+     * @return {@code true} se um snapshot foi gravado.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o snapshot.
+     */
+    public boolean snapshotLog() {
+        return repository.snapshot(lock, this::getAll);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.HavenBook.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assinatura de um conjunto de arquivos, formada pela data da última alteração, em microssegundos, e pelo tamanho
+ * de cada arquivo. Duas assinaturas diferentes indicam que algum arquivo foi alterado, criado ou removido, sem que
+ * o conteúdo precise ser lido.
+ */
+public final class FileSignature {
+
+    /**
+     * Assinatura que não corresponde a nenhum conjunto de arquivos, usada antes da primeira leitura.
+     */
+    public static final FileSignature NONE = new FileSignature(new long[0]);
+
+    private final long[] values;
+
+    private FileSignature(long[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Obtém a assinatura atual dos arquivos fornecidos. Um arquivo inexistente entra na assinatura com tamanho
+     * {@code -1}.
+     *
+     * @param paths Os arquivos.
+     * @return A assinatura dos arquivos.
+     */
+    public static FileSignature of(Path... paths) {
+        long[] values = new long[paths.length * 2];
+        for (int i = 0; i < paths.length; i++) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(paths[i], BasicFileAttributes.class);
+                values[i * 2] = attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+                values[i * 2 + 1] = attributes.size();
+            } catch (IOException e) {
+                values[i * 2 + 1] = -1;
+            }
+        }
+        return new FileSignature(values);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof FileSignature signature && Arrays.equals(values, signature.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+}
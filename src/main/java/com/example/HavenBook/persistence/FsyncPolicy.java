@@ -0,0 +1,37 @@
+package com.example.HavenBook.persistence;
+
+import java.util.Locale;
+
+/**
+ * Políticas de sincronização com o disco suportadas pelo {@link AtomicFileWriter}.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Cada gravação é forçada em disco, junto com o diretório do arquivo, antes de ser confirmada.
+     */
+    ALWAYS,
+
+    /**
+     * As gravações ficam no cache do sistema operacional e são forçadas em disco periodicamente, em segundo plano;
+     * uma queda do sistema pode perder as gravações do último intervalo, mas nunca deixa um arquivo pela metade.
+     */
+    INTERVAL,
+
+    /**
+     * As gravações nunca são forçadas pela aplicação, e o momento da escrita em disco fica a cargo do sistema
+     * operacional.
+     */
+    NEVER;
+
+    /**
+     * Converte o valor de uma propriedade de configuração, como {@code interval}, na política correspondente.
+     *
+     * @param value O valor da propriedade.
+     * @return A política correspondente.
+     * @throws IllegalArgumentException Se o valor não corresponder a nenhuma política.
+     */
+    public static FsyncPolicy fromProperty(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
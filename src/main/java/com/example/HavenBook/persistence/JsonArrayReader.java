@@ -0,0 +1,86 @@
+package com.example.HavenBook.persistence;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Leitor em fluxo de arquivos JSON que contêm uma lista de entidades. Usa a API de tokens do {@link JsonParser}
+ * para converter e entregar uma entidade de cada vez, de modo que a memória usada pela leitura não depende do
+ * tamanho do arquivo: nem o texto completo nem a árvore JSON da lista são mantidos em memória.
+ *
+ * @param <T> O tipo da entidade lida.
+ */
+public class JsonArrayReader<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(JsonArrayReader.class.getName());
+    private static final long PROGRESS_LOG_MIN_BYTES = 16L * 1024 * 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Class<T> type;
+
+    /**
+     * Construtor para o leitor.
+     *
+     * @param type A classe da entidade lida.
+     */
+    public JsonArrayReader(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Lê o arquivo e entrega cada entidade da lista, na ordem do arquivo. Em arquivos grandes, o progresso é
+     * registrado no log a cada dez por cento lidos.
+     *
+     * @param file     O arquivo JSON.
+     * @param consumer A ação executada para cada entidade.
+     * @param progress O progresso da leitura, atualizado a cada entidade.
+     * @return O número de entidades lidas.
+     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo ou se ele não contiver uma lista JSON.
+     */
+    public long read(File file, Consumer<? super T> consumer, LoadProgress progress) {
+        long totalBytes = file.length();
+        boolean logProgress = totalBytes >= PROGRESS_LOG_MIN_BYTES;
+        progress.start(file.getName(), totalBytes);
+        try (JsonParser parser = mapper.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("O arquivo " + file + " não contém uma lista JSON");
+            }
+            long count = 0;
+            int nextDecile = 1;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Fim inesperado do arquivo " + file);
+                }
+                T item = mapper.readValue(parser, type);
+                if (item != null) {
+                    consumer.accept(item);
+                    count++;
+                }
+                long bytesRead = parser.currentLocation().getByteOffset();
+                progress.update(bytesRead, count);
+                if (logProgress && bytesRead * 10 >= totalBytes * nextDecile) {
+                    nextDecile = (int) (bytesRead * 10 / totalBytes) + 1;
+                    LOGGER.log(Level.INFO, "Lendo {0}: {1}% ({2} registros)",
+                            new Object[]{file.getName(), Math.min(100, bytesRead * 100 / totalBytes), count});
+                }
+            }
+            progress.update(totalBytes, count);
+            LOGGER.log(logProgress ? Level.INFO : Level.FINE, "Leitura de {0} concluída: {1} registros em {2} ms",
+                    new Object[]{file.getName(), count, progress.getElapsedMs()});
+            return count;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
+            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
+        } finally {
+            progress.finish();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.HavenBook.persistence;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Repositório do mecanismo {@link StorageEngine#JSON}: as entidades ficam em memória, como no
+ * {@link MemoryRepository}, e o snapshot é regravado por completo, no formato configurado, a cada lote de
+ * alterações.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class JsonRepository<T> extends MemoryRepository<T> {
+
+    /**
+     * Construtor para o repositório.
+     *
+     * @param snapshotStore O snapshot onde as entidades são gravadas.
+     */
+    public JsonRepository(SnapshotStore<T> snapshotStore) {
+        super(snapshotStore);
+    }
+
+    /**
+     * Lê as entidades gravadas no snapshot, em JSON ou no formato binário.
+     *
+     * @return A lista de entidades, na ordem do arquivo.
+     */
+    @Override
+    public List<T> readAll() {
+        return snapshotStore.readAll();
+    }
+
+    @Override
+    public void flush(Supplier<List<T>> contents) {
+        snapshotStore.save(contents.get());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.HavenBook.persistence;
+
+import lombok.Getter;
+
+/**
+ * Progresso da leitura de um arquivo JSON, atualizado pelo {@link JsonArrayReader} durante a carga e consultado
+ * por outras threads, por exemplo para acompanhar uma recarga pela API.
+ */
+@Getter
+public class LoadProgress {
+
+    private volatile String source;
+    private volatile long totalBytes;
+    private volatile long bytesRead;
+    private volatile long itemsRead;
+    private volatile boolean loading;
+    private volatile long elapsedMs;
+
+    private volatile long startNanos;
+
+    /**
+     * Inicia o acompanhamento da leitura de um arquivo.
+     *
+     * @param source     O nome do arquivo.
+     * @param totalBytes O tamanho do arquivo, em bytes.
+     */
+    void start(String source, long totalBytes) {
+        this.source = source;
+        this.totalBytes = totalBytes;
+        this.bytesRead = 0;
+        this.itemsRead = 0;
+        this.elapsedMs = 0;
+        this.startNanos = System.nanoTime();
+        this.loading = true;
+    }
+
+    /**
+     * Atualiza a posição da leitura.
+     *
+     * @param bytesRead O número de bytes lidos.
+     * @param itemsRead O número de registros lidos.
+     */
+    void update(long bytesRead, long itemsRead) {
+        this.bytesRead = bytesRead;
+        this.itemsRead = itemsRead;
+        this.elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Encerra o acompanhamento da leitura, com ou sem sucesso.
+     */
+    void finish() {
+        this.elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        this.loading = false;
+    }
+
+    /**
+     * Obtém o percentual do arquivo já lido.
+     *
+     * @return O percentual lido, entre 0 e 100.
+     */
+    public double getPercent() {
+        long total = totalBytes;
+        return total <= 0 ? (loading ? 0 : 100) : Math.min(100.0, bytesRead * 100.0 / total);
+    }
+}
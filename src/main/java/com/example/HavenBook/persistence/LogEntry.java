@@ -0,0 +1,32 @@
+package com.example.HavenBook.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Representa um registro do log de alterações, contendo a operação realizada, o ID da entidade afetada
+ * e o valor da entidade após a operação.
+ *
+ * @param <T> O tipo da entidade registrada no log.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogEntry<T> {
+
+    /**
+     * Operações que podem ser registradas no log.
+     */
+    public enum Operation {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private Operation operation;
+    private int id;
+    private T value;
+}
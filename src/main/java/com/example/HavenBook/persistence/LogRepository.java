@@ -0,0 +1,202 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.LogStatus;
+import com.example.HavenBook.index.IdTable;
+import com.example.HavenBook.index.RecordTable;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Repositório do mecanismo {@link StorageEngine#LOG}: as entidades ficam em memória, como no
+ * {@link MemoryRepository}, e cada alteração da tabela é acrescentada a um {@link AppendOnlyLog} ao lado do
+ * snapshot, com a extensão {@code .log}. Cada lote de alterações apenas sincroniza o log, com custo proporcional
+ * às alterações do lote, e não ao número de entidades.
+ * <p>
+ * A carga lê o snapshot e aplica sobre ele os registros do log. {@link #snapshot(Object, Supplier)} grava o
+ * snapshot com o conteúdo da tabela, força-o em disco qualquer que seja a {@link FsyncPolicy} e só então descarta
+ * do log os registros anteriores a ele, limitando o tempo de leitura
+ * na inicialização; os registros acrescentados durante a gravação permanecem no log. Como cada registro guarda o
+ * estado completo da entidade, reaplicar um registro já incorporado ao snapshot, como após uma queda entre a
+ * gravação do snapshot e a do log, não altera o resultado.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class LogRepository<T> extends MemoryRepository<T> {
+
+    private final AppendOnlyLog<T> log;
+    private final ToIntFunction<T> idOf;
+    private final Object snapshotLock = new Object();
+
+    /**
+     * Construtor para o repositório.
+     *
+     * @param snapshotStore O snapshot onde as entidades são gravadas.
+     * @param logPath       O caminho do log de alterações.
+     * @param type          A classe da entidade.
+     * @param idOf          A função que obtém o ID de uma entidade.
+     * @param writer        O gravador que sincroniza o log e o substitui ao descartar os registros incorporados.
+     */
+    public LogRepository(SnapshotStore<T> snapshotStore, Path logPath, Class<T> type, ToIntFunction<T> idOf,
+                         AtomicFileWriter writer) {
+        super(snapshotStore);
+        this.log = new AppendOnlyLog<>(logPath, type, writer);
+        this.idOf = idOf;
+    }
+
+    @Override
+    public String getKey() {
+        return log.getPath().toString();
+    }
+
+    @Override
+    public RecordTable<T> load(ObjIntConsumer<T> setId) {
+        IdTable<T> table = snapshotStore.load(setId);
+        log.replay().forEach(entry -> {
+            if (entry.getOperation() == LogEntry.Operation.DELETE) {
+                table.remove(entry.getId());
+            } else {
+                setId.accept(entry.getValue(), entry.getId());
+                table.put(entry.getValue());
+            }
+        });
+        return new LoggedTable(table);
+    }
+
+    /**
+     * Lê as entidades do snapshot e aplica sobre elas os registros do log, sem alterar os seus IDs. As entidades
+     * do snapshot sem ID válido ou com ID repetido são mantidas como estão até o próximo snapshot.
+     *
+     * @return A lista de entidades, na ordem do snapshot, seguidas das incluídas pelo log.
+     */
+    @Override
+    public List<T> readAll() {
+        List<T> items = new ArrayList<>(snapshotStore.readAll());
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            int id = idOf.applyAsInt(items.get(i));
+            if (id > 0) {
+                positions.putIfAbsent(id, i);
+            }
+        }
+        log.replay().forEach(entry -> {
+            if (entry.getOperation() == LogEntry.Operation.DELETE) {
+                Integer position = positions.remove(entry.getId());
+                if (position != null) {
+                    items.set(position, null);
+                }
+                return;
+            }
+            Integer position = positions.get(entry.getId());
+            if (position != null) {
+                items.set(position, entry.getValue());
+            } else {
+                positions.put(entry.getId(), items.size());
+                items.add(entry.getValue());
+            }
+        });
+        return items.stream().filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public void flush(Supplier<List<T>> contents) {
+        log.sync();
+    }
+
+    @Override
+    public boolean snapshot(Object lock, Supplier<List<T>> contents) {
+        synchronized (snapshotLock) {
+            long start = System.nanoTime();
+            List<T> items;
+            long position;
+            synchronized (lock) {
+                if (log.getEntryCount() == 0) {
+                    return false;
+                }
+                position = log.getLength();
+                items = contents.get();
+            }
+            snapshotStore.save(items);
+            snapshotStore.force();
+            log.truncateBefore(position);
+            log.recordSnapshot(System.nanoTime() - start);
+            return true;
+        }
+    }
+
+    @Override
+    public LogStatus getLogStatus(String name) {
+        return log.getStatus(name);
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Tabela que acrescenta ao log cada inclusão, substituição e remoção feita na tabela em memória.
+     */
+    private final class LoggedTable implements RecordTable<T> {
+
+        private final IdTable<T> table;
+
+        private LoggedTable(IdTable<T> table) {
+            this.table = table;
+        }
+
+        @Override
+        public T get(int id) {
+            return table.get(id);
+        }
+
+        @Override
+        public boolean contains(int id) {
+            return table.contains(id);
+        }
+
+        @Override
+        public T put(T item) {
+            T previous = table.put(item);
+            log.append(previous == null ? LogEntry.Operation.ADD : LogEntry.Operation.UPDATE, idOf.applyAsInt(item), item);
+            return previous;
+        }
+
+        @Override
+        public T remove(int id) {
+            T removed = table.remove(id);
+            if (removed != null) {
+                log.append(LogEntry.Operation.DELETE, id, null);
+            }
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public int maxId() {
+            return table.maxId();
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            table.forEach(action);
+        }
+
+        @Override
+        public List<T> toList() {
+            return table.toList();
+        }
+    }
+}
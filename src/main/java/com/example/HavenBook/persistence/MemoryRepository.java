@@ -0,0 +1,65 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.index.IdTable;
+import com.example.HavenBook.index.RecordTable;
+
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Repositório do mecanismo {@link StorageEngine#MEMORY}: as entidades são carregadas do snapshot em uma
+ * {@link IdTable} e as alterações nunca são gravadas, perdendo-se ao reiniciar a aplicação. O snapshot só é
+ * gravado por {@link #exportJson(List)}.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class MemoryRepository<T> implements EntityRepository<T> {
+
+    protected final SnapshotStore<T> snapshotStore;
+    private RecordTable<T> table;
+
+    /**
+     * Construtor para o repositório.
+     *
+     * @param snapshotStore O snapshot de onde as entidades são carregadas.
+     */
+    public MemoryRepository(SnapshotStore<T> snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    @Override
+    public String getKey() {
+        return snapshotStore.getPath();
+    }
+
+    @Override
+    public RecordTable<T> load(ObjIntConsumer<T> setId) {
+        table = snapshotStore.load(setId);
+        return table;
+    }
+
+    @Override
+    public boolean hasChanged() {
+        return snapshotStore.hasChanged();
+    }
+
+    /**
+     * Obtém as entidades mantidas em memória. Deve ser chamado com o bloqueio do serviço que altera a tabela.
+     *
+     * @return A lista de entidades.
+     */
+    @Override
+    public List<T> readAll() {
+        return table == null ? List.of() : table.toList();
+    }
+
+    @Override
+    public void flush(Supplier<List<T>> contents) {
+    }
+
+    @Override
+    public void exportJson(List<T> items) {
+        snapshotStore.exportJson(items);
+    }
+}
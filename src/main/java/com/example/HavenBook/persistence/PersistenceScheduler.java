@@ -0,0 +1,172 @@
+package com.example.HavenBook.persistence;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Agendador de gravações compartilhado pelos serviços que persistem dados em arquivos.
+ * <p>
+ * As alterações feitas em um mesmo arquivo dentro de uma janela de tempo configurável, ou até um número máximo
+ * de operações, são agrupadas em uma única gravação. O comportamento perante o chamador depende do
+ * {@link DurabilityMode} configurado.
+ */
+@Component
+public class PersistenceScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(PersistenceScheduler.class.getName());
+
+    private final DurabilityMode mode;
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Batch> pendingBatches = new HashMap<>();
+
+    /**
+     * Construtor para o agendador de gravações.
+     *
+     * @param mode         O modo de durabilidade ({@code sync}, {@code group-commit} ou {@code async}).
+     * @param windowMs     A janela, em milissegundos, durante a qual as alterações de um arquivo são agrupadas.
+     * @param maxBatchSize O número máximo de operações agrupadas antes de uma gravação antecipada.
+     */
+    public PersistenceScheduler(@Value("${persistence.durability-mode:group-commit}") String mode,
+                                @Value("${persistence.group-commit.window-ms:5}") long windowMs,
+                                @Value("${persistence.group-commit.max-batch:64}") int maxBatchSize) {
+        this.mode = DurabilityMode.fromProperty(mode);
+        this.windowMs = windowMs;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "persistence-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registra uma alteração no arquivo identificado pela chave fornecida. A ação de gravação deve persistir o
+     * estado atual do arquivo; ela é executada uma única vez para todas as alterações do mesmo lote.
+     *
+     * @param key         A chave que identifica o arquivo, normalmente o seu caminho absoluto.
+     * @param flushAction A ação que grava o estado atual do arquivo.
+     * @return Um futuro concluído quando o lote que contém esta alteração estiver gravado.
+     */
+    public CompletableFuture<Void> submit(String key, Runnable flushAction) {
+        if (mode == DurabilityMode.SYNC) {
+            Batch batch = new Batch(flushAction);
+            batch.flush();
+            return batch.future;
+        }
+        synchronized (this) {
+            Batch batch = pendingBatches.get(key);
+            if (batch == null) {
+                batch = new Batch(flushAction);
+                pendingBatches.put(key, batch);
+                Batch scheduled = batch;
+                batch.timer = executor.schedule(() -> flush(key, scheduled), windowMs, TimeUnit.MILLISECONDS);
+            }
+            batch.operations++;
+            if (batch.operations >= maxBatchSize) {
+                pendingBatches.remove(key);
+                batch.timer.cancel(false);
+                executor.execute(batch::flush);
+            }
+            return batch.future;
+        }
+    }
+
+    /**
+     * Aguarda a gravação do lote correspondente ao futuro fornecido. No modo {@link DurabilityMode#ASYNC}
+     * retorna imediatamente.
+     *
+     * @param ticket O futuro retornado por {@link #submit(String, Runnable)}.
+     * @throws RuntimeException Se a gravação do lote falhar.
+     */
+    public void awaitDurability(CompletableFuture<Void> ticket) {
+        if (mode == DurabilityMode.ASYNC) {
+            return;
+        }
+        try {
+            ticket.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Obtém o modo de durabilidade configurado.
+     *
+     * @return O modo de durabilidade.
+     */
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Grava os lotes pendentes e encerra o agendador ao finalizar a aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        Map<String, Batch> remaining;
+        synchronized (this) {
+            remaining = new HashMap<>(pendingBatches);
+        }
+        remaining.forEach((key, batch) -> {
+            batch.timer.cancel(false);
+            flush(key, batch);
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * Retira o lote da lista de pendentes e executa a sua gravação. A partir deste ponto, novas alterações no
+     * mesmo arquivo formam um novo lote.
+     *
+     * @param key   A chave do arquivo.
+     * @param batch O lote a ser gravado.
+     */
+    private void flush(String key, Batch batch) {
+        synchronized (this) {
+            if (pendingBatches.get(key) != batch) {
+                return;
+            }
+            pendingBatches.remove(key);
+        }
+        batch.flush();
+    }
+
+    /**
+     * Conjunto de alterações em um mesmo arquivo que será gravado por uma única execução da ação de gravação.
+     */
+    private static class Batch {
+        private final Runnable flushAction;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timer;
+        private int operations;
+
+        private Batch(Runnable flushAction) {
+            this.flushAction = flushAction;
+        }
+
+        private void flush() {
+            try {
+                flushAction.run();
+                future.complete(null);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Erro ao gravar lote de alterações", e);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
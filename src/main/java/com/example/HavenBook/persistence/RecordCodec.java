@@ -0,0 +1,126 @@
+package com.example.HavenBook.persistence;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Conversão de uma entidade para um registro binário do {@link BinarySnapshot} e de volta. Os métodos estáticos
+ * gravam e leem os tipos usados pelas entidades; textos e listas nulos são gravados com tamanho {@code -1}.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Grava a entidade.
+     *
+     * @param item A entidade.
+     * @param out  A saída do registro.
+     * @throws IOException Se ocorrer um erro ao gravar.
+     */
+    void encode(T item, DataOutput out) throws IOException;
+
+    /**
+     * Lê uma entidade a partir da posição atual do buffer.
+     *
+     * @param in O buffer posicionado no início do registro.
+     * @return A entidade.
+     */
+    T decode(ByteBuffer in);
+
+    /**
+     * Grava um texto em UTF-8, precedido do número de bytes.
+     *
+     * @param out   A saída do registro.
+     * @param value O texto, ou {@code null}.
+     * @throws IOException Se ocorrer um erro ao gravar.
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Lê um texto gravado por {@link #writeString(DataOutput, String)}.
+     *
+     * @param in O buffer do registro.
+     * @return O texto, ou {@code null}.
+     */
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Grava uma data em milissegundos desde a época.
+     *
+     * @param out   A saída do registro.
+     * @param value A data, ou {@code null}.
+     * @throws IOException Se ocorrer um erro ao gravar.
+     */
+    static void writeDate(DataOutput out, Date value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.getTime());
+    }
+
+    /**
+     * Lê uma data gravada por {@link #writeDate(DataOutput, Date)}.
+     *
+     * @param in O buffer do registro.
+     * @return A data, ou {@code null}.
+     */
+    static Date readDate(ByteBuffer in) {
+        long time = in.getLong();
+        return time == Long.MIN_VALUE ? null : new Date(time);
+    }
+
+    /**
+     * Grava uma lista de textos, precedida do número de elementos.
+     *
+     * @param out    A saída do registro.
+     * @param values A lista, ou {@code null}.
+     * @throws IOException Se ocorrer um erro ao gravar.
+     */
+    static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Lê uma lista de textos gravada por {@link #writeStrings(DataOutput, List)}.
+     *
+     * @param in O buffer do registro.
+     * @return A lista, ou {@code null}.
+     */
+    static List<String> readStrings(ByteBuffer in) {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
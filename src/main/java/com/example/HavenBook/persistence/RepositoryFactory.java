@@ -0,0 +1,126 @@
+package com.example.HavenBook.persistence;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cria os repositórios das entidades no {@link StorageEngine} configurado para cada uma.
+ * <p>
+ * O mecanismo de uma entidade é lido da propriedade {@code storage.engine.<entidade>}, como
+ * {@code storage.engine.books}, e, se ela não existir, de {@code storage.engine.default}. Todos os mecanismos
+ * usam o snapshot da entidade, no formato de {@code persistence.snapshot-format}, para a carga inicial e para a
+ * exportação em JSON. O banco do mecanismo SQL é definido por {@code storage.sql.url} e, por padrão, é um
+ * arquivo H2 ao lado dos snapshots; o número de entidades mantidas em memória pelo mecanismo em disco é definido
+ * por {@code storage.disk.cache-size}. O log de alterações do mecanismo em log fica ao lado do snapshot, com a
+ * extensão {@code .log}.
+ */
+@Component
+public class RepositoryFactory {
+
+    private final Environment environment;
+    private final PersistenceScheduler persistenceScheduler;
+    private final AtomicFileWriter writer;
+    private final List<EntityRepository<?>> repositories = new ArrayList<>();
+
+    /**
+     * Construtor para a fábrica de repositórios.
+     *
+     * @param environment          O ambiente de onde as propriedades de configuração são lidas.
+     * @param persistenceScheduler O agendador cujos lotes pendentes são gravados antes de fechar os repositórios.
+     * @param writer               O gravador compartilhado pelos snapshots das entidades.
+     */
+    public RepositoryFactory(Environment environment, PersistenceScheduler persistenceScheduler,
+                             AtomicFileWriter writer) {
+        this.environment = environment;
+        this.persistenceScheduler = persistenceScheduler;
+        this.writer = writer;
+    }
+
+    /**
+     * Obtém o mecanismo de armazenamento configurado para uma entidade.
+     *
+     * @param entity O nome da entidade, como {@code books}.
+     * @return O mecanismo de armazenamento.
+     * @throws IllegalArgumentException Se o valor configurado não corresponder a nenhum mecanismo.
+     */
+    public StorageEngine getEngine(String entity) {
+        String defaultEngine = environment.getProperty("storage.engine.default", "json");
+        return StorageEngine.fromProperty(environment.getProperty("storage.engine." + entity, defaultEngine));
+    }
+
+    /**
+     * Cria o repositório de uma entidade no mecanismo configurado para ela.
+     *
+     * @param entity       O nome da entidade, usado nas propriedades de configuração e como nome da tabela SQL.
+     * @param jsonFilePath O caminho absoluto do snapshot JSON da entidade.
+     * @param type         A classe da entidade.
+     * @param codec        O codificador dos registros binários.
+     * @param idOf         A função que obtém o ID de uma entidade.
+     * @param <T>          O tipo da entidade.
+     * @return O repositório.
+     */
+    public <T> EntityRepository<T> create(String entity, String jsonFilePath, Class<T> type, RecordCodec<T> codec,
+                                          ToIntFunction<T> idOf) {
+        return create(entity, jsonFilePath, type, codec, idOf, List.of());
+    }
+
+    /**
+     * Cria o repositório de uma entidade no mecanismo configurado para ela, com colunas tipadas e indexadas no
+     * mecanismo SQL; nos demais mecanismos, as colunas são ignoradas.
+     *
+     * @param entity       O nome da entidade, usado nas propriedades de configuração e como nome da tabela SQL.
+     * @param jsonFilePath O caminho absoluto do snapshot JSON da entidade.
+     * @param type         A classe da entidade.
+     * @param codec        O codificador dos registros binários.
+     * @param idOf         A função que obtém o ID de uma entidade.
+     * @param columns      As colunas tipadas da tabela SQL.
+     * @param <T>          O tipo da entidade.
+     * @return O repositório.
+     */
+    public synchronized <T> EntityRepository<T> create(String entity, String jsonFilePath, Class<T> type,
+                                                       RecordCodec<T> codec, ToIntFunction<T> idOf,
+                                                       List<SqlColumn<T>> columns) {
+        SnapshotFormat format = SnapshotFormat.fromProperty(environment.getProperty("persistence.snapshot-format", "json"));
+        SnapshotStore<T> snapshotStore = new SnapshotStore<>(jsonFilePath, format, type, codec, idOf, writer);
+        EntityRepository<T> repository = switch (getEngine(entity)) {
+            case JSON -> new JsonRepository<>(snapshotStore);
+            case MEMORY -> new MemoryRepository<>(snapshotStore);
+            case DISK -> new DiskRepository<>(snapshotStore, jsonFilePath.replaceFirst("\\.json$", ""), codec, idOf,
+                    environment.getProperty("storage.disk.cache-size", Integer.class, 1024));
+            case SQL -> new SqlRepository<>(getSqlUrl(jsonFilePath), entity, snapshotStore, codec, idOf, columns);
+            case LOG -> new LogRepository<>(snapshotStore, Path.of(jsonFilePath.replaceFirst("\\.json$", "") + ".log"),
+                    type, idOf, writer);
+        };
+        repositories.add(repository);
+        return repository;
+    }
+
+    /**
+     * Obtém a URL JDBC do banco do mecanismo SQL: a de {@code storage.sql.url} ou, por padrão, a de um arquivo H2
+     * no diretório do arquivo fornecido.
+     *
+     * @param jsonFilePath O caminho absoluto de um arquivo no diretório dos snapshots.
+     * @return A URL JDBC do banco.
+     */
+    public String getSqlUrl(String jsonFilePath) {
+        String defaultUrl = "jdbc:h2:file:" + new File(jsonFilePath).getParentFile().getAbsolutePath() + File.separator + "havenbook";
+        return environment.getProperty("storage.sql.url", defaultUrl);
+    }
+
+    /**
+     * Grava os lotes pendentes e fecha os repositórios criados, liberando os arquivos e conexões abertos.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        persistenceScheduler.shutdown();
+        repositories.forEach(EntityRepository::close);
+        repositories.clear();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.HavenBook.persistence;
+
+import java.util.Locale;
+
+/**
+ * Formatos de snapshot suportados pelo {@link SnapshotStore}.
+ */
+public enum SnapshotFormat {
+
+    /**
+     * Lista JSON em texto, lida e gravada pelo Jackson.
+     */
+    JSON(".json"),
+
+    /**
+     * Registros binários com tamanho prefixado e tabela de posições por ID, lidos pelo {@link BinarySnapshot}.
+     */
+    BINARY(".bin");
+
+    private final String extension;
+
+    SnapshotFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Obtém a extensão dos arquivos gravados no formato.
+     *
+     * @return A extensão, com o ponto.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Converte o valor de uma propriedade de configuração, como {@code binary}, no formato correspondente.
+     *
+     * @param value O valor da propriedade.
+     * @return O formato correspondente.
+     * @throws IllegalArgumentException Se o valor não corresponder a nenhum formato.
+     */
+    public static SnapshotFormat fromProperty(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
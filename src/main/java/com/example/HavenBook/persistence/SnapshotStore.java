@@ -0,0 +1,294 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.index.IdTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Arquivo de snapshot de uma lista de entidades, gravado no {@link SnapshotFormat} configurado. O arquivo JSON e
+ * o arquivo binário ficam lado a lado, com o mesmo nome e extensões diferentes.
+ * <p>
+ * A leitura usa o mais recente dos dois arquivos, preferindo o formato configurado em caso de empate. Assim, o
+ * JSON continua servindo para importação e exportação: um arquivo JSON mais novo que o binário é importado e
+ * gravado no formato binário na próxima alteração, e {@link #exportJson(List)} grava o estado atual em JSON sem
+ * mudar o formato configurado. O snapshot binário é mapeado em memória e as entidades são convertidas sob demanda.
+ * <p>
+ * A {@link FileSignature} dos arquivos é registrada a cada carga e gravação, para que {@link #hasChanged()}
+ * detecte as alterações feitas fora da aplicação sem reler o conteúdo, e {@link #readAll()} só relê os arquivos
+ * quando a assinatura muda desde a leitura anterior.
+ * <p>
+ * Os dois formatos são gravados pelo {@link AtomicFileWriter}, que substitui o arquivo anterior de forma atômica,
+ * de modo que uma queda durante a gravação nunca deixa o snapshot corrompido.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class SnapshotStore<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(SnapshotStore.class.getName());
+
+    private final File jsonFile;
+    private final File binaryFile;
+    private final SnapshotFormat format;
+    private final Class<T> type;
+    private final RecordCodec<T> codec;
+    private final ToIntFunction<T> idOf;
+    private final AtomicFileWriter writer;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private FileSignature knownSignature = FileSignature.NONE;
+    private FileSignature cachedSignature = FileSignature.NONE;
+    private List<T> cached;
+
+    /**
+     * Construtor para o arquivo de snapshot.
+     *
+     * @param jsonFilePath O caminho absoluto do arquivo JSON; o arquivo binário usa o mesmo nome com a extensão
+     *                     {@code .bin}.
+     * @param format       O formato em que o snapshot é gravado.
+     * @param type         A classe da entidade.
+     * @param codec        O codificador dos registros binários.
+     * @param idOf         A função que obtém o ID de uma entidade.
+     * @param writer       O gravador que substitui os arquivos de forma atômica.
+     */
+    public SnapshotStore(String jsonFilePath, SnapshotFormat format, Class<T> type, RecordCodec<T> codec,
+                         ToIntFunction<T> idOf, AtomicFileWriter writer) {
+        this.jsonFile = new File(jsonFilePath);
+        this.binaryFile = new File(jsonFilePath.replaceFirst("\\.json$", "") + SnapshotFormat.BINARY.getExtension());
+        this.format = format;
+        this.type = type;
+        this.codec = codec;
+        this.idOf = idOf;
+        this.writer = writer;
+    }
+
+    /**
+     * Obtém o caminho do arquivo gravado no formato configurado, usado como chave das gravações agrupadas.
+     *
+     * @return O caminho absoluto do arquivo.
+     */
+    public String getPath() {
+        return (format == SnapshotFormat.BINARY ? binaryFile : jsonFile).getAbsolutePath();
+    }
+
+    /**
+     * Carrega as entidades em uma tabela indexada pelo ID. Do snapshot binário, apenas a tabela de posições é
+     * lida; cada entidade é convertida no primeiro acesso. Se nenhum arquivo existir, cria um snapshot vazio.
+     *
+     * @param setId A função que define o ID de uma entidade sem ID válido, lida do JSON.
+     * @return A tabela de entidades.
+     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo.
+     */
+    public synchronized IdTable<T> load(ObjIntConsumer<T> setId) {
+        boolean binary = readsBinary();
+        FileSignature current = signature();
+        IdTable<T> table;
+        if (binary) {
+            BinarySnapshot<T> snapshot = BinarySnapshot.open(binaryFile.toPath(), codec);
+            int[] ids = new int[snapshot.size()];
+            for (int record = 0; record < ids.length; record++) {
+                ids[record] = snapshot.idAt(record);
+            }
+            table = IdTable.lazy(ids, snapshot::decode, idOf);
+        } else {
+            table = IdTable.load(readJson(), idOf, setId);
+        }
+        knownSignature = current;
+        return table;
+    }
+
+    /**
+     * Lê todas as entidades do snapshot, convertendo-as imediatamente e sem alterar os seus IDs. A lista lida é
+     * reaproveitada enquanto a assinatura dos arquivos não mudar.
+     *
+     * @return A lista imutável de entidades, na ordem do arquivo.
+     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo.
+     */
+    public synchronized List<T> readAll() {
+        boolean binary = readsBinary();
+        FileSignature current = signature();
+        if (cached != null && current.equals(cachedSignature)) {
+            return cached;
+        }
+        List<T> items;
+        if (binary) {
+            BinarySnapshot<T> snapshot = BinarySnapshot.open(binaryFile.toPath(), codec);
+            items = new ArrayList<>(snapshot.size());
+            for (int record = 0; record < snapshot.size(); record++) {
+                items.add(snapshot.decode(record));
+            }
+        } else {
+            items = readJson();
+        }
+        cached = Collections.unmodifiableList(items);
+        cachedSignature = current;
+        return cached;
+    }
+
+    /**
+     * Lê as entidades do snapshot uma a uma, sem montar a lista completa em memória e sem alterar os seus IDs.
+     *
+     * @param consumer A ação executada para cada entidade, na ordem do arquivo.
+     * @return O número de entidades lidas.
+     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo.
+     */
+    public synchronized long readEach(Consumer<? super T> consumer) {
+        if (readsBinary()) {
+            return BinarySnapshot.open(binaryFile.toPath(), codec).read(consumer, new LoadProgress());
+        }
+        return new JsonArrayReader<>(type).read(jsonFile, consumer, new LoadProgress());
+    }
+
+    /**
+     * Verifica se os arquivos do snapshot foram alterados, criados ou removidos desde a última carga ou gravação
+     * feita por este objeto.
+     *
+     * @return {@code true} se a assinatura dos arquivos mudou.
+     */
+    public synchronized boolean hasChanged() {
+        return !signature().equals(knownSignature);
+    }
+
+    /**
+     * Obtém a assinatura atual dos arquivos do snapshot.
+     *
+     * @return A assinatura dos arquivos.
+     */
+    public FileSignature signature() {
+        return FileSignature.of(jsonFile.toPath(), binaryFile.toPath());
+    }
+
+    /**
+     * Registra a assinatura dos arquivos como conhecida, para os repositórios que carregam as entidades de outro
+     * armazenamento e só leem o snapshot quando ele é mais recente.
+     *
+     * @param signature A assinatura obtida por {@link #signature()} antes da carga.
+     */
+    public synchronized void markSeen(FileSignature signature) {
+        knownSignature = signature;
+    }
+
+    /**
+     * Obtém a data da última alteração do snapshot, considerando o mais recente dos dois arquivos.
+     *
+     * @return A data da última alteração, em microssegundos desde a época, ou {@code 0} se nenhum arquivo existir.
+     */
+    public long lastModified() {
+        return Math.max(lastModified(jsonFile.toPath()), lastModified(binaryFile.toPath()));
+    }
+
+    /**
+     * Obtém a data da última alteração de um arquivo com a precisão do sistema de arquivos, limitada a
+     * microssegundos, para distinguir gravações feitas no mesmo milissegundo.
+     *
+     * @param path O arquivo.
+     * @return A data da última alteração, em microssegundos desde a época, ou {@code 0} se o arquivo não existir.
+     */
+    public static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).to(TimeUnit.MICROSECONDS);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Grava as entidades no formato configurado.
+     *
+     * @param items As entidades.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo.
+     */
+    public synchronized void save(List<T> items) {
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.write(writer, binaryFile.toPath(), items, idOf, codec);
+        } else {
+            writeJson(items);
+        }
+        knownSignature = signature();
+    }
+
+    /**
+     * Força em disco o arquivo do formato configurado e o seu diretório, independentemente da política de
+     * sincronização, para que o snapshot gravado por {@link #save(List)} sobreviva a uma queda do sistema.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao sincronizar o arquivo.
+     */
+    public synchronized void force() {
+        Path file = (format == SnapshotFormat.BINARY ? binaryFile : jsonFile).toPath();
+        try {
+            writer.force(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao sincronizar o arquivo " + file, e);
+            throw new RuntimeException("Erro ao sincronizar o arquivo " + file, e);
+        }
+    }
+
+    /**
+     * Grava as entidades no arquivo JSON, independentemente do formato configurado.
+     *
+     * @param items As entidades.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo.
+     */
+    public synchronized void exportJson(List<T> items) {
+        writeJson(items);
+        knownSignature = signature();
+    }
+
+    /**
+     * Decide qual dos dois arquivos de um snapshot deve ser lido: o mais recente, ou o do formato configurado se
+     * ambos tiverem a mesma data de modificação.
+     *
+     * @param jsonFile   O arquivo JSON.
+     * @param binaryFile O arquivo binário.
+     * @param format     O formato configurado.
+     * @return {@code true} se o arquivo binário deve ser lido.
+     */
+    public static boolean readsBinary(File jsonFile, File binaryFile, SnapshotFormat format) {
+        if (!binaryFile.exists()) {
+            return false;
+        }
+        if (!jsonFile.exists()) {
+            return true;
+        }
+        long binaryModified = binaryFile.lastModified();
+        long jsonModified = jsonFile.lastModified();
+        return format == SnapshotFormat.BINARY ? binaryModified >= jsonModified : binaryModified > jsonModified;
+    }
+
+    private boolean readsBinary() {
+        if (!jsonFile.exists() && !binaryFile.exists()) {
+            save(List.of());
+        }
+        return readsBinary(jsonFile, binaryFile, format);
+    }
+
+    private List<T> readJson() {
+        try {
+            return mapper.readValue(jsonFile, mapper.getTypeFactory().constructCollectionType(List.class, type));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
+            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
+        }
+    }
+
+    private void writeJson(List<T> items) {
+        try {
+            writer.write(jsonFile.toPath(), out -> mapper.writeValue(out, items));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
+            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.HavenBook.persistence;
+
+import java.util.function.Function;
+
+/**
+ * Coluna tipada de uma tabela do {@link SqlRepository}, preenchida a partir de um campo da entidade além do
+ * registro codificado, para que as consultas por esse campo sejam feitas pelo banco, opcionalmente com um índice.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public final class SqlColumn<T> {
+
+    private final String name;
+    private final String type;
+    private final Function<T, Object> getter;
+    private final boolean indexed;
+
+    private SqlColumn(String name, String type, Function<T, Object> getter, boolean indexed) {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+        this.indexed = indexed;
+    }
+
+    /**
+     * Cria uma coluna sem índice.
+     *
+     * @param name   O nome da coluna.
+     * @param type   O tipo SQL da coluna, como {@code VARCHAR}.
+     * @param getter A função que obtém o valor da coluna a partir da entidade.
+     * @param <T>    O tipo da entidade.
+     * @return A coluna.
+     */
+    public static <T> SqlColumn<T> of(String name, String type, Function<T, Object> getter) {
+        return new SqlColumn<>(name, type, getter, false);
+    }
+
+    /**
+     * Cria uma coluna com índice.
+     *
+     * @param name   O nome da coluna.
+     * @param type   O tipo SQL da coluna, como {@code VARCHAR}.
+     * @param getter A função que obtém o valor da coluna a partir da entidade.
+     * @param <T>    O tipo da entidade.
+     * @return A coluna.
+     */
+    public static <T> SqlColumn<T> indexed(String name, String type, Function<T, Object> getter) {
+        return new SqlColumn<>(name, type, getter, true);
+    }
+
+    /**
+     * @return O nome da coluna.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return O tipo SQL da coluna.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return {@code true} se a coluna tiver um índice.
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * Obtém o valor da coluna para uma entidade.
+     *
+     * @param item A entidade.
+     * @return O valor da coluna.
+     */
+    public Object valueOf(T item) {
+        return getter.apply(item);
+    }
+}
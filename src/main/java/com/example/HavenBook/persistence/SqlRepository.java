@@ -0,0 +1,377 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.index.RecordTable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Repositório do mecanismo {@link StorageEngine#SQL}: as entidades ficam em uma tabela de um banco H2 embutido,
+ * com o ID como chave primária e o registro codificado por um {@link RecordCodec}. O repositório é a própria
+ * {@link RecordTable} usada pelo serviço, e cada consulta ou alteração é feita diretamente no banco. Campos
+ * declarados como {@link SqlColumn} são gravados também em colunas próprias, com índice quando indicado, e podem
+ * ser consultados por {@link #findBy(String, Object)}; colunas novas são criadas e preenchidas na carga.
+ * <p>
+ * As alterações ficam em uma transação aberta, confirmada a cada lote por {@link #flush(Supplier)} e também antes de cada carga, para
+ * que uma recarga não descarte alterações já aplicadas cujo lote ainda não foi gravado. O snapshot é
+ * importado para a tabela quando é alterado fora da aplicação, o que é detectado pela data de modificação
+ * registrada na última importação, e só é gravado por {@link #exportJson(List)}.
+ *
+ * @param <T> O tipo da entidade.
+ */
+public class SqlRepository<T> implements EntityRepository<T>, RecordTable<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(SqlRepository.class.getName());
+
+    private final String url;
+    private final String table;
+    private final SnapshotStore<T> snapshotStore;
+    private final RecordCodec<T> codec;
+    private final ToIntFunction<T> idOf;
+    private final List<SqlColumn<T>> columns;
+    private final String mergeSql;
+
+    private Connection connection;
+
+    /**
+     * Construtor para o repositório. A conexão com o banco é aberta na primeira carga.
+     *
+     * @param url           A URL JDBC do banco.
+     * @param table         O nome da tabela das entidades.
+     * @param snapshotStore O snapshot de onde as entidades são importadas.
+     * @param codec         O codificador dos registros.
+     * @param idOf          A função que obtém o ID de uma entidade.
+     * @param columns       As colunas tipadas gravadas além do registro codificado.
+     */
+    public SqlRepository(String url, String table, SnapshotStore<T> snapshotStore, RecordCodec<T> codec,
+                         ToIntFunction<T> idOf, List<SqlColumn<T>> columns) {
+        this.url = url;
+        this.table = table;
+        this.snapshotStore = snapshotStore;
+        this.codec = codec;
+        this.idOf = idOf;
+        this.columns = List.copyOf(columns);
+        StringBuilder names = new StringBuilder("id, data");
+        StringBuilder values = new StringBuilder("?, ?");
+        for (SqlColumn<T> column : this.columns) {
+            names.append(", ").append(column.getName());
+            values.append(", ?");
+        }
+        this.mergeSql = "MERGE INTO " + table + " (" + names + ") KEY (id) VALUES (" + values + ")";
+    }
+
+    @Override
+    public String getKey() {
+        return url + "#" + table;
+    }
+
+    @Override
+    public synchronized RecordTable<T> load(ObjIntConsumer<T> setId) {
+        try {
+            if (connection == null || connection.isClosed()) {
+                connection = DriverManager.getConnection(url);
+                connection.setAutoCommit(false);
+            }
+            // Alterações já aplicadas e ainda não confirmadas por um lote pendente são confirmadas antes da carga
+            connection.commit();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS " + table + " (id INT PRIMARY KEY, data VARBINARY)");
+                statement.execute("CREATE TABLE IF NOT EXISTS snapshot_imports (entity VARCHAR(64) PRIMARY KEY, modified BIGINT)");
+            }
+            createColumns();
+            FileSignature signature = snapshotStore.signature();
+            long snapshotModified = snapshotStore.lastModified();
+            if (snapshotModified > importedModified()) {
+                importSnapshot(setId);
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "MERGE INTO snapshot_imports KEY (entity) VALUES (?, ?)")) {
+                    statement.setString(1, table);
+                    statement.setLong(2, snapshotModified);
+                    statement.executeUpdate();
+                }
+            }
+            connection.commit();
+            snapshotStore.markSeen(signature);
+            return this;
+        } catch (SQLException e) {
+            throw failure("Erro ao carregar a tabela " + table, e);
+        }
+    }
+
+    /**
+     * Cria as colunas tipadas que ainda não existem na tabela, com os seus índices, e as preenche a partir dos
+     * registros já gravados.
+     */
+    private void createColumns() throws SQLException {
+        boolean added = false;
+        try (Statement statement = connection.createStatement()) {
+            for (SqlColumn<T> column : columns) {
+                if (!hasColumn(column.getName())) {
+                    statement.execute("ALTER TABLE " + table + " ADD COLUMN " + column.getName() + " " + column.getType());
+                    added = true;
+                }
+                if (column.isIndexed()) {
+                    statement.execute("CREATE INDEX IF NOT EXISTS " + table + "_" + column.getName() + "_idx ON "
+                            + table + " (" + column.getName() + ")");
+                }
+            }
+        }
+        if (added) {
+            List<T> items = new ArrayList<>();
+            forEach(items::add);
+            items.forEach(this::write);
+        }
+    }
+
+    private boolean hasColumn(String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            statement.setString(1, table.toUpperCase(Locale.ROOT));
+            statement.setString(2, column.toUpperCase(Locale.ROOT));
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+
+    private long importedModified() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT modified FROM snapshot_imports WHERE entity = ?")) {
+            statement.setString(1, table);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getLong(1) : Long.MIN_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Substitui o conteúdo da tabela pelas entidades do snapshot, lidas uma a uma. Entidades sem ID válido ou com
+     * ID repetido recebem um novo ID, maior que todos os IDs existentes.
+     *
+     * @param setId A função que define o ID de uma entidade.
+     */
+    private void importSnapshot(ObjIntConsumer<T> setId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM " + table);
+        }
+        List<T> pending = new ArrayList<>();
+        snapshotStore.readEach(item -> {
+            int id = idOf.applyAsInt(item);
+            if (id <= 0 || contains(id)) {
+                pending.add(item);
+            } else {
+                write(item);
+            }
+        });
+        int nextId = maxId() + 1;
+        for (T item : pending) {
+            setId.accept(item, nextId++);
+            write(item);
+        }
+    }
+
+    @Override
+    public synchronized T get(int id) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT data FROM " + table + " WHERE id = ?")) {
+            statement.setInt(1, id);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? decode(result.getBytes(1)) : null;
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao ler a tabela " + table, e);
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(int id) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM " + table + " WHERE id = ?")) {
+            statement.setInt(1, id);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next();
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao ler a tabela " + table, e);
+        }
+    }
+
+    @Override
+    public synchronized T put(T item) {
+        T previous = get(idOf.applyAsInt(item));
+        write(item);
+        return previous;
+    }
+
+    @Override
+    public synchronized T remove(int id) {
+        T removed = get(id);
+        if (removed == null) {
+            return null;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+            statement.setInt(1, id);
+            statement.executeUpdate();
+            return removed;
+        } catch (SQLException e) {
+            throw failure("Erro ao gravar na tabela " + table, e);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return queryInt("SELECT COUNT(*) FROM " + table);
+    }
+
+    @Override
+    public synchronized int maxId() {
+        return queryInt("SELECT COALESCE(MAX(id), 0) FROM " + table);
+    }
+
+    /**
+     * Percorre as entidades em ordem de ID.
+     *
+     * @param action A ação executada para cada entidade.
+     */
+    @Override
+    public synchronized void forEach(Consumer<? super T> action) {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT data FROM " + table + " ORDER BY id")) {
+            while (result.next()) {
+                action.accept(decode(result.getBytes(1)));
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao ler a tabela " + table, e);
+        }
+    }
+
+    /**
+     * Cria uma lista imutável com as entidades em ordem de ID.
+     *
+     * @return A lista de entidades.
+     */
+    @Override
+    public synchronized List<T> toList() {
+        List<T> items = new ArrayList<>();
+        forEach(items::add);
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Obtém as entidades cujo valor na coluna tipada fornecida é igual ao valor informado, consultando o banco
+     * pelo índice da coluna, se houver.
+     *
+     * @param column O nome da coluna, declarada como {@link SqlColumn}.
+     * @param value  O valor procurado.
+     * @return A lista de entidades encontradas, em ordem de ID.
+     * @throws IllegalArgumentException Se a coluna não tiver sido declarada.
+     */
+    public synchronized List<T> findBy(String column, Object value) {
+        if (columns.stream().noneMatch(declared -> declared.getName().equals(column))) {
+            throw new IllegalArgumentException("Coluna desconhecida: " + column);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT data FROM " + table + " WHERE " + column + " = ? ORDER BY id")) {
+            statement.setObject(1, value);
+            List<T> items = new ArrayList<>();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    items.add(decode(result.getBytes(1)));
+                }
+            }
+            return items;
+        } catch (SQLException e) {
+            throw failure("Erro ao ler a tabela " + table, e);
+        }
+    }
+
+    @Override
+    public boolean hasChanged() {
+        return snapshotStore.hasChanged();
+    }
+
+    @Override
+    public List<T> readAll() {
+        return new ArrayList<>(toList());
+    }
+
+    /**
+     * Confirma a transação com as alterações do lote.
+     *
+     * @param contents Não utilizado; as alterações já estão na transação.
+     */
+    @Override
+    public synchronized void flush(Supplier<List<T>> contents) {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw failure("Erro ao confirmar as alterações da tabela " + table, e);
+        }
+    }
+
+    @Override
+    public void exportJson(List<T> items) {
+        snapshotStore.exportJson(items);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.commit();
+                connection.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Erro ao fechar a conexão com o banco de dados", e);
+        }
+    }
+
+    private void write(T item) {
+        try (PreparedStatement statement = connection.prepareStatement(mergeSql)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            codec.encode(item, new DataOutputStream(bytes));
+            statement.setInt(1, idOf.applyAsInt(item));
+            statement.setBytes(2, bytes.toByteArray());
+            for (int i = 0; i < columns.size(); i++) {
+                statement.setObject(i + 3, columns.get(i).valueOf(item));
+            }
+            statement.executeUpdate();
+        } catch (SQLException | IOException e) {
+            throw failure("Erro ao gravar na tabela " + table, e);
+        }
+    }
+
+    private int queryInt(String sql) {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getInt(1);
+        } catch (SQLException e) {
+            throw failure("Erro ao ler a tabela " + table, e);
+        }
+    }
+
+    private T decode(byte[] data) {
+        return codec.decode(ByteBuffer.wrap(data));
+    }
+
+    private static RuntimeException failure(String message, Exception e) {
+        LOGGER.log(Level.SEVERE, message, e);
+        return new RuntimeException(message, e);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.HavenBook.persistence;
+
+import java.util.Locale;
+
+/**
+ * Mecanismos de armazenamento das entidades, escolhidos por entidade com a propriedade
+ * {@code storage.engine.<entidade>} e criados pela {@link RepositoryFactory}.
+ */
+public enum StorageEngine {
+
+    /**
+     * Entidades em memória, gravadas por completo no snapshot, em JSON ou no formato binário, a cada lote de
+     * alterações.
+     */
+    JSON,
+
+    /**
+     * Entidades em um banco H2 embutido, em arquivo local, com uma transação por lote de alterações.
+     */
+    SQL,
+
+    /**
+     * Entidades apenas em memória, carregadas do snapshot na inicialização e nunca gravadas.
+     */
+    MEMORY,
+
+    /**
+     * Entidades em um {@link DiskRecordStore}, com apenas as mais acessadas em memória.
+     */
+    DISK,
+
+    /**
+     * Entidades em memória, com cada alteração acrescentada a um {@link AppendOnlyLog} e o snapshot regravado
+     * periodicamente, em segundo plano, pelo {@link LogRepository}.
+     */
+    LOG;
+
+    /**
+     * Converte o valor de uma propriedade de configuração, como {@code sql}, no mecanismo correspondente.
+     *
+     * @param value O valor da propriedade.
+     * @return O mecanismo correspondente.
+     * @throws IllegalArgumentException Se o valor não corresponder a nenhum mecanismo.
+     */
+    public static StorageEngine fromProperty(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
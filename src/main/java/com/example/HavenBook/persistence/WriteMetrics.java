@@ -0,0 +1,178 @@
+package com.example.HavenBook.persistence;
+
+/**
+ * Métricas acumuladas das gravações de um arquivo feitas pelo {@link AtomicFileWriter}: o número de gravações,
+ * os bytes gravados em cada uma e o tempo gasto, incluindo as sincronizações com o disco.
+ */
+public class WriteMetrics {
+
+    private final String file;
+    private long writes;
+    private long fsyncs;
+    private long totalBytes;
+    private long lastBytes;
+    private long maxBytes;
+    private long totalNanos;
+    private long lastNanos;
+    private long maxNanos;
+
+    /**
+     * Construtor para as métricas de um arquivo.
+     *
+     * @param file O caminho do arquivo, ou um rótulo para as métricas agregadas.
+     */
+    public WriteMetrics(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Registra uma gravação.
+     *
+     * @param bytes  O número de bytes gravados.
+     * @param nanos  A duração da gravação, em nanossegundos.
+     * @param synced {@code true} se a gravação foi forçada em disco.
+     */
+    public synchronized void record(long bytes, long nanos, boolean synced) {
+        writes++;
+        if (synced) {
+            fsyncs++;
+        }
+        totalBytes += bytes;
+        lastBytes = bytes;
+        maxBytes = Math.max(maxBytes, bytes);
+        totalNanos += nanos;
+        lastNanos = nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Registra uma sincronização com o disco feita depois da gravação, pela política
+     * {@link FsyncPolicy#INTERVAL}.
+     */
+    public synchronized void recordFsync() {
+        fsyncs++;
+    }
+
+    /**
+     * Soma as métricas de outro arquivo a estas, para compor as métricas agregadas.
+     *
+     * @param other As métricas somadas.
+     */
+    public synchronized void add(WriteMetrics other) {
+        WriteMetrics copy = other.copy();
+        writes += copy.writes;
+        fsyncs += copy.fsyncs;
+        totalBytes += copy.totalBytes;
+        maxBytes = Math.max(maxBytes, copy.maxBytes);
+        totalNanos += copy.totalNanos;
+        maxNanos = Math.max(maxNanos, copy.maxNanos);
+    }
+
+    /**
+     * Cria uma cópia das métricas, que não muda com as gravações seguintes.
+     *
+     * @return A cópia das métricas.
+     */
+    public synchronized WriteMetrics copy() {
+        WriteMetrics copy = new WriteMetrics(file);
+        copy.writes = writes;
+        copy.fsyncs = fsyncs;
+        copy.totalBytes = totalBytes;
+        copy.lastBytes = lastBytes;
+        copy.maxBytes = maxBytes;
+        copy.totalNanos = totalNanos;
+        copy.lastNanos = lastNanos;
+        copy.maxNanos = maxNanos;
+        return copy;
+    }
+
+    /**
+     * Obtém o arquivo das métricas.
+     *
+     * @return O caminho do arquivo, ou o rótulo das métricas agregadas.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Obtém o número de gravações registradas.
+     *
+     * @return O número de gravações.
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Obtém o número de sincronizações com o disco.
+     *
+     * @return O número de sincronizações.
+     */
+    public synchronized long getFsyncs() {
+        return fsyncs;
+    }
+
+    /**
+     * Obtém o total de bytes gravados.
+     *
+     * @return O total de bytes.
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Obtém o número de bytes da última gravação.
+     *
+     * @return O número de bytes.
+     */
+    public synchronized long getLastBytes() {
+        return lastBytes;
+    }
+
+    /**
+     * Obtém o número de bytes da maior gravação.
+     *
+     * @return O número de bytes.
+     */
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Obtém a média de bytes por gravação.
+     *
+     * @return A média de bytes, ou {@code 0} sem gravações.
+     */
+    public synchronized double getAverageBytes() {
+        return writes == 0 ? 0 : (double) totalBytes / writes;
+    }
+
+    /**
+     * Obtém a duração da última gravação.
+     *
+     * @return A duração, em milissegundos.
+     */
+    public synchronized double getLastLatencyMs() {
+        return lastNanos / 1_000_000.0;
+    }
+
+    /**
+     * Obtém a duração da gravação mais lenta.
+     *
+     * @return A duração, em milissegundos.
+     */
+    public synchronized double getMaxLatencyMs() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    /**
+     * Obtém a duração média das gravações.
+     *
+     * @return A duração média, em milissegundos, ou {@code 0} sem gravações.
+     */
+    public synchronized double getAverageLatencyMs() {
+        return writes == 0 ? 0 : totalNanos / 1_000_000.0 / writes;
+    }
+}
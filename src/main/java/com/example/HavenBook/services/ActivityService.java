@@ -1,9 +1,13 @@
 package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.Activity;
+import com.example.HavenBook.domain.LogStatus;
 import com.example.HavenBook.domain.interfaces.IActivityService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.HavenBook.persistence.EntityCodecs;
+import com.example.HavenBook.persistence.EntityRepository;
+import com.example.HavenBook.persistence.EntityStore;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.persistence.RepositoryFactory;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,16 +16,17 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Serviço para gerenciar as atividades, incluindo operações de leitura, adição, atualização e exclusão de atividades
- * armazenadas em um arquivo JSON.
+ * guardadas no mecanismo de armazenamento configurado em {@code storage.engine.activities}.
+ * <p>
+ * Com o mecanismo em log, cada atividade é acrescentada ao log de alterações, e o {@link LogSnapshotter} grava
+ * periodicamente o snapshot das atividades e esvazia o log.
  */
 @Service
 @PropertySource("classpath:application.properties")
@@ -30,34 +35,32 @@ public class ActivityService implements IActivityService {
     private static final Logger LOGGER = Logger.getLogger(ActivityService.class.getName());
 
     private final ResourceLoader resourceLoader;
-    private final String absoluteJsonFilePath;
-
-    private List<Activity> activities;
-    private int nextId;
+    private final EntityRepository<Activity> repository;
+    private final EntityStore<Activity> activities;
 
     /**
      * Construtor para o serviço {@code ActivityService}.
      *
      * @param resourceLoader O carregador de recursos para obter o caminho absoluto do arquivo JSON.
      * @param jsonFilePath   O caminho relativo para o arquivo JSON que contém as atividades.
+     * @param persistenceScheduler O agendador de gravações que agrupa as alterações no arquivo JSON.
+     * @param repositoryFactory A fábrica do repositório das atividades.
      */
     @Autowired
-    public ActivityService(ResourceLoader resourceLoader, @Value("static/activities.json") String jsonFilePath) {
+    public ActivityService(ResourceLoader resourceLoader, @Value("static/activities.json") String jsonFilePath,
+                           PersistenceScheduler persistenceScheduler, RepositoryFactory repositoryFactory) {
         this.resourceLoader = resourceLoader;
-        this.absoluteJsonFilePath = getAbsolutePath(jsonFilePath);
+        this.repository = repositoryFactory.create("activities", getAbsolutePath(jsonFilePath), Activity.class,
+                EntityCodecs.ACTIVITY, Activity::getId);
+        this.activities = new EntityStore<>(this, repository, persistenceScheduler, Activity::setId);
     }
 
     /**
      * Inicializa o serviço carregando as atividades do arquivo JSON e definindo o próximo ID disponível.
      */
     @PostConstruct
-    public void init() {
-        this.activities = getActivityFromJson();
-        if (this.activities.isEmpty()) {
-            this.nextId = 1;
-        } else {
-            this.nextId = activities.stream().mapToInt(Activity::getId).max().orElse(0) + 1;
-        }
+    public synchronized void init() {
+        activities.load();
     }
 
     /**
@@ -78,23 +81,72 @@ public class ActivityService implements IActivityService {
     }
 
     /**
-     * Carrega a lista de atividades do arquivo JSON.
+     * Carrega a lista de atividades do armazenamento; com o mecanismo JSON, do snapshot, em JSON ou no formato
+     * binário.
      *
-     * @return Uma lista de atividades carregadas do arquivo JSON.
-     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo JSON.
+     * @return Uma lista de atividades carregadas do armazenamento.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
      */
-    public List<Activity> getActivityFromJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            if (!file.exists()) {
-                mapper.writeValue(file, List.of());
-            }
-            return mapper.readValue(file, new TypeReference<List<Activity>>() {});
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
-            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
-        }
+    public synchronized List<Activity> getActivityFromJson() {
+        return repository.readAll();
+    }
+
+    /**
+     * Obtém todas as atividades a partir da cópia imutável mantida em memória, sem reler o arquivo JSON.
+     * A cópia é recriada apenas na primeira leitura após uma alteração.
+     *
+     * @return Uma lista imutável com todas as atividades.
+     */
+    @Override
+    public List<Activity> getAllActivities() {
+        return activities.getAll();
+    }
+
+    /**
+     * Recarrega as atividades a partir do arquivo JSON, descartando o estado mantido em memória.
+     */
+    @Override
+    public synchronized void reload() {
+        init();
+    }
+
+    /**
+     * Recarrega as atividades apenas se o snapshot foi alterado fora da aplicação desde a última carga ou
+     * gravação. A tabela carregada substitui a anterior de uma só vez.
+     *
+     * @return {@code true} se as atividades foram recarregadas.
+     */
+    @Override
+    public boolean reloadIfChanged() {
+        return activities.reloadIfChanged();
+    }
+
+    /**
+     * Grava o snapshot das atividades e descarta do log os registros que ele incorpora. A lista é copiada com o
+     * bloqueio do serviço, e a gravação ocorre fora dele. Sem o mecanismo em log, não faz nada.
+     *
+     * @return {@code true} se um snapshot foi gravado.
+     */
+    @Override
+    public boolean snapshotLog() {
+        return activities.snapshotLog();
+    }
+
+    /**
+     * Obtém o estado do log de alterações das atividades.
+     *
+     * @return O estado do log, ou {@code null} se o mecanismo configurado não usa log.
+     */
+    @Override
+    public LogStatus getLogStatus() {
+        return repository.getLogStatus("activities");
+    }
+
+    /**
+     * Exporta as atividades mantidas em memória para o arquivo JSON, independentemente do formato do snapshot.
+     */
+    public synchronized void exportToJson() {
+        repository.exportJson(getAllActivities());
     }
 
     /**
@@ -103,9 +155,8 @@ public class ActivityService implements IActivityService {
      * @param id O ID da atividade a ser recuperada.
      * @return A atividade correspondente ao ID fornecido ou {@code null} se não for encontrada.
      */
-    public Activity getActivityById(int id) {
-        Optional<Activity> activity = activities.stream().filter(a -> a.getId() == id).findFirst();
-        return activity.orElse(null);
+    public synchronized Activity getActivityById(int id) {
+        return activities.table().get(id);
     }
 
     /**
@@ -113,10 +164,12 @@ public class ActivityService implements IActivityService {
      *
      * @param newActivity A nova atividade a ser adicionada.
      */
-    public synchronized void addActivity(Activity newActivity) {
-        newActivity.setId(nextId++);
-        activities.add(newActivity);
-        saveActivitiesToJson();
+    public void addActivity(Activity newActivity) {
+        activities.applyChange(() -> {
+            newActivity.setId(activities.nextId());
+            activities.table().put(newActivity);
+            return true;
+        });
     }
 
     /**
@@ -125,15 +178,15 @@ public class ActivityService implements IActivityService {
      * @param id              O ID da atividade a ser atualizada.
      * @param updatedActivity A atividade atualizada.
      */
-    public synchronized void updateActivity(int id, Activity updatedActivity) {
-        for (int i = 0; i < activities.size(); i++) {
-            if (activities.get(i).getId() == id) {
-                updatedActivity.setId(id);
-                activities.set(i, updatedActivity);
-                saveActivitiesToJson();
-                return;
+    public void updateActivity(int id, Activity updatedActivity) {
+        activities.applyChange(() -> {
+            if (!activities.table().contains(id)) {
+                return false;
             }
-        }
+            updatedActivity.setId(id);
+            activities.table().put(updatedActivity);
+            return true;
+        });
     }
 
     /**
@@ -141,24 +194,7 @@ public class ActivityService implements IActivityService {
      *
      * @param id O ID da atividade a ser removida.
      */
-    public synchronized void deleteActivity(int id) {
-        activities.removeIf(activity -> activity.getId() == id);
-        saveActivitiesToJson();
-    }
-
-    /**
-     * Salva a lista atual de atividades no arquivo JSON.
-     *
-     * @throws RuntimeException Se ocorrer um erro ao salvar o arquivo JSON.
-     */
-    private synchronized void saveActivitiesToJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            mapper.writeValue(file, activities);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
-            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
-        }
+    public void deleteActivity(int id) {
+        activities.applyChange(() -> activities.table().remove(id) != null);
     }
 }
@@ -1,9 +1,14 @@
 package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.Author;
+import com.example.HavenBook.domain.FuzzyMatch;
 import com.example.HavenBook.domain.interfaces.IAuthorService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.HavenBook.index.BkTree;
+import com.example.HavenBook.persistence.EntityCodecs;
+import com.example.HavenBook.persistence.EntityRepository;
+import com.example.HavenBook.persistence.EntityStore;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.persistence.RepositoryFactory;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,16 +17,15 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Serviço para gerenciar os autores, incluindo operações de leitura, adição, atualização e exclusão de autores
- * armazenados em um arquivo JSON.
+ * guardados no mecanismo de armazenamento configurado em {@code storage.engine.authors}.
  */
 @Service
 @PropertySource("classpath:application.properties")
@@ -30,34 +34,34 @@ public class AuthorService implements IAuthorService {
     private static final Logger LOGGER = Logger.getLogger(AuthorService.class.getName());
 
     private final ResourceLoader resourceLoader;
-    private final String absoluteJsonFilePath;
+    private final EntityRepository<Author> repository;
+    private final EntityStore<Author> authors;
 
-    private List<Author> authors;
-    private int nextId;
+    private BkTree nameTree;
 
     /**
      * Construtor para o serviço {@code AuthorService}.
      *
      * @param resourceLoader O carregador de recursos para obter o caminho absoluto do arquivo JSON.
      * @param jsonFilePath   O caminho relativo para o arquivo JSON que contém os autores.
+     * @param persistenceScheduler O agendador de gravações que agrupa as alterações no arquivo JSON.
+     * @param repositoryFactory A fábrica do repositório dos autores.
      */
     @Autowired
-    public AuthorService(ResourceLoader resourceLoader, @Value("static/authors.json") String jsonFilePath) {
+    public AuthorService(ResourceLoader resourceLoader, @Value("static/authors.json") String jsonFilePath,
+                         PersistenceScheduler persistenceScheduler, RepositoryFactory repositoryFactory) {
         this.resourceLoader = resourceLoader;
-        this.absoluteJsonFilePath = getAbsolutePath(jsonFilePath);
+        this.repository = repositoryFactory.create("authors", getAbsolutePath(jsonFilePath), Author.class,
+                EntityCodecs.AUTHOR, Author::getId);
+        this.authors = new EntityStore<>(this, repository, persistenceScheduler, Author::setId, () -> nameTree = null);
     }
 
     /**
      * Inicializa o serviço carregando os autores do arquivo JSON e definindo o próximo ID disponível.
      */
     @PostConstruct
-    public void init() {
-        this.authors = getAuthorsFromJson();
-        if (this.authors.isEmpty()) {
-            this.nextId = 1;
-        } else {
-            this.nextId = authors.stream().mapToInt(Author::getId).max().orElse(0) + 1;
-        }
+    public synchronized void init() {
+        authors.load();
     }
 
     /**
@@ -78,23 +82,43 @@ public class AuthorService implements IAuthorService {
     }
 
     /**
-     * Carrega a lista de autores do arquivo JSON.
+     * Carrega a lista de autores do armazenamento; com o mecanismo JSON, do snapshot, em JSON ou no formato binário.
      *
-     * @return Uma lista de autores carregados do arquivo JSON.
-     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo JSON.
+     * @return Uma lista de autores carregados do armazenamento.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
      */
-    public List<Author> getAuthorsFromJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            if (!file.exists()) {
-                mapper.writeValue(file, List.of());
-            }
-            return mapper.readValue(file, new TypeReference<List<Author>>() {});
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
-            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
-        }
+    public synchronized List<Author> getAuthorsFromJson() {
+        return repository.readAll();
+    }
+
+    /**
+     * Obtém todos os autores a partir da cópia imutável mantida em memória, sem reler o arquivo JSON.
+     * A cópia é recriada apenas na primeira leitura após uma alteração.
+     *
+     * @return Uma lista imutável com todos os autores.
+     */
+    @Override
+    public List<Author> getAllAuthors() {
+        return authors.getAll();
+    }
+
+    /**
+     * Recarrega os autores a partir do arquivo JSON, descartando o estado mantido em memória.
+     */
+    @Override
+    public synchronized void reload() {
+        init();
+    }
+
+    /**
+     * Recarrega os autores apenas se o snapshot foi alterado fora da aplicação desde a última carga ou
+     * gravação. A tabela carregada substitui a anterior de uma só vez.
+     *
+     * @return {@code true} se os autores foram recarregados.
+     */
+    @Override
+    public boolean reloadIfChanged() {
+        return authors.reloadIfChanged();
     }
 
     /**
@@ -103,9 +127,29 @@ public class AuthorService implements IAuthorService {
      * @param id O ID do autor a ser recuperado.
      * @return O autor correspondente ao ID fornecido ou {@code null} se não for encontrado.
      */
-    public Author getAuthorById(int id) {
-        Optional<Author> author = authors.stream().filter(a -> a.getId() == id).findFirst();
-        return author.orElse(null);
+    public synchronized Author getAuthorById(int id) {
+        return authors.table().get(id);
+    }
+
+    /**
+     * Busca os autores com o nome a até {@code maxDistance} edições da consulta, ou com uma palavra do nome a essa
+     * distância, pela árvore BK dos nomes. A árvore é montada na primeira busca e mantida a cada alteração a
+     * partir de então.
+     *
+     * @param query       O nome digitado, possivelmente com erros.
+     * @param maxDistance A distância de edição máxima.
+     * @return Os autores encontrados, sem o número de vendas, da menor para a maior distância.
+     */
+    public synchronized List<FuzzyMatch<Author>> findSimilarAuthors(String query, int maxDistance) {
+        if (nameTree == null) {
+            nameTree = new BkTree();
+            authors.table().forEach(author -> nameTree.add(author.getId(), author.getName()));
+        }
+        List<FuzzyMatch<Author>> found = new ArrayList<>();
+        for (BkTree.Hit hit : nameTree.search(query, maxDistance)) {
+            found.add(new FuzzyMatch<>(authors.table().get(hit.getId()), hit.getDistance(), 0));
+        }
+        return found;
     }
 
     /**
@@ -113,10 +157,15 @@ public class AuthorService implements IAuthorService {
      *
      * @param newAuthor O novo autor a ser adicionado.
      */
-    public synchronized void addAuthor(Author newAuthor) {
-        newAuthor.setId(nextId++);
-        authors.add(newAuthor);
-        saveAuthorsToJson();
+    public void addAuthor(Author newAuthor) {
+        authors.applyChange(() -> {
+            newAuthor.setId(authors.nextId());
+            authors.table().put(newAuthor);
+            if (nameTree != null) {
+                nameTree.add(newAuthor.getId(), newAuthor.getName());
+            }
+            return true;
+        });
     }
 
     /**
@@ -125,15 +174,19 @@ public class AuthorService implements IAuthorService {
      * @param id              O ID do autor a ser atualizado.
      * @param updatedAuthor   O autor atualizado.
      */
-    public synchronized void updateAuthor(int id, Author updatedAuthor) {
-        for (int i = 0; i < authors.size(); i++) {
-            if (authors.get(i).getId() == id) {
-                updatedAuthor.setId(id);
-                authors.set(i, updatedAuthor);
-                saveAuthorsToJson();
-                return;
+    public void updateAuthor(int id, Author updatedAuthor) {
+        authors.applyChange(() -> {
+            if (!authors.table().contains(id)) {
+                return false;
             }
-        }
+            updatedAuthor.setId(id);
+            Author previous = authors.table().put(updatedAuthor);
+            if (nameTree != null) {
+                nameTree.remove(id, previous.getName());
+                nameTree.add(id, updatedAuthor.getName());
+            }
+            return true;
+        });
     }
 
     /**
@@ -141,24 +194,16 @@ public class AuthorService implements IAuthorService {
      *
      * @param id O ID do autor a ser removido.
      */
-    public synchronized void deleteAuthor(int id) {
-        authors.removeIf(author -> author.getId() == id);
-        saveAuthorsToJson();
-    }
-
-    /**
-     * Salva a lista atual de autores no arquivo JSON.
-     *
-     * @throws RuntimeException Se ocorrer um erro ao salvar o arquivo JSON.
-     */
-    private synchronized void saveAuthorsToJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            mapper.writeValue(file, authors);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
-            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
-        }
+    public void deleteAuthor(int id) {
+        authors.applyChange(() -> {
+            Author removed = authors.table().remove(id);
+            if (removed == null) {
+                return false;
+            }
+            if (nameTree != null) {
+                nameTree.remove(id, removed.getName());
+            }
+            return true;
+        });
     }
 }
@@ -0,0 +1,254 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Author;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.Genre;
+import com.example.HavenBook.domain.Suggestion;
+import com.example.HavenBook.index.PrefixIndex;
+import com.example.HavenBook.index.TextAnalyzer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serviço de autocompletar para a busca da loja, que sugere títulos, autores e gêneros a partir do prefixo
+ * digitado, sem diferenciar acentos nem maiúsculas, dos mais para os menos vendidos.
+ * <p>
+ * As sugestões de cada tipo são respondidas por um {@link PrefixIndex}, montado a partir das cópias imutáveis dos
+ * catálogos e das vendas de cada livro, por ID. Os índices são recriados após uma alteração dos catálogos,
+ * detectada pela substituição das suas cópias, e a cada {@code autocomplete.refresh-interval-ms} milissegundos, para
+ * atualizar o número de vendas. A recriação é feita em segundo plano, iniciada pela primeira consulta que encontra
+ * os índices desatualizados, e as consultas continuam sendo respondidas pelos índices anteriores até que ela termine;
+ * apenas a primeira consulta, sem índices anteriores, espera a sua montagem. O número de vendas de um título, de um
+ * autor ou de um gênero é a soma das vendas dos livros do catálogo com esse título, autor ou gênero.
+ */
+@Service
+public class AutocompleteService {
+
+    private static final Logger LOGGER = Logger.getLogger(AutocompleteService.class.getName());
+
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final GenreService genreService;
+    private final SaleHistoryService saleHistoryService;
+    private final long refreshIntervalMs;
+    private final ExecutorService executor;
+    private final Object refreshLock = new Object();
+
+    private volatile Indexes indexes;
+    private CompletableFuture<Void> pendingRefresh;
+
+    /**
+     * Construtor para o serviço {@code AutocompleteService}.
+     *
+     * @param bookService        O serviço de livros, cujos títulos são sugeridos.
+     * @param authorService      O serviço de autores, cujos nomes são sugeridos.
+     * @param genreService       O serviço de gêneros, cujos nomes são sugeridos.
+     * @param saleHistoryService O serviço de vendas, que fornece o número de vendas de cada sugestão.
+     * @param refreshIntervalMs  O intervalo, em milissegundos, entre as atualizações do número de vendas.
+     */
+    @Autowired
+    public AutocompleteService(BookService bookService, AuthorService authorService, GenreService genreService,
+                               SaleHistoryService saleHistoryService,
+                               @Value("${autocomplete.refresh-interval-ms:30000}") long refreshIntervalMs) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.genreService = genreService;
+        this.saleHistoryService = saleHistoryService;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autocomplete-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Obtém as sugestões mais vendidas com uma palavra iniciada pelo prefixo.
+     *
+     * @param prefix O prefixo digitado.
+     * @param type   O tipo das sugestões, ou {@code null} para sugerir todos os tipos.
+     * @param limit  O número máximo de sugestões.
+     * @return As sugestões, das mais para as menos vendidas.
+     */
+    public List<Suggestion> complete(String prefix, Suggestion.Type type, int limit) {
+        Indexes current = currentIndexes();
+        if (type != null) {
+            return current.complete(type, prefix, limit);
+        }
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Suggestion.Type each : Suggestion.Type.values()) {
+            suggestions.addAll(current.complete(each, prefix, limit));
+        }
+        suggestions.sort(Comparator.comparingLong(Suggestion::getSales).reversed());
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    /**
+     * Recria os índices com os catálogos e as vendas atuais.
+     */
+    public synchronized void refresh() {
+        List<Book> books = bookService.getAllBooks();
+        List<Author> authors = authorService.getAllAuthors();
+        List<Genre> genres = genreService.getAllGenres();
+        SalesStatistics statistics = saleHistoryService.getStatistics();
+
+        Map<Integer, Long> bookSales = statistics.getBookSales();
+        Map<String, Long> titleSales = new HashMap<>();
+        Map<String, Long> authorSales = new HashMap<>();
+        Map<String, Long> genreSales = new HashMap<>();
+        for (Book book : books) {
+            Long sales = bookSales.get(book.getId());
+            if (sales == null) {
+                continue;
+            }
+            titleSales.merge(book.getTitle(), sales, Long::sum);
+            if (book.getAuthor() != null) {
+                authorSales.merge(book.getAuthor(), sales, Long::sum);
+            }
+            if (book.getGenres() != null) {
+                book.getGenres().forEach(genre -> genreSales.merge(genre, sales, Long::sum));
+            }
+        }
+
+        Map<Suggestion.Type, TypeIndex> byType = new EnumMap<>(Suggestion.Type.class);
+        byType.put(Suggestion.Type.TITLE, TypeIndex.of(Suggestion.Type.TITLE, books, Book::getTitle, titleSales));
+        byType.put(Suggestion.Type.AUTHOR, TypeIndex.of(Suggestion.Type.AUTHOR, authors, Author::getName, authorSales));
+        byType.put(Suggestion.Type.GENRE, TypeIndex.of(Suggestion.Type.GENRE, genres, Genre::getName, genreSales));
+        indexes = new Indexes(books, authors, genres, System.currentTimeMillis(), byType);
+    }
+
+    /**
+     * Agenda a recriação dos índices em segundo plano, se ainda não houver uma em andamento. O agendamento não
+     * espera a recriação em andamento, que mantém o bloqueio do serviço.
+     *
+     * @return A recriação agendada ou em andamento.
+     */
+    public CompletableFuture<Void> refreshInBackground() {
+        synchronized (refreshLock) {
+            if (pendingRefresh == null || pendingRefresh.isDone()) {
+                pendingRefresh = CompletableFuture.runAsync(this::refresh, executor).whenComplete((result, error) -> {
+                    if (error != null) {
+                        LOGGER.log(Level.WARNING, "Erro ao recriar os índices de autocompletar", error);
+                    }
+                });
+            }
+            return pendingRefresh;
+        }
+    }
+
+    /**
+     * Interrompe as recriações em segundo plano ao encerrar a aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Obtém os índices atuais. Se os catálogos foram alterados ou se o número de vendas expirou, agenda a sua
+     * recriação e retorna os índices anteriores; sem índices anteriores, monta-os na própria consulta.
+     *
+     * @return Os índices atuais.
+     */
+    private Indexes currentIndexes() {
+        Indexes current = indexes;
+        if (current == null) {
+            synchronized (this) {
+                if (indexes == null) {
+                    refresh();
+                }
+                return indexes;
+            }
+        }
+        if (isStale(current)) {
+            refreshInBackground();
+        }
+        return current;
+    }
+
+    private boolean isStale(Indexes current) {
+        return current.books != bookService.getAllBooks()
+                || current.authors != authorService.getAllAuthors()
+                || current.genres != genreService.getAllGenres()
+                || System.currentTimeMillis() - current.builtAt >= refreshIntervalMs;
+    }
+
+    /**
+     * Os índices de todos os tipos, com as cópias dos catálogos a partir das quais foram montados.
+     */
+    private static final class Indexes {
+
+        private final List<Book> books;
+        private final List<Author> authors;
+        private final List<Genre> genres;
+        private final long builtAt;
+        private final Map<Suggestion.Type, TypeIndex> byType;
+
+        private Indexes(List<Book> books, List<Author> authors, List<Genre> genres, long builtAt,
+                        Map<Suggestion.Type, TypeIndex> byType) {
+            this.books = books;
+            this.authors = authors;
+            this.genres = genres;
+            this.builtAt = builtAt;
+            this.byType = byType;
+        }
+
+        private List<Suggestion> complete(Suggestion.Type type, String prefix, int limit) {
+            TypeIndex index = byType.get(type);
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (int entry : index.prefixIndex.complete(prefix, limit)) {
+                suggestions.add(index.suggestions.get(entry));
+            }
+            return suggestions;
+        }
+    }
+
+    /**
+     * O índice de um tipo, com a sugestão correspondente a cada entrada. Textos que diferem apenas por acentos ou
+     * maiúsculas formam uma única entrada.
+     */
+    private static final class TypeIndex {
+
+        private final PrefixIndex prefixIndex;
+        private final List<Suggestion> suggestions;
+
+        private TypeIndex(PrefixIndex prefixIndex, List<Suggestion> suggestions) {
+            this.prefixIndex = prefixIndex;
+            this.suggestions = suggestions;
+        }
+
+        private static <T> TypeIndex of(Suggestion.Type type, List<T> items, Function<T, String> textOf,
+                                        Map<String, Long> sales) {
+            PrefixIndex.Builder builder = new PrefixIndex.Builder();
+            List<Suggestion> suggestions = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (T item : items) {
+                String text = textOf.apply(item);
+                if (text == null || text.isBlank() || !seen.add(TextAnalyzer.fold(text))) {
+                    continue;
+                }
+                long count = sales.getOrDefault(text, 0L);
+                builder.add(text, count);
+                suggestions.add(new Suggestion(text, type, count));
+            }
+            return new TypeIndex(builder.build(), suggestions);
+        }
+    }
+}
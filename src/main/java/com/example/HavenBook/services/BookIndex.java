@@ -0,0 +1,95 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.BookFilter;
+import com.example.HavenBook.index.HashIndex;
+import com.example.HavenBook.index.SortedIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Índices secundários do catálogo de livros, mantidos pelo {@link BookService} a cada inclusão, alteração e
+ * exclusão: um índice por igualdade para o autor e índices ordenados para o valor, o número de páginas e a data de
+ * publicação. Os critérios de gênero são respondidos pelo {@link GenreBitmapIndex}.
+ * <p>
+ * Uma consulta obtém de cada índice os IDs que atendem ao seu critério e faz a interseção dos conjuntos a partir
+ * do menor, sem percorrer os livros. Livros sem autor ou sem data de publicação não são encontrados pelos
+ * critérios correspondentes.
+ */
+public class BookIndex {
+
+    private final HashIndex<String> byAuthor = new HashIndex<>();
+    private final SortedIndex<Double> byValue = new SortedIndex<>();
+    private final SortedIndex<Integer> byPages = new SortedIndex<>();
+    private final SortedIndex<Long> byPublicationDate = new SortedIndex<>();
+
+    /**
+     * Inclui um livro nos índices.
+     *
+     * @param book O livro.
+     */
+    public void add(Book book) {
+        int id = book.getId();
+        byAuthor.add(book.getAuthor(), id);
+        byValue.add(book.getValue(), id);
+        byPages.add(book.getNumberOfPages(), id);
+        byPublicationDate.add(book.getPublicationDate() == null ? null : book.getPublicationDate().getTime(), id);
+    }
+
+    /**
+     * Remove um livro dos índices, com os valores que ele tinha quando foi incluído.
+     *
+     * @param book O livro.
+     */
+    public void remove(Book book) {
+        int id = book.getId();
+        byAuthor.remove(book.getAuthor(), id);
+        byValue.remove(book.getValue(), id);
+        byPages.remove(book.getNumberOfPages(), id);
+        byPublicationDate.remove(book.getPublicationDate() == null ? null : book.getPublicationDate().getTime(), id);
+    }
+
+    /**
+     * Obtém os IDs dos livros que atendem a todos os critérios informados, exceto os de gênero.
+     *
+     * @param filter Os critérios da consulta, com ao menos um critério além dos de gênero.
+     * @return Os IDs dos livros, em ordem crescente.
+     */
+    public Set<Integer> find(BookFilter filter) {
+        List<Set<Integer>> matches = new ArrayList<>();
+        if (filter.getAuthor() != null) {
+            matches.add(byAuthor.get(filter.getAuthor()));
+        }
+        if (filter.getMinValue() != null || filter.getMaxValue() != null) {
+            matches.add(byValue.range(filter.getMinValue(), filter.getMaxValue()));
+        }
+        if (filter.getMinPages() != null || filter.getMaxPages() != null) {
+            matches.add(byPages.range(filter.getMinPages(), filter.getMaxPages()));
+        }
+        if (filter.getPublishedFrom() != null || filter.getPublishedTo() != null) {
+            matches.add(byPublicationDate.range(
+                    filter.getPublishedFrom() == null ? null : filter.getPublishedFrom().getTime(),
+                    filter.getPublishedTo() == null ? null : filter.getPublishedTo().getTime()));
+        }
+        matches.sort(Comparator.comparingInt(Set::size));
+
+        Set<Integer> ids = new TreeSet<>();
+        if (matches.isEmpty()) {
+            return ids;
+        }
+        for (int id : matches.get(0)) {
+            boolean all = true;
+            for (int i = 1; i < matches.size() && all; i++) {
+                all = matches.get(i).contains(id);
+            }
+            if (all) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
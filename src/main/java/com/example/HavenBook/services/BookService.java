@@ -1,9 +1,21 @@
 package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.BookFilter;
+import com.example.HavenBook.domain.FuzzyMatch;
+import com.example.HavenBook.domain.GenreFacet;
+import com.example.HavenBook.domain.GenreSales;
 import com.example.HavenBook.domain.interfaces.IBookService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.HavenBook.index.BkTree;
+import com.example.HavenBook.index.CompressedBitmap;
+import com.example.HavenBook.index.InvertedIndex;
+import com.example.HavenBook.index.RecordTable;
+import com.example.HavenBook.persistence.EntityCodecs;
+import com.example.HavenBook.persistence.EntityRepository;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.persistence.RepositoryFactory;
+import com.example.HavenBook.persistence.SqlColumn;
+import com.example.HavenBook.persistence.SqlRepository;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,16 +24,26 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Serviço para gerenciar os livros, incluindo operações de leitura, adição, atualização e exclusão de livros
- * armazenados em um arquivo JSON.
+ * guardados no mecanismo de armazenamento configurado em {@code storage.engine.books}.
+ * <p>
+ * Os serviços que guardam dados derivados dos livros, como o título e o autor dos livros vendidos, são avisados
+ * de cada alteração e recarga do catálogo pelos {@link ChangeListener} registrados, fora do bloqueio do serviço.
  */
 @Service
 @PropertySource("classpath:application.properties")
@@ -30,34 +52,47 @@ public class BookService implements IBookService {
     private static final Logger LOGGER = Logger.getLogger(BookService.class.getName());
 
     private final ResourceLoader resourceLoader;
-    private final String absoluteJsonFilePath;
+    private final EntityRepository<Book> repository;
+    private final PersistenceScheduler persistenceScheduler;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
 
-    private List<Book> books;
+    private RecordTable<Book> books;
+    private BookIndex index;
+    private GenreBitmapIndex genreIndex;
+    private InvertedIndex textIndex;
+    private BkTree titleTree;
     private int nextId;
+    private volatile List<Book> snapshot;
 
     /**
      * Construtor para o serviço {@code BookService}.
      *
-     * @param resourceLoader O carregador de recursos para obter o caminho absoluto do arquivo JSON.
-     * @param jsonFilePath   O caminho relativo para o arquivo JSON que contém os livros.
+     * @param resourceLoader    O carregador de recursos para obter o caminho absoluto do arquivo JSON.
+     * @param jsonFilePath      O caminho relativo para o arquivo JSON que contém os livros.
+     * @param persistenceScheduler O agendador de gravações que agrupa as alterações no armazenamento.
+     * @param repositoryFactory A fábrica do repositório dos livros.
      */
     @Autowired
-    public BookService(ResourceLoader resourceLoader, @Value("static/books.json") String jsonFilePath) {
+    public BookService(ResourceLoader resourceLoader, @Value("static/books.json") String jsonFilePath,
+                       PersistenceScheduler persistenceScheduler, RepositoryFactory repositoryFactory) {
         this.resourceLoader = resourceLoader;
-        this.absoluteJsonFilePath = getAbsolutePath(jsonFilePath);
+        this.repository = repositoryFactory.create("books", getAbsolutePath(jsonFilePath), Book.class,
+                EntityCodecs.BOOK, Book::getId, List.of(SqlColumn.indexed("author", "VARCHAR", Book::getAuthor)));
+        this.persistenceScheduler = persistenceScheduler;
     }
 
     /**
-     * Inicializa o serviço carregando os livros do arquivo JSON e definindo o próximo ID disponível.
+     * Inicializa o serviço carregando os livros do armazenamento e definindo o próximo ID disponível.
      */
     @PostConstruct
-    public void init() {
-        this.books = getBooksFromJson();
-        if (this.books.isEmpty()) {
-            this.nextId = 1;
-        } else {
-            this.nextId = books.stream().mapToInt(Book::getId).max().orElse(0) + 1;
-        }
+    public synchronized void init() {
+        this.books = repository.load(Book::setId);
+        this.index = null;
+        this.genreIndex = null;
+        this.textIndex = null;
+        this.titleTree = null;
+        this.snapshot = null;
+        this.nextId = books.maxId() + 1;
     }
 
     /**
@@ -78,23 +113,81 @@ public class BookService implements IBookService {
     }
 
     /**
-     * Carrega a lista de livros do arquivo JSON.
+     * Carrega a lista de livros do armazenamento; com o mecanismo JSON, do snapshot, em JSON ou no formato binário.
      *
-     * @return Uma lista de livros carregados do arquivo JSON.
-     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo JSON.
+     * @return Uma lista de livros carregados do armazenamento.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
      */
-    public List<Book> getBooksFromJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            if (!file.exists()) {
-                mapper.writeValue(file, List.of());
+    public synchronized List<Book> getBooksFromJson() {
+        return repository.readAll();
+    }
+
+    /**
+     * Obtém todos os livros a partir da cópia imutável mantida em memória, sem reler o arquivo JSON.
+     * A cópia é recriada apenas na primeira leitura após uma alteração. Com o mecanismo em disco, a cópia guarda
+     * apenas os IDs, e cada livro é lido quando é acessado.
+     *
+     * @return Uma lista imutável com todos os livros.
+     */
+    @Override
+    public List<Book> getAllBooks() {
+        List<Book> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = books.toList();
+                    snapshot = current;
+                }
             }
-            return mapper.readValue(file, new TypeReference<List<Book>>() {});
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
-            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
         }
+        return current;
+    }
+
+    /**
+     * Registra um serviço a ser avisado das alterações e das recargas do catálogo.
+     *
+     * @param listener O serviço a ser avisado.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Recarrega os livros a partir do armazenamento, descartando o estado mantido em memória.
+     */
+    @Override
+    public void reload() {
+        synchronized (this) {
+            init();
+        }
+        listeners.forEach(ChangeListener::catalogReloaded);
+    }
+
+    /**
+     * Recarrega os livros apenas se o snapshot foi alterado fora da aplicação desde a última carga ou
+     * gravação. A tabela carregada substitui a anterior de uma só vez.
+     *
+     * @return {@code true} se os livros foram recarregados.
+     */
+    @Override
+    public boolean reloadIfChanged() {
+        synchronized (this) {
+            if (!repository.hasChanged()) {
+                return false;
+            }
+            init();
+        }
+        listeners.forEach(ChangeListener::catalogReloaded);
+        return true;
+    }
+
+    /**
+     * Exporta os livros para o arquivo JSON, independentemente do formato do snapshot e do mecanismo de
+     * armazenamento.
+     */
+    public synchronized void exportToJson() {
+        repository.exportJson(getAllBooks());
     }
 
     /**
@@ -103,9 +196,187 @@ public class BookService implements IBookService {
      * @param id O ID do livro a ser recuperado.
      * @return O livro correspondente ao ID fornecido ou {@code null} se não for encontrado.
      */
-    public Book getBookById(int id) {
-        Optional<Book> book = books.stream().filter(b -> b.getId() == id).findFirst();
-        return book.orElse(null);
+    public synchronized Book getBookById(int id) {
+        return books.get(id);
+    }
+
+    /**
+     * Obtém o livro do catálogo correspondente a um livro completo, como os das vendas no formato antigo, pelo
+     * título e pelo autor, e não pelo ID, que pode não corresponder ao do catálogo. Se houver mais de um livro com
+     * o mesmo título e autor, é escolhido o de mesmo ID, em seguida o de mesmo valor e, por fim, o de menor ID.
+     *
+     * @param book O livro completo.
+     * @return O livro do catálogo, ou {@code null} se nenhum livro tiver o mesmo título e autor.
+     */
+    public synchronized Book findCatalogBook(Book book) {
+        if (book.getTitle() == null || book.getAuthor() == null) {
+            return null;
+        }
+        BookFilter filter = new BookFilter();
+        filter.setAuthor(book.getAuthor());
+        Book found = null;
+        for (Book candidate : findBooks(filter)) {
+            if (!book.getTitle().equals(candidate.getTitle())) {
+                continue;
+            }
+            if (candidate.getId() == book.getId()) {
+                return candidate;
+            }
+            if (found == null || (candidate.getValue() == book.getValue() && found.getValue() != book.getValue())) {
+                found = candidate;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Obtém os livros que atendem a todos os critérios do filtro, pela interseção dos resultados dos índices
+     * secundários e do índice de gêneros, sem percorrer o catálogo. Os índices são montados na primeira consulta,
+     * para não atrasar a carga do catálogo, e mantidos a cada alteração a partir de então. Com o mecanismo SQL, o
+     * critério de autor é respondido pelo índice da coluna do autor no banco.
+     *
+     * @param filter Os critérios da consulta; sem critérios, retorna todos os livros.
+     * @return A lista de livros encontrados, em ordem de ID.
+     */
+    public synchronized List<Book> findBooks(BookFilter filter) {
+        if (filter.isEmpty()) {
+            return getAllBooks();
+        }
+        if (repository instanceof SqlRepository<Book> sqlRepository && filter.getAuthor() != null
+                && filter.withoutAuthor().isEmpty()) {
+            return sqlRepository.findBy("author", filter.getAuthor());
+        }
+        List<Book> found = new ArrayList<>();
+        matchingIds(filter).forEach(id -> found.add(books.get(id)));
+        return found;
+    }
+
+    /**
+     * Conta os livros de cada gênero entre os que atendem aos critérios do filtro, pelo índice de gêneros.
+     *
+     * @param filter Os critérios da consulta; sem critérios, conta todo o catálogo.
+     * @return As contagens dos gêneros com ao menos um livro, da maior para a menor.
+     */
+    public synchronized List<GenreFacet> getGenreFacets(BookFilter filter) {
+        return genreIndex().facets(filter.isEmpty() ? null : matchingIds(filter));
+    }
+
+    /**
+     * Soma os exemplares vendidos dos livros de cada gênero do catálogo, pelo índice de gêneros.
+     *
+     * @param bookSales O número de exemplares vendidos de cada livro, pelo ID.
+     * @return As vendas dos gêneros com ao menos um exemplar vendido, da maior para a menor.
+     */
+    public synchronized List<GenreSales> getGenreSales(Map<Integer, Long> bookSales) {
+        return genreIndex().sales(bookSales);
+    }
+
+    /**
+     * Obtém os IDs dos livros que atendem a um filtro com ao menos um critério.
+     *
+     * @param filter Os critérios da consulta.
+     * @return Os IDs dos livros; o conjunto não deve ser alterado.
+     */
+    private CompressedBitmap matchingIds(BookFilter filter) {
+        CompressedBitmap genreMatches = filter.hasGenreCriteria() ? genreIndex().filter(filter) : null;
+        if (!filter.hasAttributeCriteria()) {
+            return genreMatches;
+        }
+        Set<Integer> attributeMatches = null;
+        BookFilter indexed = filter;
+        if (repository instanceof SqlRepository<Book> sqlRepository && filter.getAuthor() != null) {
+            attributeMatches = new TreeSet<>();
+            for (Book book : sqlRepository.findBy("author", filter.getAuthor())) {
+                attributeMatches.add(book.getId());
+            }
+            indexed = filter.withoutAuthor();
+        }
+        if (indexed.hasAttributeCriteria()) {
+            if (index == null) {
+                index = new BookIndex();
+                books.forEach(index::add);
+            }
+            Set<Integer> found = index.find(indexed);
+            if (attributeMatches == null) {
+                attributeMatches = found;
+            } else {
+                attributeMatches.retainAll(found);
+            }
+        }
+        CompressedBitmap ids = new CompressedBitmap();
+        for (int id : attributeMatches) {
+            if (genreMatches == null || genreMatches.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private GenreBitmapIndex genreIndex() {
+        if (genreIndex == null) {
+            genreIndex = new GenreBitmapIndex();
+            books.forEach(genreIndex::add);
+        }
+        return genreIndex;
+    }
+
+    /**
+     * Busca os livros pelo título e pela descrição no índice invertido, sem diferenciar acentos nem maiúsculas, e
+     * ordena os resultados pelo BM25. O índice é montado na primeira busca e mantido a cada alteração a partir de
+     * então.
+     *
+     * @param query Os termos da busca.
+     * @param limit O número máximo de livros retornados.
+     * @return Os livros que contêm algum termo da busca, do mais para o menos relevante.
+     */
+    public synchronized List<Book> searchBooks(String query, int limit) {
+        if (textIndex == null) {
+            textIndex = new InvertedIndex();
+            books.forEach(book -> textIndex.add(book.getId(), searchableText(book)));
+        }
+        List<Book> found = new ArrayList<>();
+        for (InvertedIndex.Hit hit : textIndex.search(query, limit)) {
+            found.add(books.get(hit.getId()));
+        }
+        return found;
+    }
+
+    /**
+     * Busca os livros com o título a até {@code maxDistance} edições da consulta, ou com uma palavra do título
+     * a essa distância, pela árvore BK dos títulos, sem comparar a consulta com todo o catálogo. A árvore é
+     * montada na primeira busca e mantida a cada alteração a partir de então.
+     *
+     * @param query       O título digitado, possivelmente com erros.
+     * @param maxDistance A distância de edição máxima.
+     * @return Os livros encontrados, sem o número de vendas, da menor para a maior distância.
+     */
+    public synchronized List<FuzzyMatch<Book>> findSimilarBooks(String query, int maxDistance) {
+        if (titleTree == null) {
+            titleTree = new BkTree();
+            books.forEach(book -> titleTree.add(book.getId(), book.getTitle()));
+        }
+        List<FuzzyMatch<Book>> found = new ArrayList<>();
+        for (BkTree.Hit hit : titleTree.search(query, maxDistance)) {
+            found.add(new FuzzyMatch<>(books.get(hit.getId()), hit.getDistance(), 0));
+        }
+        return found;
+    }
+
+    /**
+     * Conta os livros do catálogo cujo ID não pertence à coleção fornecida. O custo é proporcional ao
+     * tamanho da coleção, e não ao tamanho do catálogo.
+     *
+     * @param ids Os IDs a serem desconsiderados, sem repetições.
+     * @return O número de livros com ID fora da coleção.
+     */
+    public synchronized long countBooksWithoutIds(Collection<Integer> ids) {
+        long count = books.size();
+        for (int id : ids) {
+            if (books.contains(id)) {
+                count--;
+            }
+        }
+        return count;
     }
 
     /**
@@ -113,10 +384,25 @@ public class BookService implements IBookService {
      *
      * @param newBook O novo livro a ser adicionado.
      */
-    public synchronized void addBook(Book newBook) {
-        newBook.setId(nextId++);
-        books.add(newBook);
-        saveBooksToJson();
+    public void addBook(Book newBook) {
+        applyChange(() -> {
+            newBook.setId(nextId++);
+            books.put(newBook);
+            if (index != null) {
+                index.add(newBook);
+            }
+            if (genreIndex != null) {
+                genreIndex.add(newBook);
+            }
+            if (textIndex != null) {
+                textIndex.add(newBook.getId(), searchableText(newBook));
+            }
+            if (titleTree != null) {
+                titleTree.add(newBook.getId(), newBook.getTitle());
+            }
+            return true;
+        });
+        notifyChanged(newBook.getId());
     }
 
     /**
@@ -125,14 +411,32 @@ public class BookService implements IBookService {
      * @param id            O ID do livro a ser atualizado.
      * @param updatedBook   O livro atualizado.
      */
-    public synchronized void updateBook(int id, Book updatedBook) {
-        for (int i = 0; i < books.size(); i++) {
-            if (books.get(i).getId() == id) {
-                updatedBook.setId(id);
-                books.set(i, updatedBook);
-                saveBooksToJson();
-                return;
+    public void updateBook(int id, Book updatedBook) {
+        if (applyChange(() -> {
+            if (!books.contains(id)) {
+                return false;
+            }
+            updatedBook.setId(id);
+            Book previous = books.put(updatedBook);
+            if (index != null) {
+                index.remove(previous);
+                index.add(updatedBook);
+            }
+            if (genreIndex != null) {
+                genreIndex.remove(previous);
+                genreIndex.add(updatedBook);
             }
+            if (textIndex != null) {
+                textIndex.remove(id, searchableText(previous));
+                textIndex.add(id, searchableText(updatedBook));
+            }
+            if (titleTree != null) {
+                titleTree.remove(id, previous.getTitle());
+                titleTree.add(id, updatedBook.getTitle());
+            }
+            return true;
+        })) {
+            notifyChanged(id);
         }
     }
 
@@ -141,24 +445,97 @@ public class BookService implements IBookService {
      *
      * @param id O ID do livro a ser removido.
      */
-    public synchronized void deleteBook(int id) {
-        books.removeIf(book -> book.getId() == id);
-        saveBooksToJson();
+    public void deleteBook(int id) {
+        if (applyChange(() -> {
+            Book removed = books.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            if (index != null) {
+                index.remove(removed);
+            }
+            if (genreIndex != null) {
+                genreIndex.remove(removed);
+            }
+            if (textIndex != null) {
+                textIndex.remove(id, searchableText(removed));
+            }
+            if (titleTree != null) {
+                titleTree.remove(id, removed.getTitle());
+            }
+            return true;
+        })) {
+            notifyChanged(id);
+        }
     }
 
     /**
-     * Salva a lista atual de livros no arquivo JSON.
+     * Obtém o texto de um livro indexado para a busca textual.
      *
-     * @throws RuntimeException Se ocorrer um erro ao salvar o arquivo JSON.
+     * @param book O livro.
+     * @return O título e a descrição do livro.
      */
-    private synchronized void saveBooksToJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            mapper.writeValue(file, books);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
-            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
+    private static String searchableText(Book book) {
+        return Objects.toString(book.getTitle(), "") + " " + Objects.toString(book.getDescription(), "");
+    }
+
+    /**
+     * Aplica uma alteração na lista em memória e agenda a gravação do arquivo JSON pelo {@link PersistenceScheduler}.
+     * A espera pela gravação ocorre fora do bloqueio do serviço, para que alterações concorrentes possam ser
+     * agrupadas no mesmo lote.
+     *
+     * @param change A alteração a ser aplicada; retorna {@code true} se a lista foi modificada.
+     * @return {@code true} se a lista foi modificada.
+     */
+    private boolean applyChange(BooleanSupplier change) {
+        CompletableFuture<Void> ticket = null;
+        synchronized (this) {
+            if (change.getAsBoolean()) {
+                snapshot = null;
+                ticket = persistenceScheduler.submit(repository.getKey(), this::saveBooks);
+            }
+        }
+        if (ticket != null) {
+            persistenceScheduler.awaitDurability(ticket);
         }
+        return ticket != null;
+    }
+
+    /**
+     * Avisa os serviços registrados da alteração de um livro, fora do bloqueio do serviço, para que eles possam
+     * consultar o catálogo sem inverter a ordem dos bloqueios.
+     *
+     * @param id O ID do livro incluído, alterado ou removido.
+     */
+    private void notifyChanged(int id) {
+        listeners.forEach(listener -> listener.bookChanged(id));
+    }
+
+    /**
+     * Torna duráveis as alterações do lote no armazenamento; com o mecanismo JSON, grava a lista atual de livros
+     * no snapshot, no formato configurado.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao gravar o armazenamento.
+     */
+    private void saveBooks() {
+        repository.flush(this::getAllBooks);
+    }
+
+    /**
+     * Serviço avisado das alterações e das recargas do catálogo.
+     */
+    public interface ChangeListener {
+
+        /**
+         * Executado depois que um livro foi incluído, alterado ou removido.
+         *
+         * @param bookId O ID do livro.
+         */
+        void bookChanged(int bookId);
+
+        /**
+         * Executado depois que o catálogo foi recarregado do armazenamento.
+         */
+        void catalogReloaded();
     }
 }
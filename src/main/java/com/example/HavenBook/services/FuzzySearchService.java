@@ -0,0 +1,112 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Author;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.FuzzyMatch;
+import com.example.HavenBook.index.TextAnalyzer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Serviço de busca tolerante a erros de digitação nos títulos dos livros e nos nomes dos autores. As buscas são
+ * respondidas pelas árvores BK mantidas pelo {@link BookService} e pelo {@link AuthorService}, e os resultados são
+ * ordenados pela distância de edição e, na mesma distância, pelo número de exemplares vendidos, obtido das vendas
+ * por ID de livro; as vendas de um autor são a soma das vendas dos seus livros no catálogo.
+ * <p>
+ * A distância máxima é limitada a {@value #MAX_DISTANCE} edições, e a uma edição para consultas com menos de
+ * {@value #SHORT_QUERY_LENGTH} letras, que estariam a duas edições de muitos textos sem relação com elas.
+ */
+@Service
+public class FuzzySearchService {
+
+    /**
+     * A distância de edição máxima aceita nas buscas.
+     */
+    public static final int MAX_DISTANCE = 2;
+
+    private static final int SHORT_QUERY_LENGTH = 5;
+
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final SaleHistoryService saleHistoryService;
+
+    /**
+     * Construtor para o serviço {@code FuzzySearchService}.
+     *
+     * @param bookService        O serviço de livros, que mantém a árvore dos títulos.
+     * @param authorService      O serviço de autores, que mantém a árvore dos nomes.
+     * @param saleHistoryService O serviço de vendas, que fornece o número de vendas de cada livro.
+     */
+    @Autowired
+    public FuzzySearchService(BookService bookService, AuthorService authorService,
+                              SaleHistoryService saleHistoryService) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.saleHistoryService = saleHistoryService;
+    }
+
+    /**
+     * Busca os livros pelo título, tolerando erros de digitação.
+     *
+     * @param query       O título digitado.
+     * @param maxDistance A distância de edição máxima, limitada a {@value #MAX_DISTANCE}.
+     * @param limit       O número máximo de livros retornados.
+     * @return Os livros encontrados, pela distância e, na mesma distância, do mais para o menos vendido.
+     */
+    public List<FuzzyMatch<Book>> findBooks(String query, int maxDistance, int limit) {
+        List<FuzzyMatch<Book>> matches = bookService.findSimilarBooks(query, effectiveDistance(query, maxDistance));
+        if (matches.isEmpty()) {
+            return matches;
+        }
+        return rank(matches, Book::getId, saleHistoryService.getStatistics().getBookSales(), limit);
+    }
+
+    /**
+     * Busca os autores pelo nome, tolerando erros de digitação.
+     *
+     * @param query       O nome digitado.
+     * @param maxDistance A distância de edição máxima, limitada a {@value #MAX_DISTANCE}.
+     * @param limit       O número máximo de autores retornados.
+     * @return Os autores encontrados, pela distância e, na mesma distância, do mais para o menos vendido.
+     */
+    public List<FuzzyMatch<Author>> findAuthors(String query, int maxDistance, int limit) {
+        List<FuzzyMatch<Author>> matches = authorService.findSimilarAuthors(query, effectiveDistance(query, maxDistance));
+        if (matches.isEmpty()) {
+            return matches;
+        }
+        Set<String> names = new HashSet<>();
+        matches.forEach(match -> names.add(match.getItem().getName()));
+        Map<Integer, Long> bookSales = saleHistoryService.getStatistics().getBookSales();
+        Map<String, Long> sales = new HashMap<>();
+        for (Book book : bookService.getAllBooks()) {
+            Long count = bookSales.get(book.getId());
+            if (count != null && names.contains(book.getAuthor())) {
+                sales.merge(book.getAuthor(), count, Long::sum);
+            }
+        }
+        return rank(matches, Author::getName, sales, limit);
+    }
+
+    private static int effectiveDistance(String query, int maxDistance) {
+        int limit = TextAnalyzer.fold(query).strip().length() < SHORT_QUERY_LENGTH ? 1 : MAX_DISTANCE;
+        return Math.max(0, Math.min(maxDistance, limit));
+    }
+
+    private static <T, K> List<FuzzyMatch<T>> rank(List<FuzzyMatch<T>> matches, Function<T, K> keyOf,
+                                                   Map<K, Long> sales, int limit) {
+        matches.forEach(match -> match.setSales(sales.getOrDefault(keyOf.apply(match.getItem()), 0L)));
+        return matches.stream()
+                .sorted(Comparator.comparingInt((FuzzyMatch<T> match) -> match.getDistance())
+                        .thenComparing(Comparator.comparingLong((FuzzyMatch<T> match) -> match.getSales()).reversed()))
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.BookFilter;
+import com.example.HavenBook.domain.GenreFacet;
+import com.example.HavenBook.domain.GenreSales;
+import com.example.HavenBook.index.CompressedBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índice de gêneros do catálogo de livros, mantido pelo {@link BookService} a cada inclusão, alteração e
+ * exclusão: um {@link CompressedBitmap} com os IDs dos livros de cada gênero e outro com os IDs de todos os livros.
+ * <p>
+ * Os filtros de gênero são respondidos por operações entre os conjuntos, sem comparar os gêneros de cada livro:
+ * interseção para os gêneros exigidos, a partir do menor conjunto, união para os alternativos e diferença para os
+ * excluídos. As contagens por faceta e as vendas por gênero cruzam o conjunto de cada gênero com os livros da
+ * consulta ou com os livros vendidos.
+ */
+public class GenreBitmapIndex {
+
+    private final Map<String, CompressedBitmap> byGenre = new TreeMap<>();
+    private final CompressedBitmap all = new CompressedBitmap();
+
+    /**
+     * Inclui um livro no índice. Livros com ID negativo não são indexados.
+     *
+     * @param book O livro.
+     */
+    public void add(Book book) {
+        int id = book.getId();
+        if (id < 0) {
+            return;
+        }
+        all.add(id);
+        if (book.getGenres() != null) {
+            book.getGenres().stream()
+                    .filter(genre -> genre != null)
+                    .forEach(genre -> byGenre.computeIfAbsent(genre, g -> new CompressedBitmap()).add(id));
+        }
+    }
+
+    /**
+     * Remove um livro do índice, com os gêneros que ele tinha quando foi incluído.
+     *
+     * @param book O livro.
+     */
+    public void remove(Book book) {
+        int id = book.getId();
+        all.remove(id);
+        if (book.getGenres() != null) {
+            for (String genre : book.getGenres()) {
+                CompressedBitmap ids = genre == null ? null : byGenre.get(genre);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        byGenre.remove(genre);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtém os IDs dos livros que atendem aos critérios de gênero do filtro.
+     *
+     * @param filter Os critérios da consulta; os demais critérios são ignorados.
+     * @return Os IDs dos livros; o conjunto pode ser o do próprio índice e não deve ser alterado.
+     */
+    public CompressedBitmap filter(BookFilter filter) {
+        List<CompressedBitmap> required = new ArrayList<>();
+        if (filter.getGenre() != null) {
+            required.add(get(filter.getGenre()));
+        }
+        if (filter.getGenres() != null) {
+            filter.getGenres().forEach(genre -> required.add(get(genre)));
+        }
+        required.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+
+        CompressedBitmap result = null;
+        for (CompressedBitmap ids : required) {
+            result = result == null ? ids : result.and(ids);
+        }
+        if (filter.getAnyGenres() != null && !filter.getAnyGenres().isEmpty()) {
+            CompressedBitmap any = new CompressedBitmap();
+            for (String genre : filter.getAnyGenres()) {
+                any = any.or(get(genre));
+            }
+            result = result == null ? any : result.and(any);
+        }
+        if (result == null) {
+            result = all;
+        }
+        if (filter.getExcludedGenres() != null) {
+            for (String genre : filter.getExcludedGenres()) {
+                result = result.andNot(get(genre));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Conta os livros de cada gênero entre os livros fornecidos.
+     *
+     * @param ids Os IDs dos livros, ou {@code null} para contar todo o catálogo.
+     * @return As contagens dos gêneros com ao menos um livro, da maior para a menor e, nos empates, em ordem
+     * alfabética.
+     */
+    public List<GenreFacet> facets(CompressedBitmap ids) {
+        List<GenreFacet> facets = new ArrayList<>();
+        byGenre.forEach((genre, genreIds) -> {
+            int count = ids == null ? genreIds.cardinality() : ids.andCardinality(genreIds);
+            if (count > 0) {
+                facets.add(new GenreFacet(genre, count));
+            }
+        });
+        facets.sort(Comparator.comparingInt(GenreFacet::getCount).reversed());
+        return facets;
+    }
+
+    /**
+     * Soma os exemplares vendidos dos livros de cada gênero.
+     *
+     * @param bookSales O número de exemplares vendidos de cada livro, pelo ID.
+     * @return As vendas dos gêneros com ao menos um exemplar vendido, da maior para a menor e, nos empates, em
+     * ordem alfabética.
+     */
+    public List<GenreSales> sales(Map<Integer, Long> bookSales) {
+        CompressedBitmap sold = new CompressedBitmap();
+        bookSales.forEach((id, quantity) -> {
+            if (id >= 0 && quantity > 0) {
+                sold.add(id);
+            }
+        });
+        List<GenreSales> sales = new ArrayList<>();
+        byGenre.forEach((genre, genreIds) -> {
+            long[] quantity = {0};
+            genreIds.and(sold).forEach(id -> quantity[0] += bookSales.get(id));
+            if (quantity[0] > 0) {
+                sales.add(new GenreSales(genre, quantity[0]));
+            }
+        });
+        sales.sort(Comparator.comparingLong(GenreSales::getQuantity).reversed());
+        return sales;
+    }
+
+    private CompressedBitmap get(String genre) {
+        CompressedBitmap ids = byGenre.get(genre);
+        return ids == null ? new CompressedBitmap() : ids;
+    }
+}
@@ -2,8 +2,11 @@ package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.Genre;
 import com.example.HavenBook.domain.interfaces.IGenreService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.HavenBook.persistence.EntityCodecs;
+import com.example.HavenBook.persistence.EntityRepository;
+import com.example.HavenBook.persistence.EntityStore;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.persistence.RepositoryFactory;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,16 +15,14 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Serviço para gerenciar os gêneros, incluindo operações de leitura, adição, atualização e exclusão de gêneros
- * armazenados em um arquivo JSON.
+ * guardados no mecanismo de armazenamento configurado em {@code storage.engine.genres}.
  */
 @Service
 @PropertySource("classpath:application.properties")
@@ -30,34 +31,32 @@ public class GenreService implements IGenreService {
     private static final Logger LOGGER = Logger.getLogger(GenreService.class.getName());
 
     private final ResourceLoader resourceLoader;
-    private final String absoluteJsonFilePath;
-
-    private List<Genre> genres;
-    private int nextId;
+    private final EntityRepository<Genre> repository;
+    private final EntityStore<Genre> genres;
 
     /**
      * Construtor para o serviço {@code GenreService}.
      *
      * @param resourceLoader O carregador de recursos para obter o caminho absoluto do arquivo JSON.
      * @param jsonFilePath   O caminho relativo para o arquivo JSON que contém os gêneros.
+     * @param persistenceScheduler O agendador de gravações que agrupa as alterações no arquivo JSON.
+     * @param repositoryFactory A fábrica do repositório dos gêneros.
      */
     @Autowired
-    public GenreService(ResourceLoader resourceLoader, @Value("static/genres.json") String jsonFilePath) {
+    public GenreService(ResourceLoader resourceLoader, @Value("static/genres.json") String jsonFilePath,
+                        PersistenceScheduler persistenceScheduler, RepositoryFactory repositoryFactory) {
         this.resourceLoader = resourceLoader;
-        this.absoluteJsonFilePath = getAbsolutePath(jsonFilePath);
+        this.repository = repositoryFactory.create("genres", getAbsolutePath(jsonFilePath), Genre.class,
+                EntityCodecs.GENRE, Genre::getId);
+        this.genres = new EntityStore<>(this, repository, persistenceScheduler, Genre::setId);
     }
 
     /**
      * Inicializa o serviço carregando os gêneros do arquivo JSON e definindo o próximo ID disponível.
      */
     @PostConstruct
-    public void init() {
-        this.genres = getGenresFromJson();
-        if (this.genres.isEmpty()) {
-            this.nextId = 1;
-        } else {
-            this.nextId = genres.stream().mapToInt(Genre::getId).max().orElse(0) + 1;
-        }
+    public synchronized void init() {
+        genres.load();
     }
 
     /**
@@ -78,23 +77,43 @@ public class GenreService implements IGenreService {
     }
 
     /**
-     * Carrega a lista de gêneros do arquivo JSON.
+     * Carrega a lista de gêneros do armazenamento; com o mecanismo JSON, do snapshot, em JSON ou no formato binário.
      *
-     * @return Uma lista de gêneros carregados do arquivo JSON.
-     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo JSON.
+     * @return Uma lista de gêneros carregados do armazenamento.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
      */
-    public List<Genre> getGenresFromJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            if (!file.exists()) {
-                mapper.writeValue(file, List.of());
-            }
-            return mapper.readValue(file, new TypeReference<List<Genre>>() {});
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
-            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
-        }
+    public synchronized List<Genre> getGenresFromJson() {
+        return repository.readAll();
+    }
+
+    /**
+     * Obtém todos os gêneros a partir da cópia imutável mantida em memória, sem reler o arquivo JSON.
+     * A cópia é recriada apenas na primeira leitura após uma alteração.
+     *
+     * @return Uma lista imutável com todos os gêneros.
+     */
+    @Override
+    public List<Genre> getAllGenres() {
+        return genres.getAll();
+    }
+
+    /**
+     * Recarrega os gêneros a partir do arquivo JSON, descartando o estado mantido em memória.
+     */
+    @Override
+    public synchronized void reload() {
+        init();
+    }
+
+    /**
+     * Recarrega os gêneros apenas se o snapshot foi alterado fora da aplicação desde a última carga ou
+     * gravação. A tabela carregada substitui a anterior de uma só vez.
+     *
+     * @return {@code true} se os gêneros foram recarregados.
+     */
+    @Override
+    public boolean reloadIfChanged() {
+        return genres.reloadIfChanged();
     }
 
     /**
@@ -103,9 +122,8 @@ public class GenreService implements IGenreService {
      * @param id O ID do gênero a ser recuperado.
      * @return O gênero correspondente ao ID fornecido ou {@code null} se não for encontrado.
      */
-    public Genre getGenreById(int id) {
-        Optional<Genre> genre = genres.stream().filter(g -> g.getId() == id).findFirst();
-        return genre.orElse(null);
+    public synchronized Genre getGenreById(int id) {
+        return genres.table().get(id);
     }
 
     /**
@@ -113,10 +131,12 @@ public class GenreService implements IGenreService {
      *
      * @param newGenre O novo gênero a ser adicionado.
      */
-    public synchronized void addGenre(Genre newGenre) {
-        newGenre.setId(nextId++);
-        genres.add(newGenre);
-        saveGenresToJson();
+    public void addGenre(Genre newGenre) {
+        genres.applyChange(() -> {
+            newGenre.setId(genres.nextId());
+            genres.table().put(newGenre);
+            return true;
+        });
     }
 
     /**
@@ -125,15 +145,15 @@ public class GenreService implements IGenreService {
      * @param id            O ID do gênero a ser atualizado.
      * @param updatedGenre  O gênero atualizado.
      */
-    public synchronized void updateGenre(int id, Genre updatedGenre) {
-        for (int i = 0; i < genres.size(); i++) {
-            if (genres.get(i).getId() == id) {
-                updatedGenre.setId(id);
-                genres.set(i, updatedGenre);
-                saveGenresToJson();
-                return;
+    public void updateGenre(int id, Genre updatedGenre) {
+        genres.applyChange(() -> {
+            if (!genres.table().contains(id)) {
+                return false;
             }
-        }
+            updatedGenre.setId(id);
+            genres.table().put(updatedGenre);
+            return true;
+        });
     }
 
     /**
@@ -141,24 +161,7 @@ public class GenreService implements IGenreService {
      *
      * @param id O ID do gênero a ser removido.
      */
-    public synchronized void deleteGenre(int id) {
-        genres.removeIf(genre -> genre.getId() == id);
-        saveGenresToJson();
-    }
-
-    /**
-     * Salva a lista atual de gêneros no arquivo JSON.
-     *
-     * @throws RuntimeException Se ocorrer um erro ao salvar o arquivo JSON.
-     */
-    private synchronized void saveGenresToJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            mapper.writeValue(file, genres);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
-            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
-        }
+    public void deleteGenre(int id) {
+        genres.applyChange(() -> genres.table().remove(id) != null);
     }
 }
@@ -0,0 +1,96 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.LogStatus;
+import com.example.HavenBook.domain.interfaces.ILogSnapshottable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Grava periodicamente, em segundo plano, o snapshot dos serviços que registram as alterações em log, como o
+ * histórico de vendas e as atividades, e descarta dos logs os registros incorporados, para que a leitura dos logs
+ * na inicialização não cresça sem limite.
+ * <p>
+ * Os snapshots são gravados a cada {@code persistence.log.snapshot-interval-ms} milissegundos; com o valor
+ * {@code 0}, ficam desativados e os logs só são incorporados quando os serviços são encerrados. Cada serviço copia
+ * o seu estado com o próprio bloqueio e grava o snapshot fora dele, sem bloquear as alterações. Um snapshot que
+ * falhar mantém o log intacto e é tentado de novo no intervalo seguinte.
+ */
+@Component
+public class LogSnapshotter {
+
+    private static final Logger LOGGER = Logger.getLogger(LogSnapshotter.class.getName());
+
+    private final List<ILogSnapshottable> services;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Construtor para o gravador de snapshots.
+     *
+     * @param services   Os serviços cujos logs são incorporados aos snapshots.
+     * @param intervalMs O intervalo, em milissegundos, entre os snapshots, ou {@code 0} para desativá-los.
+     */
+    public LogSnapshotter(List<ILogSnapshottable> services,
+                          @Value("${persistence.log.snapshot-interval-ms:60000}") long intervalMs) {
+        this.services = services;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalMs > 0) {
+            executor.scheduleWithFixedDelay(this::snapshotAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Grava o snapshot de todos os serviços com registros no log.
+     *
+     * @return O número de snapshots gravados.
+     */
+    public int snapshotAll() {
+        int written = 0;
+        for (ILogSnapshottable service : services) {
+            try {
+                if (service.snapshotLog()) {
+                    written++;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Erro ao gravar o snapshot de " + service.getClass().getSimpleName(), e);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Obtém o estado dos logs dos serviços que usam log no mecanismo de armazenamento configurado.
+     *
+     * @return A lista com o estado de cada log.
+     */
+    public List<LogStatus> getStatuses() {
+        List<LogStatus> statuses = new ArrayList<>();
+        for (ILogSnapshottable service : services) {
+            LogStatus status = service.getLogStatus();
+            if (status != null) {
+                statuses.add(status);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Interrompe os snapshots periódicos ao encerrar a aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
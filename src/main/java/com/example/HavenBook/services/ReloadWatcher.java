@@ -0,0 +1,78 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.interfaces.IReloadable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Verifica periodicamente se os arquivos dos serviços foram alterados fora da aplicação, como por ferramentas de
+ * operação que editam os snapshots, e recarrega apenas os serviços cujos arquivos mudaram.
+ * <p>
+ * A verificação compara a data de alteração e o tamanho dos arquivos, sem ler o conteúdo, e ocorre a cada
+ * {@code storage.reload.check-interval-ms} milissegundos; com o valor {@code 0}, fica desativada. Uma recarga que
+ * falhar, como ao ler um arquivo ainda sendo gravado, mantém os dados anteriores e é tentada de novo na próxima
+ * verificação.
+ */
+@Component
+public class ReloadWatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(ReloadWatcher.class.getName());
+
+    private final List<IReloadable> services;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Construtor para o verificador de alterações.
+     *
+     * @param services   Os serviços verificados.
+     * @param intervalMs O intervalo, em milissegundos, entre as verificações, ou {@code 0} para desativá-las.
+     */
+    public ReloadWatcher(List<IReloadable> services,
+                         @Value("${storage.reload.check-interval-ms:2000}") long intervalMs) {
+        this.services = services;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reload-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalMs > 0) {
+            executor.scheduleWithFixedDelay(this::checkAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Verifica todos os serviços, recarregando os que tiveram os arquivos alterados.
+     *
+     * @return O número de serviços recarregados.
+     */
+    public int checkAll() {
+        int reloaded = 0;
+        for (IReloadable service : services) {
+            try {
+                if (service.reloadIfChanged()) {
+                    LOGGER.log(Level.INFO, "Dados recarregados após alteração externa: {0}", service.getClass().getSimpleName());
+                    reloaded++;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Erro ao recarregar " + service.getClass().getSimpleName(), e);
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * Interrompe as verificações ao encerrar a aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
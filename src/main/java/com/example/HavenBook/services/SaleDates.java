@@ -0,0 +1,48 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.exceptions.InvalidDateException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversão das datas das vendas, no formato {@code yyyy-MM-dd}, usada pelo {@link SaleHistoryService}, pelas
+ * partições e pelas estatísticas. As estatísticas guardam o dia de cada venda como o número de dias desde a época.
+ */
+public final class SaleDates {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private SaleDates() {
+    }
+
+    /**
+     * Analisa uma string de data no formato {@code yyyy-MM-dd}.
+     *
+     * @param dateStr A string que representa a data.
+     * @return O objeto {@code LocalDate} correspondente à string fornecida.
+     * @throws InvalidDateException Se a string de data for nula, vazia ou estiver em um formato inválido.
+     */
+    public static LocalDate parseDate(String dateStr) {
+        if (dateStr == null || dateStr.isEmpty()) {
+            throw new InvalidDateException("A data não pode ser nula ou vazia");
+        }
+        try {
+            return LocalDate.parse(dateStr, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new InvalidDateException("Formato de data inválido: " + dateStr);
+        }
+    }
+
+    /**
+     * Converte uma string de data no formato {@code yyyy-MM-dd} para o número de dias desde a época.
+     *
+     * @param dateStr A string que representa a data.
+     * @return O dia correspondente à data.
+     * @throws InvalidDateException Se a string de data for nula, vazia ou estiver em um formato inválido.
+     */
+    public static int toDay(String dateStr) {
+        return (int) parseDate(dateStr).toEpochDay();
+    }
+}
@@ -1,11 +1,24 @@
 package com.example.HavenBook.services;
 
+import com.example.HavenBook.domain.LogStatus;
 import com.example.HavenBook.domain.SaleHistory;
 import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleLine;
+import com.example.HavenBook.domain.SalePartitionInfo;
 import com.example.HavenBook.domain.interfaces.ISaleHistoryService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.HavenBook.exceptions.InvalidDateException;
+import com.example.HavenBook.index.IdTable;
+import com.example.HavenBook.persistence.AppendOnlyLog;
+import com.example.HavenBook.persistence.AtomicFileWriter;
+import com.example.HavenBook.persistence.LoadProgress;
+import com.example.HavenBook.persistence.LogEntry;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.persistence.RepositoryFactory;
+import com.example.HavenBook.persistence.SnapshotFormat;
+import com.example.HavenBook.persistence.SnapshotStore;
+import com.example.HavenBook.persistence.StorageEngine;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
@@ -13,17 +26,44 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Serviço para gerenciar o histórico de vendas, incluindo operações de leitura, adição, atualização e exclusão
- * de registros de vendas armazenados em um arquivo JSON.
+ * de registros de vendas armazenados em arquivos JSON particionados por mês pelo {@link SalePartitionStore}.
+ * <p>
+ * Cada alteração é gravada em um log somente de acréscimo ao lado do diretório das partições. As partições
+ * funcionam como snapshot e são regravadas apenas pela compactação periódica, feita pelo {@link LogSnapshotter},
+ * que grava somente as partições dos meses alterados desde a compactação anterior e descarta do log os registros
+ * incorporados a elas, sem bloquear as alterações durante a gravação.
+ * <p>
+ * As vendas são armazenadas como itens que referenciam os livros pelo ID; os livros são obtidos do
+ * {@link BookService} apenas quando a venda é expandida. Vendas no formato antigo, com os livros completos, são
+ * convertidas em itens na leitura e gravadas no novo formato na próxima compactação. O título e o autor dos livros
+ * vendidos, usados pelas estatísticas, são obtidos de novo do catálogo a cada alteração e recarga dele, avisadas
+ * pelo {@link BookService}.
+ * <p>
+ * Com o mecanismo SQL em {@code storage.engine.sales}, as vendas são importadas das partições e do
+ * log para o {@link SaleSqlStore}, que passa a receber as alterações no lugar do log e a responder às
+ * estatísticas com agregações no banco; as partições deixam de ser compactadas e só são regravadas por
+ * {@link #exportToJson()}.
+ * <p>
+ * As vendas incluídas ou alteradas precisam de uma data válida no formato {@code yyyy-MM-dd}; as demais são
+ * rejeitadas com {@link InvalidDateException} antes de receber um ID. Vendas já gravadas com data inválida, de
+ * antes dessa validação ou editadas fora da aplicação, não são descartadas na leitura: ficam na partição
+ * {@link SalePartitionStore#UNDATED}, entram nas estatísticas de todo o histórico mas não nas de um intervalo, e
+ * podem ser corrigidas por uma atualização.
  */
 @Service
 @PropertySource("classpath:application.properties")
@@ -32,41 +72,158 @@ public class SaleHistoryService implements ISaleHistoryService {
     private static final Logger LOGGER = Logger.getLogger(SaleHistoryService.class.getName());
 
     private final ResourceLoader resourceLoader;
-    private final String absoluteJsonFilePath;
+    private final SalePartitionStore partitionStore;
+    private final Path logPath;
+    private final AppendOnlyLog<SaleHistory> log;
+    private final LoadProgress loadProgress = new LoadProgress();
+    private final PersistenceScheduler persistenceScheduler;
+    private final BookService bookService;
+    private final SalesFactTable factTable;
+    private final SaleSqlStore sqlStore;
+    private final String sqlUrl;
+    private final Object compactionLock = new Object();
 
-    private List<SaleHistory> saleHistories;
+    private IdTable<SaleHistory> saleHistories;
     private int nextId;
+    private volatile List<SaleHistory> snapshot;
+    private Set<String> dirtyPartitions = new TreeSet<>();
+    private boolean legacyFile;
 
     /**
      * Construtor para o serviço {@code SaleHistoryService}.
      *
-     * @param resourceLoader O carregador de recursos para obter o caminho absoluto do arquivo JSON.
-     * @param jsonFilePath   O caminho relativo para o arquivo JSON que contém o histórico de vendas.
+     * @param resourceLoader O carregador de recursos para obter o caminho absoluto do diretório das partições.
+     * @param partitionDirectoryPath O caminho relativo para o diretório das partições do histórico de vendas.
+     * @param persistenceScheduler O agendador de gravações que agrupa as sincronizações do log de alterações.
+     * @param bookService    O serviço de livros usado para resolver os livros referenciados pelos itens das vendas.
+     * @param snapshotFormat O formato em que as partições são gravadas ({@code json} ou {@code binary}).
+     * @param repositoryFactory A fábrica de repositórios que informa o mecanismo de armazenamento das vendas e o
+     *                          banco do mecanismo SQL.
+     * @param fileWriter O gravador que substitui as partições de forma atômica e sincroniza o log de alterações.
      */
     @Autowired
-    public SaleHistoryService(ResourceLoader resourceLoader, @Value("static/saleHistories.json") String jsonFilePath) {
+    public SaleHistoryService(ResourceLoader resourceLoader, @Value("static/saleHistories") String partitionDirectoryPath,
+                              PersistenceScheduler persistenceScheduler, BookService bookService,
+                              @Value("${persistence.snapshot-format:json}") String snapshotFormat,
+                              RepositoryFactory repositoryFactory, AtomicFileWriter fileWriter) {
         this.resourceLoader = resourceLoader;
-        this.absoluteJsonFilePath = getAbsolutePath(jsonFilePath);
+        String absoluteDirectoryPath = getAbsolutePath(partitionDirectoryPath);
+        this.partitionStore = new SalePartitionStore(Path.of(absoluteDirectoryPath), Path.of(absoluteDirectoryPath + ".json"),
+                SnapshotFormat.fromProperty(snapshotFormat), fileWriter);
+        this.logPath = Path.of(absoluteDirectoryPath + ".log");
+        this.log = new AppendOnlyLog<>(logPath, SaleHistory.class, fileWriter);
+        this.persistenceScheduler = persistenceScheduler;
+        this.bookService = bookService;
+        this.factTable = new SalesFactTable(bookService::getBookById);
+        if (repositoryFactory.getEngine("sales") == StorageEngine.SQL) {
+            this.sqlUrl = repositoryFactory.getSqlUrl(absoluteDirectoryPath + ".json");
+            this.sqlStore = new SaleSqlStore(sqlUrl, bookService::getBookById);
+        } else {
+            this.sqlUrl = null;
+            this.sqlStore = null;
+        }
+        bookService.addChangeListener(new BookService.ChangeListener() {
+            @Override
+            public void bookChanged(int bookId) {
+                if (sqlStore != null) {
+                    sqlStore.refreshBook(bookId);
+                } else {
+                    factTable.refreshBook(bookId);
+                }
+            }
+
+            @Override
+            public void catalogReloaded() {
+                if (sqlStore != null) {
+                    sqlStore.refreshBooks();
+                } else {
+                    factTable.refreshBooks();
+                }
+            }
+        });
     }
 
     /**
-     * Inicializa o serviço carregando o histórico de vendas do arquivo JSON e definindo o próximo ID disponível.
+     * Inicializa o serviço carregando o histórico de vendas das partições e definindo o próximo ID disponível.
+     * Com o mecanismo SQL, as vendas são lidas do banco ou, se as partições ou o log foram alterados desde a
+     * última importação, importadas novamente para ele a partir das partições e do log; o título e o autor dos
+     * livros vendidos são obtidos de novo do catálogo, que pode ter mudado com a aplicação parada.
      */
     @PostConstruct
-    public void init() {
-        this.saleHistories = getSaleHistoriesFromJson();
-        if (this.saleHistories.isEmpty()) {
-            this.nextId = 1;
+    public synchronized void init() {
+        if (sqlStore != null) {
+            sqlStore.open();
+            long sourceModified = sourceModified();
+            boolean importing = sourceModified > sqlStore.getImportedModified();
+            IdTable<SaleHistory> table;
+            if (importing) {
+                table = loadSaleHistories().table;
+            } else {
+                IdTable.Loader<SaleHistory> loader = IdTable.loader(SaleHistory::getId, SaleHistory::setId);
+                sqlStore.load(loader::add);
+                table = loader.finish();
+            }
+            this.saleHistories = table;
+            if (importing) {
+                sqlStore.replaceAll(table.toList(), this::dayOf, sourceModified);
+            } else {
+                sqlStore.refreshBooks();
+            }
+            this.dirtyPartitions = new TreeSet<>();
+            this.legacyFile = false;
         } else {
-            this.nextId = saleHistories.stream().mapToInt(SaleHistory::getId).max().orElse(0) + 1;
+            LoadedSales loaded = loadSaleHistories();
+            factTable.clear();
+            this.saleHistories = loaded.table;
+            this.dirtyPartitions = loaded.changedPartitions;
+            this.legacyFile = loaded.legacyFile;
+            saleHistories.forEach(saleHistory -> factTable.add(saleHistory, dayOf(saleHistory)));
+        }
+        this.snapshot = null;
+        this.nextId = saleHistories.maxId() + 1;
+    }
+
+    /**
+     * Obtém a data da alteração mais recente das partições, do arquivo do formato anterior e do log.
+     *
+     * @return A data da alteração mais recente, em microssegundos desde a época.
+     */
+    private long sourceModified() {
+        return Math.max(partitionStore.lastModified(), SnapshotStore.lastModified(logPath));
+    }
+
+    /**
+     * Obtém o dia de uma venda já gravada, cuja data não é validada de novo na leitura.
+     *
+     * @param saleHistory A venda.
+     * @return O dia da venda, em dias desde a época, ou {@link SalesFactTable#UNDATED} se a data for inválida.
+     */
+    private int dayOf(SaleHistory saleHistory) {
+        try {
+            return SaleDates.toDay(saleHistory.getSaleDate());
+        } catch (InvalidDateException e) {
+            LOGGER.log(Level.WARNING, "Venda {0} ignorada nas estatísticas por data: {1}", new Object[]{saleHistory.getId(), e.getMessage()});
+            return SalesFactTable.UNDATED;
         }
     }
 
     /**
-     * Obtém o caminho absoluto do arquivo JSON a partir do caminho relativo fornecido.
+     * Compacta o log uma última vez e libera os recursos do serviço ao encerrar a aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        compact();
+        log.close();
+        if (sqlStore != null) {
+            sqlStore.close();
+        }
+    }
+
+    /**
+     * Obtém o caminho absoluto do diretório das partições a partir do caminho relativo fornecido.
      *
-     * @param relativePath O caminho relativo do arquivo JSON.
-     * @return O caminho absoluto do arquivo JSON.
+     * @param relativePath O caminho relativo do diretório.
+     * @return O caminho absoluto do diretório.
      * @throws RuntimeException Se ocorrer um erro ao obter o caminho absoluto.
      */
     private String getAbsolutePath(String relativePath) {
@@ -80,33 +237,281 @@ public class SaleHistoryService implements ISaleHistoryService {
     }
 
     /**
-     * Carrega a lista de registros de histórico de vendas do arquivo JSON.
+     * Carrega a lista de registros de histórico de vendas das partições e aplica sobre ela as alterações
+     * registradas no log desde a última compactação.
+     *
+     * Com o mecanismo SQL, os registros são lidos do banco.
      *
-     * @return Uma lista de registros de histórico de vendas carregados do arquivo JSON.
-     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo JSON.
+     * @return Uma lista de registros de histórico de vendas carregados das partições e do log.
+     * @throws RuntimeException Se ocorrer um erro ao ler os arquivos JSON.
      */
     public List<SaleHistory> getSaleHistoriesFromJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            if (!file.exists()) {
-                mapper.writeValue(file, new ArrayList<SaleHistory>());
+        if (sqlStore != null) {
+            List<SaleHistory> sales = new ArrayList<>();
+            sqlStore.load(sales::add);
+            return sales;
+        }
+        return loadSaleHistories().table.toList();
+    }
+
+    /**
+     * Obtém as entradas do manifesto das partições, com os totais de cada mês gravado.
+     *
+     * @return A lista de entradas do manifesto, em ordem de mês.
+     */
+    public List<SalePartitionInfo> getPartitions() {
+        return partitionStore.getPartitions();
+    }
+
+    /**
+     * Obtém o progresso da leitura mais recente dos arquivos JSON, que pode ser acompanhado durante uma recarga.
+     *
+     * @return O progresso da leitura.
+     */
+    public LoadProgress getLoadProgress() {
+        return loadProgress;
+    }
+
+    /**
+     * Lê as partições em fluxo, convertendo e incluindo uma venda de cada vez na tabela, sem carregar os arquivos
+     * inteiros nem uma lista intermediária em memória, e aplica em seguida as alterações registradas no log.
+     * As partições que precisam ser regravadas, por terem vendas no formato antigo ou alteradas pelo log, são
+     * registradas no resultado, assim como as partições sem entrada no manifesto; se as vendas foram lidas do
+     * arquivo do formato anterior, todas as partições são.
+     *
+     * @return As vendas lidas e as partições a serem regravadas.
+     * @throws RuntimeException Se ocorrer um erro ao ler os arquivos JSON.
+     */
+    private LoadedSales loadSaleHistories() {
+        IdTable.Loader<SaleHistory> loader = IdTable.loader(SaleHistory::getId, SaleHistory::setId);
+        Set<String> changedPartitions = new TreeSet<>();
+        boolean fromLegacyFile = partitionStore.load(saleHistory -> {
+            if (normalize(saleHistory)) {
+                changedPartitions.add(SalePartitionStore.partitionOf(saleHistory));
             }
-            return mapper.readValue(file, new TypeReference<List<SaleHistory>>() {});
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
-            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
+            loader.add(saleHistory);
+        }, loadProgress);
+
+        IdTable<SaleHistory> table = loader.finish();
+        if (fromLegacyFile) {
+            changedPartitions.addAll(partitionStore.listPartitions());
+            table.forEach(saleHistory -> changedPartitions.add(SalePartitionStore.partitionOf(saleHistory)));
+        } else {
+            changedPartitions.addAll(partitionStore.listPartitionsMissingFromManifest());
         }
+        for (LogEntry<SaleHistory> entry : log.replay()) {
+            SaleHistory previous;
+            if (entry.getOperation() == LogEntry.Operation.DELETE) {
+                previous = table.remove(entry.getId());
+            } else {
+                SaleHistory saleHistory = entry.getValue();
+                normalize(saleHistory);
+                saleHistory.setId(entry.getId());
+                previous = table.put(saleHistory);
+                changedPartitions.add(SalePartitionStore.partitionOf(saleHistory));
+            }
+            if (previous != null) {
+                changedPartitions.add(SalePartitionStore.partitionOf(previous));
+            }
+        }
+        return new LoadedSales(table, changedPartitions, fromLegacyFile);
     }
 
     /**
-     * Obtém todos os registros de histórico de vendas.
+     * Obtém todos os registros de histórico de vendas a partir da cópia imutável mantida em memória,
+     * sem reler o arquivo JSON. A cópia é recriada apenas na primeira leitura após uma alteração.
      *
-     * @return Uma lista de todos os registros de histórico de vendas.
+     * @return Uma lista imutável de todos os registros de histórico de vendas.
      */
     @Override
     public List<SaleHistory> getAllSaleHistories() {
-        return List.of();
+        List<SaleHistory> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = saleHistories.toList();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Obtém a tabela de fatos das vendas, em formato colunar, mantida a cada alteração do histórico.
+     *
+     * @return A tabela de fatos das vendas.
+     */
+    public SalesFactTable getFactTable() {
+        return factTable;
+    }
+
+    /**
+     * Obtém a origem das estatísticas de vendas: o banco, com o mecanismo SQL, ou a tabela de fatos em memória.
+     *
+     * @return A origem das estatísticas de vendas.
+     */
+    public SalesStatistics getStatistics() {
+        return sqlStore != null ? sqlStore : factTable;
+    }
+
+    /**
+     * Cria uma cópia da venda com a lista de livros preenchida a partir do {@link BookService}, com um livro para
+     * cada exemplar vendido, repetido conforme a quantidade do item. Itens de livros que não estão mais no catálogo
+     * ficam fora da lista.
+     *
+     * @param saleHistory A venda a ser expandida.
+     * @return A cópia da venda com os livros.
+     */
+    public SaleHistory expandBooks(SaleHistory saleHistory) {
+        SaleHistory expanded = new SaleHistory(saleHistory.getSaleDate(), saleHistory.getTotalValue());
+        expanded.setId(saleHistory.getId());
+        expanded.setLines(saleHistory.getLines());
+        List<Book> books = new ArrayList<>();
+        for (SaleLine line : saleHistory.getLines()) {
+            Book book = bookService.getBookById(line.getBookId());
+            if (book != null) {
+                for (int copy = 0; copy < line.getQuantity(); copy++) {
+                    books.add(book);
+                }
+            }
+        }
+        expanded.setBooks(books);
+        return expanded;
+    }
+
+    /**
+     * Converte a venda para o formato com itens: livros completos, do formato antigo ou recebidos pela API, são
+     * substituídos por itens que referenciam o livro do catálogo de mesmo título e autor, ou
+     * {@link SaleLine#UNKNOWN_BOOK_ID} com o título e o autor do livro original se não houver, e itens sem preço
+     * informado recebem o valor atual do livro no catálogo; itens com preço zero são mantidos como gratuitos. Só os
+     * itens fora do catálogo guardam título e autor.
+     *
+     * @param saleHistory A venda a ser convertida.
+     * @return {@code true} se a venda estava no formato antigo, com livros completos.
+     * @throws IllegalArgumentException Se algum item tiver quantidade menor ou igual a zero, ou não tiver preço e o
+     *                                  livro não estiver no catálogo.
+     */
+    private boolean normalize(SaleHistory saleHistory) {
+        if (saleHistory.getLines() == null) {
+            saleHistory.setLines(new ArrayList<>());
+        }
+        boolean legacy = saleHistory.getBooks() != null && !saleHistory.getBooks().isEmpty();
+        if (legacy) {
+            for (Book book : saleHistory.getBooks()) {
+                Book catalogBook = bookService.findCatalogBook(book);
+                if (catalogBook == null) {
+                    LOGGER.log(Level.WARNING, "Livro \"{0}\" de {1} da venda {2} não encontrado no catálogo",
+                            new Object[]{book.getTitle(), book.getAuthor(), saleHistory.getId()});
+                    saleHistory.addBook(SaleLine.UNKNOWN_BOOK_ID, book.getValue(), book.getTitle(), book.getAuthor());
+                } else {
+                    saleHistory.addBook(catalogBook.getId(), book.getValue());
+                }
+            }
+        }
+        saleHistory.setBooks(new ArrayList<>());
+        for (SaleLine line : saleHistory.getLines()) {
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantidade inválida no item do livro " + line.getBookId()
+                        + ": " + line.getQuantity());
+            }
+            if (line.getBookId() != SaleLine.UNKNOWN_BOOK_ID) {
+                line.setTitle(null);
+                line.setAuthor(null);
+            }
+            if (line.getUnitPrice() == null) {
+                Book book = bookService.getBookById(line.getBookId());
+                if (book == null) {
+                    throw new IllegalArgumentException("Item sem preço de um livro fora do catálogo: " + line.getBookId());
+                }
+                line.setUnitPrice(book.getValue());
+            }
+        }
+        return legacy;
+    }
+
+    /**
+     * Recarrega os registros de histórico de vendas a partir das partições, descartando o estado mantido em memória.
+     */
+    @Override
+    public synchronized void reload() {
+        init();
+    }
+
+    /**
+     * Recarrega o histórico de vendas apenas se as partições ou o arquivo do formato anterior foram alterados fora
+     * da aplicação desde a última leitura ou gravação.
+     * <p>
+     * Somente as partições alteradas são relidas: as vendas que estavam nelas saem da tabela e dos índices e as
+     * vendas relidas entram no lugar, e as partições são marcadas para que a próxima compactação atualize o
+     * manifesto. A recarga é completa se o arquivo do formato anterior mudou, se há alterações ainda não
+     * compactadas ou se alguma venda relida tiver ID inválido ou já usado por outra partição. Com o mecanismo SQL,
+     * o histórico é importado de novo para o banco se as partições são mais recentes que a última importação.
+     *
+     * @return {@code true} se o histórico foi recarregado.
+     */
+    @Override
+    public synchronized boolean reloadIfChanged() {
+        if (sqlStore != null) {
+            if (sourceModified() <= sqlStore.getImportedModified()) {
+                return false;
+            }
+            init();
+            return true;
+        }
+        Set<String> changed = partitionStore.listChangedPartitions();
+        boolean legacyChanged = partitionStore.hasLegacyFileChanged();
+        if (changed.isEmpty() && !legacyChanged) {
+            return false;
+        }
+        if (legacyChanged || legacyFile || !dirtyPartitions.isEmpty() || log.getEntryCount() > 0) {
+            init();
+            return true;
+        }
+        List<SaleHistory> stale = new ArrayList<>();
+        saleHistories.forEach(saleHistory -> {
+            if (changed.contains(SalePartitionStore.partitionOf(saleHistory))) {
+                stale.add(saleHistory);
+            }
+        });
+        List<SaleHistory> reread = new ArrayList<>();
+        changed.forEach(partition -> partitionStore.readPartition(partition, reread::add));
+        Set<Integer> staleIds = new TreeSet<>();
+        stale.forEach(saleHistory -> staleIds.add(saleHistory.getId()));
+        Set<Integer> rereadIds = new TreeSet<>();
+        for (SaleHistory saleHistory : reread) {
+            int id = saleHistory.getId();
+            if (id <= 0 || !rereadIds.add(id) || (saleHistories.contains(id) && !staleIds.contains(id))) {
+                init();
+                return true;
+            }
+        }
+
+        for (SaleHistory saleHistory : stale) {
+            saleHistories.remove(saleHistory.getId());
+            factTable.remove(saleHistory.getId());
+        }
+        for (SaleHistory saleHistory : reread) {
+            normalize(saleHistory);
+            saleHistories.put(saleHistory);
+            factTable.add(saleHistory, dayOf(saleHistory));
+        }
+        dirtyPartitions.addAll(changed);
+        nextId = Math.max(nextId, saleHistories.maxId() + 1);
+        snapshot = null;
+        return true;
+    }
+
+    /**
+     * Exporta as vendas mantidas em memória para as partições em JSON, independentemente do formato das partições.
+     */
+    public synchronized void exportToJson() {
+        Map<String, List<SaleHistory>> partitions = new TreeMap<>();
+        saleHistories.forEach(saleHistory -> partitions
+                .computeIfAbsent(SalePartitionStore.partitionOf(saleHistory), partition -> new ArrayList<>())
+                .add(saleHistory));
+        partitions.forEach(partitionStore::exportJson);
     }
 
     /**
@@ -115,62 +520,221 @@ public class SaleHistoryService implements ISaleHistoryService {
      * @param id O ID do registro de histórico de vendas a ser recuperado.
      * @return O registro de histórico de vendas correspondente ao ID fornecido ou {@code null} se não for encontrado.
      */
-    public SaleHistory getSaleHistoryById(int id) {
-        Optional<SaleHistory> saleHistory = saleHistories.stream().filter(s -> s.getId() == id).findFirst();
-        return saleHistory.orElse(null);
+    public synchronized SaleHistory getSaleHistoryById(int id) {
+        return saleHistories.get(id);
     }
 
     /**
-     * Adiciona um novo registro de histórico de vendas à lista e salva os registros no arquivo JSON.
+     * Adiciona um novo registro de histórico de vendas à lista e grava a operação no log de alterações. O ID só é
+     * atribuído depois de validados os itens e a data, para que uma venda rejeitada não deixe uma lacuna nos IDs.
      *
      * @param newSaleHistory O novo registro de histórico de vendas a ser adicionado.
+     * @throws InvalidDateException     Se a data da venda for inválida.
+     * @throws IllegalArgumentException Se algum item tiver quantidade inválida ou não tiver preço.
      */
-    public synchronized void addSaleHistory(SaleHistory newSaleHistory) {
-        newSaleHistory.setId(nextId++);
-        saleHistories.add(newSaleHistory);
-        saveSaleHistoriesToJson();
+    public void addSaleHistory(SaleHistory newSaleHistory) {
+        applyChange(() -> {
+            normalize(newSaleHistory);
+            int day = SaleDates.toDay(newSaleHistory.getSaleDate());
+            newSaleHistory.setId(nextId++);
+            if (sqlStore != null) {
+                sqlStore.put(newSaleHistory, day);
+                saleHistories.put(newSaleHistory);
+                return true;
+            }
+            saleHistories.put(newSaleHistory);
+            factTable.add(newSaleHistory, day);
+            dirtyPartitions.add(SalePartitionStore.partitionOf(newSaleHistory));
+            log.append(LogEntry.Operation.ADD, newSaleHistory.getId(), newSaleHistory);
+            return true;
+        });
     }
 
     /**
-     * Atualiza um registro de histórico de vendas existente com base no ID fornecido e salva os registros no arquivo JSON.
+     * Atualiza um registro de histórico de vendas existente com base no ID fornecido e grava a operação no log
+     * de alterações.
      *
      * @param id                O ID do registro de histórico de vendas a ser atualizado.
      * @param updatedSaleHistory O registro de histórico de vendas atualizado.
+     * @throws InvalidDateException     Se a data da venda for inválida.
+     * @throws IllegalArgumentException Se algum item tiver quantidade inválida ou não tiver preço.
      */
-    public synchronized void updateSaleHistory(int id, SaleHistory updatedSaleHistory) {
-        for (int i = 0; i < saleHistories.size(); i++) {
-            if (saleHistories.get(i).getId() == id) {
-                updatedSaleHistory.setId(id);
-                saleHistories.set(i, updatedSaleHistory);
-                saveSaleHistoriesToJson();
-                return;
+    public void updateSaleHistory(int id, SaleHistory updatedSaleHistory) {
+        applyChange(() -> {
+            if (!saleHistories.contains(id)) {
+                return false;
             }
-        }
+            normalize(updatedSaleHistory);
+            updatedSaleHistory.setId(id);
+            int day = SaleDates.toDay(updatedSaleHistory.getSaleDate());
+            if (sqlStore != null) {
+                sqlStore.put(updatedSaleHistory, day);
+                saleHistories.put(updatedSaleHistory);
+                return true;
+            }
+            SaleHistory previous = saleHistories.put(updatedSaleHistory);
+            factTable.add(updatedSaleHistory, day);
+            dirtyPartitions.add(SalePartitionStore.partitionOf(previous));
+            dirtyPartitions.add(SalePartitionStore.partitionOf(updatedSaleHistory));
+            log.append(LogEntry.Operation.UPDATE, id, updatedSaleHistory);
+            return true;
+        });
     }
 
     /**
-     * Remove um registro de histórico de vendas com base no ID fornecido e salva os registros no arquivo JSON.
+     * Remove um registro de histórico de vendas com base no ID fornecido e grava a operação no log de alterações.
      *
      * @param id O ID do registro de histórico de vendas a ser removido.
      */
-    public synchronized void deleteSaleHistory(int id) {
-        saleHistories.removeIf(saleHistory -> saleHistory.getId() == id);
-        saveSaleHistoriesToJson();
+    public void deleteSaleHistory(int id) {
+        applyChange(() -> {
+            if (!saleHistories.contains(id)) {
+                return false;
+            }
+            if (sqlStore != null) {
+                sqlStore.remove(id);
+                saleHistories.remove(id);
+                return true;
+            }
+            SaleHistory removed = saleHistories.remove(id);
+            factTable.remove(id);
+            dirtyPartitions.add(SalePartitionStore.partitionOf(removed));
+            log.append(LogEntry.Operation.DELETE, id, null);
+            return true;
+        });
     }
 
     /**
-     * Salva a lista atual de registros de histórico de vendas no arquivo JSON.
+     * Aplica uma alteração na lista em memória e agenda a sincronização do log de alterações, ou a confirmação da
+     * transação do banco com o mecanismo SQL, pelo {@link PersistenceScheduler}. Com o mecanismo SQL, a alteração é
+     * gravada no banco antes da lista, para que uma falha do banco não deixe na memória uma venda que não está nele. A espera pela sincronização ocorre fora do bloqueio do serviço, para que
+     * vendas concorrentes sejam confirmadas pela mesma sincronização.
      *
-     * @throws RuntimeException Se ocorrer um erro ao salvar o arquivo JSON.
+     * @param change A alteração a ser aplicada; retorna {@code true} se a lista foi modificada.
      */
-    private synchronized void saveSaleHistoriesToJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            mapper.writeValue(file, saleHistories);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
-            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
+    private void applyChange(BooleanSupplier change) {
+        CompletableFuture<Void> ticket = null;
+        synchronized (this) {
+            if (change.getAsBoolean()) {
+                snapshot = null;
+                ticket = sqlStore != null
+                        ? persistenceScheduler.submit(sqlUrl, sqlStore::commit)
+                        : persistenceScheduler.submit(logPath.toString(), log::sync);
+            }
+        }
+        if (ticket != null) {
+            persistenceScheduler.awaitDurability(ticket);
+        }
+    }
+
+    /**
+     * Incorpora o log de alterações ao snapshot, regravando apenas as partições dos meses alterados e o manifesto
+     * e descartando do log os registros incorporados, depois de forçar em disco os arquivos gravados, qualquer que
+     * seja a política de sincronização. Partições que ficaram sem vendas têm o arquivo removido. Se
+     * as vendas foram lidas do arquivo do formato anterior, todas as partições são gravadas e o arquivo é removido,
+     * ou renomeado com a extensão {@code .bak} se houver itens de livros fora do catálogo, para que os livros
+     * originais possam ser conferidos.
+     * <p>
+     * As partições alteradas e a posição do log são obtidas com o bloqueio do serviço, junto com a lista imutável
+     * das vendas; a gravação ocorre fora dele, sem bloquear as alterações, que são registradas no log depois da
+     * posição obtida e incorporadas na compactação seguinte. Se a gravação falhar, as partições voltam a ser
+     * marcadas como alteradas. É executado periodicamente pelo {@link LogSnapshotter} e pode ser chamado
+     * diretamente. Com o mecanismo SQL, não faz nada.
+     *
+     * @return {@code true} se o log foi compactado.
+     */
+    public boolean compact() {
+        synchronized (compactionLock) {
+            long start = System.nanoTime();
+            Set<String> compacted;
+            List<SaleHistory> sales;
+            long logPosition;
+            boolean removeLegacyFile;
+            synchronized (this) {
+                if (sqlStore != null || saleHistories == null || (log.getEntryCount() == 0 && dirtyPartitions.isEmpty())) {
+                    return false;
+                }
+                compacted = dirtyPartitions;
+                dirtyPartitions = new TreeSet<>();
+                sales = getAllSaleHistories();
+                logPosition = log.getLength();
+                removeLegacyFile = legacyFile;
+            }
+            try {
+                Map<String, List<SaleHistory>> partitions = new TreeMap<>();
+                compacted.forEach(partition -> partitions.put(partition, new ArrayList<>()));
+                for (SaleHistory saleHistory : sales) {
+                    List<SaleHistory> partitionSales = partitions.get(SalePartitionStore.partitionOf(saleHistory));
+                    if (partitionSales != null) {
+                        partitionSales.add(saleHistory);
+                    }
+                }
+                partitions.forEach(partitionStore::write);
+                partitionStore.writeManifest();
+                partitionStore.force(partitions.keySet());
+                if (removeLegacyFile) {
+                    if (hasUnknownBooks(sales)) {
+                        Path backup = partitionStore.archiveLegacyFile();
+                        LOGGER.log(Level.WARNING, "Vendas com livros fora do catálogo; o arquivo do formato anterior "
+                                + "foi mantido em {0}", backup);
+                    } else {
+                        partitionStore.removeLegacyFile();
+                    }
+                    synchronized (this) {
+                        legacyFile = false;
+                    }
+                }
+                log.truncateBefore(logPosition);
+                log.recordSnapshot(System.nanoTime() - start);
+                return true;
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    dirtyPartitions.addAll(compacted);
+                }
+                LOGGER.log(Level.SEVERE, "Erro ao compactar o log do histórico de vendas", e);
+                return false;
+            }
+        }
+    }
+
+    private static boolean hasUnknownBooks(List<SaleHistory> sales) {
+        return sales.stream().flatMap(saleHistory -> saleHistory.getLines().stream())
+                .anyMatch(line -> line.getBookId() == SaleLine.UNKNOWN_BOOK_ID);
+    }
+
+    /**
+     * Compacta o log de alterações, incorporando-o às partições.
+     *
+     * @return {@code true} se o log foi compactado.
+     */
+    @Override
+    public boolean snapshotLog() {
+        return compact();
+    }
+
+    /**
+     * Obtém o estado do log de alterações do histórico de vendas.
+     *
+     * @return O estado do log, ou {@code null} com o mecanismo SQL, que não usa o log.
+     */
+    @Override
+    public LogStatus getLogStatus() {
+        return sqlStore != null ? null : log.getStatus("sales");
+    }
+
+    /**
+     * Resultado da leitura do histórico de vendas.
+     */
+    private static final class LoadedSales {
+
+        private final IdTable<SaleHistory> table;
+        private final Set<String> changedPartitions;
+        private final boolean legacyFile;
+
+        private LoadedSales(IdTable<SaleHistory> table, Set<String> changedPartitions, boolean legacyFile) {
+            this.table = table;
+            this.changedPartitions = changedPartitions;
+            this.legacyFile = legacyFile;
         }
     }
 }
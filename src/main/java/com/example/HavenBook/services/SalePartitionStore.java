@@ -0,0 +1,406 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SalePartitionInfo;
+import com.example.HavenBook.exceptions.InvalidDateException;
+import com.example.HavenBook.persistence.AtomicFileWriter;
+import com.example.HavenBook.persistence.BinarySnapshot;
+import com.example.HavenBook.persistence.EntityCodecs;
+import com.example.HavenBook.persistence.FileSignature;
+import com.example.HavenBook.persistence.JsonArrayReader;
+import com.example.HavenBook.persistence.LoadProgress;
+import com.example.HavenBook.persistence.SnapshotFormat;
+import com.example.HavenBook.persistence.SnapshotStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento do histórico de vendas em arquivos particionados por mês, um arquivo {@code yyyy-MM} por mês com
+ * vendas e o arquivo {@code undated} para as vendas gravadas com data inválida, que o {@link SaleHistoryService} não
+ * aceita mais nas inclusões e alterações, mas mantém na leitura. O arquivo {@code manifest.json} registra,
+ * para cada partição, o número de vendas, as datas da primeira e da última venda, a receita e o número de livros
+ * vendidos.
+ * <p>
+ * As partições são gravadas no {@link SnapshotFormat} configurado, com a extensão {@code .json} ou {@code .bin}.
+ * Como no {@link SnapshotStore}, a leitura de cada partição usa o mais recente dos dois arquivos, e
+ * {@link #exportJson(String, List)} grava uma partição em JSON independentemente do formato.
+ * <p>
+ * Cada partição é gravada pelo {@link AtomicFileWriter} em um arquivo temporário que substitui o anterior, de
+ * modo que uma gravação interrompida não deixa a partição pela metade. O arquivo único do formato anterior, se
+ * existir ao lado do diretório, tem precedência sobre as partições e é removido depois que todas as partições
+ * são gravadas.
+ * <p>
+ * A {@link FileSignature} de cada partição é registrada quando ela é lida ou gravada, para que
+ * {@link #listChangedPartitions()} aponte apenas as partições alteradas fora da aplicação, que podem ser relidas
+ * uma a uma por {@link #readPartition(String, Consumer)}.
+ */
+public class SalePartitionStore {
+
+    /**
+     * Nome da partição das vendas com data inválida.
+     */
+    public static final String UNDATED = "undated";
+
+    private static final Logger LOGGER = Logger.getLogger(SalePartitionStore.class.getName());
+    private static final String JSON_SUFFIX = SnapshotFormat.JSON.getExtension();
+    private static final String BINARY_SUFFIX = SnapshotFormat.BINARY.getExtension();
+    private static final String MANIFEST_FILE = "manifest.json";
+
+    private final Path directory;
+    private final Path legacyFile;
+    private final SnapshotFormat format;
+    private final AtomicFileWriter writer;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonArrayReader<SaleHistory> reader = new JsonArrayReader<>(SaleHistory.class);
+    private final Map<String, SalePartitionInfo> manifest = new TreeMap<>();
+    private final Map<String, FileSignature> signatures = new TreeMap<>();
+    private FileSignature legacySignature = FileSignature.NONE;
+
+    /**
+     * Construtor para o armazenamento.
+     *
+     * @param directory  O diretório das partições.
+     * @param legacyFile O arquivo único do formato anterior.
+     * @param format     O formato em que as partições são gravadas.
+     * @param writer     O gravador que substitui as partições e o manifesto de forma atômica.
+     */
+    public SalePartitionStore(Path directory, Path legacyFile, SnapshotFormat format, AtomicFileWriter writer) {
+        this.directory = directory;
+        this.legacyFile = legacyFile;
+        this.format = format;
+        this.writer = writer;
+    }
+
+    /**
+     * Obtém o nome da partição de uma venda, que é o mês da venda no formato {@code yyyy-MM}.
+     *
+     * @param saleHistory A venda.
+     * @return O nome da partição, ou {@link #UNDATED} se a data da venda for inválida.
+     */
+    public static String partitionOf(SaleHistory saleHistory) {
+        try {
+            return YearMonth.from(SaleDates.parseDate(saleHistory.getSaleDate())).toString();
+        } catch (InvalidDateException e) {
+            return UNDATED;
+        }
+    }
+
+    /**
+     * Lê em fluxo todas as vendas armazenadas, partição por partição, ou do arquivo do formato anterior, se ele
+     * existir. Também lê o manifesto das partições.
+     *
+     * @param consumer A ação executada para cada venda.
+     * @param progress O progresso da leitura.
+     * @return {@code true} se as vendas foram lidas do arquivo do formato anterior.
+     * @throws RuntimeException Se ocorrer um erro ao ler os arquivos.
+     */
+    public synchronized boolean load(Consumer<SaleHistory> consumer, LoadProgress progress) {
+        readManifest();
+        signatures.clear();
+        FileSignature currentLegacySignature = FileSignature.of(legacyFile);
+        if (Files.exists(legacyFile)) {
+            listPartitions().forEach(partition -> signatures.put(partition, signatureOf(partition)));
+            reader.read(legacyFile.toFile(), consumer, progress);
+            legacySignature = currentLegacySignature;
+            return true;
+        }
+        legacySignature = currentLegacySignature;
+        for (String partition : listPartitions()) {
+            FileSignature signature = signatureOf(partition);
+            readPartitionFile(partition, consumer, progress);
+            signatures.put(partition, signature);
+        }
+        return false;
+    }
+
+    /**
+     * Lê em fluxo as vendas de uma única partição, registrando a assinatura dos seus arquivos.
+     *
+     * @param partition O nome da partição.
+     * @param consumer  A ação executada para cada venda.
+     * @throws RuntimeException Se ocorrer um erro ao ler os arquivos.
+     */
+    public synchronized void readPartition(String partition, Consumer<SaleHistory> consumer) {
+        FileSignature signature = signatureOf(partition);
+        if (!Files.exists(partitionFile(partition, SnapshotFormat.JSON))
+                && !Files.exists(partitionFile(partition, SnapshotFormat.BINARY))) {
+            signatures.remove(partition);
+            return;
+        }
+        readPartitionFile(partition, consumer, new LoadProgress());
+        signatures.put(partition, signature);
+    }
+
+    /**
+     * Lista as partições cujos arquivos foram alterados, criados ou removidos desde a última leitura ou gravação
+     * feita por este objeto.
+     *
+     * @return Os nomes das partições alteradas, em ordem.
+     * @throws RuntimeException Se ocorrer um erro ao listar o diretório.
+     */
+    public synchronized Set<String> listChangedPartitions() {
+        Set<String> partitions = listPartitions();
+        partitions.addAll(signatures.keySet());
+        partitions.removeIf(partition -> signatureOf(partition).equals(signatures.get(partition)));
+        return partitions;
+    }
+
+    /**
+     * Verifica se o arquivo do formato anterior foi alterado, criado ou removido desde a última leitura.
+     *
+     * @return {@code true} se a assinatura do arquivo mudou.
+     */
+    public synchronized boolean hasLegacyFileChanged() {
+        return !FileSignature.of(legacyFile).equals(legacySignature);
+    }
+
+    /**
+     * Lista as partições gravadas no diretório.
+     *
+     * @return Os nomes das partições, em ordem.
+     * @throws RuntimeException Se ocorrer um erro ao listar o diretório.
+     */
+    public synchronized Set<String> listPartitions() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> (name.endsWith(JSON_SUFFIX) || name.endsWith(BINARY_SUFFIX)) && !name.equals(MANIFEST_FILE))
+                    .map(name -> name.substring(0, name.lastIndexOf('.')))
+                    .collect(Collectors.toCollection(TreeSet::new));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao listar as partições do histórico de vendas", e);
+            throw new RuntimeException("Erro ao listar as partições do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Obtém a data da alteração mais recente do diretório das partições, de qualquer arquivo nele ou do arquivo do
+     * formato anterior.
+     *
+     * @return A data da alteração mais recente, em microssegundos desde a época, ou {@code 0} se nada existir.
+     * @throws RuntimeException Se ocorrer um erro ao listar o diretório.
+     */
+    public synchronized long lastModified() {
+        long modified = Math.max(SnapshotStore.lastModified(directory), SnapshotStore.lastModified(legacyFile));
+        if (!Files.isDirectory(directory)) {
+            return modified;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return Math.max(modified, files.mapToLong(SnapshotStore::lastModified).max().orElse(0));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao listar as partições do histórico de vendas", e);
+            throw new RuntimeException("Erro ao listar as partições do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Lista as partições gravadas no diretório que não têm entrada no manifesto, como as gravadas antes de uma
+     * interrupção entre a gravação da partição e a do manifesto.
+     *
+     * @return Os nomes das partições sem entrada no manifesto, em ordem.
+     */
+    public synchronized Set<String> listPartitionsMissingFromManifest() {
+        Set<String> partitions = listPartitions();
+        partitions.removeAll(manifest.keySet());
+        return partitions;
+    }
+
+    /**
+     * Grava uma partição com as vendas fornecidas e atualiza a sua entrada no manifesto em memória. Uma partição
+     * sem vendas tem o arquivo removido.
+     *
+     * @param partition O nome da partição.
+     * @param sales     As vendas da partição.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo.
+     */
+    public synchronized void write(String partition, List<SaleHistory> sales) {
+        try {
+            if (sales.isEmpty()) {
+                Files.deleteIfExists(partitionFile(partition, SnapshotFormat.JSON));
+                Files.deleteIfExists(partitionFile(partition, SnapshotFormat.BINARY));
+                manifest.remove(partition);
+                signatures.remove(partition);
+                return;
+            }
+            if (format == SnapshotFormat.BINARY) {
+                BinarySnapshot.write(writer, partitionFile(partition, format), sales, SaleHistory::getId, EntityCodecs.SALE_HISTORY);
+            } else {
+                replace(partitionFile(partition, format), sales);
+            }
+            manifest.put(partition, summarize(partition, sales));
+            signatures.put(partition, signatureOf(partition));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
+            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
+        }
+    }
+
+    /**
+     * Grava uma partição em JSON, independentemente do formato configurado, para exportação.
+     *
+     * @param partition O nome da partição.
+     * @param sales     As vendas da partição.
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo.
+     */
+    public synchronized void exportJson(String partition, List<SaleHistory> sales) {
+        try {
+            replace(partitionFile(partition, SnapshotFormat.JSON), sales);
+            signatures.put(partition, signatureOf(partition));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
+            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
+        }
+    }
+
+    /**
+     * Grava o manifesto com as entradas de todas as partições.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao gravar o arquivo.
+     */
+    public synchronized void writeManifest() {
+        try {
+            replace(directory.resolve(MANIFEST_FILE), new ArrayList<>(manifest.values()));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
+            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
+        }
+    }
+
+    /**
+     * Força em disco os arquivos das partições fornecidas no formato configurado, o manifesto e o diretório,
+     * independentemente da política de sincronização. O diretório forçado torna durável também a remoção das
+     * partições que ficaram sem vendas.
+     *
+     * @param partitions Os nomes das partições.
+     * @throws RuntimeException Se ocorrer um erro ao sincronizar os arquivos.
+     */
+    public synchronized void force(Collection<String> partitions) {
+        try {
+            for (String partition : partitions) {
+                writer.force(partitionFile(partition, format));
+            }
+            writer.force(directory.resolve(MANIFEST_FILE));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao sincronizar as partições do histórico de vendas", e);
+            throw new RuntimeException("Erro ao sincronizar as partições do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Remove o arquivo do formato anterior, depois que as vendas foram gravadas nas partições.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao remover o arquivo.
+     */
+    public synchronized void removeLegacyFile() {
+        try {
+            Files.deleteIfExists(legacyFile);
+            legacySignature = FileSignature.of(legacyFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao remover o arquivo JSON", e);
+            throw new RuntimeException("Erro ao remover o arquivo JSON", e);
+        }
+    }
+
+    /**
+     * Renomeia o arquivo do formato anterior para o mesmo nome com a extensão {@code .bak}, depois que as vendas
+     * foram gravadas nas partições, mantendo-o para consulta sem que volte a substituir as partições na leitura.
+     *
+     * @return O caminho do arquivo renomeado.
+     * @throws RuntimeException Se ocorrer um erro ao renomear o arquivo.
+     */
+    public synchronized Path archiveLegacyFile() {
+        Path backup = legacyFile.resolveSibling(legacyFile.getFileName() + ".bak");
+        try {
+            if (Files.exists(legacyFile)) {
+                Files.move(legacyFile, backup, StandardCopyOption.REPLACE_EXISTING);
+            }
+            legacySignature = FileSignature.of(legacyFile);
+            return backup;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Erro ao renomear o arquivo JSON", e);
+            throw new RuntimeException("Erro ao renomear o arquivo JSON", e);
+        }
+    }
+
+    /**
+     * Obtém as entradas do manifesto, em ordem de partição.
+     *
+     * @return A lista de entradas do manifesto.
+     */
+    public synchronized List<SalePartitionInfo> getPartitions() {
+        return new ArrayList<>(manifest.values());
+    }
+
+    private void readManifest() {
+        manifest.clear();
+        Path file = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            List<SalePartitionInfo> entries = mapper.readValue(file.toFile(), new TypeReference<List<SalePartitionInfo>>() {});
+            entries.forEach(entry -> manifest.put(entry.getPartition(), entry));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Manifesto do histórico de vendas ignorado", e);
+        }
+    }
+
+    private void replace(Path file, Object value) throws IOException {
+        writer.write(file, out -> mapper.writeValue(out, value));
+    }
+
+    private void readPartitionFile(String partition, Consumer<SaleHistory> consumer, LoadProgress progress) {
+        File jsonFile = partitionFile(partition, SnapshotFormat.JSON).toFile();
+        File binaryFile = partitionFile(partition, SnapshotFormat.BINARY).toFile();
+        if (SnapshotStore.readsBinary(jsonFile, binaryFile, format)) {
+            BinarySnapshot.open(binaryFile.toPath(), EntityCodecs.SALE_HISTORY).read(consumer, progress);
+        } else {
+            reader.read(jsonFile, consumer, progress);
+        }
+    }
+
+    private FileSignature signatureOf(String partition) {
+        return FileSignature.of(partitionFile(partition, SnapshotFormat.JSON), partitionFile(partition, SnapshotFormat.BINARY));
+    }
+
+    private Path partitionFile(String partition, SnapshotFormat partitionFormat) {
+        return directory.resolve(partition + partitionFormat.getExtension());
+    }
+
+    private static SalePartitionInfo summarize(String partition, List<SaleHistory> sales) {
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        double revenue = 0;
+        long bookCount = 0;
+        for (SaleHistory sale : sales) {
+            if (!UNDATED.equals(partition)) {
+                LocalDate date = SaleDates.parseDate(sale.getSaleDate());
+                minDate = minDate == null || date.isBefore(minDate) ? date : minDate;
+                maxDate = maxDate == null || date.isAfter(maxDate) ? date : maxDate;
+            }
+            revenue += sale.getTotalValue();
+            bookCount += sale.getBookCount();
+        }
+        return new SalePartitionInfo(partition, sales.size(), minDate == null ? null : minDate.toString(),
+                maxDate == null ? null : maxDate.toString(), revenue, bookCount);
+    }
+}
@@ -0,0 +1,597 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.AuthorSales;
+import com.example.HavenBook.domain.BestSellingBook;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Armazenamento do histórico de vendas em um banco H2 embutido, usado pelo {@link SaleHistoryService} com o
+ * mecanismo SQL no lugar das partições e do log de alterações.
+ * <p>
+ * As vendas ficam na tabela {@code sales} e os seus itens na tabela {@code sale_lines}, que repete o dia da venda
+ * para que as estatísticas por intervalo não precisem de junção; o título e o autor de cada livro vendido, obtidos
+ * do catálogo na primeira venda em que o livro aparece e de novo a cada alteração do livro no catálogo, como na
+ * {@link SalesFactTable}, ficam na tabela {@code sale_books}; os itens fora do catálogo guardam o título e o autor
+ * na própria linha. Há índices no dia da venda, no livro de cada item e no autor, e as estatísticas são
+ * calculadas por agregações no banco. As alterações ficam em uma transação aberta, confirmada a cada lote por
+ * {@link #commit()}.
+ */
+public class SaleSqlStore implements SalesStatistics {
+
+    private static final Logger LOGGER = Logger.getLogger(SaleSqlStore.class.getName());
+    private static final String IMPORT_ENTITY = "sales";
+    private static final int BATCH_SIZE = 10_000;
+
+    private final String url;
+    private final IntFunction<Book> bookResolver;
+    private final Set<Integer> knownBooks = new HashSet<>();
+
+    private Connection connection;
+
+    /**
+     * Construtor para o armazenamento. A conexão com o banco é aberta por {@link #open()}.
+     *
+     * @param url          A URL JDBC do banco.
+     * @param bookResolver A função que obtém um livro do catálogo pelo ID, ou {@code null} se o livro não existir.
+     */
+    public SaleSqlStore(String url, IntFunction<Book> bookResolver) {
+        this.url = url;
+        this.bookResolver = bookResolver;
+    }
+
+    /**
+     * Abre a conexão com o banco, se ainda não estiver aberta, confirma as alterações já aplicadas cujo lote ainda
+     * não foi gravado e cria as tabelas e os índices que ainda não existem.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao acessar o banco.
+     */
+    public synchronized void open() {
+        try {
+            if (connection == null || connection.isClosed()) {
+                connection = DriverManager.getConnection(url);
+                connection.setAutoCommit(false);
+            }
+            connection.commit();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS sales (id INT PRIMARY KEY, sale_date VARCHAR, "
+                        + "sale_day INT, total_value DOUBLE PRECISION)");
+                statement.execute("CREATE INDEX IF NOT EXISTS sales_sale_day_idx ON sales (sale_day)");
+                statement.execute("CREATE TABLE IF NOT EXISTS sale_lines (sale_id INT NOT NULL, line_no INT NOT NULL, "
+                        + "book_id INT NOT NULL, unit_price DOUBLE PRECISION, quantity INT, sale_day INT, "
+                        + "title VARCHAR, author VARCHAR, PRIMARY KEY (sale_id, line_no))");
+                statement.execute("ALTER TABLE sale_lines ADD COLUMN IF NOT EXISTS title VARCHAR");
+                statement.execute("ALTER TABLE sale_lines ADD COLUMN IF NOT EXISTS author VARCHAR");
+                statement.execute("CREATE INDEX IF NOT EXISTS sale_lines_book_id_idx ON sale_lines (book_id)");
+                statement.execute("CREATE INDEX IF NOT EXISTS sale_lines_sale_day_idx ON sale_lines (sale_day, book_id, quantity)");
+                statement.execute("CREATE TABLE IF NOT EXISTS sale_books (book_id INT PRIMARY KEY, title VARCHAR, author VARCHAR)");
+                statement.execute("CREATE INDEX IF NOT EXISTS sale_books_author_idx ON sale_books (author)");
+                statement.execute("CREATE TABLE IF NOT EXISTS snapshot_imports (entity VARCHAR(64) PRIMARY KEY, modified BIGINT)");
+            }
+            knownBooks.clear();
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT book_id FROM sale_books")) {
+                while (result.next()) {
+                    knownBooks.add(result.getInt(1));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw failure("Erro ao abrir o banco do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Obtém a data de alteração das partições registrada na última importação do histórico de vendas.
+     *
+     * @return A data registrada, em microssegundos desde a época, ou {@link Long#MIN_VALUE} se o histórico nunca
+     * foi importado.
+     */
+    public synchronized long getImportedModified() {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT modified FROM snapshot_imports WHERE entity = ?")) {
+            statement.setString(1, IMPORT_ENTITY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getLong(1) : Long.MIN_VALUE;
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao ler o banco do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Substitui todo o conteúdo do banco pelas vendas fornecidas, registra a importação e confirma a transação.
+     *
+     * @param sales    As vendas.
+     * @param dayOf    A função que obtém o dia de uma venda, em dias desde a época, ou {@link SalesFactTable#UNDATED}.
+     * @param modified A data de alteração das partições de onde as vendas foram lidas, registrada com a importação.
+     * @throws RuntimeException Se ocorrer um erro ao gravar no banco.
+     */
+    public synchronized void replaceAll(Iterable<SaleHistory> sales, ToIntFunction<SaleHistory> dayOf, long modified) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM sale_lines");
+            statement.execute("DELETE FROM sales");
+            statement.execute("DELETE FROM sale_books");
+            knownBooks.clear();
+            putAll(sales, dayOf);
+            try (PreparedStatement imported = connection.prepareStatement(
+                    "MERGE INTO snapshot_imports KEY (entity) VALUES (?, ?)")) {
+                imported.setString(1, IMPORT_ENTITY);
+                imported.setLong(2, modified);
+                imported.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw failure("Erro ao importar o histórico de vendas para o banco", e);
+        }
+    }
+
+    /**
+     * Insere vendas que ainda não estão no banco, agrupando as inserções em lotes.
+     *
+     * @param sales As vendas.
+     * @param dayOf A função que obtém o dia de uma venda, em dias desde a época, ou {@link SalesFactTable#UNDATED}.
+     * @throws RuntimeException Se ocorrer um erro ao gravar no banco.
+     */
+    public synchronized void putAll(Iterable<SaleHistory> sales, ToIntFunction<SaleHistory> dayOf) {
+        try (PreparedStatement saleStatement = connection.prepareStatement("INSERT INTO sales VALUES (?, ?, ?, ?)");
+             PreparedStatement lineStatement = connection.prepareStatement("INSERT INTO sale_lines VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int pending = 0;
+            for (SaleHistory sale : sales) {
+                pending += bind(sale, dayOf.applyAsInt(sale), saleStatement, lineStatement);
+                if (pending >= BATCH_SIZE) {
+                    saleStatement.executeBatch();
+                    lineStatement.executeBatch();
+                    pending = 0;
+                }
+            }
+            saleStatement.executeBatch();
+            lineStatement.executeBatch();
+        } catch (SQLException e) {
+            throw failure("Erro ao gravar no banco do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Inclui uma venda no banco, substituindo a venda de mesmo ID, se houver. Se a gravação falhar, a venda
+     * anterior é mantida, sem desfazer as demais alterações da transação aberta.
+     *
+     * @param sale A venda.
+     * @param day  O dia da venda, em dias desde a época, ou {@link SalesFactTable#UNDATED}.
+     * @throws RuntimeException Se ocorrer um erro ao gravar no banco.
+     */
+    public synchronized void put(SaleHistory sale, int day) {
+        Savepoint savepoint;
+        Set<Integer> registeredBooks = new HashSet<>(knownBooks);
+        try {
+            savepoint = connection.setSavepoint();
+        } catch (SQLException e) {
+            throw failure("Erro ao gravar no banco do histórico de vendas", e);
+        }
+        try {
+            remove(sale.getId());
+            putAll(List.of(sale), ignored -> day);
+        } catch (RuntimeException e) {
+            try {
+                connection.rollback(savepoint);
+                knownBooks.retainAll(registeredBooks);
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Remove do banco a venda com o ID fornecido e os seus itens.
+     *
+     * @param saleId O ID da venda.
+     * @throws RuntimeException Se ocorrer um erro ao gravar no banco.
+     */
+    public synchronized void remove(int saleId) {
+        try (PreparedStatement lines = connection.prepareStatement("DELETE FROM sale_lines WHERE sale_id = ?");
+             PreparedStatement sale = connection.prepareStatement("DELETE FROM sales WHERE id = ?")) {
+            lines.setInt(1, saleId);
+            lines.executeUpdate();
+            sale.setInt(1, saleId);
+            sale.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("Erro ao gravar no banco do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Confirma a transação com as alterações do lote.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao confirmar a transação.
+     */
+    public synchronized void commit() {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw failure("Erro ao confirmar as alterações do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Obtém de novo do catálogo o título e o autor de um livro incluído, alterado ou removido do catálogo. A
+     * alteração fica na transação aberta, confirmada junto com o próximo lote por {@link #commit()}, para não
+     * confirmar antes da hora as vendas do lote em andamento.
+     *
+     * @param bookId O ID do livro.
+     * @throws RuntimeException Se ocorrer um erro ao gravar no banco.
+     */
+    public synchronized void refreshBook(int bookId) {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM sale_books WHERE book_id = ?")) {
+            statement.setInt(1, bookId);
+            statement.executeUpdate();
+            knownBooks.remove(bookId);
+            registerBook(bookId);
+        } catch (SQLException e) {
+            throw failure("Erro ao gravar no banco do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Obtém de novo do catálogo o título e o autor de todos os livros vendidos, depois que o catálogo foi
+     * recarregado ou pode ter sido alterado com a aplicação parada. A alteração fica na transação aberta, como em
+     * {@link #refreshBook(int)}.
+     *
+     * @throws RuntimeException Se ocorrer um erro ao gravar no banco.
+     */
+    public synchronized void refreshBooks() {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM sale_books");
+            knownBooks.clear();
+            List<Integer> bookIds = new ArrayList<>();
+            try (ResultSet result = statement.executeQuery("SELECT DISTINCT book_id FROM sale_lines")) {
+                while (result.next()) {
+                    bookIds.add(result.getInt(1));
+                }
+            }
+            for (int bookId : bookIds) {
+                registerBook(bookId);
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao gravar no banco do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Lê todas as vendas do banco, com os seus itens, em ordem de ID.
+     *
+     * @param consumer A ação executada para cada venda.
+     * @return O número de vendas lidas.
+     * @throws RuntimeException Se ocorrer um erro ao ler o banco.
+     */
+    public synchronized long load(Consumer<SaleHistory> consumer) {
+        String sql = "SELECT s.id, s.sale_date, s.total_value, l.book_id, l.unit_price, l.quantity, l.title, l.author "
+                + "FROM sales s "
+                + "LEFT JOIN sale_lines l ON l.sale_id = s.id ORDER BY s.id, l.line_no";
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            long count = 0;
+            SaleHistory current = null;
+            while (result.next()) {
+                int id = result.getInt(1);
+                if (current == null || current.getId() != id) {
+                    if (current != null) {
+                        consumer.accept(current);
+                        count++;
+                    }
+                    current = new SaleHistory(result.getString(2), result.getDouble(3));
+                    current.setId(id);
+                    current.setLines(new ArrayList<>());
+                }
+                int bookId = result.getInt(4);
+                if (!result.wasNull()) {
+                    current.getLines().add(new SaleLine(bookId, result.getDouble(5), result.getInt(6),
+                            result.getString(7), result.getString(8)));
+                }
+            }
+            if (current != null) {
+                consumer.accept(current);
+                count++;
+            }
+            return count;
+        } catch (SQLException e) {
+            throw failure("Erro ao ler o banco do histórico de vendas", e);
+        }
+    }
+
+    /**
+     * Fecha a conexão com o banco, confirmando as alterações pendentes.
+     */
+    public synchronized void close() {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.commit();
+                connection.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Erro ao fechar o banco do histórico de vendas", e);
+        }
+    }
+
+    @Override
+    public synchronized double getTotalRevenue() {
+        return queryDouble("SELECT COALESCE(SUM(total_value), 0) FROM sales", null);
+    }
+
+    @Override
+    public synchronized long getTotalBookCount() {
+        return queryLong("SELECT COALESCE(SUM(quantity), 0) FROM sale_lines", null);
+    }
+
+    @Override
+    public synchronized double getRevenueBetween(int fromDay, int toDay) {
+        return queryDouble("SELECT COALESCE(SUM(total_value), 0) FROM sales WHERE sale_day BETWEEN ? AND ?",
+                new int[]{fromDay, toDay});
+    }
+
+    @Override
+    public synchronized long getBookCountBetween(int fromDay, int toDay) {
+        return queryLong("SELECT COALESCE(SUM(quantity), 0) FROM sale_lines WHERE sale_day BETWEEN ? AND ?",
+                new int[]{fromDay, toDay});
+    }
+
+    @Override
+    public synchronized List<AuthorSales> getAuthorSales(int offset, Integer limit) {
+        List<AuthorSales> authors = new ArrayList<>();
+        rank("author", null, offset, limit, (name, count) -> authors.add(new AuthorSales(name, (int) count)));
+        return authors;
+    }
+
+    @Override
+    public synchronized List<AuthorSales> getAuthorSalesBetween(int fromDay, int toDay, int offset, Integer limit) {
+        List<AuthorSales> authors = new ArrayList<>();
+        rank("author", new int[]{fromDay, toDay}, offset, limit,
+                (name, count) -> authors.add(new AuthorSales(name, (int) count)));
+        return authors;
+    }
+
+    @Override
+    public synchronized List<BestSellingBook> getBestSellingBooks(int offset, Integer limit) {
+        List<BestSellingBook> titles = new ArrayList<>();
+        rank("title", null, offset, limit, (name, count) -> titles.add(new BestSellingBook(name, count)));
+        return titles;
+    }
+
+    @Override
+    public synchronized List<BestSellingBook> getBestSellingBooksBetween(int fromDay, int toDay, int offset, Integer limit) {
+        List<BestSellingBook> titles = new ArrayList<>();
+        rank("title", new int[]{fromDay, toDay}, offset, limit,
+                (name, count) -> titles.add(new BestSellingBook(name, count)));
+        return titles;
+    }
+
+    @Override
+    public synchronized List<Integer> getSoldBookIds() {
+        return soldBookIds(null);
+    }
+
+    @Override
+    public synchronized List<Integer> getSoldBookIdsBetween(int fromDay, int toDay) {
+        return soldBookIds(new int[]{fromDay, toDay});
+    }
+
+    @Override
+    public synchronized Map<Integer, Long> getBookSales() {
+        return bookSales(null);
+    }
+
+    @Override
+    public synchronized Map<Integer, Long> getBookSalesBetween(int fromDay, int toDay) {
+        return bookSales(new int[]{fromDay, toDay});
+    }
+
+    @Override
+    public synchronized SalesFactTable.Totals getTotals() {
+        return new SalesFactTable.Totals(getTotalRevenue(), getTotalBookCount(), getAuthorSales(0, null),
+                getBestSellingBooks(0, null), getSoldBookIds());
+    }
+
+    @Override
+    public synchronized SalesFactTable.Totals getTotalsBetween(int fromDay, int toDay) {
+        return new SalesFactTable.Totals(getRevenueBetween(fromDay, toDay), getBookCountBetween(fromDay, toDay),
+                getAuthorSalesBetween(fromDay, toDay, 0, null), getBestSellingBooksBetween(fromDay, toDay, 0, null),
+                getSoldBookIdsBetween(fromDay, toDay));
+    }
+
+    /**
+     * Agrupa as quantidades vendidas pela coluna fornecida da tabela {@code sale_books}, ou pela coluna de mesmo nome
+     * do item para os itens fora do catálogo, da maior para a menor, com os nomes nulos por último em caso de
+     * empate, como na {@link SalesFactTable}. Itens de livros fora do catálogo sem o título ou o autor não entram no
+     * agrupamento.
+     *
+     * @param column O nome da coluna, {@code author} ou {@code title}.
+     * @param days   O intervalo de dias, ou {@code null} para todo o histórico.
+     * @param offset O número de grupos a serem ignorados no início da lista.
+     * @param limit  O número máximo de grupos retornados, ou {@code null} para retornar todos.
+     * @param action A ação executada para cada grupo, com o nome e a quantidade.
+     */
+    private void rank(String column, int[] days, int offset, Integer limit, RankConsumer action) {
+        String name = "CASE WHEN b.book_id IS NULL THEN l." + column + " ELSE b." + column + " END";
+        StringBuilder sql = new StringBuilder("SELECT ").append(name).append(", SUM(l.quantity) AS total ")
+                .append("FROM sale_lines l LEFT JOIN sale_books b ON b.book_id = l.book_id ")
+                .append("WHERE (b.book_id IS NOT NULL OR l.").append(column).append(" IS NOT NULL) ");
+        if (days != null) {
+            sql.append("AND l.sale_day BETWEEN ? AND ? ");
+        }
+        sql.append("GROUP BY ").append(name).append(" HAVING SUM(l.quantity) > 0 ")
+                .append("ORDER BY total DESC, ").append(name).append(" NULLS LAST OFFSET ? ROWS");
+        if (limit != null) {
+            sql.append(" FETCH FIRST ? ROWS ONLY");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int parameter = bindDays(statement, days);
+            statement.setInt(parameter++, Math.max(0, offset));
+            if (limit != null) {
+                statement.setInt(parameter, Math.max(0, limit));
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    action.accept(result.getString(1), result.getLong(2));
+                }
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao consultar o banco do histórico de vendas", e);
+        }
+    }
+
+    private List<Integer> soldBookIds(int[] days) {
+        String sql = "SELECT book_id FROM sale_lines " + (days != null ? "WHERE sale_day BETWEEN ? AND ? " : "")
+                + "GROUP BY book_id HAVING SUM(quantity) > 0";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindDays(statement, days);
+            List<Integer> ids = new ArrayList<>();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    ids.add(result.getInt(1));
+                }
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw failure("Erro ao consultar o banco do histórico de vendas", e);
+        }
+    }
+
+    private Map<Integer, Long> bookSales(int[] days) {
+        String sql = "SELECT book_id, SUM(quantity) FROM sale_lines "
+                + (days != null ? "WHERE sale_day BETWEEN ? AND ? " : "")
+                + "GROUP BY book_id HAVING SUM(quantity) > 0";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindDays(statement, days);
+            Map<Integer, Long> sales = new HashMap<>();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    sales.put(result.getInt(1), result.getLong(2));
+                }
+            }
+            return sales;
+        } catch (SQLException e) {
+            throw failure("Erro ao consultar o banco do histórico de vendas", e);
+        }
+    }
+
+    private double queryDouble(String sql, int[] days) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindDays(statement, days);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getDouble(1);
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao consultar o banco do histórico de vendas", e);
+        }
+    }
+
+    private long queryLong(String sql, int[] days) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindDays(statement, days);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw failure("Erro ao consultar o banco do histórico de vendas", e);
+        }
+    }
+
+    private static int bindDays(PreparedStatement statement, int[] days) throws SQLException {
+        if (days == null) {
+            return 1;
+        }
+        statement.setInt(1, days[0]);
+        statement.setInt(2, days[1]);
+        return 3;
+    }
+
+    /**
+     * Inclui a venda e os seus itens nos lotes de inserção, registrando na tabela {@code sale_books} os livros
+     * que ainda não apareceram em nenhuma venda.
+     *
+     * @return O número de linhas incluídas nos lotes.
+     */
+    private int bind(SaleHistory sale, int day, PreparedStatement saleStatement, PreparedStatement lineStatement)
+            throws SQLException {
+        saleStatement.setInt(1, sale.getId());
+        saleStatement.setString(2, sale.getSaleDate());
+        if (day == SalesFactTable.UNDATED) {
+            saleStatement.setNull(3, Types.INTEGER);
+        } else {
+            saleStatement.setInt(3, day);
+        }
+        saleStatement.setDouble(4, sale.getTotalValue());
+        saleStatement.addBatch();
+        List<SaleLine> lines = sale.getLines() == null ? List.of() : sale.getLines();
+        for (int lineNo = 0; lineNo < lines.size(); lineNo++) {
+            SaleLine line = lines.get(lineNo);
+            registerBook(line.getBookId());
+            lineStatement.setInt(1, sale.getId());
+            lineStatement.setInt(2, lineNo);
+            lineStatement.setInt(3, line.getBookId());
+            lineStatement.setDouble(4, line.getUnitPrice());
+            lineStatement.setInt(5, line.getQuantity());
+            if (day == SalesFactTable.UNDATED) {
+                lineStatement.setNull(6, Types.INTEGER);
+            } else {
+                lineStatement.setInt(6, day);
+            }
+            lineStatement.setString(7, line.getTitle());
+            lineStatement.setString(8, line.getAuthor());
+            lineStatement.addBatch();
+        }
+        return 1 + lines.size();
+    }
+
+    private void registerBook(int bookId) throws SQLException {
+        if (knownBooks.contains(bookId)) {
+            return;
+        }
+        Book book = bookResolver.apply(bookId);
+        if (book == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO sale_books VALUES (?, ?, ?)")) {
+            statement.setInt(1, bookId);
+            statement.setString(2, book.getTitle());
+            statement.setString(3, book.getAuthor());
+            statement.executeUpdate();
+        }
+        knownBooks.add(bookId);
+    }
+
+    private static RuntimeException failure(String message, Exception e) {
+        LOGGER.log(Level.SEVERE, message, e);
+        return new RuntimeException(message, e);
+    }
+
+    /**
+     * Ação executada para cada grupo de uma agregação, com o nome do grupo e a quantidade vendida.
+     */
+    @FunctionalInterface
+    private interface RankConsumer {
+
+        void accept(String name, long count);
+    }
+}
@@ -0,0 +1,751 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.AuthorSales;
+import com.example.HavenBook.domain.BestSellingBook;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import com.example.HavenBook.index.DayFenwickTree;
+import com.example.HavenBook.index.IntIntHashMap;
+import com.example.HavenBook.index.StringDictionary;
+import com.example.HavenBook.index.TopK;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Tabela de fatos das vendas em formato colunar, mantida pelo {@link SaleHistoryService} e consultada pelo
+ * {@link StatisticService}. Cada item de venda ocupa uma linha, distribuída em vetores de tipos primitivos
+ * paralelos com o dia da venda, o código do livro e a quantidade. Cada livro recebe um código sequencial na primeira
+ * venda em que aparece, e o título e o autor do livro, obtidos do catálogo nesse momento e de novo a cada alteração
+ * do livro no catálogo, por {@link #refreshBook(int)}, são codificados por um {@link StringDictionary}. O valor de cada venda fica em uma coluna própria, por venda, pois o valor total da
+ * venda não é necessariamente a soma dos valores dos itens.
+ * <p>
+ * As linhas são particionadas por mês, como os arquivos do {@link SalePartitionStore}, e cada partição mantém
+ * as quantidades vendidas de cada livro no mês e os dias mínimo e máximo das suas vendas. As estatísticas de todo
+ * o histórico são mantidas de forma incremental em contadores indexados pelos códigos. As estatísticas por
+ * intervalo ignoram as partições fora do intervalo, somam os contadores das partições cobertas por inteiro e
+ * percorrem sequencialmente, sem criar objetos por linha, apenas as colunas das partições nas bordas do intervalo;
+ * a receita e o número de livros por intervalo são respondidos pela {@link DayFenwickTree}. Linhas de vendas
+ * removidas são marcadas e descartadas quando passam a ocupar metade da partição. Itens de livros que não estão
+ * no catálogo entram na receita e no número de livros vendidos, e nas estatísticas por título e por autor apenas
+ * quando guardam o título e o autor do livro original.
+ */
+public class SalesFactTable implements SalesStatistics {
+
+    /**
+     * Dia atribuído às vendas com data inválida. Essas vendas entram nas estatísticas de todo o histórico, mas
+     * ficam fora de qualquer intervalo de datas.
+     */
+    public static final int UNDATED = Integer.MAX_VALUE;
+
+    private static final int REMOVED = Integer.MIN_VALUE;
+    private static final int MISSING = -1;
+    private static final int UNKNOWN = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private final IntFunction<Book> bookResolver;
+    private final StringDictionary titles = new StringDictionary();
+    private final StringDictionary authors = new StringDictionary();
+    private final DayFenwickTree dailyTotals = new DayFenwickTree();
+    private final IntIntHashMap slotBySaleId = new IntIntHashMap();
+    private final IntIntHashMap codeByBookId = new IntIntHashMap();
+    private final Map<List<String>, Integer> codeByUnknownBook = new HashMap<>();
+    private final NavigableMap<Integer, Partition> partitions = new TreeMap<>();
+
+    private int[] bookIdByCode;
+    private int[] titleByCode;
+    private int[] authorByCode;
+    private int bookCodeCount;
+
+    private int[] saleDay;
+    private double[] saleValue;
+    private int[] salePartition;
+    private int[] saleFirstRow;
+    private int[] saleRowCount;
+    private int[] freeSlots;
+    private int freeSlotCount;
+    private int slotCount;
+
+    private long[] bookTotals;
+    private double totalRevenue;
+    private long totalBookCount;
+
+    /**
+     * Construtor para uma tabela vazia.
+     *
+     * @param bookResolver A função que obtém um livro do catálogo pelo ID, ou {@code null} se o livro não existir.
+     */
+    public SalesFactTable(IntFunction<Book> bookResolver) {
+        this.bookResolver = bookResolver;
+        clear();
+    }
+
+    /**
+     * Inclui uma venda na tabela, substituindo a venda de mesmo ID, se houver.
+     *
+     * @param sale A venda a ser incluída.
+     * @param day  O dia da venda, em dias desde a época, ou {@link #UNDATED} se a data da venda for inválida.
+     */
+    public synchronized void add(SaleHistory sale, int day) {
+        remove(sale.getId());
+        List<SaleLine> lines = sale.getLines() == null ? List.of() : sale.getLines();
+        int month = monthOf(day);
+        Partition partition = partitions.computeIfAbsent(month, key -> new Partition());
+        int slot = allocateSlot();
+        saleDay[slot] = day;
+        saleValue[slot] = sale.getTotalValue();
+        salePartition[slot] = month;
+        saleFirstRow[slot] = partition.rowCount;
+        saleRowCount[slot] = lines.size();
+        slotBySaleId.put(sale.getId(), slot);
+
+        partition.ensureRowCapacity(partition.rowCount + lines.size());
+        long bookCount = 0;
+        for (SaleLine line : lines) {
+            int book = encodeBook(line);
+            partition.append(day, book, line.getQuantity(), slot);
+            bookTotals[book] += line.getQuantity();
+            bookCount += line.getQuantity();
+        }
+        partition.saleCount++;
+        partition.bookCount += bookCount;
+        partition.minDay = Math.min(partition.minDay, day);
+        partition.maxDay = Math.max(partition.maxDay, day);
+
+        totalRevenue += sale.getTotalValue();
+        totalBookCount += bookCount;
+        if (day != UNDATED) {
+            dailyTotals.add(day, sale.getTotalValue(), bookCount);
+        }
+    }
+
+    /**
+     * Remove da tabela a venda com o ID fornecido.
+     *
+     * @param saleId O ID da venda.
+     */
+    public synchronized void remove(int saleId) {
+        int slot = slotBySaleId.get(saleId, MISSING);
+        if (slot == MISSING) {
+            return;
+        }
+        slotBySaleId.remove(saleId);
+        Partition partition = partitions.get(salePartition[slot]);
+        int first = saleFirstRow[slot];
+        int count = saleRowCount[slot];
+        long bookCount = 0;
+        for (int row = first; row < first + count; row++) {
+            int book = partition.rowBook[row];
+            bookTotals[book] -= partition.rowQuantity[row];
+            partition.bookTotals[book] -= partition.rowQuantity[row];
+            bookCount += partition.rowQuantity[row];
+            partition.rowDay[row] = REMOVED;
+        }
+        partition.removedRows += count;
+        partition.saleCount--;
+        partition.bookCount -= bookCount;
+
+        totalRevenue -= saleValue[slot];
+        totalBookCount -= bookCount;
+        if (saleDay[slot] != UNDATED) {
+            dailyTotals.add(saleDay[slot], -saleValue[slot], -bookCount);
+        }
+        freeSlots[freeSlotCount++] = slot;
+
+        if (partition.saleCount == 0) {
+            partitions.remove(salePartition[slot]);
+        } else if (partition.removedRows > INITIAL_CAPACITY && partition.removedRows * 2 > partition.rowCount) {
+            compactRows(partition);
+        }
+    }
+
+    /**
+     * Remove todas as vendas da tabela e descarta os códigos dos livros, que voltam a ser obtidos do catálogo.
+     */
+    public synchronized void clear() {
+        titles.clear();
+        authors.clear();
+        dailyTotals.clear();
+        slotBySaleId.clear();
+        codeByBookId.clear();
+        codeByUnknownBook.clear();
+        partitions.clear();
+        bookIdByCode = new int[INITIAL_CAPACITY];
+        titleByCode = new int[INITIAL_CAPACITY];
+        authorByCode = new int[INITIAL_CAPACITY];
+        bookCodeCount = 0;
+        saleDay = new int[INITIAL_CAPACITY];
+        saleValue = new double[INITIAL_CAPACITY];
+        salePartition = new int[INITIAL_CAPACITY];
+        saleFirstRow = new int[INITIAL_CAPACITY];
+        saleRowCount = new int[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+        freeSlotCount = 0;
+        slotCount = 0;
+        bookTotals = new long[INITIAL_CAPACITY];
+        totalRevenue = 0;
+        totalBookCount = 0;
+    }
+
+    /**
+     * Obtém de novo do catálogo o título e o autor de um livro incluído, alterado ou removido do catálogo. Livros
+     * que ainda não apareceram em nenhuma venda são ignorados.
+     *
+     * @param bookId O ID do livro.
+     */
+    public synchronized void refreshBook(int bookId) {
+        int code = codeByBookId.get(bookId, MISSING);
+        if (code != MISSING) {
+            resolveBook(code);
+        }
+    }
+
+    /**
+     * Obtém de novo do catálogo o título e o autor de todos os livros vendidos, depois que o catálogo foi recarregado.
+     */
+    public synchronized void refreshBooks() {
+        for (int code = 0; code < bookCodeCount; code++) {
+            resolveBook(code);
+        }
+    }
+
+    /**
+     * Obtém o número de partições mensais com vendas, incluindo a partição das vendas sem data.
+     *
+     * @return O número de partições.
+     */
+    public synchronized int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Obtém a receita total de todo o histórico.
+     *
+     * @return A receita total.
+     */
+    @Override
+    public synchronized double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    /**
+     * Obtém o número total de livros vendidos em todo o histórico.
+     *
+     * @return O número total de livros vendidos.
+     */
+    @Override
+    public synchronized long getTotalBookCount() {
+        return totalBookCount;
+    }
+
+    /**
+     * Soma a receita das vendas realizadas entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return A receita no intervalo.
+     */
+    @Override
+    public synchronized double getRevenueBetween(int fromDay, int toDay) {
+        return dailyTotals.sumRevenue(fromDay, toDay);
+    }
+
+    /**
+     * Soma o número de livros vendidos entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return O número de livros vendidos no intervalo.
+     */
+    @Override
+    public synchronized long getBookCountBetween(int fromDay, int toDay) {
+        return dailyTotals.sumCount(fromDay, toDay);
+    }
+
+    /**
+     * Obtém o número de livros vendidos por autor em todo o histórico, do autor com mais vendas para o com menos
+     * vendas.
+     *
+     * @param offset O número de autores a serem ignorados no início da lista.
+     * @param limit  O número máximo de autores retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code AuthorSales} com o nome do autor e o número de livros vendidos.
+     */
+    @Override
+    public synchronized List<AuthorSales> getAuthorSales(int offset, Integer limit) {
+        return rankAuthors(bookTotals, offset, limit);
+    }
+
+    /**
+     * Obtém o número de livros vendidos por autor entre os dias fornecidos, inclusive, do autor com mais vendas
+     * para o com menos vendas.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @param offset  O número de autores a serem ignorados no início da lista.
+     * @param limit   O número máximo de autores retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code AuthorSales} com o nome do autor e o número de livros vendidos no intervalo.
+     */
+    @Override
+    public synchronized List<AuthorSales> getAuthorSalesBetween(int fromDay, int toDay, int offset, Integer limit) {
+        long[] bookCounts = new long[bookCodeCount];
+        accumulate(fromDay, toDay, bookCounts);
+        return rankAuthors(bookCounts, offset, limit);
+    }
+
+    /**
+     * Obtém o número de vendas de cada título em todo o histórico, do mais vendido para o menos vendido.
+     *
+     * @param offset O número de títulos a serem ignorados no início da lista.
+     * @param limit  O número máximo de títulos retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code BestSellingBook} com o título e o número de vendas.
+     */
+    @Override
+    public synchronized List<BestSellingBook> getBestSellingBooks(int offset, Integer limit) {
+        return rankTitles(bookTotals, offset, limit);
+    }
+
+    /**
+     * Obtém o número de vendas de cada título entre os dias fornecidos, inclusive, do mais vendido para o menos
+     * vendido.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @param offset  O número de títulos a serem ignorados no início da lista.
+     * @param limit   O número máximo de títulos retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code BestSellingBook} com o título e o número de vendas no intervalo.
+     */
+    @Override
+    public synchronized List<BestSellingBook> getBestSellingBooksBetween(int fromDay, int toDay, int offset, Integer limit) {
+        long[] bookCounts = new long[bookCodeCount];
+        accumulate(fromDay, toDay, bookCounts);
+        return rankTitles(bookCounts, offset, limit);
+    }
+
+    /**
+     * Obtém os IDs dos livros vendidos ao menos uma vez em todo o histórico.
+     *
+     * @return A lista de IDs dos livros vendidos, sem repetições.
+     */
+    @Override
+    public synchronized List<Integer> getSoldBookIds() {
+        return soldBookIds(bookTotals);
+    }
+
+    /**
+     * Obtém os IDs dos livros vendidos ao menos uma vez entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return A lista de IDs dos livros vendidos no intervalo, sem repetições.
+     */
+    @Override
+    public synchronized List<Integer> getSoldBookIdsBetween(int fromDay, int toDay) {
+        long[] bookCounts = new long[bookCodeCount];
+        accumulate(fromDay, toDay, bookCounts);
+        return soldBookIds(bookCounts);
+    }
+
+    /**
+     * Calcula, em uma única passagem sobre as colunas, todos os totais de vendas entre os dias fornecidos,
+     * inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return Os totais de vendas no intervalo.
+     */
+    @Override
+    public synchronized Totals getTotalsBetween(int fromDay, int toDay) {
+        long[] bookCounts = new long[bookCodeCount];
+        long bookCount = accumulate(fromDay, toDay, bookCounts);
+        return new Totals(dailyTotals.sumRevenue(fromDay, toDay), bookCount, rankAuthors(bookCounts, 0, null),
+                rankTitles(bookCounts, 0, null), soldBookIds(bookCounts));
+    }
+
+    /**
+     * Obtém todos os totais de vendas de todo o histórico a partir dos contadores mantidos de forma incremental.
+     *
+     * @return Os totais de vendas de todo o histórico.
+     */
+    @Override
+    public synchronized Totals getTotals() {
+        return new Totals(totalRevenue, totalBookCount, rankAuthors(bookTotals, 0, null),
+                rankTitles(bookTotals, 0, null), soldBookIds(bookTotals));
+    }
+
+    /**
+     * Acumula as quantidades vendidas de cada livro entre os dias fornecidos no vetor indexado pelos códigos dos
+     * livros. Apenas as partições dos meses do intervalo são consultadas; as partições cobertas por inteiro
+     * contribuem com os seus contadores, e as demais têm as linhas percorridas. Vendas sem data ficam fora de
+     * qualquer intervalo.
+     *
+     * @param fromDay    O primeiro dia do intervalo.
+     * @param toDay      O último dia do intervalo.
+     * @param bookCounts O vetor de quantidades por código de livro.
+     * @return O número de livros vendidos no intervalo.
+     */
+    private long accumulate(int fromDay, int toDay, long[] bookCounts) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        long bookCount = 0;
+        for (Partition partition : partitions.subMap(monthOf(fromDay), true, monthOf(toDay), true).values()) {
+            if (partition.maxDay < fromDay || partition.minDay > toDay) {
+                continue;
+            }
+            if (partition.minDay >= fromDay && partition.maxDay <= toDay) {
+                long[] totals = partition.bookTotals;
+                for (int book = 0; book < totals.length && book < bookCounts.length; book++) {
+                    bookCounts[book] += totals[book];
+                }
+                bookCount += partition.bookCount;
+            } else {
+                bookCount += partition.scan(fromDay, toDay, bookCounts);
+            }
+        }
+        return bookCount;
+    }
+
+    /**
+     * Obtém a chave da partição mensal de um dia, crescente com o mês.
+     *
+     * @param day O dia, em dias desde a época, ou {@link #UNDATED}.
+     * @return A chave da partição; as vendas sem data ficam na última partição.
+     */
+    private static int monthOf(int day) {
+        if (day == UNDATED) {
+            return UNDATED;
+        }
+        LocalDate date = LocalDate.ofEpochDay(day);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    /**
+     * Soma as quantidades por livro nos códigos do dicionário informado, descartando os livros fora do catálogo.
+     *
+     * @param bookCounts As quantidades por código de livro.
+     * @param codeByBook O código no dicionário de cada livro.
+     * @param size       O tamanho do dicionário.
+     * @return As quantidades por código do dicionário.
+     */
+    private long[] groupBy(long[] bookCounts, int[] codeByBook, int size) {
+        long[] counts = new long[size];
+        for (int book = 0; book < bookCodeCount && book < bookCounts.length; book++) {
+            if (bookCounts[book] > 0 && codeByBook[book] != UNKNOWN) {
+                counts[codeByBook[book]] += bookCounts[book];
+            }
+        }
+        return counts;
+    }
+
+    private List<AuthorSales> rankAuthors(long[] bookCounts, int offset, Integer limit) {
+        long[] counts = groupBy(bookCounts, authorByCode, authors.size());
+        return TopK.select(codesWithSales(counts), byCount(counts, authors), offset, limit == null ? Integer.MAX_VALUE : limit)
+                .stream()
+                .map(code -> new AuthorSales(authors.decode(code), (int) counts[code]))
+                .collect(Collectors.toList());
+    }
+
+    private List<BestSellingBook> rankTitles(long[] bookCounts, int offset, Integer limit) {
+        long[] counts = groupBy(bookCounts, titleByCode, titles.size());
+        return TopK.select(codesWithSales(counts), byCount(counts, titles), offset, limit == null ? Integer.MAX_VALUE : limit)
+                .stream()
+                .map(code -> new BestSellingBook(titles.decode(code), counts[code]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtém o número de exemplares vendidos de cada livro em todo o histórico.
+     *
+     * @return Um mapa do ID de cada livro vendido ao menos uma vez para o número de exemplares vendidos.
+     */
+    @Override
+    public synchronized Map<Integer, Long> getBookSales() {
+        return bookSales(bookTotals);
+    }
+
+    /**
+     * Obtém o número de exemplares vendidos de cada livro entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return Um mapa do ID de cada livro vendido no intervalo para o número de exemplares vendidos.
+     */
+    @Override
+    public synchronized Map<Integer, Long> getBookSalesBetween(int fromDay, int toDay) {
+        long[] bookCounts = new long[bookCodeCount];
+        accumulate(fromDay, toDay, bookCounts);
+        return bookSales(bookCounts);
+    }
+
+    private Map<Integer, Long> bookSales(long[] bookCounts) {
+        Map<Integer, Long> sales = new HashMap<>();
+        for (int book = 0; book < bookCodeCount && book < bookCounts.length; book++) {
+            if (bookCounts[book] > 0) {
+                sales.merge(bookIdByCode[book], bookCounts[book], Long::sum);
+            }
+        }
+        return sales;
+    }
+
+    /**
+     * Lista os IDs dos livros vendidos, com o ID {@link SaleLine#UNKNOWN_BOOK_ID} uma única vez, embora os itens
+     * fora do catálogo tenham um código para cada título e autor.
+     */
+    private List<Integer> soldBookIds(long[] bookCounts) {
+        List<Integer> sold = new ArrayList<>();
+        boolean unknownSold = false;
+        for (int book = 0; book < bookCodeCount && book < bookCounts.length; book++) {
+            int bookId = bookIdByCode[book];
+            if (bookCounts[book] > 0 && (bookId != SaleLine.UNKNOWN_BOOK_ID || !unknownSold)) {
+                sold.add(bookId);
+                unknownSold |= bookId == SaleLine.UNKNOWN_BOOK_ID;
+            }
+        }
+        return sold;
+    }
+
+    private static Iterable<Integer> codesWithSales(long[] counts) {
+        return () -> IntStream.range(0, counts.length).filter(code -> counts[code] > 0).boxed().iterator();
+    }
+
+    private static Comparator<Integer> byCount(long[] counts, StringDictionary names) {
+        return (first, second) -> {
+            int byCount = Long.compare(counts[second], counts[first]);
+            return byCount != 0 ? byCount : NAME_ORDER.compare(names.decode(first), names.decode(second));
+        };
+    }
+
+    /**
+     * Obtém o código do livro do item, atribuindo um novo código e consultando o título e o autor no catálogo se o
+     * livro ainda não tiver aparecido em nenhuma venda. Os itens fora do catálogo recebem um código para cada
+     * título e autor guardados no item, que não é consultado no catálogo.
+     *
+     * @param line O item.
+     * @return O código do livro.
+     */
+    private int encodeBook(SaleLine line) {
+        int bookId = line.getBookId();
+        if (bookId == SaleLine.UNKNOWN_BOOK_ID && (line.getTitle() != null || line.getAuthor() != null)) {
+            List<String> key = Arrays.asList(line.getTitle(), line.getAuthor());
+            Integer code = codeByUnknownBook.get(key);
+            if (code == null) {
+                code = newBookCode(bookId);
+                titleByCode[code] = line.getTitle() == null ? UNKNOWN : titles.encode(line.getTitle());
+                authorByCode[code] = line.getAuthor() == null ? UNKNOWN : authors.encode(line.getAuthor());
+                codeByUnknownBook.put(key, code);
+            }
+            return code;
+        }
+        int code = codeByBookId.get(bookId, MISSING);
+        if (code != MISSING) {
+            return code;
+        }
+        code = newBookCode(bookId);
+        resolveBook(code);
+        codeByBookId.put(bookId, code);
+        return code;
+    }
+
+    private int newBookCode(int bookId) {
+        int code = bookCodeCount++;
+        if (code == bookIdByCode.length) {
+            int capacity = bookIdByCode.length * 2;
+            bookIdByCode = Arrays.copyOf(bookIdByCode, capacity);
+            titleByCode = Arrays.copyOf(titleByCode, capacity);
+            authorByCode = Arrays.copyOf(authorByCode, capacity);
+            bookTotals = Arrays.copyOf(bookTotals, capacity);
+        }
+        bookIdByCode[code] = bookId;
+        titleByCode[code] = UNKNOWN;
+        authorByCode[code] = UNKNOWN;
+        return code;
+    }
+
+    /**
+     * Codifica o título e o autor do livro com o código fornecido, obtidos do catálogo; livros fora do catálogo
+     * ficam sem título e sem autor. Os códigos dos itens fora do catálogo mantêm o título e o autor do item.
+     *
+     * @param code O código do livro.
+     */
+    private void resolveBook(int code) {
+        if (bookIdByCode[code] == SaleLine.UNKNOWN_BOOK_ID) {
+            return;
+        }
+        Book book = bookResolver.apply(bookIdByCode[code]);
+        titleByCode[code] = book == null ? UNKNOWN : titles.encode(book.getTitle());
+        authorByCode[code] = book == null ? UNKNOWN : authors.encode(book.getAuthor());
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotCount == saleDay.length) {
+            int capacity = saleDay.length * 2;
+            saleDay = Arrays.copyOf(saleDay, capacity);
+            saleValue = Arrays.copyOf(saleValue, capacity);
+            salePartition = Arrays.copyOf(salePartition, capacity);
+            saleFirstRow = Arrays.copyOf(saleFirstRow, capacity);
+            saleRowCount = Arrays.copyOf(saleRowCount, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Descarta as linhas removidas da partição, deslocando as demais para o início das colunas, atualizando a
+     * primeira linha de cada venda e recalculando os dias mínimo e máximo da partição.
+     *
+     * @param partition A partição a ser compactada.
+     */
+    private void compactRows(Partition partition) {
+        int write = 0;
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        for (int row = 0; row < partition.rowCount; row++) {
+            int day = partition.rowDay[row];
+            if (day == REMOVED) {
+                continue;
+            }
+            int slot = partition.rowSlot[row];
+            if (saleFirstRow[slot] == row) {
+                saleFirstRow[slot] = write;
+            }
+            partition.rowDay[write] = day;
+            partition.rowBook[write] = partition.rowBook[row];
+            partition.rowQuantity[write] = partition.rowQuantity[row];
+            partition.rowSlot[write] = slot;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            write++;
+        }
+        partition.rowCount = write;
+        partition.removedRows = 0;
+        partition.minDay = minDay;
+        partition.maxDay = maxDay;
+    }
+
+    /**
+     * Linhas das vendas de um mês, com as quantidades vendidas de cada livro no mês. Os dias mínimo e máximo só
+     * são recalculados na compactação e podem ser mais amplos que os dias das vendas restantes, o que apenas faz
+     * a partição ser percorrida linha a linha em vez de somada pelos contadores.
+     */
+    private static final class Partition {
+
+        private int[] rowDay = new int[INITIAL_CAPACITY];
+        private int[] rowBook = new int[INITIAL_CAPACITY];
+        private int[] rowQuantity = new int[INITIAL_CAPACITY];
+        private int[] rowSlot = new int[INITIAL_CAPACITY];
+        private int rowCount;
+        private int removedRows;
+
+        private long[] bookTotals = new long[INITIAL_CAPACITY];
+        private long bookCount;
+        private int saleCount;
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+
+        private void append(int day, int book, int quantity, int slot) {
+            rowDay[rowCount] = day;
+            rowBook[rowCount] = book;
+            rowQuantity[rowCount] = quantity;
+            rowSlot[rowCount] = slot;
+            rowCount++;
+            if (book >= bookTotals.length) {
+                bookTotals = Arrays.copyOf(bookTotals, Math.max(book + 1, bookTotals.length * 2));
+            }
+            bookTotals[book] += quantity;
+        }
+
+        private long scan(int fromDay, int toDay, long[] bookCounts) {
+            long count = 0;
+            for (int row = 0; row < rowCount; row++) {
+                int day = rowDay[row];
+                if (day >= fromDay && day <= toDay && day != REMOVED && day != UNDATED) {
+                    bookCounts[rowBook[row]] += rowQuantity[row];
+                    count += rowQuantity[row];
+                }
+            }
+            return count;
+        }
+
+        private void ensureRowCapacity(int required) {
+            if (required <= rowDay.length) {
+                return;
+            }
+            int capacity = Math.max(required, rowDay.length * 2);
+            rowDay = Arrays.copyOf(rowDay, capacity);
+            rowBook = Arrays.copyOf(rowBook, capacity);
+            rowQuantity = Arrays.copyOf(rowQuantity, capacity);
+            rowSlot = Arrays.copyOf(rowSlot, capacity);
+        }
+    }
+
+    /**
+     * Totais de vendas de um intervalo ou de todo o histórico, calculados em uma única consulta à tabela.
+     */
+    public static final class Totals {
+
+        private final double revenue;
+        private final long bookCount;
+        private final List<AuthorSales> authorSales;
+        private final List<BestSellingBook> bestSellingBooks;
+        private final List<Integer> soldBookIds;
+
+        Totals(double revenue, long bookCount, List<AuthorSales> authorSales,
+               List<BestSellingBook> bestSellingBooks, List<Integer> soldBookIds) {
+            this.revenue = revenue;
+            this.bookCount = bookCount;
+            this.authorSales = authorSales;
+            this.bestSellingBooks = bestSellingBooks;
+            this.soldBookIds = soldBookIds;
+        }
+
+        /**
+         * @return A receita das vendas.
+         */
+        public double getRevenue() {
+            return revenue;
+        }
+
+        /**
+         * @return O número de livros vendidos.
+         */
+        public long getBookCount() {
+            return bookCount;
+        }
+
+        /**
+         * @return O número de livros vendidos por autor, do autor com mais vendas para o com menos vendas.
+         */
+        public List<AuthorSales> getAuthorSales() {
+            return authorSales;
+        }
+
+        /**
+         * @return O número de vendas de cada título, do mais vendido para o menos vendido.
+         */
+        public List<BestSellingBook> getBestSellingBooks() {
+            return bestSellingBooks;
+        }
+
+        /**
+         * @return Os IDs dos livros vendidos ao menos uma vez, sem repetições.
+         */
+        public List<Integer> getSoldBookIds() {
+            return soldBookIds;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.AuthorSales;
+import com.example.HavenBook.domain.BestSellingBook;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de estatísticas de vendas usadas pelo {@link StatisticService}, respondidas pela {@link SalesFactTable}
+ * em memória ou, com o mecanismo SQL, pelo {@link SaleSqlStore} com agregações no banco. Os intervalos são
+ * informados em dias desde a época, inclusive, e as vendas sem data ficam fora de qualquer intervalo.
+ */
+public interface SalesStatistics {
+
+    /**
+     * Obtém a receita total de todo o histórico.
+     *
+     * @return A receita total.
+     */
+    double getTotalRevenue();
+
+    /**
+     * Obtém o número total de livros vendidos em todo o histórico.
+     *
+     * @return O número total de livros vendidos.
+     */
+    long getTotalBookCount();
+
+    /**
+     * Soma a receita das vendas realizadas entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return A receita no intervalo.
+     */
+    double getRevenueBetween(int fromDay, int toDay);
+
+    /**
+     * Soma o número de livros vendidos entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return O número de livros vendidos no intervalo.
+     */
+    long getBookCountBetween(int fromDay, int toDay);
+
+    /**
+     * Obtém o número de livros vendidos por autor em todo o histórico, do autor com mais vendas para o com menos
+     * vendas.
+     *
+     * @param offset O número de autores a serem ignorados no início da lista.
+     * @param limit  O número máximo de autores retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code AuthorSales} com o nome do autor e o número de livros vendidos.
+     */
+    List<AuthorSales> getAuthorSales(int offset, Integer limit);
+
+    /**
+     * Obtém o número de livros vendidos por autor entre os dias fornecidos, inclusive, do autor com mais vendas
+     * para o com menos vendas.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @param offset  O número de autores a serem ignorados no início da lista.
+     * @param limit   O número máximo de autores retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code AuthorSales} com o nome do autor e o número de livros vendidos no intervalo.
+     */
+    List<AuthorSales> getAuthorSalesBetween(int fromDay, int toDay, int offset, Integer limit);
+
+    /**
+     * Obtém o número de vendas de cada título em todo o histórico, do mais vendido para o menos vendido.
+     *
+     * @param offset O número de títulos a serem ignorados no início da lista.
+     * @param limit  O número máximo de títulos retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code BestSellingBook} com o título e o número de vendas.
+     */
+    List<BestSellingBook> getBestSellingBooks(int offset, Integer limit);
+
+    /**
+     * Obtém o número de vendas de cada título entre os dias fornecidos, inclusive, do mais vendido para o menos
+     * vendido.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @param offset  O número de títulos a serem ignorados no início da lista.
+     * @param limit   O número máximo de títulos retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code BestSellingBook} com o título e o número de vendas no intervalo.
+     */
+    List<BestSellingBook> getBestSellingBooksBetween(int fromDay, int toDay, int offset, Integer limit);
+
+    /**
+     * Obtém os IDs dos livros vendidos ao menos uma vez em todo o histórico.
+     *
+     * @return A lista de IDs dos livros vendidos, sem repetições.
+     */
+    List<Integer> getSoldBookIds();
+
+    /**
+     * Obtém os IDs dos livros vendidos ao menos uma vez entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return A lista de IDs dos livros vendidos no intervalo, sem repetições.
+     */
+    List<Integer> getSoldBookIdsBetween(int fromDay, int toDay);
+
+    /**
+     * Obtém o número de exemplares vendidos de cada livro em todo o histórico.
+     *
+     * @return Um mapa do ID de cada livro vendido ao menos uma vez para o número de exemplares vendidos.
+     */
+    Map<Integer, Long> getBookSales();
+
+    /**
+     * Obtém o número de exemplares vendidos de cada livro entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return Um mapa do ID de cada livro vendido no intervalo para o número de exemplares vendidos.
+     */
+    Map<Integer, Long> getBookSalesBetween(int fromDay, int toDay);
+
+    /**
+     * Obtém todos os totais de vendas de todo o histórico.
+     *
+     * @return Os totais de vendas de todo o histórico.
+     */
+    SalesFactTable.Totals getTotals();
+
+    /**
+     * Calcula todos os totais de vendas entre os dias fornecidos, inclusive.
+     *
+     * @param fromDay O primeiro dia do intervalo, em dias desde a época.
+     * @param toDay   O último dia do intervalo, em dias desde a época.
+     * @return Os totais de vendas no intervalo.
+     */
+    SalesFactTable.Totals getTotalsBetween(int fromDay, int toDay);
+}
@@ -2,20 +2,19 @@ package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.AuthorSales;
 import com.example.HavenBook.domain.BestSellingBook;
-import com.example.HavenBook.domain.Book;
-import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.GenreSales;
+import com.example.HavenBook.domain.StatisticsSummary;
 import com.example.HavenBook.exceptions.InvalidDateException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.List;
 
 /**
  * Serviço para obter estatísticas de vendas, incluindo vendas por autor, receita total, contagem de livros e livros mais vendidos.
+ * Todas as estatísticas são calculadas sobre a {@link SalesFactTable} mantida pelo {@link SaleHistoryService} ou,
+ * com o mecanismo SQL, por agregações no banco do {@link SaleSqlStore}.
  */
 @Service
 public class StatisticService {
@@ -26,28 +25,24 @@ public class StatisticService {
     @Autowired
     private BookService _bookService;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
     /**
      * Obtém estatísticas de vendas por autor, que incluem o número total de livros vendidos por cada autor.
      *
      * @return Uma lista de {@code AuthorSales} contendo o nome do autor e o número total de livros vendidos.
      */
     public List<AuthorSales> getAuthorSalesStatistics() {
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-
-        Map<String, Integer> authorBookCount = new HashMap<>();
-
-        for (SaleHistory sale : saleHistories) {
-            for (Book book : sale.getBooks()) {
-                authorBookCount.put(book.getAuthor(), authorBookCount.getOrDefault(book.getAuthor(), 0) + 1);
-            }
-        }
+        return getAuthorSalesStatistics(0, null);
+    }
 
-        return authorBookCount.entrySet()
-                .stream()
-                .map(entry -> new AuthorSales(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
+    /**
+     * Obtém uma página das estatísticas de vendas por autor, do autor com mais vendas para o com menos vendas.
+     *
+     * @param offset O número de autores a serem ignorados no início da lista.
+     * @param limit  O número máximo de autores retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code AuthorSales} contendo o nome do autor e o número total de livros vendidos.
+     */
+    public List<AuthorSales> getAuthorSalesStatistics(int offset, Integer limit) {
+        return saleHistoryService.getStatistics().getAuthorSales(offset, limit);
     }
 
     /**
@@ -56,10 +51,7 @@ public class StatisticService {
      * @return O valor total da receita.
      */
     public double getTotalRevenue() {
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-        return saleHistories.stream()
-                .mapToDouble(SaleHistory::getTotalValue)
-                .sum();
+        return saleHistoryService.getStatistics().getTotalRevenue();
     }
 
     /**
@@ -68,10 +60,7 @@ public class StatisticService {
      * @return O número total de livros vendidos.
      */
     public long getTotalBookCount() {
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-        return saleHistories.stream()
-                .mapToLong(sale -> sale.getBooks().size())
-                .sum();
+        return saleHistoryService.getStatistics().getTotalBookCount();
     }
 
     /**
@@ -80,43 +69,38 @@ public class StatisticService {
      * @return Uma lista de {@code BestSellingBook} contendo o título do livro e o número total de vendas.
      */
     public List<BestSellingBook> getBestSellingBooks() {
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-        Map<String, Long> bookSalesCount = new HashMap<>();
+        return getBestSellingBooks(0, null);
+    }
 
-        for (SaleHistory sale : saleHistories) {
-            for (Book book : sale.getBooks()) {
-                bookSalesCount.put(book.getTitle(), bookSalesCount.getOrDefault(book.getTitle(), 0L) + 1);
-            }
-        }
+    /**
+     * Obtém uma página dos livros mais vendidos, ordenada pelo número de vezes que foram vendidos.
+     *
+     * @param offset O número de livros a serem ignorados no início da lista.
+     * @param limit  O número máximo de livros retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code BestSellingBook} contendo o título do livro e o número total de vendas.
+     */
+    public List<BestSellingBook> getBestSellingBooks(int offset, Integer limit) {
+        return saleHistoryService.getStatistics().getBestSellingBooks(offset, limit);
+    }
 
-        return bookSalesCount.entrySet()
-                .stream()
-                .map(entry -> new BestSellingBook(entry.getKey(), entry.getValue()))
-                .sorted(Comparator.comparingLong(BestSellingBook::getCount).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Obtém as estatísticas de vendas por gênero, do gênero com mais exemplares vendidos para o com menos. Os
+     * livros de cada gênero são obtidos do índice de gêneros do {@link BookService}; um livro com vários gêneros
+     * conta para cada um deles.
+     *
+     * @return Uma lista de {@code GenreSales} com o gênero e o número de exemplares vendidos.
+     */
+    public List<GenreSales> getGenreSalesStatistics() {
+        return _bookService.getGenreSales(saleHistoryService.getStatistics().getBookSales());
     }
 
     /**
-     * Conta o número de livros que nunca foram vendidos.
+     * Conta o número de livros que nunca foram vendidos. O custo é proporcional ao número de livros vendidos.
      *
      * @return O número de livros que nunca foram vendidos.
      */
     public long getNeverSoldBookCount() {
-        List<Book> allBooks = _bookService.getBooksFromJson();
-
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-        Set<String> soldBookTitles = new HashSet<>();
-
-        for (SaleHistory sale : saleHistories) {
-            for (Book book : sale.getBooks()) {
-                soldBookTitles.add(book.getTitle());
-            }
-        }
-
-        return allBooks.stream()
-                .map(Book::getTitle)
-                .filter(title -> !soldBookTitles.contains(title))
-                .count();
+        return _bookService.countBooksWithoutIds(saleHistoryService.getStatistics().getSoldBookIds());
     }
 
     /**
@@ -127,14 +111,7 @@ public class StatisticService {
      * @throws InvalidDateException Se a string de data for nula, vazia ou estiver em um formato inválido.
      */
     private LocalDate parseDate(String dateStr) {
-        if (dateStr == null || dateStr.isEmpty()) {
-            throw new InvalidDateException("A data não pode ser nula ou vazia");
-        }
-        try {
-            return LocalDate.parse(dateStr, DATE_FORMATTER);
-        } catch (DateTimeParseException e) {
-            throw new InvalidDateException("Formato de data inválido: " + dateStr);
-        }
+        return SaleDates.parseDate(dateStr);
     }
 
     /**
@@ -151,39 +128,60 @@ public class StatisticService {
     }
 
     /**
-     * Obtém estatísticas de vendas por autor para um intervalo de datas específico.
+     * Converte as strings de data em um intervalo de dias desde a época, usado pela tabela de fatos.
      *
      * @param startDateStr A string representando a data de início do intervalo.
      * @param endDateStr   A string representando a data de término do intervalo.
-     * @return Uma lista de {@code AuthorSales} contendo o nome do autor e o número total de livros vendidos no intervalo.
+     * @return Um vetor com o primeiro e o último dia do intervalo.
      * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
      */
-    public List<AuthorSales> getAuthorSalesStatistics(String startDateStr, String endDateStr) {
+    private int[] toDayRange(String startDateStr, String endDateStr) {
         LocalDate startDate = parseDate(startDateStr);
         LocalDate endDate = parseDate(endDateStr);
         validateDateRange(startDate, endDate);
+        return new int[]{(int) startDate.toEpochDay(), (int) endDate.toEpochDay()};
+    }
 
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-
-        List<SaleHistory> filteredSales = saleHistories.stream()
-                .filter(sale -> {
-                    LocalDate saleDate = parseDate(sale.getSaleDate());
-                    return !saleDate.isBefore(startDate) && !saleDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
-
-        Map<String, Integer> authorBookCount = new HashMap<>();
+    /**
+     * Obtém estatísticas de vendas por autor para um intervalo de datas específico.
+     *
+     * @param startDateStr A string representando a data de início do intervalo.
+     * @param endDateStr   A string representando a data de término do intervalo.
+     * @return Uma lista de {@code AuthorSales} contendo o nome do autor e o número total de livros vendidos no intervalo.
+     * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
+     */
+    public List<AuthorSales> getAuthorSalesStatistics(String startDateStr, String endDateStr) {
+        return getAuthorSalesStatistics(startDateStr, endDateStr, 0, null);
+    }
 
-        for (SaleHistory sale : filteredSales) {
-            for (Book book : sale.getBooks()) {
-                authorBookCount.put(book.getAuthor(), authorBookCount.getOrDefault(book.getAuthor(), 0) + 1);
-            }
-        }
+    /**
+     * Obtém uma página das estatísticas de vendas por autor para um intervalo de datas específico, do autor com
+     * mais vendas para o com menos vendas.
+     *
+     * @param startDateStr A string representando a data de início do intervalo.
+     * @param endDateStr   A string representando a data de término do intervalo.
+     * @param offset       O número de autores a serem ignorados no início da lista.
+     * @param limit        O número máximo de autores retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code AuthorSales} contendo o nome do autor e o número total de livros vendidos no intervalo.
+     * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
+     */
+    public List<AuthorSales> getAuthorSalesStatistics(String startDateStr, String endDateStr, int offset, Integer limit) {
+        int[] days = toDayRange(startDateStr, endDateStr);
+        return saleHistoryService.getStatistics().getAuthorSalesBetween(days[0], days[1], offset, limit);
+    }
 
-        return authorBookCount.entrySet()
-                .stream()
-                .map(entry -> new AuthorSales(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
+    /**
+     * Obtém as estatísticas de vendas por gênero para um intervalo de datas específico, do gênero com mais
+     * exemplares vendidos para o com menos.
+     *
+     * @param startDateStr A string representando a data de início do intervalo.
+     * @param endDateStr   A string representando a data de término do intervalo.
+     * @return Uma lista de {@code GenreSales} com o gênero e o número de exemplares vendidos no intervalo.
+     * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
+     */
+    public List<GenreSales> getGenreSalesStatistics(String startDateStr, String endDateStr) {
+        int[] days = toDayRange(startDateStr, endDateStr);
+        return _bookService.getGenreSales(saleHistoryService.getStatistics().getBookSalesBetween(days[0], days[1]));
     }
 
     /**
@@ -195,19 +193,8 @@ public class StatisticService {
      * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
      */
     public double getTotalRevenue(String startDateStr, String endDateStr) {
-        LocalDate startDate = parseDate(startDateStr);
-        LocalDate endDate = parseDate(endDateStr);
-        validateDateRange(startDate, endDate);
-
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-
-        return saleHistories.stream()
-                .filter(sale -> {
-                    LocalDate saleDate = parseDate(sale.getSaleDate());
-                    return !saleDate.isBefore(startDate) && !saleDate.isAfter(endDate);
-                })
-                .mapToDouble(SaleHistory::getTotalValue)
-                .sum();
+        int[] days = toDayRange(startDateStr, endDateStr);
+        return saleHistoryService.getStatistics().getRevenueBetween(days[0], days[1]);
     }
 
     /**
@@ -219,19 +206,8 @@ public class StatisticService {
      * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
      */
     public long getTotalBookCount(String startDateStr, String endDateStr) {
-        LocalDate startDate = parseDate(startDateStr);
-        LocalDate endDate = parseDate(endDateStr);
-        validateDateRange(startDate, endDate);
-
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-
-        return saleHistories.stream()
-                .filter(sale -> {
-                    LocalDate saleDate = parseDate(sale.getSaleDate());
-                    return !saleDate.isBefore(startDate) && !saleDate.isAfter(endDate);
-                })
-                .mapToLong(sale -> sale.getBooks().size())
-                .sum();
+        int[] days = toDayRange(startDateStr, endDateStr);
+        return saleHistoryService.getStatistics().getBookCountBetween(days[0], days[1]);
     }
 
     /**
@@ -243,32 +219,23 @@ public class StatisticService {
      * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
      */
     public List<BestSellingBook> getBestSellingBooks(String startDateStr, String endDateStr) {
-        LocalDate startDate = parseDate(startDateStr);
-        LocalDate endDate = parseDate(endDateStr);
-        validateDateRange(startDate, endDate);
-
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
-
-        List<SaleHistory> filteredSales = saleHistories.stream()
-                .filter(sale -> {
-                    LocalDate saleDate = parseDate(sale.getSaleDate());
-                    return !saleDate.isBefore(startDate) && !saleDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
-
-        Map<String, Long> bookSalesCount = new HashMap<>();
-
-        for (SaleHistory sale : filteredSales) {
-            for (Book book : sale.getBooks()) {
-                bookSalesCount.put(book.getTitle(), bookSalesCount.getOrDefault(book.getTitle(), 0L) + 1);
-            }
-        }
+        return getBestSellingBooks(startDateStr, endDateStr, 0, null);
+    }
 
-        return bookSalesCount.entrySet()
-                .stream()
-                .map(entry -> new BestSellingBook(entry.getKey(), entry.getValue()))
-                .sorted(Comparator.comparingLong(BestSellingBook::getCount).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Obtém uma página dos livros mais vendidos dentro de um intervalo de datas específico, ordenada pelo número
+     * de vezes que foram vendidos.
+     *
+     * @param startDateStr A string representando a data de início do intervalo.
+     * @param endDateStr   A string representando a data de término do intervalo.
+     * @param offset       O número de livros a serem ignorados no início da lista.
+     * @param limit        O número máximo de livros retornados, ou {@code null} para retornar todos.
+     * @return Uma lista de {@code BestSellingBook} contendo o título do livro e o número total de vendas dentro do intervalo.
+     * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
+     */
+    public List<BestSellingBook> getBestSellingBooks(String startDateStr, String endDateStr, int offset, Integer limit) {
+        int[] days = toDayRange(startDateStr, endDateStr);
+        return saleHistoryService.getStatistics().getBestSellingBooksBetween(days[0], days[1], offset, limit);
     }
 
     /**
@@ -280,26 +247,37 @@ public class StatisticService {
      * @throws InvalidDateException Se as datas fornecidas forem inválidas ou o intervalo de datas for inválido.
      */
     public long getNeverSoldBookCount(String startDateStr, String endDateStr) {
-        LocalDate startDate = parseDate(startDateStr);
-        LocalDate endDate = parseDate(endDateStr);
-        validateDateRange(startDate, endDate);
-
-        List<Book> allBooks = _bookService.getBooksFromJson();
+        int[] days = toDayRange(startDateStr, endDateStr);
+        return _bookService.countBooksWithoutIds(saleHistoryService.getStatistics().getSoldBookIdsBetween(days[0], days[1]));
+    }
 
-        List<SaleHistory> saleHistories = saleHistoryService.getSaleHistoriesFromJson();
+    /**
+     * Calcula, em uma única consulta à tabela de fatos, todas as estatísticas exibidas no painel: vendas por autor,
+     * receita total, número de livros vendidos, livros mais vendidos e livros nunca vendidos.
+     * Sem datas, considera todo o histórico; com datas, apenas as vendas do intervalo.
+     *
+     * @param startDateStr A string representando a data de início do intervalo, ou {@code null}.
+     * @param endDateStr   A string representando a data de término do intervalo, ou {@code null}.
+     * @return O resumo das estatísticas, incluindo o tempo gasto no cálculo.
+     * @throws InvalidDateException Se apenas uma das datas for informada, se as datas forem inválidas ou se o
+     *                              intervalo de datas for inválido.
+     */
+    public StatisticsSummary getSummary(String startDateStr, String endDateStr) {
+        long start = System.nanoTime();
+        SalesFactTable.Totals totals;
+        if (startDateStr == null && endDateStr == null) {
+            totals = saleHistoryService.getStatistics().getTotals();
+        } else if (startDateStr == null || endDateStr == null) {
+            throw new InvalidDateException("As datas de início e de término devem ser informadas juntas.");
+        } else {
+            int[] days = toDayRange(startDateStr, endDateStr);
+            totals = saleHistoryService.getStatistics().getTotalsBetween(days[0], days[1]);
+        }
 
-        Set<String> soldBookTitles = saleHistories.stream()
-                .filter(sale -> {
-                    LocalDate saleDate = parseDate(sale.getSaleDate());
-                    return !saleDate.isBefore(startDate) && !saleDate.isAfter(endDate);
-                })
-                .flatMap(sale -> sale.getBooks().stream())
-                .map(Book::getTitle)
-                .collect(Collectors.toSet());
+        long neverSoldBookCount = _bookService.countBooksWithoutIds(totals.getSoldBookIds());
 
-        return allBooks.stream()
-                .map(Book::getTitle)
-                .filter(title -> !soldBookTitles.contains(title))
-                .count();
+        double computationTimeMs = (System.nanoTime() - start) / 1_000_000.0;
+        return new StatisticsSummary(startDateStr, endDateStr, totals.getAuthorSales(), totals.getRevenue(),
+                totals.getBookCount(), totals.getBestSellingBooks(), neverSoldBookCount, computationTimeMs);
     }
 }
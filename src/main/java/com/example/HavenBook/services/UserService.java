@@ -2,8 +2,11 @@ package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.User;
 import com.example.HavenBook.domain.interfaces.IUserService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.HavenBook.persistence.EntityCodecs;
+import com.example.HavenBook.persistence.EntityRepository;
+import com.example.HavenBook.persistence.EntityStore;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.persistence.RepositoryFactory;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,15 +15,14 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Serviço para gerenciar usuários, incluindo operações de leitura, escrita, atualização e exclusão de usuários armazenados em um arquivo JSON.
+ * Serviço para gerenciar usuários, incluindo operações de leitura, escrita, atualização e exclusão de usuários guardados no mecanismo
+ * de armazenamento configurado em {@code storage.engine.users}.
  */
 @Service
 @PropertySource("classpath:application.properties")
@@ -29,34 +31,32 @@ public class UserService implements IUserService {
     private static final Logger LOGGER = Logger.getLogger(UserService.class.getName());
 
     private final ResourceLoader resourceLoader;
-    private final String absoluteJsonFilePath;
-
-    private List<User> users;
-    private int nextId;
+    private final EntityRepository<User> repository;
+    private final EntityStore<User> users;
 
     /**
      * Construtor da classe {@code UserService}.
      *
      * @param resourceLoader Carregador de recursos para obter o caminho absoluto do arquivo JSON.
      * @param jsonFilePath   Caminho para o arquivo JSON que armazena os usuários.
+     * @param persistenceScheduler O agendador de gravações que agrupa as alterações no arquivo JSON.
+     * @param repositoryFactory A fábrica do repositório dos usuários.
      */
     @Autowired
-    public UserService(ResourceLoader resourceLoader, @Value("${json.file.path:static/users.json}") String jsonFilePath) {
+    public UserService(ResourceLoader resourceLoader, @Value("${json.file.path:static/users.json}") String jsonFilePath,
+                       PersistenceScheduler persistenceScheduler, RepositoryFactory repositoryFactory) {
         this.resourceLoader = resourceLoader;
-        this.absoluteJsonFilePath = getAbsolutePath(jsonFilePath);
+        this.repository = repositoryFactory.create("users", getAbsolutePath(jsonFilePath), User.class,
+                EntityCodecs.USER, User::getId);
+        this.users = new EntityStore<>(this, repository, persistenceScheduler, User::setId);
     }
 
     /**
      * Inicializa o serviço carregando os usuários do arquivo JSON e define o próximo ID disponível.
      */
     @PostConstruct
-    public void init() {
-        this.users = getUsersFromJson();
-        if (this.users.isEmpty()) {
-            this.nextId = 1;
-        } else {
-            this.nextId = users.stream().mapToInt(User::getId).max().orElse(0) + 1;
-        }
+    public synchronized void init() {
+        users.load();
     }
 
     /**
@@ -77,23 +77,50 @@ public class UserService implements IUserService {
     }
 
     /**
-     * Obtém a lista de usuários a partir do arquivo JSON.
+     * Obtém a lista de usuários do armazenamento; com o mecanismo JSON, do snapshot, em JSON ou no formato binário.
      *
-     * @return Lista de {@code User} obtida do arquivo JSON.
-     * @throws RuntimeException Se ocorrer um erro ao ler o arquivo JSON.
+     * @return Lista de {@code User} obtida do armazenamento.
+     * @throws RuntimeException Se ocorrer um erro ao ler o armazenamento.
      */
-    public List<User> getUsersFromJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            if (!file.exists()) {
-                mapper.writeValue(file, List.of());
-            }
-            return mapper.readValue(file, new TypeReference<List<User>>() {});
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao ler o arquivo JSON", e);
-            throw new RuntimeException("Erro ao ler o arquivo JSON", e);
-        }
+    public synchronized List<User> getUsersFromJson() {
+        return repository.readAll();
+    }
+
+    /**
+     * Obtém todos os usuários a partir da cópia imutável mantida em memória, sem reler o arquivo JSON.
+     * A cópia é recriada apenas na primeira leitura após uma alteração.
+     *
+     * @return Uma lista imutável com todos os usuários.
+     */
+    @Override
+    public List<User> getAllUsers() {
+        return users.getAll();
+    }
+
+    /**
+     * Recarrega os usuários a partir do arquivo JSON, descartando o estado mantido em memória.
+     */
+    @Override
+    public synchronized void reload() {
+        init();
+    }
+
+    /**
+     * Recarrega os usuários apenas se o snapshot foi alterado fora da aplicação desde a última carga ou
+     * gravação. A tabela carregada substitui a anterior de uma só vez.
+     *
+     * @return {@code true} se os usuários foram recarregados.
+     */
+    @Override
+    public boolean reloadIfChanged() {
+        return users.reloadIfChanged();
+    }
+
+    /**
+     * Exporta os usuários mantidos em memória para o arquivo JSON, independentemente do formato do snapshot.
+     */
+    public synchronized void exportToJson() {
+        repository.exportJson(getAllUsers());
     }
 
     /**
@@ -102,9 +129,8 @@ public class UserService implements IUserService {
      * @param id ID do usuário.
      * @return O {@code User} com o ID especificado, ou {@code null} se não for encontrado.
      */
-    public User getUserById(int id) {
-        Optional<User> user = users.stream().filter(u -> u.getId() == id).findFirst();
-        return user.orElse(null);
+    public synchronized User getUserById(int id) {
+        return users.table().get(id);
     }
 
     /**
@@ -112,10 +138,12 @@ public class UserService implements IUserService {
      *
      * @param newUser O {@code User} a ser adicionado.
      */
-    public synchronized void addUser(User newUser) {
-        newUser.setId(nextId++);
-        users.add(newUser);
-        saveUsersToJson();
+    public void addUser(User newUser) {
+        users.applyChange(() -> {
+            newUser.setId(users.nextId());
+            users.table().put(newUser);
+            return true;
+        });
     }
 
     /**
@@ -124,15 +152,15 @@ public class UserService implements IUserService {
      * @param id          ID do usuário a ser atualizado.
      * @param updatedUser O {@code User} com as informações atualizadas.
      */
-    public synchronized void updateUser(int id, User updatedUser) {
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getId() == id) {
-                updatedUser.setId(id);
-                users.set(i, updatedUser);
-                saveUsersToJson();
-                return;
+    public void updateUser(int id, User updatedUser) {
+        users.applyChange(() -> {
+            if (!users.table().contains(id)) {
+                return false;
             }
-        }
+            updatedUser.setId(id);
+            users.table().put(updatedUser);
+            return true;
+        });
     }
 
     /**
@@ -140,24 +168,7 @@ public class UserService implements IUserService {
      *
      * @param id ID do usuário a ser removido.
      */
-    public synchronized void deleteUser(int id) {
-        users.removeIf(user -> user.getId() == id);
-        saveUsersToJson();
-    }
-
-    /**
-     * Salva a lista de usuários no arquivo JSON.
-     *
-     * @throws RuntimeException Se ocorrer um erro ao salvar o arquivo JSON.
-     */
-    private synchronized void saveUsersToJson() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(absoluteJsonFilePath);
-            mapper.writeValue(file, users);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao salvar o arquivo JSON", e);
-            throw new RuntimeException("Erro ao salvar o arquivo JSON", e);
-        }
+    public void deleteUser(int id) {
+        users.applyChange(() -> users.table().remove(id) != null);
     }
 }
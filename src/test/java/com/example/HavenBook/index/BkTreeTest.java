@@ -0,0 +1,71 @@
+package com.example.HavenBook.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link BkTree}.
+ */
+public class BkTreeTest {
+
+    /**
+     * Verifica o cálculo da distância de Levenshtein.
+     */
+    @Test
+    public void testDistance() {
+        assertEquals(0, BkTree.distance("casmurro", "casmurro"));
+        assertEquals(1, BkTree.distance("casmuro", "casmurro"));
+        assertEquals(2, BkTree.distance("alqimsta", "alquimista"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "dom "));
+    }
+
+    /**
+     * Verifica se a busca encontra os títulos e as palavras a até a distância máxima, ignorando acentos, e se
+     * ordena os resultados pela menor distância.
+     */
+    @Test
+    public void testSearch() {
+        BkTree tree = new BkTree();
+        tree.add(1, "Dom Casmurro");
+        tree.add(2, "O Alquimista");
+        tree.add(3, "Iracema");
+        tree.add(4, "Dom Quixote");
+
+        assertEquals(List.of(1), ids(tree.search("Dom Casmuro", 1)));
+        assertEquals(List.of(2), ids(tree.search("Alquimsta", 1)));
+        assertEquals(List.of(3), ids(tree.search("irácema", 0)));
+        assertTrue(tree.search("Alqimsta", 1).isEmpty());
+        assertEquals(List.of(2), ids(tree.search("Alqimsta", 2)));
+
+        List<BkTree.Hit> hits = tree.search("dom quixot", 2);
+        assertEquals(List.of(4), ids(hits));
+        assertEquals(1, hits.get(0).getDistance());
+    }
+
+    /**
+     * Verifica se os documentos removidos deixam de ser encontrados e se um termo removido pode voltar a ser
+     * incluído.
+     */
+    @Test
+    public void testRemove() {
+        BkTree tree = new BkTree();
+        tree.add(1, "Iracema");
+        tree.add(2, "Iracema");
+        tree.remove(1, "Iracema");
+        assertEquals(List.of(2), ids(tree.search("iracema", 1)));
+
+        tree.remove(2, "Iracema");
+        assertTrue(tree.search("iracema", 1).isEmpty());
+        tree.add(3, "Iracema");
+        assertEquals(List.of(3), ids(tree.search("iracena", 1)));
+        assertEquals(1, tree.termCount());
+    }
+
+    private static List<Integer> ids(List<BkTree.Hit> hits) {
+        return hits.stream().map(BkTree.Hit::getId).toList();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.HavenBook.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link CompressedBitmap}.
+ */
+public class CompressedBitmapTest {
+
+    /**
+     * Verifica a inclusão, a remoção e a consulta de valores em blocos esparsos e densos.
+     */
+    @Test
+    public void testAddRemoveContains() {
+        CompressedBitmap bitmap = CompressedBitmap.of(3, 1, 70_000, 3);
+        assertEquals(3, bitmap.cardinality());
+        assertArrayEquals(new int[]{1, 3, 70_000}, bitmap.toArray());
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(-1));
+
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i * 2);
+        }
+        assertEquals(10_003, bitmap.cardinality());
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.remove(i * 2);
+        }
+        assertArrayEquals(new int[]{1, 3, 70_000}, bitmap.toArray());
+
+        bitmap.remove(70_000);
+        bitmap.remove(1);
+        bitmap.remove(3);
+        assertTrue(bitmap.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-5));
+    }
+
+    /**
+     * Verifica se a interseção, a união, a diferença e a contagem da interseção coincidem com as de um
+     * {@link BitSet}, combinando blocos esparsos e densos.
+     */
+    @Test
+    public void testSetOperationsMatchBitSet() {
+        Random random = new Random(42);
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        for (int i = 0; i < 20_000; i++) {
+            int dense = random.nextInt(65_536);
+            a.add(dense);
+            expectedA.set(dense);
+            int sparse = random.nextInt(300_000);
+            b.add(sparse);
+            expectedB.set(sparse);
+            int shared = 131_072 + random.nextInt(65_536);
+            if (i % 3 == 0) {
+                a.add(shared);
+                expectedA.set(shared);
+            } else {
+                b.add(shared);
+                expectedB.set(shared);
+            }
+        }
+
+        BitSet and = (BitSet) expectedA.clone();
+        and.and(expectedB);
+        BitSet or = (BitSet) expectedA.clone();
+        or.or(expectedB);
+        BitSet andNot = (BitSet) expectedA.clone();
+        andNot.andNot(expectedB);
+
+        assertArrayEquals(and.stream().toArray(), a.and(b).toArray());
+        assertArrayEquals(or.stream().toArray(), a.or(b).toArray());
+        assertArrayEquals(andNot.stream().toArray(), a.andNot(b).toArray());
+        assertEquals(and.cardinality(), a.andCardinality(b));
+        assertEquals(expectedA.cardinality(), a.cardinality());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.HavenBook.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link DayFenwickTree}.
+ */
+public class DayFenwickTreeTest {
+
+    /**
+     * Compara as somas por intervalo com uma soma direta, incluindo registros fora do intervalo inicial,
+     * que forçam a ampliação da árvore para os dois lados.
+     */
+    @Test
+    public void testRangeSumsMatchDirectSums() {
+        DayFenwickTree tree = new DayFenwickTree();
+        int firstDay = 19_000;
+        double[] revenue = new double[2_000];
+        long[] count = new long[2_000];
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5_000; i++) {
+            int offset = random.nextInt(revenue.length);
+            double value = random.nextInt(10_000) / 100.0;
+            long books = 1 + random.nextInt(3);
+            tree.add(firstDay + offset, value, books);
+            revenue[offset] += value;
+            count[offset] += books;
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(revenue.length);
+            int to = from + random.nextInt(revenue.length - from);
+            double expectedRevenue = 0;
+            long expectedCount = 0;
+            for (int day = from; day <= to; day++) {
+                expectedRevenue += revenue[day];
+                expectedCount += count[day];
+            }
+            assertEquals(expectedRevenue, tree.sumRevenue(firstDay + from, firstDay + to), 0.0001);
+            assertEquals(expectedCount, tree.sumCount(firstDay + from, firstDay + to));
+        }
+    }
+
+    /**
+     * Verifica se valores negativos desfazem registros e se intervalos fora da árvore resultam em zero.
+     */
+    @Test
+    public void testRemovalAndEmptyRanges() {
+        DayFenwickTree tree = new DayFenwickTree();
+        tree.add(100, 10.0, 2);
+        tree.add(105, 5.0, 1);
+        tree.add(100, -10.0, -2);
+
+        assertEquals(5.0, tree.sumRevenue(0, 1_000), 0.0001);
+        assertEquals(1, tree.sumCount(100, 105));
+        assertEquals(0, tree.sumCount(-5_000, -4_000));
+        assertEquals(0, tree.sumRevenue(5_000, 6_000), 0.0001);
+    }
+}
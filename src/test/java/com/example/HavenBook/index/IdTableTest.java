@@ -0,0 +1,119 @@
+package com.example.HavenBook.index;
+
+import com.example.HavenBook.domain.Genre;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para as classes {@link IdTable} e {@link IntIntHashMap}.
+ */
+public class IdTableTest {
+
+    /**
+     * Verifica se consultas, substituições e remoções por ID mantêm a ordem de inserção.
+     */
+    @Test
+    public void testPutGetRemoveKeepsInsertionOrder() {
+        IdTable<Genre> table = new IdTable<>(Genre::getId);
+        table.put(new Genre(3, "Romance"));
+        table.put(new Genre(1, "Ficção"));
+        table.put(new Genre(2, "Drama"));
+
+        assertNotNull(table.put(new Genre(1, "Fantasia")));
+        assertNotNull(table.remove(3));
+        assertNull(table.remove(3));
+
+        assertEquals(2, table.size());
+        assertNull(table.get(3));
+        assertEquals("Fantasia", table.get(1).getName());
+        assertEquals(List.of("Fantasia", "Drama"), table.toList().stream().map(Genre::getName).toList());
+    }
+
+    /**
+     * Verifica se as entidades sem ID ou com ID repetido recebem novos IDs ao serem carregadas.
+     */
+    @Test
+    public void testLoadAssignsMissingAndDuplicatedIds() {
+        List<Genre> loaded = List.of(new Genre(0, "A"), new Genre(5, "B"), new Genre(5, "C"));
+
+        IdTable<Genre> table = IdTable.load(loaded, Genre::getId, Genre::setId);
+
+        assertEquals(3, table.size());
+        assertEquals(7, table.maxId());
+        assertEquals("B", table.get(5).getName());
+    }
+
+    /**
+     * Verifica se o carregador incremental atribui novos IDs às entidades pendentes ao final da carga.
+     */
+    @Test
+    public void testLoaderAssignsPendingIdsAtFinish() {
+        IdTable.Loader<Genre> loader = IdTable.loader(Genre::getId, Genre::setId);
+        loader.add(new Genre(0, "A"));
+        loader.add(new Genre(5, "B"));
+        loader.add(new Genre(5, "C"));
+        loader.add(new Genre(2, "D"));
+
+        IdTable<Genre> table = loader.finish();
+
+        assertEquals(4, table.size());
+        assertEquals(List.of("B", "D", "A", "C"), table.toList().stream().map(Genre::getName).toList());
+        assertEquals(6, table.get(6).getId());
+        assertEquals("C", table.get(7).getName());
+    }
+
+    /**
+     * Verifica a consistência do índice após muitas inserções e remoções, incluindo a compactação das posições.
+     */
+    @Test
+    public void testManyInsertionsAndRemovals() {
+        IdTable<Genre> table = new IdTable<>(Genre::getId);
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 1; id <= 10_000; id++) {
+            table.put(new Genre(id, "G" + id));
+        }
+        for (int id = 1; id <= 10_000; id++) {
+            if (id % 3 != 0) {
+                table.remove(id);
+            } else {
+                expected.add(id);
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        assertEquals(expected, table.toList().stream().map(Genre::getId).toList());
+        for (int id = 1; id <= 10_000; id++) {
+            assertEquals(id % 3 == 0, table.contains(id));
+        }
+    }
+
+    /**
+     * Verifica se a tabela criada sob demanda converte cada entidade apenas no primeiro acesso e obtém o maior ID
+     * sem converter nenhuma entidade.
+     */
+    @Test
+    public void testLazyTableDecodesOnFirstAccess() {
+        String[] names = {"Romance", "Ficção", "Drama"};
+        List<Integer> decoded = new ArrayList<>();
+        IdTable<Genre> table = IdTable.lazy(new int[]{5, 2, 9}, record -> {
+            decoded.add(record);
+            return new Genre(new int[]{5, 2, 9}[record], names[record]);
+        }, Genre::getId);
+
+        assertEquals(9, table.maxId());
+        assertTrue(table.contains(2));
+        assertTrue(decoded.isEmpty());
+
+        assertEquals("Ficção", table.get(2).getName());
+        assertEquals("Ficção", table.get(2).getName());
+        assertEquals(List.of(1), decoded);
+
+        assertEquals("Drama", table.remove(9).getName());
+        assertEquals(List.of("Romance", "Ficção"), table.toList().stream().map(Genre::getName).toList());
+        assertEquals(List.of(1, 2, 0), decoded);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.HavenBook.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para as classes {@link InvertedIndex} e {@link TextAnalyzer}.
+ */
+public class InvertedIndexTest {
+
+    /**
+     * Verifica se os termos são separados sem acentos, em minúsculas e sem as palavras muito frequentes.
+     */
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("memorias", "postumas", "bras", "cubas"), TextAnalyzer.tokenize("Memórias Póstumas de Brás Cubas"));
+        assertEquals("sao paulo", TextAnalyzer.fold("SÃO Paulo"));
+        assertTrue(TextAnalyzer.tokenize(null).isEmpty());
+    }
+
+    /**
+     * Verifica se os documentos com mais ocorrências dos termos raros da consulta ficam à frente e se a busca
+     * ignora acentos.
+     */
+    @Test
+    public void testSearchRanksByBm25() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "Dom Casmurro romance de Machado de Assis");
+        index.add(2, "O Cortiço romance naturalista");
+        index.add(3, "Casmurro: o ciúme de Bentinho em Dom Casmurro");
+        index.add(4, "Iracema romance indianista");
+
+        List<InvertedIndex.Hit> hits = index.search("casmurro", 10);
+        assertEquals(List.of(3, 1), hits.stream().map(InvertedIndex.Hit::getId).toList());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+        assertEquals(2, index.search("CORTIÇO", 10).get(0).getId());
+        assertEquals(4, index.search("romance ciume", 10).size());
+        assertEquals(1, index.search("romance", 1).size());
+        assertTrue(index.search("inexistente", 10).isEmpty());
+    }
+
+    /**
+     * Verifica se a remoção de um documento o retira das listas de todos os seus termos.
+     */
+    @Test
+    public void testRemove() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "Iracema");
+        index.add(2, "Iracema e Ubirajara");
+
+        index.remove(2, "Iracema e Ubirajara");
+        assertEquals(1, index.size());
+        assertEquals(1, index.termCount());
+        assertTrue(index.search("ubirajara", 10).isEmpty());
+        assertEquals(List.of(1), index.search("iracema", 10).stream().map(InvertedIndex.Hit::getId).toList());
+    }
+}
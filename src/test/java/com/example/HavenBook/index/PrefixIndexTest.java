@@ -0,0 +1,57 @@
+package com.example.HavenBook.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link PrefixIndex}.
+ */
+public class PrefixIndexTest {
+
+    /**
+     * Verifica se as entradas com uma palavra iniciada pelo prefixo são retornadas uma única vez, pela ordem de
+     * peso, sem diferenciar acentos nem maiúsculas.
+     */
+    @Test
+    public void testComplete() {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        int dom = builder.add("Dom Casmurro", 5);
+        int casa = builder.add("A Casa dos Budas Ditosos", 9);
+        int cortico = builder.add("O Cortiço", 1);
+        int casas = builder.add("Casas e Casamentos", 2);
+        PrefixIndex index = builder.build();
+
+        assertEquals(4, index.size());
+        assertEquals(List.of(casa, dom, casas), index.complete("cas", 10));
+        assertEquals(List.of(casa, dom), index.complete("CAS", 2));
+        assertEquals(List.of(cortico), index.complete("corti", 10));
+        assertEquals(List.of(casas), index.complete("casas e casam", 10));
+        assertEquals(List.of(casa), index.complete("a casa", 10));
+        assertTrue(index.complete("dos", 10).isEmpty());
+        assertTrue(index.complete("zz", 10).isEmpty());
+        assertEquals(List.of(casa, dom, casas, cortico), index.complete("", 10));
+    }
+
+    /**
+     * Verifica se a seleção das melhores entradas por divisão do intervalo coincide com a ordenação completa em
+     * um índice maior.
+     */
+    @Test
+    public void testTopEntriesInLargeRange() {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add("Livro " + i, (i * 7919L) % 1000);
+        }
+        PrefixIndex index = builder.build();
+
+        List<Integer> top = index.complete("livro", 5);
+        assertEquals(5, top.size());
+        for (int entry : top) {
+            assertTrue((entry * 7919L) % 1000 >= 995);
+        }
+        assertEquals(List.of(111), index.complete("livro 111", 1));
+    }
+}
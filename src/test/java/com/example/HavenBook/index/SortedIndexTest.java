@@ -0,0 +1,53 @@
+package com.example.HavenBook.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para as classes {@link SortedIndex} e {@link HashIndex}.
+ */
+public class SortedIndexTest {
+
+    /**
+     * Verifica se as consultas por intervalo incluem os limites, aceitam intervalos abertos e refletem as remoções.
+     */
+    @Test
+    public void testRange() {
+        SortedIndex<Integer> index = new SortedIndex<>();
+        index.add(100, 1);
+        index.add(200, 2);
+        index.add(200, 3);
+        index.add(300, 4);
+        index.add(null, 5);
+
+        assertEquals(Set.of(1, 2, 3), index.range(100, 200));
+        assertEquals(Set.of(2, 3, 4), index.range(150, null));
+        assertEquals(Set.of(1, 2, 3, 4), index.range(null, null));
+        assertTrue(index.range(300, 100).isEmpty());
+
+        index.remove(200, 2);
+        index.remove(300, 4);
+        assertEquals(Set.of(3), index.range(150, null));
+    }
+
+    /**
+     * Verifica se o índice por igualdade associa cada valor aos seus IDs e descarta os valores sem IDs.
+     */
+    @Test
+    public void testHashIndex() {
+        HashIndex<String> index = new HashIndex<>();
+        index.add("Romance", 1);
+        index.add("Romance", 2);
+        index.add("Drama", 2);
+
+        assertEquals(Set.of(1, 2), index.get("Romance"));
+        assertTrue(index.get("Poesia").isEmpty());
+
+        index.remove("Drama", 2);
+        assertEquals(1, index.size());
+        assertTrue(index.get("Drama").isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.HavenBook.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link TopK}.
+ */
+public class TopKTest {
+
+    /**
+     * Compara as páginas selecionadas pelo heap limitado com as mesmas páginas da lista inteira ordenada.
+     */
+    @Test
+    public void testSelectMatchesFullSort() {
+        Random random = new Random(7);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            values.add(random.nextInt(200));
+        }
+        Comparator<Integer> descending = Comparator.reverseOrder();
+        List<Integer> sorted = new ArrayList<>(values);
+        sorted.sort(descending);
+
+        assertEquals(sorted.subList(0, 10), TopK.select(values, descending, 0, 10));
+        assertEquals(sorted.subList(20, 25), TopK.select(values, descending, 20, 5));
+        assertEquals(sorted.subList(995, 1_000), TopK.select(values, descending, 995, 50));
+        assertEquals(sorted, TopK.select(values, descending, 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Verifica os casos de limite zero, deslocamento além do fim e parâmetros negativos.
+     */
+    @Test
+    public void testEdgeCases() {
+        List<Integer> values = List.of(3, 1, 2);
+
+        assertTrue(TopK.select(values, Comparator.naturalOrder(), 0, 0).isEmpty());
+        assertTrue(TopK.select(values, Comparator.naturalOrder(), 5, 2).isEmpty());
+        assertEquals(List.of(1, 2, 3), TopK.select(values, Comparator.naturalOrder(), 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> TopK.select(values, Comparator.naturalOrder(), -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> TopK.select(values, Comparator.naturalOrder(), 0, -2));
+    }
+}
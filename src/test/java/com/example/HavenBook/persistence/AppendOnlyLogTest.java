@@ -0,0 +1,60 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link AppendOnlyLog}.
+ */
+public class AppendOnlyLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicFileWriter writer = new AtomicFileWriter("never", 0);
+
+    /**
+     * Verifica se um registro inválido no meio do log é ignorado sem descartar os registros gravados depois dele,
+     * e se apenas o fragmento incompleto do final do arquivo é descartado.
+     */
+    @Test
+    public void testReplayKeepsRecordsAfterInvalidLine() throws IOException {
+        Path path = tempDir.resolve("books.log");
+        AppendOnlyLog<Book> log = new AppendOnlyLog<>(path, Book.class, writer);
+        log.append(LogEntry.Operation.ADD, 1, book("Dom Casmurro"));
+        log.close();
+        Files.write(path, "{\"operation\":\"ADD\",\"id\":2,\"val\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        log.append(LogEntry.Operation.ADD, 3, book("Memórias Póstumas de Brás Cubas"));
+        log.close();
+        Files.write(path, "{\"operation\":\"DELETE\",\"id\":1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        long lengthBeforeFragment = Files.size(path) - "{\"operation\":\"DELETE\",\"id\":1".length();
+
+        List<LogEntry<Book>> entries = log.replay();
+
+        assertEquals(2, entries.size());
+        assertEquals(1, entries.get(0).getId());
+        assertEquals(3, entries.get(1).getId());
+        assertEquals(lengthBeforeFragment, Files.size(path));
+        assertEquals(3, log.getEntryCount());
+
+        log.append(LogEntry.Operation.DELETE, 1, null);
+        log.close();
+        assertEquals(3, log.replay().size());
+        log.close();
+    }
+
+    private static Book book(String title) {
+        return new Book(title, "Machado de Assis", new Date(0), "Romance", List.of("Romance"), 200, 30.0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.HavenBook.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link AtomicFileWriter}.
+ */
+public class AtomicFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Verifica se uma gravação interrompida mantém o conteúdo anterior do arquivo e não deixa o arquivo temporário.
+     */
+    @Test
+    public void testFailedWriteKeepsPreviousContent() throws IOException {
+        AtomicFileWriter writer = new AtomicFileWriter("always", 0);
+        Path file = tempDir.resolve("books.json");
+        writer.write(file, out -> mapper.writeValue(out, List.of("Dom Casmurro")));
+
+        assertThrows(IOException.class, () -> writer.write(file, out -> {
+            out.write("[\"Memórias".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Falha simulada");
+        }));
+
+        assertEquals("[\"Dom Casmurro\"]", Files.readString(file));
+        assertFalse(Files.exists(tempDir.resolve("books.json.tmp")));
+        writer.shutdown();
+    }
+
+    /**
+     * Verifica se o número de gravações, os bytes gravados e as sincronizações são registrados por arquivo.
+     */
+    @Test
+    public void testRecordsMetrics() throws IOException {
+        AtomicFileWriter writer = new AtomicFileWriter("always", 0);
+        Path books = tempDir.resolve("books.json");
+        Path users = tempDir.resolve("users.json");
+        writer.write(books, out -> mapper.writeValue(out, List.of("a")));
+        writer.write(books, out -> mapper.writeValue(out, List.of("a", "b")));
+        writer.write(users, out -> mapper.writeValue(out, List.of()));
+
+        List<WriteMetrics> metrics = writer.getMetrics();
+        assertEquals(2, metrics.size());
+        WriteMetrics bookMetrics = metrics.get(0);
+        assertEquals(books.toAbsolutePath().toString(), bookMetrics.getFile());
+        assertEquals(2, bookMetrics.getWrites());
+        assertEquals(2, bookMetrics.getFsyncs());
+        assertEquals(Files.size(books), bookMetrics.getLastBytes());
+        assertEquals(Files.size(books) + 5, bookMetrics.getTotalBytes());
+
+        WriteMetrics totals = writer.getTotals();
+        assertEquals(3, totals.getWrites());
+        assertEquals(bookMetrics.getTotalBytes() + Files.size(users), totals.getTotalBytes());
+        assertTrue(totals.getMaxLatencyMs() >= totals.getAverageLatencyMs());
+        writer.shutdown();
+    }
+
+    /**
+     * Verifica se, com a política de intervalo, as gravações só são forçadas em disco na sincronização periódica,
+     * uma vez por arquivo.
+     */
+    @Test
+    public void testIntervalPolicySyncsPendingFiles() throws IOException {
+        AtomicFileWriter writer = new AtomicFileWriter("interval", 0);
+        Path file = tempDir.resolve("genres.json");
+        writer.write(file, out -> mapper.writeValue(out, List.of("Romance")));
+        writer.write(file, out -> mapper.writeValue(out, List.of("Drama")));
+        assertEquals(0, writer.getTotals().getFsyncs());
+
+        assertEquals(1, writer.syncPending());
+        assertEquals(0, writer.syncPending());
+        assertEquals(1, writer.getTotals().getFsyncs());
+        assertEquals(2, writer.getTotals().getWrites());
+        writer.shutdown();
+    }
+}
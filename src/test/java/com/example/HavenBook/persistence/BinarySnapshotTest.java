@@ -0,0 +1,123 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para as classes {@link BinarySnapshot} e {@link SnapshotStore}.
+ */
+public class BinarySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicFileWriter writer = new AtomicFileWriter("never", 0);
+
+    /**
+     * Verifica se os registros gravados são lidos com todos os campos, incluindo nulos e textos acentuados, e se
+     * a tabela de posições permite ler um registro isolado.
+     */
+    @Test
+    public void testRoundTrip() {
+        Book dom = new Book("Dom Casmurro", "Machado de Assis", new Date(0), "Romance clássico", Arrays.asList("Romance", "Clássico"), 256, 19.9);
+        dom.setId(7);
+        Book untitled = new Book(null, null, null, null, null, 0, 0);
+        untitled.setId(3);
+        Path file = tempDir.resolve("books.bin");
+
+        BinarySnapshot.write(writer, file, List.of(dom, untitled), Book::getId, EntityCodecs.BOOK);
+        BinarySnapshot<Book> snapshot = BinarySnapshot.open(file, EntityCodecs.BOOK);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(3, snapshot.idAt(1));
+        Book read = snapshot.decode(0);
+        assertEquals("Dom Casmurro", read.getTitle());
+        assertEquals(new Date(0), read.getPublicationDate());
+        assertEquals(List.of("Romance", "Clássico"), read.getGenres());
+        assertEquals(256, read.getNumberOfPages());
+        assertEquals(19.9, read.getValue(), 0.001);
+        assertNull(snapshot.decode(1).getTitle());
+        assertNull(snapshot.decode(1).getGenres());
+    }
+
+    /**
+     * Verifica se as vendas são lidas em ordem, com os itens e o título e o autor dos itens fora do catálogo, e se o
+     * progresso chega ao fim.
+     */
+    @Test
+    public void testReadsSalesInOrder() {
+        List<SaleHistory> sales = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            SaleHistory sale = new SaleHistory("2024-08-01", id);
+            sale.setId(id);
+            sale.getLines().add(new SaleLine(id % 5, 10.0, 2));
+            if (id % 10 == 0) {
+                sale.getLines().add(new SaleLine(SaleLine.UNKNOWN_BOOK_ID, 5.0, 1, "Iracema", null));
+            }
+            sales.add(sale);
+        }
+        Path file = tempDir.resolve("2024-08.bin");
+        BinarySnapshot.write(writer, file, sales, SaleHistory::getId, EntityCodecs.SALE_HISTORY);
+
+        List<SaleHistory> read = new ArrayList<>();
+        LoadProgress progress = new LoadProgress();
+        BinarySnapshot.open(file, EntityCodecs.SALE_HISTORY).read(read::add, progress);
+
+        assertEquals(100, read.size());
+        assertEquals(42, read.get(41).getId());
+        assertEquals(2, read.get(41).getLines().get(0).getQuantity());
+        assertEquals(2, read.get(41).getLines().get(0).getBookId());
+        assertNull(read.get(41).getLines().get(0).getTitle());
+        assertEquals("Iracema", read.get(39).getLines().get(1).getTitle());
+        assertNull(read.get(39).getLines().get(1).getAuthor());
+        assertNull(read.get(39).getLines().get(0).getTitle());
+        assertEquals(100.0, progress.getPercent(), 0.001);
+    }
+
+    /**
+     * Verifica se um arquivo que não é um snapshot binário é rejeitado.
+     */
+    @Test
+    public void testRejectsInvalidFile() throws IOException {
+        Path file = tempDir.resolve("books.bin");
+        Files.writeString(file, "[]");
+
+        assertThrows(RuntimeException.class, () -> BinarySnapshot.open(file, EntityCodecs.BOOK));
+    }
+
+    /**
+     * Verifica se o {@link SnapshotStore} grava no formato configurado, lê o arquivo mais recente e importa um
+     * arquivo JSON mais novo que o snapshot binário.
+     */
+    @Test
+    public void testSnapshotStoreReadsNewestFormat() throws IOException {
+        String jsonPath = tempDir.resolve("books.json").toString();
+        SnapshotStore<Book> store = new SnapshotStore<>(jsonPath, SnapshotFormat.BINARY, Book.class, EntityCodecs.BOOK, Book::getId, writer);
+        Book book = new Book("1984", "George Orwell", new Date(0), "Distopia", List.of("Distopia"), 328, 25.0);
+        book.setId(1);
+
+        assertTrue(store.readAll().isEmpty());
+        store.save(List.of(book));
+        assertTrue(Files.exists(tempDir.resolve("books.bin")));
+        assertEquals("1984", store.load(Book::setId).get(1).getTitle());
+
+        Book imported = new Book("Duna", "Frank Herbert", new Date(0), "Ficção", List.of(), 600, 40.0);
+        store.exportJson(List.of(book, imported));
+        assertTrue(tempDir.resolve("books.json").toFile().setLastModified(System.currentTimeMillis() + 10_000));
+        assertEquals(2, store.load(Book::setId).size());
+        assertEquals(2, store.load(Book::setId).get(2).getId());
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link DiskRecordStore}.
+ */
+public class DiskRecordStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger decodes = new AtomicInteger();
+    private DiskRecordStore<Book> store;
+
+    private final RecordCodec<Book> countingCodec = new RecordCodec<>() {
+        @Override
+        public void encode(Book item, DataOutput out) throws IOException {
+            EntityCodecs.BOOK.encode(item, out);
+        }
+
+        @Override
+        public Book decode(ByteBuffer buffer) {
+            decodes.incrementAndGet();
+            return EntityCodecs.BOOK.decode(buffer);
+        }
+    };
+
+    @AfterEach
+    public void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private DiskRecordStore<Book> open(int cacheSize) {
+        store = new DiskRecordStore<>(tempDir.resolve("books.dat"), tempDir.resolve("books.idx"), countingCodec,
+                Book::getId, cacheSize);
+        return store;
+    }
+
+    private static Book book(int id, String title) {
+        Book book = new Book(title, "Autor " + id, new Date(0), "Descrição", List.of("Romance"), 100 + id, 10.0 + id);
+        book.setId(id);
+        return book;
+    }
+
+    /**
+     * Verifica se os livros gravados são lidos com todos os campos e se o índice é relido ao reabrir os arquivos.
+     */
+    @Test
+    public void testRoundTripAndReopen() {
+        DiskRecordStore<Book> books = open(16);
+        books.put(book(1, "Dom Casmurro"));
+        books.put(book(5, "Iracema"));
+        books.sync();
+        books.close();
+
+        DiskRecordStore<Book> reopened = open(16);
+        assertEquals(2, reopened.size());
+        assertEquals(5, reopened.maxId());
+        assertTrue(reopened.contains(5));
+        assertFalse(reopened.contains(3));
+        Book read = reopened.get(5);
+        assertEquals("Iracema", read.getTitle());
+        assertEquals(105, read.getNumberOfPages());
+        assertEquals(List.of("Romance"), read.getGenres());
+        assertNull(reopened.get(3));
+        assertEquals(List.of("Dom Casmurro", "Iracema"), reopened.toList().stream().map(Book::getTitle).toList());
+    }
+
+    /**
+     * Verifica se um livro fora do cache é convertido uma única vez e se o cache mantém no máximo o número de
+     * livros configurado, descartando o acessado há mais tempo.
+     */
+    @Test
+    public void testBoundedLruCache() {
+        DiskRecordStore<Book> books = open(2);
+        for (int id = 1; id <= 4; id++) {
+            books.put(book(id, "Livro " + id));
+        }
+        books.reload();
+        decodes.set(0);
+
+        books.get(1);
+        books.get(2);
+        books.get(1);
+        assertEquals(2, decodes.get());
+
+        books.get(3);
+        assertEquals(3, decodes.get());
+        books.get(1);
+        assertEquals(3, decodes.get());
+        books.get(2);
+        assertEquals(4, decodes.get());
+    }
+
+    /**
+     * Verifica se a substituição e a remoção são preservadas após reabrir os arquivos.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        DiskRecordStore<Book> books = open(16);
+        books.put(book(1, "Original"));
+        books.put(book(2, "Removido"));
+
+        Book previous = books.put(book(1, "Atualizado"));
+        assertEquals("Original", previous.getTitle());
+        assertEquals("Removido", books.remove(2).getTitle());
+        assertNull(books.remove(2));
+        books.reload();
+
+        assertEquals(1, books.size());
+        assertEquals(1, books.maxId());
+        assertEquals("Atualizado", books.get(1).getTitle());
+        assertNull(books.get(2));
+    }
+
+    /**
+     * Verifica se o arquivo de dados é regravado quando os registros substituídos superam os atuais.
+     */
+    @Test
+    public void testCompactsReplacedRecords() throws IOException {
+        DiskRecordStore<Book> books = open(16);
+        books.put(book(1, "Fixo"));
+        for (int version = 0; version < 20_000; version++) {
+            books.put(book(2, "Versão " + version));
+        }
+
+        assertTrue(Files.size(tempDir.resolve("books.dat")) < 1L << 20);
+        assertEquals("Versão 19999", books.get(2).getTitle());
+        books.reload();
+        assertEquals("Fixo", books.get(1).getTitle());
+        assertEquals("Versão 19999", books.get(2).getTitle());
+    }
+
+    /**
+     * Verifica se uma compactação interrompida depois da marca é concluída na abertura, mesmo com apenas o arquivo
+     * de dados substituído, e se os temporários de uma compactação sem marca são descartados.
+     */
+    @Test
+    public void testFinishesInterruptedCompaction() throws IOException {
+        DiskRecordStore<Book> books = open(16);
+        books.put(book(2, "Compactado"));
+        books.close();
+        Files.copy(tempDir.resolve("books.dat"), tempDir.resolve("compactado.dat"));
+        Files.copy(tempDir.resolve("books.idx"), tempDir.resolve("compactado.idx"));
+        books = open(16);
+        books.put(book(1, "Anterior"));
+        books.put(book(2, "Anterior"));
+        books.close();
+        Files.move(tempDir.resolve("compactado.dat"), tempDir.resolve("books.dat.tmp"));
+        Files.move(tempDir.resolve("compactado.idx"), tempDir.resolve("books.idx.tmp"));
+        Files.createFile(tempDir.resolve("books.idx.compact"));
+        Files.move(tempDir.resolve("books.dat.tmp"), tempDir.resolve("books.dat"), StandardCopyOption.REPLACE_EXISTING);
+
+        books = open(16);
+        assertEquals(1, books.size());
+        assertEquals("Compactado", books.get(2).getTitle());
+        assertFalse(Files.exists(tempDir.resolve("books.idx.compact")));
+        assertFalse(Files.exists(tempDir.resolve("books.idx.tmp")));
+
+        Files.write(tempDir.resolve("books.idx.tmp"), new byte[]{1, 2, 3});
+        books.reload();
+        assertEquals("Compactado", books.get(2).getTitle());
+        assertFalse(Files.exists(tempDir.resolve("books.idx.tmp")));
+    }
+
+    /**
+     * Verifica se a remoção de todos os livros esvazia os arquivos.
+     */
+    @Test
+    public void testClear() throws IOException {
+        DiskRecordStore<Book> books = open(16);
+        books.put(book(1, "Livro"));
+        books.clear();
+
+        assertEquals(0, books.size());
+        assertEquals(0, books.maxId());
+        assertNull(books.get(1));
+        assertEquals(0, Files.size(tempDir.resolve("books.idx")));
+    }
+}
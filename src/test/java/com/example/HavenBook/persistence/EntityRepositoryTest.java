@@ -0,0 +1,197 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.Genre;
+import com.example.HavenBook.index.RecordTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para os repositórios criados pela {@link RepositoryFactory} em cada {@link StorageEngine}.
+ */
+public class EntityRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PersistenceScheduler scheduler = new PersistenceScheduler("sync", 0, 1);
+    private final AtomicFileWriter writer = new AtomicFileWriter("never", 0);
+    private final MockEnvironment environment = new MockEnvironment();
+    private RepositoryFactory factory = new RepositoryFactory(environment, scheduler, writer);
+
+    @AfterEach
+    public void tearDown() {
+        factory.close();
+    }
+
+    private EntityRepository<Genre> create(String engine) {
+        environment.setProperty("storage.engine.genres", engine);
+        environment.setProperty("storage.sql.url", "jdbc:h2:file:" + tempDir.resolve("havenbook"));
+        return factory.create("genres", tempDir.resolve("genres.json").toString(), Genre.class, EntityCodecs.GENRE,
+                Genre::getId);
+    }
+
+    private void seed() {
+        SnapshotStore<Genre> snapshot = new SnapshotStore<>(tempDir.resolve("genres.json").toString(),
+                SnapshotFormat.JSON, Genre.class, EntityCodecs.GENRE, Genre::getId, writer);
+        snapshot.save(List.of(new Genre(1, "Romance"), new Genre(0, "Poesia"), new Genre(1, "Drama")));
+    }
+
+    /**
+     * Verifica, em um mecanismo, se o snapshot é importado com novos IDs para os IDs inválidos ou repetidos e se
+     * as alterações confirmadas são lidas por um novo repositório.
+     */
+    private void assertPersistsChanges(String engine) {
+        seed();
+        EntityRepository<Genre> repository = create(engine);
+        RecordTable<Genre> genres = repository.load(Genre::setId);
+        assertEquals(3, genres.size());
+        assertEquals(3, genres.maxId());
+        assertEquals("Romance", genres.get(1).getName());
+
+        genres.put(new Genre(4, "Fantasia"));
+        genres.remove(2);
+        repository.flush(genres::toList);
+        factory.close();
+
+        factory = new RepositoryFactory(environment, scheduler, writer);
+        RecordTable<Genre> reloaded = create(engine).load(Genre::setId);
+        assertEquals(3, reloaded.size());
+        assertNull(reloaded.get(2));
+        assertEquals("Fantasia", reloaded.get(4).getName());
+    }
+
+    @Test
+    public void testJsonEngine() {
+        assertPersistsChanges("json");
+        assertInstanceOf(JsonRepository.class, create("json"));
+    }
+
+    /**
+     * Verifica se o snapshot só é relido quando os arquivos mudam e se apenas as alterações feitas fora do
+     * repositório são detectadas.
+     */
+    @Test
+    public void testDetectsExternalChanges() {
+        seed();
+        EntityRepository<Genre> repository = create("json");
+        RecordTable<Genre> genres = repository.load(Genre::setId);
+        assertFalse(repository.hasChanged());
+        assertSame(repository.readAll(), repository.readAll());
+
+        genres.put(new Genre(4, "Fantasia"));
+        repository.flush(genres::toList);
+        assertFalse(repository.hasChanged());
+        assertEquals(4, repository.readAll().size());
+
+        seed();
+        assertTrue(repository.hasChanged());
+        assertEquals(3, repository.readAll().size());
+        assertEquals(3, repository.load(Genre::setId).size());
+        assertFalse(repository.hasChanged());
+    }
+
+    @Test
+    public void testSqlEngine() {
+        assertPersistsChanges("sql");
+    }
+
+    /**
+     * Verifica se uma recarga do mecanismo SQL mantém as alterações já aplicadas cujo lote ainda não foi
+     * confirmado.
+     */
+    @Test
+    public void testSqlReloadKeepsPendingChanges() {
+        seed();
+        EntityRepository<Genre> repository = create("sql");
+        RecordTable<Genre> genres = repository.load(Genre::setId);
+        genres.put(new Genre(4, "Fantasia"));
+
+        RecordTable<Genre> reloaded = repository.load(Genre::setId);
+        assertEquals("Fantasia", reloaded.get(4).getName());
+        factory.close();
+
+        factory = new RepositoryFactory(environment, scheduler, writer);
+        assertEquals("Fantasia", create("sql").load(Genre::setId).get(4).getName());
+    }
+
+    @Test
+    public void testDiskEngine() {
+        assertPersistsChanges("disk");
+    }
+
+    @Test
+    public void testLogEngine() {
+        assertPersistsChanges("log");
+    }
+
+    /**
+     * Verifica se o snapshot do mecanismo em log incorpora os registros do log, descartando-os somente depois de
+     * forçar o snapshot em disco mesmo com a política {@code never}, e se as alterações feitas depois do snapshot
+     * continuam sendo lidas do log.
+     */
+    @Test
+    public void testLogEngineSnapshot() {
+        seed();
+        EntityRepository<Genre> repository = create("log");
+        RecordTable<Genre> genres = repository.load(Genre::setId);
+        assertFalse(repository.snapshot(this, genres::toList));
+
+        genres.put(new Genre(4, "Fantasia"));
+        genres.remove(2);
+        repository.flush(genres::toList);
+        assertEquals(2, repository.getLogStatus("genres").getLogEntries());
+        assertEquals(3, create("json").readAll().size());
+
+        assertTrue(repository.snapshot(this, genres::toList));
+        assertEquals(0, repository.getLogStatus("genres").getLogEntries());
+        assertEquals(1, repository.getLogStatus("genres").getSnapshotCount());
+        String snapshotFile = tempDir.resolve("genres.json").toAbsolutePath().toString();
+        assertEquals(1, writer.getMetrics().stream().filter(metrics -> metrics.getFile().equals(snapshotFile))
+                .findFirst().orElseThrow().getFsyncs());
+        List<Genre> snapshot = create("json").readAll();
+        assertEquals(3, snapshot.size());
+        assertEquals("Fantasia", snapshot.get(2).getName());
+
+        genres.put(new Genre(5, "Poesia"));
+        repository.flush(genres::toList);
+        assertEquals(1, repository.getLogStatus("genres").getLogEntries());
+        assertEquals(4, repository.readAll().size());
+        assertEquals(4, repository.load(Genre::setId).size());
+        assertNull(create("json").getLogStatus("genres"));
+    }
+
+    /**
+     * Verifica se o mecanismo em memória carrega o snapshot e nunca o altera.
+     */
+    @Test
+    public void testMemoryEngineNeverWrites() {
+        seed();
+        EntityRepository<Genre> repository = create("memory");
+        RecordTable<Genre> genres = repository.load(Genre::setId);
+        genres.put(new Genre(4, "Fantasia"));
+        repository.flush(genres::toList);
+
+        assertEquals(4, repository.readAll().size());
+        assertEquals(3, create("json").readAll().size());
+        assertEquals(3, repository.load(Genre::setId).size());
+    }
+
+    /**
+     * Verifica se o mecanismo padrão é usado para as entidades sem mecanismo configurado.
+     */
+    @Test
+    public void testDefaultEngine() {
+        assertEquals(StorageEngine.JSON, factory.getEngine("books"));
+        environment.setProperty("storage.engine.default", "sql");
+        assertEquals(StorageEngine.SQL, factory.getEngine("books"));
+        environment.setProperty("storage.engine.books", "memory");
+        assertEquals(StorageEngine.MEMORY, factory.getEngine("books"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.Genre;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link EntityStore}.
+ */
+public class EntityStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PersistenceScheduler scheduler = new PersistenceScheduler("sync", 0, 1);
+    private final AtomicFileWriter writer = new AtomicFileWriter("never", 0);
+    private final RepositoryFactory factory = new RepositoryFactory(new MockEnvironment(), scheduler, writer);
+
+    @AfterEach
+    public void tearDown() {
+        factory.close();
+    }
+
+    private EntityRepository<Genre> repository() {
+        return factory.create("genres", tempDir.resolve("genres.json").toString(), Genre.class, EntityCodecs.GENRE,
+                Genre::getId);
+    }
+
+    private void seed(Genre... genres) {
+        new SnapshotStore<>(tempDir.resolve("genres.json").toString(), SnapshotFormat.JSON, Genre.class,
+                EntityCodecs.GENRE, Genre::getId, writer).save(List.of(genres));
+    }
+
+    /**
+     * Verifica se a carga define o próximo ID, se a cópia imutável só é recriada após uma alteração e se as
+     * alterações são gravadas no repositório.
+     */
+    @Test
+    public void testAppliesChangesAndKeepsSnapshot() {
+        seed(new Genre(1, "Romance"), new Genre(5, "Drama"));
+        EntityRepository<Genre> repository = repository();
+        EntityStore<Genre> store = new EntityStore<>(this, repository, scheduler, Genre::setId);
+        store.load();
+        List<Genre> before = store.getAll();
+        assertSame(before, store.getAll());
+
+        store.applyChange(() -> false);
+        assertSame(before, store.getAll());
+
+        store.applyChange(() -> {
+            Genre genre = new Genre(0, "Poesia");
+            genre.setId(store.nextId());
+            store.table().put(genre);
+            return true;
+        });
+        assertNotSame(before, store.getAll());
+        assertEquals(3, store.getAll().size());
+        assertEquals("Poesia", store.table().get(6).getName());
+        assertEquals(3, repository().readAll().size());
+    }
+
+    /**
+     * Verifica se as entidades só são recarregadas quando o snapshot muda fora da aplicação e se a ação de carga
+     * é executada a cada carga.
+     */
+    @Test
+    public void testReloadsOnlyExternalChanges() {
+        seed(new Genre(1, "Romance"));
+        AtomicInteger loads = new AtomicInteger();
+        EntityStore<Genre> store = new EntityStore<>(this, repository(), scheduler, Genre::setId,
+                loads::incrementAndGet);
+        store.load();
+        assertFalse(store.reloadIfChanged());
+        assertEquals(1, loads.get());
+
+        seed(new Genre(1, "Romance"), new Genre(2, "Drama"));
+        assertTrue(store.reloadIfChanged());
+        assertEquals(2, loads.get());
+        assertEquals(2, store.getAll().size());
+        assertEquals(3, store.nextId());
+    }
+}
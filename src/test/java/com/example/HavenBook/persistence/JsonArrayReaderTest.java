@@ -0,0 +1,67 @@
+package com.example.HavenBook.persistence;
+
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link JsonArrayReader}.
+ */
+public class JsonArrayReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Verifica se as entidades são entregues uma a uma, na ordem do arquivo, e se o progresso chega ao fim.
+     */
+    @Test
+    public void testReadsEveryItemInOrder() throws IOException {
+        List<SaleHistory> sales = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            SaleHistory sale = new SaleHistory("2024-08-01", id);
+            sale.setId(id);
+            sale.getLines().add(new SaleLine(id % 7, 10.0, 1));
+            sales.add(sale);
+        }
+        File file = tempDir.resolve("sales.json").toFile();
+        new ObjectMapper().writeValue(file, sales);
+
+        List<Integer> ids = new ArrayList<>();
+        LoadProgress progress = new LoadProgress();
+        long count = new JsonArrayReader<>(SaleHistory.class).read(file, sale -> ids.add(sale.getId()), progress);
+
+        assertEquals(500, count);
+        assertEquals(1, ids.get(0));
+        assertEquals(500, ids.get(499));
+        assertEquals(500, progress.getItemsRead());
+        assertEquals(100.0, progress.getPercent(), 0.001);
+        assertFalse(progress.isLoading());
+    }
+
+    /**
+     * Verifica se arquivos que não contêm uma lista ou que terminam antes do fim da lista são rejeitados.
+     */
+    @Test
+    public void testRejectsInvalidFiles() throws IOException {
+        JsonArrayReader<SaleHistory> reader = new JsonArrayReader<>(SaleHistory.class);
+        File notArray = Files.writeString(tempDir.resolve("object.json"), "{\"id\": 1}").toFile();
+        File truncated = Files.writeString(tempDir.resolve("truncated.json"), "[{\"id\": 1}, {\"id\": 2}").toFile();
+
+        assertThrows(RuntimeException.class, () -> reader.read(notArray, sale -> { }, new LoadProgress()));
+        List<SaleHistory> read = new ArrayList<>();
+        assertThrows(RuntimeException.class, () -> reader.read(truncated, read::add, new LoadProgress()));
+        assertEquals(2, read.size());
+    }
+}
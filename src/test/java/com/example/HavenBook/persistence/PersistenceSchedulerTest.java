@@ -0,0 +1,84 @@
+package com.example.HavenBook.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link PersistenceScheduler}.
+ */
+public class PersistenceSchedulerTest {
+
+    /**
+     * Verifica se, no modo síncrono, cada operação executa a sua própria gravação antes de retornar.
+     */
+    @Test
+    public void testSyncModeFlushesEveryOperation() {
+        PersistenceScheduler scheduler = new PersistenceScheduler("sync", 50, 64);
+        AtomicInteger flushes = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            CompletableFuture<Void> ticket = scheduler.submit("file", flushes::incrementAndGet);
+            assertTrue(ticket.isDone());
+        }
+
+        assertEquals(5, flushes.get());
+        scheduler.shutdown();
+    }
+
+    /**
+     * Verifica se, no modo de gravação em grupo, as operações dentro da janela são gravadas uma única vez.
+     */
+    @Test
+    public void testGroupCommitCoalescesOperations() {
+        PersistenceScheduler scheduler = new PersistenceScheduler("group-commit", 50, 64);
+        AtomicInteger flushes = new AtomicInteger();
+
+        List<CompletableFuture<Void>> tickets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tickets.add(scheduler.submit("file", flushes::incrementAndGet));
+        }
+        tickets.forEach(scheduler::awaitDurability);
+
+        assertEquals(1, flushes.get());
+        scheduler.shutdown();
+    }
+
+    /**
+     * Verifica se um lote é gravado antecipadamente ao atingir o número máximo de operações.
+     */
+    @Test
+    public void testGroupCommitFlushesFullBatch() {
+        PersistenceScheduler scheduler = new PersistenceScheduler("group-commit", 60_000, 3);
+        AtomicInteger flushes = new AtomicInteger();
+
+        CompletableFuture<Void> ticket = null;
+        for (int i = 0; i < 3; i++) {
+            ticket = scheduler.submit("file", flushes::incrementAndGet);
+        }
+        scheduler.awaitDurability(ticket);
+
+        assertEquals(1, flushes.get());
+        scheduler.shutdown();
+    }
+
+    /**
+     * Verifica se uma falha na gravação é propagada aos chamadores do lote.
+     */
+    @Test
+    public void testFlushFailureIsPropagated() {
+        PersistenceScheduler scheduler = new PersistenceScheduler("group-commit", 1, 64);
+
+        CompletableFuture<Void> ticket = scheduler.submit("file", () -> {
+            throw new IllegalStateException("falha");
+        });
+
+        assertThrows(IllegalStateException.class, () -> scheduler.awaitDurability(ticket));
+        scheduler.shutdown();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.Activity;
+import com.example.HavenBook.domain.LogStatus;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,7 +30,7 @@ public class ActivityServiceTest {
 
     /**
      * Configura o ambiente de teste antes de cada método de teste.
-     * Inicializa o arquivo JSON com atividades de exemplo.
+     * Incorpora o log de alterações ao snapshot e inicializa o arquivo JSON com atividades de exemplo.
      */
     @BeforeEach
     public void setup() throws IOException {
@@ -39,6 +40,7 @@ public class ActivityServiceTest {
                 new Activity("Activity 1", 1, new Date()),
                 new Activity("Activity 2", 2, new Date())
         );
+        activityService.snapshotLog();
         mapper.writeValue(resource.getFile(), initialActivities);
         activityService.init();
     }
@@ -101,4 +103,25 @@ public class ActivityServiceTest {
         Activity retrievedActivity = activityService.getActivityById(newActivity.getId());
         assertNull(retrievedActivity);
     }
+
+    /**
+     * Testa o método {@link ActivityService#snapshotLog()}.
+     * Verifica se as atividades registradas no log são gravadas no arquivo JSON e descartadas do log.
+     */
+    @Test
+    public void testSnapshotLog() throws IOException {
+        activityService.addActivity(new Activity("New Activity", 3, new Date()));
+        assertEquals(1, activityService.getLogStatus().getLogEntries());
+        assertEquals(2, mapper.readValue(resource.getFile(), Activity[].class).length);
+
+        assertTrue(activityService.snapshotLog());
+        assertFalse(activityService.snapshotLog());
+
+        LogStatus status = activityService.getLogStatus();
+        assertEquals(0, status.getLogEntries());
+        assertEquals(0, status.getLogBytes());
+        assertNotNull(status.getLastSnapshotTime());
+        assertEquals(3, mapper.readValue(resource.getFile(), Activity[].class).length);
+        assertEquals(3, activityService.getActivityFromJson().size());
+    }
 }
@@ -0,0 +1,135 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Author;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.Genre;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.Suggestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link AutocompleteService}.
+ */
+@SpringBootTest
+public class AutocompleteServiceTest {
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private SaleHistoryService saleHistoryService;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Configura o ambiente de teste antes de cada método de teste.
+     * Inicializa os arquivos JSON com três livros, seus autores e gêneros e duas vendas.
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        Book dom = createBook(1, "Dom Casmurro", "Machado de Assis", "Romance", "Clássico");
+        Book memorias = createBook(2, "Memórias Póstumas de Brás Cubas", "Machado de Assis", "Romance");
+        Book macunaima = createBook(3, "Macunaíma", "Mário de Andrade", "Modernismo");
+        mapper.writeValue(new ClassPathResource("static/books.json").getFile(), List.of(dom, memorias, macunaima));
+        mapper.writeValue(new ClassPathResource("static/authors.json").getFile(),
+                List.of(new Author("Machado de Assis"), new Author("Mário de Andrade")));
+        mapper.writeValue(new ClassPathResource("static/genres.json").getFile(),
+                List.of(new Genre("Romance"), new Genre("Clássico"), new Genre("Modernismo")));
+
+        saleHistoryService.compact();
+        File partitionDirectory = new ClassPathResource("static/saleHistories").getFile();
+        mapper.writeValue(new File(partitionDirectory.getParentFile(), "saleHistories.json"), List.of(
+                createSale(1, "2024-08-01", macunaima, macunaima, memorias),
+                createSale(2, "2024-08-15", macunaima)
+        ));
+
+        bookService.init();
+        authorService.init();
+        genreService.init();
+        saleHistoryService.init();
+        autocompleteService.refresh();
+    }
+
+    /**
+     * Verifica se as sugestões ignoram acentos e maiúsculas, encontram palavras no meio do texto e são ordenadas
+     * pelas vendas.
+     */
+    @Test
+    public void testComplete() {
+        List<Suggestion> titles = autocompleteService.complete("MA", Suggestion.Type.TITLE, 10);
+        assertEquals(List.of("Macunaíma"), texts(titles));
+        assertEquals(3, titles.get(0).getSales());
+
+        assertEquals(List.of("Memórias Póstumas de Brás Cubas"), texts(autocompleteService.complete("bras", Suggestion.Type.TITLE, 10)));
+        assertEquals(List.of("Mário de Andrade", "Machado de Assis"), texts(autocompleteService.complete("ma", Suggestion.Type.AUTHOR, 10)));
+        assertEquals(List.of("Modernismo", "Romance"), texts(autocompleteService.complete("", Suggestion.Type.GENRE, 2)));
+        assertEquals(1, autocompleteService.complete("classi", Suggestion.Type.GENRE, 10).size());
+        assertTrue(autocompleteService.complete("xyz", null, 10).isEmpty());
+
+        List<Suggestion> all = autocompleteService.complete("m", null, 3);
+        assertEquals(3, all.size());
+        assertTrue(all.stream().allMatch(suggestion -> suggestion.getSales() == 3));
+    }
+
+    /**
+     * Verifica se as alterações do catálogo são sugeridas depois da recriação em segundo plano iniciada pela
+     * consulta que encontra os índices desatualizados.
+     */
+    @Test
+    public void testFollowsCatalogChanges() {
+        assertTrue(autocompleteService.complete("iracema", Suggestion.Type.TITLE, 10).isEmpty());
+
+        bookService.addBook(new Book("Iracema", "José de Alencar", new Date(), "Description", Arrays.asList("Romance"), 100, 10.0));
+        authorService.addAuthor(new Author("José de Alencar"));
+        autocompleteService.complete("irac", Suggestion.Type.TITLE, 10);
+        autocompleteService.refreshInBackground().join();
+
+        assertEquals(List.of("Iracema"), texts(autocompleteService.complete("irac", Suggestion.Type.TITLE, 10)));
+        assertEquals(List.of("José de Alencar"), texts(autocompleteService.complete("jose", Suggestion.Type.AUTHOR, 10)));
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).toList();
+    }
+
+    /**
+     * Cria um livro com o ID e os gêneros fornecidos.
+     */
+    private Book createBook(int id, String title, String author, String... genres) {
+        Book book = new Book(title, author, new Date(), "Description", Arrays.asList(genres), 100, 10.0);
+        book.setId(id);
+        return book;
+    }
+
+    /**
+     * Cria um registro de venda com os livros fornecidos e o valor total correspondente.
+     */
+    private SaleHistory createSale(int id, String saleDate, Book... books) {
+        SaleHistory sale = new SaleHistory(saleDate, Arrays.stream(books).mapToDouble(Book::getValue).sum());
+        sale.setId(id);
+        Arrays.stream(books).forEach(sale::addBook);
+        return sale;
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.HavenBook.services;
 
 import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.BookFilter;
+import com.example.HavenBook.domain.GenreFacet;
+import com.example.HavenBook.persistence.AtomicFileWriter;
+import com.example.HavenBook.persistence.PersistenceScheduler;
+import com.example.HavenBook.persistence.RepositoryFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
+import org.springframework.mock.env.MockEnvironment;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -57,6 +66,24 @@ public class BookServiceTest {
         assertEquals("Title 1", books.get(0).getTitle());
     }
 
+    /**
+     * Testa o método {@link BookService#getAllBooks()}.
+     * Verifica se a cópia em memória é imutável e reflete as alterações feitas pelo serviço.
+     */
+    @Test
+    public void testGetAllBooks() {
+        List<Book> before = bookService.getAllBooks();
+        assertEquals(2, before.size());
+        assertThrows(UnsupportedOperationException.class, () -> before.add(new Book()));
+
+        bookService.addBook(new Book("New Title", "New Author", new Date(), "New Description", Arrays.asList("New Genre"), 300, 39.99));
+
+        List<Book> after = bookService.getAllBooks();
+        assertEquals(2, before.size());
+        assertEquals(3, after.size());
+        assertEquals("New Title", after.get(2).getTitle());
+    }
+
     /**
      * Testa o método {@link BookService#addBook(Book)}.
      * Verifica se um novo livro é adicionado corretamente.
@@ -103,4 +130,210 @@ public class BookServiceTest {
         Book retrievedBook = bookService.getBookById(newBook.getId());
         assertNull(retrievedBook);
     }
+
+    /**
+     * Testa o método {@link BookService#reloadIfChanged()}.
+     * Verifica se os livros são recarregados apenas quando o arquivo JSON é alterado fora do serviço.
+     */
+    @Test
+    public void testReloadIfChanged() throws IOException {
+        assertFalse(bookService.reloadIfChanged());
+
+        List<Book> editedBooks = List.of(
+                new Book("Title 1", "Author 1", new Date(), "Description 1", Arrays.asList("Genre1"), 200, 19.99),
+                new Book("Title 2", "Author 2", new Date(), "Description 2", Arrays.asList("Genre2"), 250, 29.99),
+                new Book("Title 3", "Author 3", new Date(), "Description 3", Arrays.asList("Genre3"), 300, 39.99)
+        );
+        mapper.writeValue(resource.getFile(), editedBooks);
+        assertTrue(bookService.reloadIfChanged());
+        assertEquals(3, bookService.getAllBooks().size());
+        assertFalse(bookService.reloadIfChanged());
+
+        bookService.addBook(new Book("Title 4", "Author 4", new Date(), "Description 4", Arrays.asList("Genre4"), 120, 9.99));
+        assertFalse(bookService.reloadIfChanged());
+        assertEquals(4, bookService.getBooksFromJson().size());
+    }
+
+    /**
+     * Testa o método {@link BookService#findBooks(BookFilter)} com o mecanismo SQL.
+     * Verifica se o critério de autor, sozinho ou combinado com outros critérios, é respondido pela coluna do autor
+     * no banco, incluindo os livros adicionados depois da carga.
+     */
+    @Test
+    public void testFindBooksByAuthorWithSqlEngine() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("storage.engine.books", "sql");
+        environment.setProperty("storage.sql.url", "jdbc:h2:mem:books-by-author");
+        PersistenceScheduler scheduler = new PersistenceScheduler("sync", 0, 1);
+        RepositoryFactory factory = new RepositoryFactory(environment, scheduler, new AtomicFileWriter("never", 0));
+        BookService sqlBookService = new BookService(new DefaultResourceLoader(), "static/books.json", scheduler, factory);
+        try {
+            sqlBookService.init();
+            sqlBookService.addBook(new Book("Title 3", "Author 1", new Date(), "Description 3", Arrays.asList("Genre3"), 120, 9.99));
+
+            BookFilter byAuthor = new BookFilter();
+            byAuthor.setAuthor("Author 1");
+            assertEquals(List.of("Title 1", "Title 3"), sqlBookService.findBooks(byAuthor).stream().map(Book::getTitle).toList());
+
+            BookFilter combined = new BookFilter("Author 1", "Genre3", null, 10.0, null, null, null, null, null, null, null);
+            assertEquals(List.of("Title 3"), sqlBookService.findBooks(combined).stream().map(Book::getTitle).toList());
+
+            byAuthor.setAuthor("Unknown");
+            assertTrue(sqlBookService.findBooks(byAuthor).isEmpty());
+        } finally {
+            factory.close();
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Testa o método {@link BookService#reload()} com o mecanismo em disco.
+     * Verifica se um catálogo esvaziado pela exclusão de todos os livros continua vazio após a recarga e após
+     * reabrir o armazenamento, sem reimportar o snapshot.
+     */
+    @Test
+    public void testDiskEngineKeepsEmptyCatalog() throws IOException {
+        File directory = resource.getFile().getParentFile();
+        Files.deleteIfExists(new File(directory, "books.dat").toPath());
+        Files.deleteIfExists(new File(directory, "books.idx").toPath());
+        MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("storage.engine.books", "disk");
+        PersistenceScheduler scheduler = new PersistenceScheduler("sync", 0, 1);
+        RepositoryFactory factory = new RepositoryFactory(environment, scheduler, new AtomicFileWriter("never", 0));
+        RepositoryFactory reopened = new RepositoryFactory(environment, scheduler, new AtomicFileWriter("never", 0));
+        try {
+            BookService diskBookService = new BookService(new DefaultResourceLoader(), "static/books.json", scheduler, factory);
+            diskBookService.init();
+            assertEquals(2, diskBookService.getAllBooks().size());
+
+            diskBookService.getAllBooks().forEach(book -> diskBookService.deleteBook(book.getId()));
+            diskBookService.reload();
+            assertTrue(diskBookService.getAllBooks().isEmpty());
+            factory.close();
+
+            BookService reopenedService = new BookService(new DefaultResourceLoader(), "static/books.json", scheduler, reopened);
+            reopenedService.init();
+            assertTrue(reopenedService.getAllBooks().isEmpty());
+        } finally {
+            factory.close();
+            reopened.close();
+            scheduler.shutdown();
+            Files.deleteIfExists(new File(directory, "books.dat").toPath());
+            Files.deleteIfExists(new File(directory, "books.idx").toPath());
+        }
+    }
+
+    /**
+     * Testa o método {@link BookService#findBooks(BookFilter)}.
+     * Verifica se os critérios combinados são respondidos pelos índices e se os índices acompanham as inclusões,
+     * alterações e exclusões.
+     */
+    @Test
+    public void testFindBooks() {
+        BookFilter byAuthor = new BookFilter();
+        byAuthor.setAuthor("Author 1");
+        assertEquals(1, bookService.findBooks(byAuthor).size());
+
+        bookService.addBook(new Book("Title 3", "Author 1", new Date(86_400_000L * 365), "Description 3", Arrays.asList("Genre1", "Genre3"), 120, 9.99));
+        Book expensive = new Book("Title 4", "Author 1", new Date(86_400_000L * 730), "Description 4", Arrays.asList("Genre3"), 500, 59.99);
+        bookService.addBook(expensive);
+        assertEquals(3, bookService.findBooks(byAuthor).size());
+
+        BookFilter combined = new BookFilter("Author 1", "Genre3", 10.0, null, null, 600, null, null, null, null, null);
+        List<Book> found = bookService.findBooks(combined);
+        assertEquals(1, found.size());
+        assertEquals("Title 4", found.get(0).getTitle());
+
+        BookFilter byPages = new BookFilter(null, null, null, null, 100, 200, null, null, null, null, null);
+        assertEquals(List.of("Title 1", "Title 3"), bookService.findBooks(byPages).stream().map(Book::getTitle).toList());
+
+        BookFilter byDate = new BookFilter(null, null, null, null, null, null, new Date(0), new Date(86_400_000L * 400), null, null, null);
+        assertEquals(List.of("Title 3"), bookService.findBooks(byDate).stream().map(Book::getTitle).toList());
+
+        bookService.updateBook(expensive.getId(), new Book("Title 4", "Author 4", new Date(), "Description 4", Arrays.asList("Genre3"), 500, 5.0));
+        assertTrue(bookService.findBooks(combined).isEmpty());
+        assertEquals(2, bookService.findBooks(byAuthor).size());
+
+        bookService.deleteBook(1);
+        assertEquals(List.of("Title 3"), bookService.findBooks(byAuthor).stream().map(Book::getTitle).toList());
+        assertEquals(bookService.getAllBooks().size(), bookService.findBooks(new BookFilter()).size());
+        assertTrue(bookService.findBooks(new BookFilter(null, null, 50.0, 10.0, null, null, null, null, null, null, null)).isEmpty());
+    }
+
+    /**
+     * Testa o método {@link BookService#searchBooks(String, int)}.
+     * Verifica se a busca ignora acentos, ordena pela relevância e acompanha as inclusões, alterações e exclusões.
+     */
+    @Test
+    public void testSearchBooks() {
+        assertTrue(bookService.searchBooks("memorias", 10).isEmpty());
+
+        Book memorias = new Book("Memórias Póstumas de Brás Cubas", "Machado de Assis", new Date(), "Romance narrado por um defunto autor", Arrays.asList("Romance"), 200, 29.9);
+        bookService.addBook(memorias);
+        bookService.addBook(new Book("Memórias de um Sargento de Milícias", "Manuel Antônio de Almeida", new Date(), "Memórias de Leonardo, romance de costumes", Arrays.asList("Romance"), 180, 19.9));
+
+        List<Book> found = bookService.searchBooks("MEMORIAS", 10);
+        assertEquals(List.of("Memórias de um Sargento de Milícias", "Memórias Póstumas de Brás Cubas"), found.stream().map(Book::getTitle).toList());
+        assertEquals(1, bookService.searchBooks("memórias", 1).size());
+
+        bookService.updateBook(memorias.getId(), new Book("Dom Casmurro", "Machado de Assis", new Date(), "Bentinho e Capitu", Arrays.asList("Romance"), 256, 34.9));
+        assertEquals(1, bookService.searchBooks("memorias", 10).size());
+        assertEquals("Dom Casmurro", bookService.searchBooks("capitu", 10).get(0).getTitle());
+
+        bookService.deleteBook(memorias.getId());
+        assertTrue(bookService.searchBooks("capitu", 10).isEmpty());
+    }
+
+    /**
+     * Testa os filtros de gênero de {@link BookService#findBooks(BookFilter)} e o método
+     * {@link BookService#getGenreFacets(BookFilter)}.
+     * Verifica as combinações de gêneros exigidos, alternativos e excluídos, as contagens por gênero e se o índice
+     * de gêneros acompanha as alterações.
+     */
+    @Test
+    public void testGenreFiltersAndFacets() {
+        bookService.addBook(new Book("Dom Casmurro", "Machado de Assis", new Date(), "Description", Arrays.asList("Romance", "Clássico"), 256, 34.9));
+        bookService.addBook(new Book("Iracema", "José de Alencar", new Date(), "Description", Arrays.asList("Romance", "Indianista"), 120, 19.9));
+        Book macunaima = new Book("Macunaíma", "Mário de Andrade", new Date(), "Description", Arrays.asList("Modernismo", "Clássico"), 200, 29.9);
+        bookService.addBook(macunaima);
+
+        BookFilter allOf = new BookFilter();
+        allOf.setGenres(List.of("Romance", "Clássico"));
+        assertEquals(List.of("Dom Casmurro"), titles(bookService.findBooks(allOf)));
+
+        BookFilter anyOf = new BookFilter();
+        anyOf.setAnyGenres(List.of("Indianista", "Modernismo"));
+        assertEquals(List.of("Iracema", "Macunaíma"), titles(bookService.findBooks(anyOf)));
+
+        BookFilter excluding = new BookFilter();
+        excluding.setGenre("Clássico");
+        excluding.setExcludedGenres(List.of("Romance"));
+        assertEquals(List.of("Macunaíma"), titles(bookService.findBooks(excluding)));
+
+        BookFilter onlyExcluding = new BookFilter();
+        onlyExcluding.setExcludedGenres(List.of("Romance", "Genre2"));
+        assertEquals(List.of("Title 1", "Macunaíma"), titles(bookService.findBooks(onlyExcluding)));
+
+        BookFilter combined = new BookFilter();
+        combined.setAnyGenres(List.of("Clássico"));
+        combined.setMaxPages(220);
+        assertEquals(List.of("Macunaíma"), titles(bookService.findBooks(combined)));
+
+        BookFilter romance = new BookFilter();
+        romance.setGenres(List.of("Romance"));
+        List<GenreFacet> facets = bookService.getGenreFacets(romance);
+        assertEquals(List.of("Romance", "Clássico", "Indianista"), facets.stream().map(GenreFacet::getGenre).toList());
+        assertEquals(List.of(2, 1, 1), facets.stream().map(GenreFacet::getCount).toList());
+        assertEquals(6, bookService.getGenreFacets(new BookFilter()).size());
+
+        bookService.updateBook(macunaima.getId(), new Book("Macunaíma", "Mário de Andrade", new Date(), "Description", Arrays.asList("Modernismo"), 200, 29.9));
+        assertTrue(bookService.findBooks(excluding).isEmpty());
+        bookService.deleteBook(macunaima.getId());
+        assertTrue(bookService.findBooks(anyOf).stream().noneMatch(book -> book.getTitle().equals("Macunaíma")));
+        assertTrue(bookService.getGenreFacets(new BookFilter()).stream().noneMatch(facet -> facet.getGenre().equals("Modernismo")));
+    }
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).toList();
+    }
 }
@@ -0,0 +1,138 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Author;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.FuzzyMatch;
+import com.example.HavenBook.domain.SaleHistory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link FuzzySearchService}.
+ */
+@SpringBootTest
+public class FuzzySearchServiceTest {
+
+    @Autowired
+    private FuzzySearchService fuzzySearchService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private SaleHistoryService saleHistoryService;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Configura o ambiente de teste antes de cada método de teste.
+     * Inicializa os arquivos JSON com três livros, dois autores e uma venda.
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        Book casmurro = createBook(1, "Dom Casmurro", "Machado de Assis");
+        Book casmurra = createBook(2, "Dona Casmurra", "Machado de Assis");
+        Book alquimista = createBook(3, "O Alquimista", "Paulo Coelho");
+        mapper.writeValue(new ClassPathResource("static/books.json").getFile(), List.of(casmurro, casmurra, alquimista));
+        mapper.writeValue(new ClassPathResource("static/authors.json").getFile(),
+                List.of(new Author("Machado de Assis"), new Author("Paulo Coelho")));
+
+        saleHistoryService.compact();
+        File partitionDirectory = new ClassPathResource("static/saleHistories").getFile();
+        mapper.writeValue(new File(partitionDirectory.getParentFile(), "saleHistories.json"),
+                List.of(createSale(1, "2024-08-01", casmurra, casmurra, alquimista)));
+
+        bookService.init();
+        authorService.init();
+        saleHistoryService.init();
+    }
+
+    /**
+     * Verifica se os títulos com erros de digitação são encontrados e ordenados pela distância e pelas vendas.
+     */
+    @Test
+    public void testFindBooks() {
+        List<FuzzyMatch<Book>> matches = fuzzySearchService.findBooks("Dom Casmuro", 2, 10);
+        assertEquals(List.of("Dom Casmurro"), titles(matches));
+        assertEquals(1, matches.get(0).getDistance());
+
+        List<FuzzyMatch<Book>> byWord = fuzzySearchService.findBooks("casmura", 2, 10);
+        assertEquals(List.of("Dona Casmurra", "Dom Casmurro"), titles(byWord));
+        assertEquals(2, byWord.get(0).getSales());
+        assertEquals(List.of("O Alquimista"), titles(fuzzySearchService.findBooks("Alquimsta", 2, 10)));
+        assertTrue(fuzzySearchService.findBooks("Alquimsta", 0, 10).isEmpty());
+        assertEquals(1, fuzzySearchService.findBooks("casmura", 2, 1).size());
+    }
+
+    /**
+     * Verifica se a árvore dos títulos acompanha as inclusões, alterações e exclusões de livros.
+     */
+    @Test
+    public void testFollowsBookChanges() {
+        assertTrue(fuzzySearchService.findBooks("Iracena", 2, 10).isEmpty());
+
+        Book iracema = new Book("Iracema", "José de Alencar", new Date(), "Description", Arrays.asList("Romance"), 100, 10.0);
+        bookService.addBook(iracema);
+        assertEquals(List.of("Iracema"), titles(fuzzySearchService.findBooks("Iracena", 2, 10)));
+
+        bookService.updateBook(iracema.getId(), new Book("Ubirajara", "José de Alencar", new Date(), "Description", Arrays.asList("Romance"), 100, 10.0));
+        assertTrue(fuzzySearchService.findBooks("Iracena", 2, 10).isEmpty());
+        assertEquals(List.of("Ubirajara"), titles(fuzzySearchService.findBooks("Ubirajra", 2, 10)));
+
+        bookService.deleteBook(iracema.getId());
+        assertTrue(fuzzySearchService.findBooks("Ubirajra", 2, 10).isEmpty());
+    }
+
+    /**
+     * Verifica se os nomes de autores com erros de digitação são encontrados e se a árvore acompanha as alterações.
+     */
+    @Test
+    public void testFindAuthors() {
+        List<FuzzyMatch<Author>> matches = fuzzySearchService.findAuthors("Machado de Asis", 2, 10);
+        assertEquals(1, matches.size());
+        assertEquals("Machado de Assis", matches.get(0).getItem().getName());
+        assertEquals(2, matches.get(0).getSales());
+
+        authorService.addAuthor(new Author("Clarice Lispector"));
+        assertEquals("Clarice Lispector", fuzzySearchService.findAuthors("Lispetor", 2, 10).get(0).getItem().getName());
+        assertTrue(fuzzySearchService.findAuthors("Joao", 2, 10).isEmpty());
+    }
+
+    private static List<String> titles(List<FuzzyMatch<Book>> matches) {
+        return matches.stream().map(match -> match.getItem().getTitle()).toList();
+    }
+
+    /**
+     * Cria um livro com o ID fornecido.
+     */
+    private Book createBook(int id, String title, String author) {
+        Book book = new Book(title, author, new Date(), "Description", Arrays.asList("Romance"), 100, 10.0);
+        book.setId(id);
+        return book;
+    }
+
+    /**
+     * Cria um registro de venda com os livros fornecidos e o valor total correspondente.
+     */
+    private SaleHistory createSale(int id, String saleDate, Book... books) {
+        SaleHistory sale = new SaleHistory(saleDate, Arrays.stream(books).mapToDouble(Book::getValue).sum());
+        sale.setId(id);
+        Arrays.stream(books).forEach(sale::addBook);
+        return sale;
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import com.example.HavenBook.domain.SalePartitionInfo;
+import com.example.HavenBook.exceptions.InvalidDateException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link SaleHistoryService}.
+ */
+@SpringBootTest
+public class SaleHistoryServiceTest {
+
+    @Autowired
+    private SaleHistoryService saleHistoryService;
+
+    @Autowired
+    private BookService bookService;
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private File partitionDirectory;
+    private File legacyFile;
+
+    /**
+     * Configura o ambiente de teste antes de cada método de teste.
+     * Esvazia o log de alterações e grava registros de vendas de exemplo no arquivo do formato anterior, que
+     * substitui as partições na leitura.
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        partitionDirectory = new ClassPathResource("static/saleHistories").getFile();
+        legacyFile = new File(partitionDirectory.getParentFile(), "saleHistories.json");
+
+        List<SaleHistory> initialSales = List.of(
+                createSale(1, "2024-08-01", "Title 1", "Author 1", 19.99),
+                createSale(2, "2024-08-02", "Title 2", "Author 2", 29.99)
+        );
+        saleHistoryService.compact();
+        mapper.writeValue(legacyFile, initialSales);
+
+        saleHistoryService.init();
+    }
+
+    /**
+     * Testa o método {@link SaleHistoryService#addSaleHistory(SaleHistory)}.
+     * Verifica se uma venda registrada apenas no log é recuperada após recarregar o serviço.
+     */
+    @Test
+    public void testAddSaleHistoryIsReplayedFromLog() throws IOException {
+        SaleHistory newSale = createSale(0, "2024-08-03", "Title 3", "Author 3", 39.99);
+        saleHistoryService.addSaleHistory(newSale);
+
+        List<SaleHistory> fileSales = mapper.readValue(legacyFile, new TypeReference<List<SaleHistory>>() {});
+        assertEquals(2, fileSales.size());
+
+        saleHistoryService.init();
+        assertEquals(3, saleHistoryService.getAllSaleHistories().size());
+        assertNotNull(saleHistoryService.getSaleHistoryById(newSale.getId()));
+    }
+
+    /**
+     * Testa os métodos {@link SaleHistoryService#updateSaleHistory(int, SaleHistory)} e
+     * {@link SaleHistoryService#deleteSaleHistory(int)}.
+     * Verifica se atualizações e exclusões registradas no log são reaplicadas na ordem correta.
+     */
+    @Test
+    public void testUpdateAndDeleteAreReplayedFromLog() {
+        saleHistoryService.updateSaleHistory(1, createSale(0, "2024-09-01", "Updated", "Author 1", 9.99));
+        saleHistoryService.deleteSaleHistory(2);
+
+        saleHistoryService.init();
+        List<SaleHistory> sales = saleHistoryService.getAllSaleHistories();
+        assertEquals(1, sales.size());
+        assertEquals("2024-09-01", sales.get(0).getSaleDate());
+        assertNull(saleHistoryService.getSaleHistoryById(2));
+    }
+
+    /**
+     * Testa o método {@link SaleHistoryService#compact()}.
+     * Verifica se a compactação incorpora o log às partições, substitui o arquivo do formato anterior e remove as
+     * partições que ficaram sem vendas.
+     */
+    @Test
+    public void testCompact() throws IOException {
+        saleHistoryService.addSaleHistory(createSale(0, "2024-08-03", "Title 3", "Author 3", 39.99));
+
+        saleHistoryService.compact();
+
+        assertFalse(legacyFile.exists());
+        List<SaleHistory> fileSales = mapper.readValue(new File(partitionDirectory, "2024-08.json"), new TypeReference<List<SaleHistory>>() {});
+        assertEquals(3, fileSales.size());
+        List<SalePartitionInfo> partitions = saleHistoryService.getPartitions();
+        assertEquals(1, partitions.size());
+        assertEquals("2024-08", partitions.get(0).getPartition());
+        assertEquals(3, partitions.get(0).getSaleCount());
+        assertEquals("2024-08-01", partitions.get(0).getMinDate());
+        assertEquals("2024-08-03", partitions.get(0).getMaxDate());
+        assertEquals(89.97, partitions.get(0).getTotalRevenue(), 0.001);
+
+        saleHistoryService.init();
+        assertEquals(3, saleHistoryService.getAllSaleHistories().size());
+    }
+
+    /**
+     * Testa o método {@link SaleHistoryService#compact()}.
+     * Verifica se a compactação grava apenas as partições dos meses alterados.
+     */
+    @Test
+    public void testCompactWritesOnlyChangedPartitions() {
+        saleHistoryService.compact();
+        File august = new File(partitionDirectory, "2024-08.json");
+        assertTrue(august.delete());
+
+        saleHistoryService.addSaleHistory(createSale(0, "2024-09-10", "Title 3", "Author 3", 39.99));
+        saleHistoryService.compact();
+
+        assertFalse(august.exists());
+        assertTrue(new File(partitionDirectory, "2024-09.json").exists());
+        assertEquals(2, saleHistoryService.getPartitions().size());
+    }
+
+    /**
+     * Testa a conversão de vendas no formato antigo e o método {@link SaleHistoryService#expandBooks(SaleHistory)}.
+     * Verifica se os livros completos são substituídos por itens que referenciam o livro do catálogo de mesmo
+     * título e autor, e não o de mesmo ID, na gravação e obtidos do catálogo na expansão, se os livros fora do
+     * catálogo mantêm o título e o autor nos itens e nas estatísticas e se o arquivo do formato anterior é mantido
+     * como cópia na compactação.
+     */
+    @Test
+    public void testLegacyBooksAreStoredAsLines() throws IOException {
+        Book otherBook = new Book("Other", "Author 1", new Date(), "Description", Arrays.asList("Genre"), 100, 19.99);
+        otherBook.setId(1);
+        Book catalogBook = new Book("Title 1", "Author 1", new Date(), "Description", Arrays.asList("Genre"), 100, 19.99);
+        catalogBook.setId(7);
+        mapper.writeValue(new ClassPathResource("static/books.json").getFile(), List.of(otherBook, catalogBook));
+        bookService.init();
+        saleHistoryService.init();
+
+        SaleHistory sale = saleHistoryService.getSaleHistoryById(1);
+        assertEquals(1, sale.getLines().size());
+        assertEquals(7, sale.getLines().get(0).getBookId());
+        assertEquals(19.99, sale.getLines().get(0).getUnitPrice(), 0.001);
+        assertTrue(sale.getBooks().isEmpty());
+        assertNull(sale.getLines().get(0).getTitle());
+        SaleLine unknownLine = saleHistoryService.getSaleHistoryById(2).getLines().get(0);
+        assertEquals(SaleLine.UNKNOWN_BOOK_ID, unknownLine.getBookId());
+        assertEquals("Title 2", unknownLine.getTitle());
+        assertEquals("Author 2", unknownLine.getAuthor());
+
+        saleHistoryService.compact();
+        String json = new String(Files.readAllBytes(new File(partitionDirectory, "2024-08.json").toPath()));
+        assertFalse(json.contains("\"books\""));
+        assertFalse(json.contains("Description"));
+        assertFalse(legacyFile.exists());
+        assertTrue(new File(legacyFile.getPath() + ".bak").exists());
+
+        saleHistoryService.init();
+        assertEquals("Title 2", saleHistoryService.getSaleHistoryById(2).getLines().get(0).getTitle());
+        assertTrue(saleHistoryService.getStatistics().getBestSellingBooks(0, null).stream()
+                .anyMatch(book -> book.getTitle().equals("Title 2")));
+        assertTrue(saleHistoryService.getStatistics().getAuthorSales(0, null).stream()
+                .anyMatch(author -> author.getAuthor().equals("Author 2")));
+
+        SaleHistory expanded = saleHistoryService.expandBooks(sale);
+        assertEquals("Title 1", expanded.getBooks().get(0).getTitle());
+        assertTrue(saleHistoryService.expandBooks(saleHistoryService.getSaleHistoryById(2)).getBooks().isEmpty());
+        assertTrue(sale.getBooks().isEmpty());
+    }
+
+    /**
+     * Testa a inclusão de vendas com itens e o método {@link SaleHistoryService#expandBooks(SaleHistory)}.
+     * Verifica se apenas os itens sem preço recebem o valor do catálogo, mantendo os gratuitos, se a expansão
+     * repete o livro conforme a quantidade e se itens com quantidade inválida ou sem preço conhecido são rejeitados.
+     */
+    @Test
+    public void testSaleLinesKeepQuantityAndPrice() throws IOException {
+        Book catalogBook = new Book("Title 1", "Author 1", new Date(), "Description", Arrays.asList("Genre"), 100, 19.99);
+        catalogBook.setId(7);
+        mapper.writeValue(new ClassPathResource("static/books.json").getFile(), List.of(catalogBook));
+        bookService.init();
+        saleHistoryService.init();
+
+        SaleHistory newSale = new SaleHistory("2024-08-05", 59.97);
+        newSale.setLines(List.of(new SaleLine(7, null, 3), new SaleLine(7, 0.0, 1)));
+        saleHistoryService.addSaleHistory(newSale);
+
+        SaleHistory sale = saleHistoryService.getSaleHistoryById(newSale.getId());
+        assertEquals(19.99, sale.getLines().get(0).getUnitPrice(), 0.001);
+        assertEquals(0.0, sale.getLines().get(1).getUnitPrice(), 0.001);
+        assertEquals(4, saleHistoryService.expandBooks(sale).getBooks().size());
+
+        SaleHistory emptyLine = new SaleHistory("2024-08-06", 0);
+        emptyLine.setLines(List.of(new SaleLine(7, 19.99, 0)));
+        assertThrows(IllegalArgumentException.class, () -> saleHistoryService.addSaleHistory(emptyLine));
+        SaleHistory unknownPrice = new SaleHistory("2024-08-06", 0);
+        unknownPrice.setLines(List.of(new SaleLine(99, null, 1)));
+        assertThrows(IllegalArgumentException.class, () -> saleHistoryService.updateSaleHistory(1, unknownPrice));
+        assertEquals(3, saleHistoryService.getAllSaleHistories().size());
+    }
+
+    /**
+     * Testa o método {@link SaleHistoryService#addSaleHistory(SaleHistory)} com datas inválidas.
+     * Verifica se a venda é rejeitada sem consumir um ID e se a alteração com data inválida mantém a venda anterior.
+     */
+    @Test
+    public void testInvalidDateIsRejectedWithoutConsumingId() {
+        assertThrows(InvalidDateException.class,
+                () -> saleHistoryService.addSaleHistory(createSale(0, "03/08/2024", "Title 3", "Author 3", 39.99)));
+        assertThrows(InvalidDateException.class,
+                () -> saleHistoryService.updateSaleHistory(1, createSale(0, "", "Title 1", "Author 1", 9.99)));
+
+        SaleHistory valid = createSale(0, "2024-08-03", "Title 3", "Author 3", 39.99);
+        saleHistoryService.addSaleHistory(valid);
+        assertEquals(3, valid.getId());
+        assertEquals("2024-08-01", saleHistoryService.getSaleHistoryById(1).getSaleDate());
+    }
+
+    /**
+     * Testa o método {@link SaleHistoryService#reloadIfChanged()}.
+     * Verifica se apenas a partição alterada fora da aplicação é relida, mantendo as vendas das demais partições,
+     * e se as gravações do próprio serviço não provocam uma recarga.
+     */
+    @Test
+    public void testReloadIfChangedRereadsOnlyChangedPartitions() throws IOException {
+        saleHistoryService.addSaleHistory(createSale(0, "2024-09-10", "Title 3", "Author 3", 39.99));
+        saleHistoryService.compact();
+        assertFalse(saleHistoryService.reloadIfChanged());
+        SaleHistory august = saleHistoryService.getSaleHistoryById(1);
+
+        mapper.writeValue(new File(partitionDirectory, "2024-09.json"), List.of(
+                createSale(3, "2024-09-15", "Title 3", "Author 3", 10.0),
+                createSale(10, "2024-09-20", "Title 4", "Author 4", 20.0)));
+
+        assertTrue(saleHistoryService.reloadIfChanged());
+        assertSame(august, saleHistoryService.getSaleHistoryById(1));
+        assertEquals(4, saleHistoryService.getAllSaleHistories().size());
+        assertEquals("2024-09-15", saleHistoryService.getSaleHistoryById(3).getSaleDate());
+        assertEquals(30.0, saleHistoryService.getFactTable().getRevenueBetween(
+                (int) LocalDate.of(2024, 9, 1).toEpochDay(), (int) LocalDate.of(2024, 9, 30).toEpochDay()), 0.001);
+        assertEquals(79.98, saleHistoryService.getFactTable().getTotalRevenue(), 0.001);
+
+        saleHistoryService.compact();
+        assertFalse(saleHistoryService.reloadIfChanged());
+        assertEquals(2, saleHistoryService.getPartitions().get(1).getSaleCount());
+
+        saleHistoryService.addSaleHistory(createSale(0, "2024-09-21", "Title 5", "Author 5", 5.0));
+        assertEquals(11, saleHistoryService.getAllSaleHistories().stream().mapToInt(SaleHistory::getId).max().getAsInt());
+    }
+
+    /**
+     * Cria um registro de venda com um único livro, no formato antigo, com o livro completo.
+     */
+    private SaleHistory createSale(int id, String saleDate, String title, String author, double value) {
+        SaleHistory sale = new SaleHistory(saleDate, value);
+        sale.setId(id);
+        Book book = new Book(title, author, new Date(), "Description", Arrays.asList("Genre"), 100, value);
+        book.setId(id);
+        sale.getBooks().add(book);
+        return sale;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Medição do tempo das estatísticas por intervalo no {@link SaleSqlStore}, comparado com a {@link SalesFactTable},
+ * sobre um histórico gerado com {@code -Dbenchmark.sale-lines} itens de venda (10 milhões por padrão). Só é
+ * executada com {@code -Dbenchmark=true}, por exemplo
+ * {@code mvn test -Dtest=SaleSqlStoreBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SaleSqlStoreBenchmarkTest {
+
+    private static final int BOOKS = 5_000;
+    private static final int AUTHORS = 500;
+    private static final int FIRST_DAY = 18_000;
+    private static final int DAYS = 5 * 365;
+    private static final int LINES_PER_SALE = 4;
+    private static final int CHUNK = 25_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void benchmarkRangeStatistics() {
+        long lines = Long.getLong("benchmark.sale-lines", 10_000_000L);
+        SalesFactTable factTable = new SalesFactTable(this::findBook);
+        SaleSqlStore store = new SaleSqlStore("jdbc:h2:file:" + tempDir.resolve("sales"), this::findBook);
+        store.open();
+        try {
+            Random random = new Random(42);
+            long start = System.nanoTime();
+            int id = 0;
+            for (long written = 0; written < lines; ) {
+                List<SaleHistory> chunk = new ArrayList<>(CHUNK);
+                List<Integer> days = new ArrayList<>(CHUNK);
+                for (int i = 0; i < CHUNK && written < lines; i++, written += LINES_PER_SALE) {
+                    SaleHistory sale = new SaleHistory("", 0.0);
+                    sale.setId(++id);
+                    for (int line = 0; line < LINES_PER_SALE; line++) {
+                        sale.getLines().add(new SaleLine(1 + random.nextInt(BOOKS), 25.0, 1 + random.nextInt(3)));
+                    }
+                    sale.setTotalValue(100.0);
+                    int day = FIRST_DAY + random.nextInt(DAYS);
+                    chunk.add(sale);
+                    days.add(day);
+                    factTable.add(sale, day);
+                }
+                int offset = id - chunk.size() + 1;
+                store.putAll(chunk, sale -> days.get(sale.getId() - offset));
+                store.commit();
+            }
+            System.out.printf("Carga de %d itens de venda: %d ms%n", lines, (System.nanoTime() - start) / 1_000_000);
+
+            store.getAuthorSalesBetween(FIRST_DAY + 100, FIRST_DAY + 110, 0, 10);
+            factTable.getAuthorSalesBetween(FIRST_DAY + 100, FIRST_DAY + 110, 0, 10);
+            int[][] ranges = {{FIRST_DAY, FIRST_DAY + 6}, {FIRST_DAY + 365, FIRST_DAY + 395}, {FIRST_DAY, FIRST_DAY + 364},
+                    {FIRST_DAY, FIRST_DAY + DAYS}};
+            for (int[] range : ranges) {
+                int from = range[0];
+                int to = range[1];
+                long sqlCount = measure("SQL", from, to, () -> store.getBookCountBetween(from, to));
+                long factCount = measure("tabela de fatos", from, to, () -> factTable.getBookCountBetween(from, to));
+                assertEquals(factCount, sqlCount);
+                measure("SQL autores", from, to, () -> (long) store.getAuthorSalesBetween(from, to, 0, 10).size());
+                measure("tabela de fatos autores", from, to,
+                        () -> (long) factTable.getAuthorSalesBetween(from, to, 0, 10).size());
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Mede uma única execução da consulta, já que o H2 reaproveita o resultado de uma consulta repetida com os
+     * mesmos parâmetros enquanto o banco não é alterado.
+     */
+    private static long measure(String label, int from, int to, Supplier<Long> query) {
+        long start = System.nanoTime();
+        long result = query.get();
+        System.out.printf("%-25s %5d dias: %8.2f ms%n", label, to - from + 1, (System.nanoTime() - start) / 1e6);
+        return result;
+    }
+
+    private Book findBook(int id) {
+        Book book = new Book("Livro " + id, "Autor " + (id % AUTHORS), new Date(), "", List.of(), 100, 25.0);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link SaleSqlStore}, que comparam as agregações no banco com a
+ * {@link SalesFactTable} sobre as mesmas vendas.
+ */
+public class SaleSqlStoreTest {
+
+    private static final String[] TITLES = {"Dom Casmurro", "1984", "A Revolução dos Bichos", "Memórias Póstumas", null};
+    private static final String[] AUTHORS = {"Machado de Assis", "George Orwell", "George Orwell", "Machado de Assis", null};
+    private static final String[][] UNKNOWN_BOOKS = {{"Iracema", "José de Alencar"}, {"1984", "George Orwell"}, {"Avulso", null}};
+
+    @TempDir
+    Path tempDir;
+
+    private final SalesFactTable factTable = new SalesFactTable(this::findBook);
+    private SaleSqlStore store;
+
+    @AfterEach
+    public void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private SaleSqlStore open() {
+        store = new SaleSqlStore("jdbc:h2:file:" + tempDir.resolve("sales"), this::findBook);
+        store.open();
+        return store;
+    }
+
+    /**
+     * Verifica se todas as estatísticas, de todo o histórico e por intervalo, coincidem com as da tabela de fatos
+     * após inclusões, substituições e remoções, com vendas sem data e livros fora do catálogo, com e sem o título e o
+     * autor guardados no item.
+     */
+    @Test
+    public void testStatisticsMatchFactTable() {
+        open();
+        Random random = new Random(17);
+        List<SaleHistory> sales = new ArrayList<>();
+        List<Integer> days = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            sales.add(createSale(id, random));
+            days.add(id % 50 == 0 ? SalesFactTable.UNDATED : 19_000 + random.nextInt(90));
+        }
+        store.replaceAll(sales, sale -> days.get(sale.getId() - 1), 1);
+        for (SaleHistory sale : sales) {
+            factTable.add(sale, days.get(sale.getId() - 1));
+        }
+        for (int id = 1; id <= 500; id += 3) {
+            store.remove(id);
+            factTable.remove(id);
+        }
+        for (int id = 2; id <= 500; id += 7) {
+            SaleHistory replacement = createSale(id, random);
+            store.put(replacement, 19_045);
+            factTable.add(replacement, 19_045);
+        }
+        store.commit();
+
+        assertEquals(factTable.getTotalRevenue(), store.getTotalRevenue(), 0.001);
+        assertEquals(factTable.getTotalBookCount(), store.getTotalBookCount());
+        assertEquals(new HashSet<>(factTable.getSoldBookIds()), new HashSet<>(store.getSoldBookIds()));
+        assertSameRanking(factTable.getTotals(), store.getTotals());
+        assertEquals(factTable.getAuthorSales(1, 1).get(0).getAuthor(), store.getAuthorSales(1, 1).get(0).getAuthor());
+
+        int[][] ranges = {{19_010, 19_030}, {19_045, 19_045}, {19_000, 19_089}, {19_100, 19_200}, {19_030, 19_010}};
+        for (int[] range : ranges) {
+            assertEquals(factTable.getRevenueBetween(range[0], range[1]), store.getRevenueBetween(range[0], range[1]), 0.001);
+            assertEquals(factTable.getBookCountBetween(range[0], range[1]), store.getBookCountBetween(range[0], range[1]));
+            assertEquals(new HashSet<>(factTable.getSoldBookIdsBetween(range[0], range[1])),
+                    new HashSet<>(store.getSoldBookIdsBetween(range[0], range[1])));
+            assertSameRanking(factTable.getTotalsBetween(range[0], range[1]), store.getTotalsBetween(range[0], range[1]));
+        }
+    }
+
+    /**
+     * Verifica se as vendas, com os seus itens, e o registro da importação são lidos depois de reabrir o banco, e
+     * se as alterações pendentes são confirmadas ao fechá-lo.
+     */
+    @Test
+    public void testLoadAfterReopen() {
+        open();
+        assertEquals(Long.MIN_VALUE, store.getImportedModified());
+        SaleHistory sale = new SaleHistory("2024-08-01", 30.0);
+        sale.setId(1);
+        sale.getLines().add(new SaleLine(1, 10.0, 2));
+        sale.getLines().add(new SaleLine(99, 10.0, 1));
+        sale.getLines().add(new SaleLine(SaleLine.UNKNOWN_BOOK_ID, 10.0, 1, "Iracema", "José de Alencar"));
+        SaleHistory empty = new SaleHistory("data inválida", 0.0);
+        empty.setId(2);
+        SaleHistory removed = new SaleHistory("2024-08-02", 10.0);
+        removed.setId(3);
+        removed.getLines().add(new SaleLine(2, 10.0, 1));
+        store.replaceAll(List.of(sale, empty, removed), saleHistory -> saleHistory.getId() == 2 ? SalesFactTable.UNDATED : 19_936, 42);
+        store.remove(3);
+        store.close();
+
+        open();
+        assertEquals(42, store.getImportedModified());
+        List<SaleHistory> loaded = new ArrayList<>();
+        assertEquals(2, store.load(loaded::add));
+        assertTrue(loaded.get(1).getLines().isEmpty());
+        assertEquals(3, loaded.get(0).getLines().size());
+        assertEquals(99, loaded.get(0).getLines().get(1).getBookId());
+        assertEquals(2, loaded.get(0).getLines().get(0).getQuantity());
+        assertNull(loaded.get(0).getLines().get(0).getTitle());
+        assertEquals("Iracema", loaded.get(0).getLines().get(2).getTitle());
+        assertEquals("José de Alencar", loaded.get(0).getLines().get(2).getAuthor());
+        assertEquals(4, store.getBookCountBetween(19_936, 19_936));
+        assertEquals(2, store.getBestSellingBooks(0, null).get(0).getCount());
+    }
+
+    /**
+     * Verifica se uma substituição que falha no meio mantém a venda anterior e as alterações pendentes da
+     * transação.
+     */
+    @Test
+    public void testFailedPutKeepsPreviousSale() {
+        open();
+        SaleHistory sale = new SaleHistory("2024-08-01", 20.0);
+        sale.setId(1);
+        sale.getLines().add(new SaleLine(1, 10.0, 2));
+        store.put(sale, 19_936);
+        SaleHistory invalid = new SaleHistory("2024-08-02", 10.0);
+        invalid.setId(1);
+        invalid.getLines().add(new SaleLine(2, null, 1));
+
+        assertThrows(RuntimeException.class, () -> store.put(invalid, 19_937));
+        store.commit();
+
+        List<SaleHistory> loaded = new ArrayList<>();
+        assertEquals(1, store.load(loaded::add));
+        assertEquals("2024-08-01", loaded.get(0).getSaleDate());
+        assertEquals(2, store.getTotalBookCount());
+        assertEquals("Dom Casmurro", store.getBestSellingBooks(0, null).get(0).getTitle());
+    }
+
+    /**
+     * Verifica se o título e o autor dos livros vendidos são obtidos de novo do catálogo quando um livro entra no
+     * catálogo depois de vendido ou é alterado.
+     */
+    @Test
+    public void testRefreshBooksFromCatalog() {
+        Map<Integer, Book> catalog = new HashMap<>();
+        store = new SaleSqlStore("jdbc:h2:file:" + tempDir.resolve("sales"), catalog::get);
+        store.open();
+        SaleHistory sale = new SaleHistory("2024-08-01", 20.0);
+        sale.setId(1);
+        sale.getLines().add(new SaleLine(7, 10.0, 2));
+        store.put(sale, 19_936);
+        assertTrue(store.getBestSellingBooks(0, null).isEmpty());
+
+        catalog.put(7, new Book("Iracema", "José de Alencar", new Date(), "Description", List.of(), 100, 10.0));
+        store.refreshBook(7);
+        assertEquals("Iracema", store.getBestSellingBooks(0, null).get(0).getTitle());
+
+        catalog.put(7, new Book("Iracema: Lenda do Ceará", "José de Alencar", new Date(), "Description", List.of(), 100, 10.0));
+        store.refreshBooks();
+        assertEquals("Iracema: Lenda do Ceará", store.getBestSellingBooks(0, null).get(0).getTitle());
+        assertEquals(2, store.getAuthorSales(0, null).get(0).getQuantity());
+    }
+
+    private static void assertSameRanking(SalesFactTable.Totals expected, SalesFactTable.Totals actual) {
+        assertEquals(expected.getRevenue(), actual.getRevenue(), 0.001);
+        assertEquals(expected.getBookCount(), actual.getBookCount());
+        assertEquals(expected.getAuthorSales().size(), actual.getAuthorSales().size());
+        for (int i = 0; i < expected.getAuthorSales().size(); i++) {
+            assertEquals(expected.getAuthorSales().get(i).getAuthor(), actual.getAuthorSales().get(i).getAuthor());
+            assertEquals(expected.getAuthorSales().get(i).getQuantity(), actual.getAuthorSales().get(i).getQuantity());
+        }
+        assertEquals(expected.getBestSellingBooks().size(), actual.getBestSellingBooks().size());
+        for (int i = 0; i < expected.getBestSellingBooks().size(); i++) {
+            assertEquals(expected.getBestSellingBooks().get(i).getTitle(), actual.getBestSellingBooks().get(i).getTitle());
+            assertEquals(expected.getBestSellingBooks().get(i).getCount(), actual.getBestSellingBooks().get(i).getCount());
+        }
+    }
+
+    private Book findBook(int id) {
+        if (id < 1 || id > TITLES.length) {
+            return null;
+        }
+        Book book = new Book(TITLES[id - 1], AUTHORS[id - 1], new Date(), "Description", List.of(), 100, 10.0);
+        book.setId(id);
+        return book;
+    }
+
+    private SaleHistory createSale(int id, Random random) {
+        SaleHistory sale = new SaleHistory("2024-08-01", 0.0);
+        sale.setId(id);
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            int bookId = random.nextInt(TITLES.length + 2);
+            int quantity = 1 + random.nextInt(3);
+            String[] unknownBook = bookId == SaleLine.UNKNOWN_BOOK_ID
+                    ? UNKNOWN_BOOKS[random.nextInt(UNKNOWN_BOOKS.length)] : new String[2];
+            sale.getLines().add(new SaleLine(bookId, 10.0, quantity, unknownBook[0], unknownBook[1]));
+            sale.setTotalValue(sale.getTotalValue() + 10.0 * quantity);
+        }
+        return sale;
+    }
+}
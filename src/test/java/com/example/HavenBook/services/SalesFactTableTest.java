@@ -0,0 +1,162 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.BestSellingBook;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.SaleLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link SalesFactTable}.
+ */
+public class SalesFactTableTest {
+
+    private static final String[] TITLES = {"Dom Casmurro", "1984", "A Revolução dos Bichos", "Memórias Póstumas"};
+    private static final String[] AUTHORS = {"Machado de Assis", "George Orwell", "George Orwell", "Machado de Assis"};
+
+    private final SalesFactTable table = new SalesFactTable(this::findBook);
+
+    /**
+     * Compara as estatísticas por intervalo com uma contagem direta sobre as vendas, após muitas inclusões e
+     * remoções, que forçam a compactação das linhas removidas.
+     */
+    @Test
+    public void testRangeStatisticsMatchDirectCounts() {
+        Map<Integer, SaleHistory> sales = new HashMap<>();
+        Map<Integer, Integer> days = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int id = 1; id <= 1_000; id++) {
+            int day = 19_000 + random.nextInt(60);
+            SaleHistory sale = createSale(id, random);
+            table.add(sale, day);
+            sales.put(id, sale);
+            days.put(id, day);
+        }
+        for (int id = 1; id <= 1_000; id += 2) {
+            table.remove(id);
+            sales.remove(id);
+        }
+
+        int fromDay = 19_010;
+        int toDay = 19_030;
+        Map<String, Long> expected = new HashMap<>();
+        double expectedRevenue = 0;
+        for (SaleHistory sale : sales.values()) {
+            int day = days.get(sale.getId());
+            if (day >= fromDay && day <= toDay) {
+                expectedRevenue += sale.getTotalValue();
+                sale.getLines().forEach(line -> expected.merge(TITLES[line.getBookId() - 1], (long) line.getQuantity(), Long::sum));
+            }
+        }
+
+        Map<String, Long> actual = new HashMap<>();
+        for (BestSellingBook book : table.getBestSellingBooksBetween(fromDay, toDay, 0, null)) {
+            actual.put(book.getTitle(), book.getCount());
+        }
+        assertEquals(expected, actual);
+        assertEquals(expectedRevenue, table.getRevenueBetween(fromDay, toDay), 0.001);
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), table.getTotalsBetween(fromDay, toDay).getBookCount());
+    }
+
+    /**
+     * Verifica se vendas sem data entram nas estatísticas de todo o histórico, mas não nas de intervalo, e se a
+     * substituição de uma venda atualiza os contadores.
+     */
+    @Test
+    public void testUndatedSalesAndReplacement() {
+        table.add(createSale(1, 10.0, 0, 1), SalesFactTable.UNDATED);
+        table.add(createSale(2, 5.0, 1), 19_000);
+
+        assertEquals(15.0, table.getTotalRevenue(), 0.001);
+        assertEquals(3, table.getTotalBookCount());
+        assertEquals("1984", table.getBestSellingBooks(0, 1).get(0).getTitle());
+        assertEquals(1, table.getTotalsBetween(Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1).getBookCount());
+
+        table.add(createSale(2, 7.0, 2), 19_000);
+        assertEquals(17.0, table.getTotalRevenue(), 0.001);
+        assertEquals(List.of(1, 2, 3), table.getSoldBookIds());
+        assertEquals(List.of(3), table.getSoldBookIdsBetween(19_000, 19_000));
+        assertEquals(2, table.getAuthorSales(0, null).get(0).getQuantity());
+    }
+
+    /**
+     * Verifica se itens com quantidade contam cada exemplar e se livros fora do catálogo entram apenas nos totais.
+     */
+    @Test
+    public void testQuantitiesAndUnknownBooks() {
+        SaleHistory sale = createSale(1, 50.0, 1, 1, 1);
+        sale.getLines().add(new SaleLine(99, 20.0, 2));
+        table.add(sale, 19_000);
+
+        assertEquals(5, table.getTotalBookCount());
+        assertEquals(5, table.getBookCountBetween(19_000, 19_000));
+        assertEquals(1, table.getBestSellingBooks(0, null).size());
+        assertEquals(3, table.getBestSellingBooks(0, null).get(0).getCount());
+        assertEquals(List.of(2, 99), table.getSoldBookIds());
+    }
+
+    /**
+     * Verifica se as vendas são particionadas por mês, se as partições sem vendas são descartadas e se os
+     * intervalos que cobrem partições inteiras ou parte delas somam as mesmas quantidades.
+     */
+    @Test
+    public void testMonthlyPartitions() {
+        table.add(createSale(1, 10.0, 0), 19_000);
+        table.add(createSale(2, 10.0, 1, 1), 19_030);
+        table.add(createSale(3, 10.0, 2), 19_060);
+        table.add(createSale(4, 10.0, 2), 19_065);
+        assertEquals(3, table.getPartitionCount());
+
+        assertEquals(5, table.getTotalsBetween(19_000, 19_090).getBookCount());
+        assertEquals(2, table.getTotalsBetween(19_031, 19_065).getBookCount());
+        assertEquals(1, table.getTotalsBetween(19_061, 19_065).getBookCount());
+        assertEquals(List.of(2), table.getSoldBookIdsBetween(19_030, 19_030));
+
+        table.remove(2);
+        assertEquals(2, table.getPartitionCount());
+        assertEquals(3, table.getTotalsBetween(19_000, 19_090).getBookCount());
+
+        table.add(createSale(1, 10.0, 3), 19_062);
+        assertEquals(1, table.getPartitionCount());
+        assertEquals(List.of(3, 4), table.getSoldBookIdsBetween(19_000, 19_090));
+        assertEquals(2, table.getBestSellingBooksBetween(19_060, 19_062, 0, null).size());
+    }
+
+    private Book findBook(int id) {
+        if (id < 1 || id > TITLES.length) {
+            return null;
+        }
+        Book book = new Book(TITLES[id - 1], AUTHORS[id - 1], new Date(), "Description", List.of(), 100, 10.0);
+        book.setId(id);
+        return book;
+    }
+
+    private SaleHistory createSale(int id, Random random) {
+        int count = 1 + random.nextInt(3);
+        int[] books = new int[count];
+        for (int i = 0; i < count; i++) {
+            books[i] = random.nextInt(TITLES.length);
+        }
+        return createSale(id, 10.0 * count, books);
+    }
+
+    private SaleHistory createSale(int id, double totalValue, int... bookIndexes) {
+        SaleHistory sale = new SaleHistory("2024-08-01", totalValue);
+        sale.setId(id);
+        sale.setBooks(new ArrayList<>());
+        for (int index : bookIndexes) {
+            sale.addBook(findBook(index + 1));
+        }
+        return sale;
+    }
+}
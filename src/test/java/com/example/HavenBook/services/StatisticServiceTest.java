@@ -0,0 +1,241 @@
+package com.example.HavenBook.services;
+
+import com.example.HavenBook.domain.AuthorSales;
+import com.example.HavenBook.domain.BestSellingBook;
+import com.example.HavenBook.domain.GenreSales;
+import com.example.HavenBook.domain.Book;
+import com.example.HavenBook.domain.SaleHistory;
+import com.example.HavenBook.domain.StatisticsSummary;
+import com.example.HavenBook.exceptions.InvalidDateException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe {@link StatisticService}.
+ */
+@SpringBootTest
+public class StatisticServiceTest {
+
+    @Autowired
+    private StatisticService statisticService;
+
+    @Autowired
+    private SaleHistoryService saleHistoryService;
+
+    @Autowired
+    private BookService bookService;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    private Book dom;
+    private Book orwell1984;
+    private Book animalFarm;
+
+    /**
+     * Configura o ambiente de teste antes de cada método de teste.
+     * Inicializa os arquivos JSON com um catálogo de três livros e duas vendas.
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        dom = createBook(1, "Dom Casmurro", "Machado de Assis", 19.90, "Romance", "Clássico");
+        orwell1984 = createBook(2, "1984", "George Orwell", 25.00, "Distopia");
+        animalFarm = createBook(3, "A Revolução dos Bichos", "George Orwell", 18.50, "Fábula");
+        mapper.writeValue(new ClassPathResource("static/books.json").getFile(), List.of(dom, orwell1984, animalFarm));
+
+        saleHistoryService.compact();
+        File partitionDirectory = new ClassPathResource("static/saleHistories").getFile();
+        mapper.writeValue(new File(partitionDirectory.getParentFile(), "saleHistories.json"), List.of(
+                createSale(1, "2024-08-01", dom, orwell1984),
+                createSale(2, "2024-08-15", orwell1984)
+        ));
+
+        bookService.init();
+        saleHistoryService.init();
+    }
+
+    /**
+     * Verifica as estatísticas gerais calculadas a partir dos agregados.
+     */
+    @Test
+    public void testAllTimeStatistics() {
+        assertEquals(69.90, statisticService.getTotalRevenue(), 0.001);
+        assertEquals(3, statisticService.getTotalBookCount());
+        assertEquals(1, statisticService.getNeverSoldBookCount());
+        assertEquals(Map.of("Machado de Assis", 1, "George Orwell", 2), toMap(statisticService.getAuthorSalesStatistics()));
+
+        List<BestSellingBook> bestSelling = statisticService.getBestSellingBooks();
+        assertEquals("1984", bestSelling.get(0).getTitle());
+        assertEquals(2, bestSelling.get(0).getCount());
+    }
+
+    /**
+     * Verifica se os agregados acompanham a adição, a atualização e a remoção de vendas.
+     */
+    @Test
+    public void testAggregatesFollowSaleChanges() {
+        SaleHistory newSale = createSale(0, "2024-09-01", animalFarm);
+        saleHistoryService.addSaleHistory(newSale);
+        assertEquals(0, statisticService.getNeverSoldBookCount());
+        assertEquals(88.40, statisticService.getTotalRevenue(), 0.001);
+
+        saleHistoryService.updateSaleHistory(1, createSale(0, "2024-08-01", dom));
+        assertEquals(Map.of("Machado de Assis", 1, "George Orwell", 2), toMap(statisticService.getAuthorSalesStatistics()));
+        assertEquals(3, statisticService.getTotalBookCount());
+
+        saleHistoryService.deleteSaleHistory(newSale.getId());
+        assertEquals(1, statisticService.getNeverSoldBookCount());
+        assertEquals(44.90, statisticService.getTotalRevenue(), 0.001);
+    }
+
+    /**
+     * Verifica as estatísticas por intervalo de datas calculadas a partir do dia de cada venda na tabela de fatos.
+     */
+    @Test
+    public void testDateRangeStatistics() {
+        assertEquals(44.90, statisticService.getTotalRevenue("2024-08-01", "2024-08-10"), 0.001);
+        assertEquals(2, statisticService.getTotalBookCount("2024-08-01", "2024-08-10"));
+        assertEquals(1, statisticService.getTotalBookCount("2024-08-15", "2024-08-15"));
+        assertEquals(2, statisticService.getNeverSoldBookCount("2024-08-15", "2024-12-31"));
+        assertEquals(Map.of("George Orwell", 1), toMap(statisticService.getAuthorSalesStatistics("2024-08-02", "2024-08-31")));
+        assertEquals(0, statisticService.getTotalRevenue("2023-01-01", "2023-12-31"), 0.001);
+
+        saleHistoryService.updateSaleHistory(2, createSale(0, "2024-07-01", orwell1984));
+        assertEquals(1, statisticService.getBestSellingBooks("2024-07-01", "2024-07-31").size());
+        assertEquals(0, statisticService.getTotalBookCount("2024-08-15", "2024-08-15"));
+    }
+
+    /**
+     * Verifica a paginação dos livros mais vendidos e das vendas por autor, com empates ordenados pelo nome.
+     */
+    @Test
+    public void testTopKPaging() {
+        List<BestSellingBook> top = statisticService.getBestSellingBooks(0, 1);
+        assertEquals(1, top.size());
+        assertEquals("1984", top.get(0).getTitle());
+
+        List<BestSellingBook> second = statisticService.getBestSellingBooks(1, 5);
+        assertEquals(1, second.size());
+        assertEquals("Dom Casmurro", second.get(0).getTitle());
+
+        List<AuthorSales> topAuthor = statisticService.getAuthorSalesStatistics(0, 1);
+        assertEquals("George Orwell", topAuthor.get(0).getAuthor());
+
+        List<BestSellingBook> ranged = statisticService.getBestSellingBooks("2024-08-01", "2024-08-31", 0, 1);
+        assertEquals("1984", ranged.get(0).getTitle());
+        assertTrue(statisticService.getBestSellingBooks("2024-08-01", "2024-08-31", 2, 1).isEmpty());
+    }
+
+    /**
+     * Verifica se datas inválidas são rejeitadas nas consultas e na inclusão de vendas.
+     */
+    @Test
+    public void testInvalidDates() {
+        assertThrows(InvalidDateException.class, () -> statisticService.getTotalRevenue("2024-08-31", "2024-08-01"));
+        assertThrows(InvalidDateException.class, () -> statisticService.getTotalRevenue("01/08/2024", "2024-08-31"));
+        assertThrows(InvalidDateException.class, () -> saleHistoryService.addSaleHistory(createSale(0, "ontem", dom)));
+        assertEquals(2, saleHistoryService.getAllSaleHistories().size());
+    }
+
+    /**
+     * Verifica se o resumo calculado em uma única passagem coincide com os métodos individuais.
+     */
+    @Test
+    public void testSummary() {
+        StatisticsSummary summary = statisticService.getSummary(null, null);
+        assertEquals(statisticService.getTotalRevenue(), summary.getTotalRevenue(), 0.001);
+        assertEquals(statisticService.getTotalBookCount(), summary.getTotalBookCount());
+        assertEquals(statisticService.getNeverSoldBookCount(), summary.getNeverSoldBookCount());
+        assertEquals(toMap(statisticService.getAuthorSalesStatistics()), toMap(summary.getAuthorSales()));
+        assertEquals("1984", summary.getBestSellingBooks().get(0).getTitle());
+        assertTrue(summary.getComputationTimeMs() >= 0);
+
+        StatisticsSummary ranged = statisticService.getSummary("2024-08-10", "2024-08-31");
+        assertEquals(25.00, ranged.getTotalRevenue(), 0.001);
+        assertEquals(1, ranged.getTotalBookCount());
+        assertEquals(2, ranged.getNeverSoldBookCount());
+
+        assertThrows(InvalidDateException.class, () -> statisticService.getSummary("2024-08-10", null));
+    }
+
+    /**
+     * Verifica se o título e o autor dos livros vendidos acompanham as alterações do catálogo, inclusive de um
+     * livro vendido antes de entrar no catálogo.
+     */
+    @Test
+    public void testStatisticsFollowCatalogChanges() {
+        Book iracema = createBook(4, "Iracema", "José de Alencar", 15.00, "Romance");
+        saleHistoryService.addSaleHistory(createSale(0, "2024-09-01", iracema, iracema, iracema));
+        assertEquals("1984", statisticService.getBestSellingBooks().get(0).getTitle());
+
+        bookService.addBook(createBook(0, "Iracema", "José de Alencar", 15.00, "Romance"));
+        assertEquals(4, bookService.getBookById(4).getId());
+        assertEquals("Iracema", statisticService.getBestSellingBooks().get(0).getTitle());
+        assertEquals(3, toMap(statisticService.getAuthorSalesStatistics()).get("José de Alencar"));
+
+        bookService.updateBook(4, createBook(0, "Iracema: Lenda do Ceará", "José de Alencar", 15.00, "Romance"));
+        assertEquals("Iracema: Lenda do Ceará", statisticService.getBestSellingBooks().get(0).getTitle());
+
+        bookService.deleteBook(4);
+        assertEquals("1984", statisticService.getBestSellingBooks().get(0).getTitle());
+        assertEquals(6, statisticService.getTotalBookCount());
+    }
+
+    /**
+     * Converte as estatísticas por autor em um mapa de autor para quantidade.
+     */
+    private Map<String, Integer> toMap(List<AuthorSales> authorSales) {
+        return authorSales.stream().collect(Collectors.toMap(AuthorSales::getAuthor, AuthorSales::getQuantity));
+    }
+
+    /**
+     * Verifica as vendas por gênero de todo o histórico e de um intervalo, com os livros de cada gênero obtidos do
+     * índice de gêneros.
+     */
+    @Test
+    public void testGenreSalesStatistics() {
+        List<GenreSales> sales = statisticService.getGenreSalesStatistics();
+        assertEquals(List.of("Distopia", "Clássico", "Romance"), sales.stream().map(GenreSales::getGenre).toList());
+        assertEquals(List.of(2L, 1L, 1L), sales.stream().map(GenreSales::getQuantity).toList());
+
+        List<GenreSales> august15 = statisticService.getGenreSalesStatistics("2024-08-10", "2024-08-31");
+        assertEquals(1, august15.size());
+        assertEquals("Distopia", august15.get(0).getGenre());
+
+        saleHistoryService.addSaleHistory(createSale(0, "2024-09-01", animalFarm, animalFarm, animalFarm));
+        assertEquals("Fábula", statisticService.getGenreSalesStatistics().get(0).getGenre());
+        assertThrows(InvalidDateException.class, () -> statisticService.getGenreSalesStatistics("2024-09-01", "2024-08-01"));
+    }
+
+    /**
+     * Cria um livro com o ID fornecido.
+     */
+    private Book createBook(int id, String title, String author, double value, String... genres) {
+        Book book = new Book(title, author, new Date(), "Description", Arrays.asList(genres), 100, value);
+        book.setId(id);
+        return book;
+    }
+
+    /**
+     * Cria um registro de venda com os livros fornecidos e o valor total correspondente.
+     */
+    private SaleHistory createSale(int id, String saleDate, Book... books) {
+        SaleHistory sale = new SaleHistory(saleDate, Arrays.stream(books).mapToDouble(Book::getValue).sum());
+        sale.setId(id);
+        Arrays.stream(books).forEach(sale::addBook);
+        return sale;
+    }
+}